@@ -42,6 +42,9 @@ public interface Cache
     @Description( "The number of times a cache query did not return a result" )
     long getMissCount();
 
+    @Description( "The number of entities the cache has evicted on its own, for example to stay within its size limit" )
+    long getEvictionCount();
+
     @Description( value = "Clears the Neo4j caches", impact = MBeanOperationInfo.ACTION )
     void clear();
 }
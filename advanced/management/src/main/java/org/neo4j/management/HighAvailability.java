@@ -49,6 +49,13 @@ public interface HighAvailability
     @Description( "Information about all instances in this cluster" )
     ClusterMemberInfo[] getInstancesInCluster();
 
+    @Description( "(If this is a slave) The number of lock requests this instance has made to the master" )
+    long getLockRequestsToMaster();
+
+    @Description( "(If this is a slave) The average number of lock requests made to the master by the "
+                  + "transactions on this instance that needed locks from the master" )
+    double getLockRequestsToMasterPerTransaction();
+
     @Description( "(If this is a slave) Update the database on this "
                   + "instance with the latest transactions from the master" )
     String update();
@@ -45,4 +45,16 @@ public interface TransactionManager
 
     @Description( "The id of the latest committed transaction" )
     long getLastCommittedTxId();
+
+    @Description( "The number of forces of the transaction logs that were shared by group commit" )
+    long getNumberOfGroupCommitForces();
+
+    @Description( "The number of commits made durable by forces shared by group commit" )
+    long getNumberOfGroupCommittedTransactions();
+
+    @Description( "The largest number of commits made durable by a single force shared by group commit" )
+    long getLargestGroupCommitBatch();
+
+    @Description( "The average number of commits made durable by a single force shared by group commit" )
+    double getAverageGroupCommitBatchSize();
 }
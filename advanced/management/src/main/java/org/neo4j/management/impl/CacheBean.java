@@ -96,5 +96,11 @@ public class CacheBean extends ManagementBeanProvider
         {
             return cache.missCount();
         }
+
+        @Override
+        public long getEvictionCount()
+        {
+            return cache.evictionCount();
+        }
     }
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.management.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.management.NotCompliantMBeanException;
 
 import org.neo4j.helpers.Service;
@@ -28,6 +30,9 @@ import org.neo4j.jmx.impl.Neo4jMBean;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.transaction.TxManager;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
+import org.neo4j.kernel.impl.transaction.xaframework.XaContainer;
+import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.management.TransactionManager;
 
 @Service.Implementation(ManagementBeanProvider.class)
@@ -94,5 +99,82 @@ public final class TransactionManagerBean extends ManagementBeanProvider
                 return neoStoreDataSource.getNeoStore().getLastCommittedTx();
             }
         }
+
+        public long getNumberOfGroupCommitForces()
+        {
+            long forces = 0;
+            for ( GroupCommit groupCommit : groupCommits() )
+            {
+                forces += groupCommit.getForceCount();
+            }
+            return forces;
+        }
+
+        public long getNumberOfGroupCommittedTransactions()
+        {
+            long commits = 0;
+            for ( GroupCommit groupCommit : groupCommits() )
+            {
+                commits += groupCommit.getForcedCommitCount();
+            }
+            return commits;
+        }
+
+        public long getLargestGroupCommitBatch()
+        {
+            long largest = 0;
+            for ( GroupCommit groupCommit : groupCommits() )
+            {
+                largest = Math.max( largest, groupCommit.getLargestBatch() );
+            }
+            return largest;
+        }
+
+        public double getAverageGroupCommitBatchSize()
+        {
+            long forces = 0, commits = 0;
+            for ( GroupCommit groupCommit : groupCommits() )
+            {
+                forces += groupCommit.getForceCount();
+                commits += groupCommit.getForcedCommitCount();
+            }
+            return forces == 0 ? 0 : (double) commits / forces;
+        }
+
+        /**
+         * The group commits of the transaction log and of the logical logs of all data sources that have
+         * group commit enabled.
+         */
+        private List<GroupCommit> groupCommits()
+        {
+            List<GroupCommit> result = new ArrayList<GroupCommit>();
+            addIfEnabled( result, txManager.getGroupCommit() );
+            for ( XaDataSource dataSource : xadsm.getAllRegisteredDataSources() )
+            {
+                XaContainer container;
+                try
+                {
+                    container = dataSource.getXaContainer();
+                }
+                catch ( UnsupportedOperationException e )
+                {
+                    // Has no logical log of its own
+                    continue;
+                }
+                if ( container != null )
+                {
+                    addIfEnabled( result, container.getLogicalLog().getGroupCommit() );
+                }
+            }
+            return result;
+        }
+
+        private static void addIfEnabled( List<GroupCommit> groupCommits, GroupCommit groupCommit )
+        {
+            if ( groupCommit != null )
+            {
+                groupCommits.add( groupCommit );
+            }
+        }
     }
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Settings;
+import org.neo4j.jmx.impl.JmxKernelExtension;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.test.TargetDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestTransactionManagerBean
+{
+    private GraphDatabaseAPI graphDb;
+    private TransactionManager transactionManager;
+    private TargetDirectory dir = TargetDirectory.forTest( getClass() );
+
+    @Before
+    public synchronized void startGraphDb()
+    {
+        graphDb = (GraphDatabaseAPI) new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder( dir.directory( "test", true ).getAbsolutePath() )
+                .setConfig( GraphDatabaseSettings.group_commit, Settings.TRUE )
+                .newGraphDatabase();
+        transactionManager = graphDb.getDependencyResolver().resolveDependency( JmxKernelExtension.class )
+                .getSingleManagementBean( TransactionManager.class );
+    }
+
+    @After
+    public synchronized void stopGraphDb()
+    {
+        if ( graphDb != null )
+        {
+            graphDb.shutdown();
+        }
+        graphDb = null;
+    }
+
+    @Test
+    public void countsGroupCommitForces() throws Exception
+    {
+        long forcesBefore = transactionManager.getNumberOfGroupCommitForces();
+        long commitsBefore = transactionManager.getNumberOfGroupCommittedTransactions();
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            Transaction tx = graphDb.beginTx();
+            try
+            {
+                graphDb.createNode();
+                tx.success();
+            }
+            finally
+            {
+                tx.finish();
+            }
+        }
+
+        assertTrue( "no group commit forces counted",
+                transactionManager.getNumberOfGroupCommitForces() > forcesBefore );
+        assertTrue( "no group committed transactions counted",
+                transactionManager.getNumberOfGroupCommittedTransactions() >= commitsBefore + 10 );
+        assertTrue( transactionManager.getLargestGroupCommitBatch() >= 1 );
+        assertTrue( transactionManager.getAverageGroupCommitBatchSize() >= 1 );
+    }
+
+    @Test
+    public void reportsNoGroupCommitsWhenDisabled() throws Exception
+    {
+        graphDb.shutdown();
+        graphDb = (GraphDatabaseAPI) new GraphDatabaseFactory()
+                .newEmbeddedDatabase( dir.directory( "disabled", true ).getAbsolutePath() );
+        transactionManager = graphDb.getDependencyResolver().resolveDependency( JmxKernelExtension.class )
+                .getSingleManagementBean( TransactionManager.class );
+
+        Transaction tx = graphDb.beginTx();
+        try
+        {
+            graphDb.createNode();
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+
+        assertEquals( 0, transactionManager.getNumberOfGroupCommitForces() );
+        assertEquals( 0, transactionManager.getAverageGroupCommitBatchSize(), 0 );
+    }
+}
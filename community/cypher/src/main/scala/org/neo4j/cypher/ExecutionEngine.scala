@@ -22,9 +22,10 @@ package org.neo4j.cypher
 import internal.commands._
 import internal.executionplan.ExecutionPlanBuilder
 import internal.executionplan.verifiers.{OptionalPatternWithoutStartVerifier, HintVerifier, Verifier}
-import org.neo4j.cypher.internal.{CypherParser, LRUCache}
+import org.neo4j.cypher.internal.{QueryNormalizer, CacheStatistics, PlanCache, CypherParser, LRUCache}
+import org.neo4j.cypher.internal.PlanCache.CachedPlan
 import org.neo4j.cypher.internal.spi.gdsimpl.{TransactionBoundSchemaQueryContext, TransactionBoundPlanContext, TransactionBoundQueryContext}
-import org.neo4j.cypher.internal.spi.{SchemaQuery, DataQuery, ExceptionTranslatingQueryContext, QueryContext}
+import org.neo4j.cypher.internal.spi.{DependencyRecordingPlanContext, SchemaQuery, DataQuery, ExceptionTranslatingQueryContext, QueryContext}
 import scala.collection.JavaConverters._
 import java.util.{Map => JavaMap}
 import org.neo4j.kernel.{ThreadToStatementContextBridge, GraphDatabaseAPI, InternalAbstractGraphDatabase}
@@ -43,12 +44,17 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   val verifiers:Seq[Verifier] = Seq(HintVerifier, OptionalPatternWithoutStartVerifier)
 
   private val queryCache = new LRUCache[String, AbstractQuery](getQueryCacheSize)
+  private val normalizedQueryCache = new LRUCache[String, Option[AbstractQuery]](getQueryCacheSize)
 
+  /**
+   * Lookups in the execution plan cache. Survives the plan cache being thrown away because of schema changes.
+   */
+  val planCacheStatistics = new CacheStatistics
 
   @throws(classOf[SyntaxException])
   def profile(query: String, params: Map[String, Any]): ExecutionResult = {
     logger.debug(query)
-    prepare(query, { (plan: ExecutionPlan, queryContext: QueryContext) =>
+    prepare(query, params, { (plan: ExecutionPlan, queryContext: QueryContext, params: Map[String, Any]) =>
       plan.profile(queryContext, params)
     })
   }
@@ -66,7 +72,7 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   @throws(classOf[SyntaxException])
   def execute(query: String, params: Map[String, Any]): ExecutionResult = {
     logger.debug(query)
-    prepare(query, { (plan: ExecutionPlan, queryContext: QueryContext) =>
+    prepare(query, params, { (plan: ExecutionPlan, queryContext: QueryContext, params: Map[String, Any]) =>
       plan.execute(queryContext, params)
     })
   }
@@ -93,13 +99,9 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   def execute(query: String, params: JavaMap[String, Any]): ExecutionResult = execute(query, params.asScala.toMap)
 
   @throws(classOf[SyntaxException])
-  def prepare[T](query: String, run: (ExecutionPlan, QueryContext) => T): T =  {
+  def prepare[T](query: String, params: Map[String, Any], run: (ExecutionPlan, QueryContext, Map[String, Any]) => T): T =  {
     // parse query
-    val cachedQuery: AbstractQuery = queryCache.getOrElseUpdate(query, () => {
-      val parsedQuery = parser.parse(query)
-      verify(parsedQuery)
-      parsedQuery
-    })
+    val (cacheKey, cachedQuery, extractedParams) = parse(query, params)
 
     var n = 0
     while (n < ExecutionEngine.PLAN_BUILDING_TRIES) {
@@ -109,13 +111,14 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
       val statement = readStatement
       val plan = try {
         // fetch plan cache
-        val planCache = getOrCreateFromSchemaState(statement, new LRUCache[String, ExecutionPlan](getQueryCacheSize))
+        val planCache = getOrCreateFromSchemaState(statement, new PlanCache(getQueryCacheSize, planCacheStatistics))
 
         // get plan or build it
-        planCache.getOrElseUpdate(query, () => {
+        planCache.getOrElseUpdate(cacheKey, () => {
           touched = true
-          val planContext = new TransactionBoundPlanContext(statement, graph)
-          planBuilder.build(planContext, cachedQuery)
+          val planContext = new DependencyRecordingPlanContext(new TransactionBoundPlanContext(statement, graph))
+          val plan = planBuilder.build(planContext, cachedQuery)
+          CachedPlan(plan, planContext.labelDependencies, planContext.dependsOnUnknownLabels)
         })
       }
       catch {
@@ -140,7 +143,7 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
         // close the old statement reference after the statement has been "upgraded"
         // to either a schema data or a schema statement, so that the locks are "handed over".
         statement.close()
-        return run(plan, queryContext)
+        return run(plan, queryContext, params ++ extractedParams)
       }
 
       n += 1
@@ -149,6 +152,39 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
     throw new IllegalStateException("Could not execute query due to insanely frequent schema changes")
   }
 
+  /**
+   * Queries that only differ in the literal values of their predicates share the same parsed query, and so the
+   * same execution plan. Returns the text the query was cached under, the parsed query, and the parameters that
+   * were extracted from the literals of the query.
+   */
+  private def parse(query: String, params: Map[String, Any]): (String, AbstractQuery, Map[String, Any]) = {
+    val clashesWithUserParameters = params.keys.exists(_.startsWith(QueryNormalizer.PARAMETER_PREFIX))
+    val normalized = if (clashesWithUserParameters) None else QueryNormalizer(query)
+
+    val parsedNormalized = normalized.flatMap { n =>
+      normalizedQueryCache.getOrElseUpdate(n.text, () => parseNormalized(query, n.text)).map(q => (n.text, q, n.parameters))
+    }
+
+    parsedNormalized.getOrElse((query, queryCache.getOrElseUpdate(query, () => parseAndVerify(query)), Map.empty[String, Any]))
+  }
+
+  private def parseNormalized(query: String, normalizedQuery: String): Option[AbstractQuery] = {
+    // Parse the query as written first, so that errors are reported against what the user actually wrote
+    parseAndVerify(query)
+    try {
+      Some(parseAndVerify(normalizedQuery))
+    } catch {
+      // Not everything we turn into parameters is allowed to be one, cache queries like this one by their text
+      case _: CypherException => None
+    }
+  }
+
+  private def parseAndVerify(query: String): AbstractQuery = {
+    val parsedQuery = parser.parse(query)
+    verify(parsedQuery)
+    parsedQuery
+  }
+
   private def createDataQueryContext(tx: Transaction) = {
     new ExceptionTranslatingQueryContext(new TransactionBoundQueryContext(graph.asInstanceOf[GraphDatabaseAPI], tx, dataStatement))
   }
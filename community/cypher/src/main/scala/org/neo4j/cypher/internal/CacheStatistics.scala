@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counts lookups in a cache. A single instance can be shared by several caches, so that the numbers survive the
+ * caches themselves being thrown away.
+ */
+class CacheStatistics {
+  private val hitCount = new AtomicLong()
+  private val missCount = new AtomicLong()
+  private val evictionCount = new AtomicLong()
+
+  def hits: Long = hitCount.get()
+
+  def misses: Long = missCount.get()
+
+  def evictions: Long = evictionCount.get()
+
+  def hit() {
+    hitCount.incrementAndGet()
+  }
+
+  def miss() {
+    missCount.incrementAndGet()
+  }
+
+  def evicted() {
+    evictionCount.incrementAndGet()
+  }
+
+  override def toString = s"CacheStatistics(hits=$hits, misses=$misses, evictions=$evictions)"
+}
@@ -24,13 +24,15 @@ import spi.QueryContext
 import org.neo4j.graphdb.TransactionFailureException
 import org.neo4j.cypher.NodeStillHasRelationshipsException
 import org.neo4j.cypher.internal.helpers.Materialized
+import org.neo4j.cypher.internal.pipes.QueryResources
 import scala.collection
 
 /**
- * An iterator that decorates an inner iterator, and calls close() on the QueryContext once
- * the inner iterator is empty.
+ * An iterator that decorates an inner iterator, and calls close() on the QueryContext and the resources of
+ * the query once the inner iterator is empty.
  */
-class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext: QueryContext) extends Iterator[Map[String, Any]] {
+class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext: QueryContext,
+                      resources: QueryResources = new QueryResources) extends Iterator[Map[String, Any]] {
   private var closed: Boolean = false
   lazy val still_has_relationships = "Node record Node\\[(\\d),.*] still has relationships".r
 
@@ -62,6 +64,7 @@ class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext
     translateException {
       if (!closed) {
         closed = true
+        resources.close()
         queryContext.close(success = true)
       }
     }
@@ -91,6 +94,7 @@ class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext
     f
   } catch {
     case t: Throwable if !closed =>
+      resources.close()
       queryContext.close(success = false)
       throw t
   }
@@ -20,7 +20,7 @@
 package org.neo4j.cypher.internal
 
 import mutation.UpdateAction
-import pipes.MutableMaps
+import pipes.SlottedMap
 import collection.{immutable, Iterator}
 import collection.mutable.{Queue, Map => MutableMap}
 
@@ -30,7 +30,7 @@ object ExecutionContext {
   def from(x: (String, Any)*) = new ExecutionContext().newWith(x)
 }
 
-case class ExecutionContext(m: MutableMap[String, Any] = MutableMaps.empty,
+case class ExecutionContext(m: MutableMap[String, Any] = SlottedMap.empty,
                             mutationCommands: Queue[UpdateAction] = Queue.empty)
   extends MutableMap[String, Any] {
   def get(key: String): Option[Any] = m.get(key)
@@ -58,19 +58,19 @@ case class ExecutionContext(m: MutableMap[String, Any] = MutableMaps.empty,
   override def toMap[T, U](implicit ev: (String, Any) <:< (T, U)): immutable.Map[T, U] = m.toMap(ev)
 
   def newWith(newEntries: Seq[(String, Any)]) =
-    createWithNewMap(MutableMaps.create(this.m) ++= newEntries)
+    createWithNewMap(SlottedMap.copyOf(this.m) ++= newEntries)
 
   def newWith(newEntries: scala.collection.Map[String, Any]) =
-    createWithNewMap(MutableMaps.create(this.m) ++= newEntries)
+    createWithNewMap(SlottedMap.copyOf(this.m) ++= newEntries)
 
   def newFrom(newEntries: Seq[(String, Any)]) =
-    createWithNewMap(MutableMaps.create(newEntries: _*))
+    createWithNewMap(SlottedMap.emptyCopyOf(this.m) ++= newEntries)
 
   def newFrom(newEntries: scala.collection.Map[String, Any]) =
-    createWithNewMap(MutableMaps.create(newEntries))
+    createWithNewMap(SlottedMap.emptyCopyOf(this.m) ++= newEntries)
 
   def newWith(newEntry: (String, Any)) =
-    createWithNewMap(MutableMaps.create(this.m) += newEntry)
+    createWithNewMap(SlottedMap.copyOf(this.m) += newEntry)
 
   override def clone(): ExecutionContext = newFrom(m)
 
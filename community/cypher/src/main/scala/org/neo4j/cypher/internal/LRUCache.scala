@@ -19,16 +19,30 @@
  */
 package org.neo4j.cypher.internal
 
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap
+import com.googlecode.concurrentlinkedhashmap.{EvictionListener, ConcurrentLinkedHashMap}
+import scala.collection.JavaConverters._
 
-class LRUCache[K, V](cacheSize: Int) {
+class LRUCache[K, V](cacheSize: Int, val statistics: CacheStatistics = new CacheStatistics) {
 
   class LazyValue(f: () => V) {
-    lazy val value = f.apply()
+    @volatile private var computed = false
+
+    lazy val value = {
+      val result = f.apply()
+      computed = true
+      result
+    }
+
+    def isComputed = computed
   }
 
   val inner = new ConcurrentLinkedHashMap.Builder[K, LazyValue]
     .maximumWeightedCapacity(cacheSize)
+    .listener(new EvictionListener[K, LazyValue] {
+      def onEviction(key: K, value: LazyValue) {
+        statistics.evicted()
+      }
+    })
     .build()
 
   def getOrElseUpdate(key: K, creator: () => V): V = {
@@ -36,8 +50,10 @@ class LRUCache[K, V](cacheSize: Int) {
     val oldValue = inner.putIfAbsent(key, value)
 
     if (oldValue == null) {
+      statistics.miss()
       value.value
     } else {
+      statistics.hit()
       oldValue.value
     }
   }
@@ -47,5 +63,20 @@ class LRUCache[K, V](cacheSize: Int) {
   def put(key: K, value: V) = inner.put(key, new LazyValue(() => value))
 
   def containsKey(key: K) = inner.containsKey(key)
-}
 
+  def remove(key: K) {
+    inner.remove(key)
+  }
+
+  /**
+   * Removes the entries whose values match the predicate. Values that are still being created are removed without
+   * waiting for them, since we can't know what they will turn out to be.
+   */
+  def removeWhere(predicate: V => Boolean) {
+    for (entry <- inner.entrySet().asScala) {
+      val value = entry.getValue
+      if (!value.isComputed || predicate(value.value))
+        inner.remove(entry.getKey, value)
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import org.neo4j.cypher.ExecutionPlan
+import org.neo4j.kernel.api.LabelScopedSchemaState
+import PlanCache.CachedPlan
+
+/**
+ * Execution plans, kept in the schema state of the database. Every plan remembers the labels it depends on, so
+ * that a schema change on one label only evicts the plans that looked at that label while they were being built.
+ */
+class PlanCache(cacheSize: Int, statistics: CacheStatistics) extends LabelScopedSchemaState {
+
+  private val plans = new LRUCache[String, CachedPlan](cacheSize, statistics)
+
+  def getOrElseUpdate(query: String, creator: () => CachedPlan): ExecutionPlan =
+    plans.getOrElseUpdate(query, creator).plan
+
+  def invalidate(labelId: Long) {
+    plans.removeWhere(_.dependsOn(labelId))
+  }
+}
+
+object PlanCache {
+  case class CachedPlan(plan: ExecutionPlan, labelIds: Set[Long], dependsOnUnknownLabels: Boolean) {
+    def dependsOn(labelId: Long) = dependsOnUnknownLabels || labelIds.contains(labelId)
+  }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+/**
+ * Turns the literal values in the WHERE, SKIP and LIMIT parts of a query into parameters, so that queries that only
+ * differ in those values can share parsed queries and execution plans. Literals anywhere else are left alone -
+ * the ones in RETURN and WITH give the columns their names, and many of the ones in patterns and start points
+ * can't be parameters.
+ *
+ * The name of each parameter includes the type of the literal it replaces, so that queries that only parse
+ * because of the types of their literals never share a cache entry with queries that don't.
+ */
+object QueryNormalizer {
+  val PARAMETER_PREFIX = "_auto_"
+
+  case class NormalizedQuery(text: String, parameters: Map[String, Any])
+
+  private val clauses = Set("START", "MATCH", "OPTIONAL", "WHERE", "WITH", "RETURN", "ORDER", "SKIP", "LIMIT",
+    "CREATE", "MERGE", "ON", "SET", "DELETE", "REMOVE", "FOREACH", "UNION", "USING")
+
+  /**
+   * @return the normalized query, or None if there was nothing to normalize or the query couldn't be understood
+   */
+  def apply(query: String): Option[NormalizedQuery] = new Normalizer(query).normalize()
+
+  private class Normalizer(query: String) {
+    private val out = new StringBuilder
+    private var parameters = Map.empty[String, Any]
+    private var pos = 0
+    private var depth = 0
+    private var inWhere = false
+    private var sliceExpected = false
+
+    def normalize(): Option[NormalizedQuery] = {
+      while (pos < query.length) {
+        if (!next())
+          return None
+      }
+
+      if (parameters.isEmpty) None else Some(NormalizedQuery(out.toString(), parameters))
+    }
+
+    private def next(): Boolean = {
+      val c = query.charAt(pos)
+      if (c == '\'' || c == '"') string(c)
+      else if (c == '`') copyThrough("`", pos + 1)
+      else if (query.startsWith("//", pos)) copyLine()
+      else if (query.startsWith("/*", pos)) copyThrough("*/", pos + 2)
+      else if (Character.isLetter(c) || c == '_') word()
+      else if (Character.isDigit(c)) number()
+      else if (c == '{' && parameterEnd >= 0) copy(parameterEnd + 1)
+      else {
+        c match {
+          case '(' | '[' | '{' => depth += 1
+          case ')' | ']' | '}' => depth -= 1
+          case _               =>
+        }
+        if (!Character.isWhitespace(c))
+          sliceExpected = false
+        copy(pos + 1)
+      }
+    }
+
+    private def string(quote: Char): Boolean = {
+      val value = new StringBuilder
+      var i = pos + 1
+      while (i < query.length && query.charAt(i) != quote) {
+        val c = query.charAt(i)
+        if (c == '\\') {
+          if (i + 1 >= query.length)
+            return false
+          query.charAt(i + 1) match {
+            case '\\'            => value.append('\\')
+            case q if q == quote => value.append(quote)
+            case 'b'             => value.append('\b')
+            case 'f'             => value.append('\f')
+            case 'n'             => value.append('\n')
+            case 'r'             => value.append('\r')
+            case 't'             => value.append('\t')
+            case 'u' if isUnicode(i + 2) =>
+              value.append(Integer.parseInt(query.substring(i + 2, i + 6), 16).toChar)
+              i += 4
+            case _               => return false
+          }
+          i += 2
+        } else {
+          value.append(c)
+          i += 1
+        }
+      }
+      if (i >= query.length)
+        return false
+
+      sliceExpected = false
+      if (inWhere && !previousTokenIs("=~")) {
+        addParameter("string", value.toString())
+        pos = i + 1
+        true
+      } else {
+        copy(i + 1)
+      }
+    }
+
+    private def word(): Boolean = {
+      var end = pos + 1
+      while (end < query.length && isIdentifierCharacter(query.charAt(end)))
+        end += 1
+
+      val word = query.substring(pos, end).toUpperCase
+      sliceExpected = false
+      if (depth == 0 && !previousTokenIs(".") && !previousTokenIs(":") && clauses.contains(word)) {
+        inWhere = word == "WHERE"
+        sliceExpected = word == "SKIP" || word == "LIMIT"
+      }
+      copy(end)
+    }
+
+    private def number(): Boolean = {
+      var end = digitsFrom(pos)
+      val integer = end + 1 >= query.length || query.charAt(end) != '.' || !Character.isDigit(query.charAt(end + 1))
+      if (!integer)
+        end = digitsFrom(end + 1)
+
+      val text = query.substring(pos, end)
+      val normalize =
+        (inWhere || (sliceExpected && integer)) &&
+        !(end < query.length && isIdentifierCharacter(query.charAt(end))) &&
+        !(text.length > 1 && text.charAt(0) == '0' && Character.isDigit(text.charAt(1))) &&
+        !(pos > 0 && query.charAt(pos - 1) == '-') &&
+        !previousTokenIs("*") && !previousTokenIs("..") && !query.startsWith("..", skipWhitespace(end))
+
+      sliceExpected = false
+      if (!normalize)
+        copy(end)
+      else try {
+        if (integer) addParameter("int", text.toLong) else addParameter("float", text.toDouble)
+        pos = end
+        true
+      } catch {
+        case _: NumberFormatException => false
+      }
+    }
+
+    private def addParameter(kind: String, value: Any) {
+      val name = PARAMETER_PREFIX + kind + "_" + parameters.size
+      parameters += name -> value
+      out.append('{').append(name).append('}')
+    }
+
+    private def copy(end: Int): Boolean = {
+      out.append(query.substring(pos, end))
+      pos = end
+      true
+    }
+
+    private def copyThrough(terminator: String, from: Int): Boolean = {
+      val start = query.indexOf(terminator, from)
+      start >= 0 && copy(start + terminator.length)
+    }
+
+    private def copyLine(): Boolean = {
+      val newline = query.indexOf('\n', pos)
+      copy(if (newline < 0) query.length else newline + 1)
+    }
+
+    /**
+     * The position of the closing brace if there is a parameter like {name} or {1} at the current position, or -1
+     */
+    private def parameterEnd: Int = {
+      var i = skipWhitespace(pos + 1)
+      val start = i
+      while (i < query.length && isIdentifierCharacter(query.charAt(i)))
+        i += 1
+      i = skipWhitespace(i)
+      if (i > start && i < query.length && query.charAt(i) == '}') i else -1
+    }
+
+    private def previousTokenIs(token: String): Boolean = {
+      var i = pos
+      while (i > 0 && Character.isWhitespace(query.charAt(i - 1)))
+        i -= 1
+      query.startsWith(token, i - token.length)
+    }
+
+    private def skipWhitespace(from: Int): Int = {
+      var i = from
+      while (i < query.length && Character.isWhitespace(query.charAt(i)))
+        i += 1
+      i
+    }
+
+    private def digitsFrom(from: Int): Int = {
+      var i = from
+      while (i < query.length && Character.isDigit(query.charAt(i)))
+        i += 1
+      i
+    }
+
+    private def isUnicode(from: Int) =
+      from + 4 <= query.length && query.substring(from, from + 4).forall(c => Character.digit(c, 16) >= 0)
+
+    private def isIdentifierCharacter(c: Char) = Character.isLetterOrDigit(c) || c == '_' || c == '\''
+  }
+}
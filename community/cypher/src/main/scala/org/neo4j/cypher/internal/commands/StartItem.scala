@@ -83,8 +83,8 @@ case class NodeById(varName: String, expression: Expression)
   extends StartItem(varName, Map("name" -> expression.toString()))
   with ReadOnlyStartItem with NodeStartItemIdentifiers
 
-case class NodeByIdOrEmpty(varName: String, id:Long)
-  extends StartItem(varName, Map("name" -> id.toString))
+case class NodeByIdOrEmpty(varName: String, expression: Expression)
+  extends StartItem(varName, Map("name" -> expression.toString()))
   with ReadOnlyStartItem with NodeStartItemIdentifiers
 
 case class NodeByLabel(varName: String, label: String)
@@ -133,4 +133,8 @@ object NodeById {
 
 object RelationshipById {
   def apply(varName: String, id: Long*) = new RelationshipById(varName, Literal(id))
+}
+
+object NodeByIdOrEmpty {
+  def apply(varName: String, id: Long) = new NodeByIdOrEmpty(varName, Literal(id))
 }
\ No newline at end of file
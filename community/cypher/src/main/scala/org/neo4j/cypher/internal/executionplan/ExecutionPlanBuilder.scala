@@ -28,14 +28,32 @@ import internal.ClosingIterator
 import internal.commands._
 import org.neo4j.cypher.internal.symbols.SymbolTable
 import org.neo4j.graphdb.GraphDatabaseService
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.kernel.InternalAbstractGraphDatabase
 import org.neo4j.cypher.ExecutionResult
 import org.neo4j.cypher.internal.commands.values.{TokenType, KeyToken}
 import org.neo4j.cypher.internal.executionplan.builders.prepare.KeyTokenResolver
+import java.io.File
 
 class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuilder {
 
   type PipeAndIsUpdating = (Pipe, Boolean)
 
+  private lazy val sortSpillThreshold: Int = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.query_sort_spill_threshold).intValue()
+    case _                                 => 0
+  }
+
+  private lazy val sortSpillDirectory: Option[File] = graph match {
+    case db: InternalAbstractGraphDatabase => Option(db.getConfig.get(GraphDatabaseSettings.query_sort_spill_directory))
+    case _                                 => None
+  }
+
+  private lazy val sortMergeFanIn: Int = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.query_sort_merge_fan_in).intValue()
+    case _                                 => 64
+  }
+
   def build(planContext: PlanContext, inputQuery: AbstractQuery): ExecutionPlan = {
 
     val (p, isUpdating) = buildPipes(planContext, inputQuery)
@@ -147,16 +165,19 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
   private def prepareStateAndResult(queryContext: QueryContext, params: Map[String, Any], pipe: Pipe, profile:Boolean):
     (QueryState, ClosingIterator, () => PlanDescription) = {
 
+    val resources = new QueryResources
     try {
       val decorator = if (profile) new Profiler() else NullDecorator
-      val state = new QueryState(graph, queryContext, params, decorator)
+      val state = new QueryState(graph, queryContext, params, decorator, sortSpillThreshold = sortSpillThreshold,
+        sortSpillDirectory = sortSpillDirectory, sortMergeFanIn = sortMergeFanIn, resources = resources)
       val results: Iterator[collection.Map[String, Any]] = pipe.createResults(state)
-      val closingIterator = new ClosingIterator(results, queryContext)
+      val closingIterator = new ClosingIterator(results, queryContext, resources)
       val descriptor = () => decorator.decorate(pipe.executionPlanDescription, closingIterator.isEmpty)
       (state, closingIterator, descriptor)
     }
     catch {
       case (t: Throwable) =>
+        resources.close()
         queryContext.close(success = false)
         throw t
     }
@@ -79,14 +79,19 @@ class EntityProducerFactory extends GraphElementPropertyFunctions {
         GetGraphElements.getElements[Node](ids(m)(state), varName, (id) =>
           state.query.nodeOps.getById(id))
       }
-    case (planContext, startItem@NodeByIdOrEmpty(varName, id)) =>
+    case (planContext, startItem@NodeByIdOrEmpty(varName, idExpression)) =>
       asProducer[Node](startItem) {
         (m: ExecutionContext, state: QueryState) =>
-          try {
-            val node = state.query.nodeOps.getById(id)
-            Iterator(node)
-          } catch {
-            case _: EntityNotFoundException => Iterator.empty
+          idExpression(m)(state) match {
+            // only whole numbers can be equal to a node id
+            case id: Number if id.longValue() == id.doubleValue() =>
+              try {
+                val node = state.query.nodeOps.getById(id.longValue())
+                Iterator(node)
+              } catch {
+                case _: EntityNotFoundException => Iterator.empty
+              }
+            case _ => Iterator.empty
           }
       }
   }
@@ -32,17 +32,25 @@ to be true for that node
 object NodeFetchStrategy {
   val nodeStrategies: Seq[NodeStrategy] = Seq(NodeByIdStrategy, IndexSeekStrategy, LabelScanStrategy, GlobalStrategy)
 
+  /*
+  Start items are first ordered by rating, and then by how many nodes they are estimated to produce
+   */
+  val byCost: Ordering[RatedStartItem] =
+    Ordering.by[RatedStartItem, (Int, Long)](item => (item.rating.intValue(), item.estimatedNodes))
+
   def findStartStrategy(node: String, where: Seq[Predicate], ctx: PlanContext): RatedStartItem = {
     val ratedItems = nodeStrategies.flatMap(_.findRatedStartItems(node, where, ctx))
-    ratedItems.sortBy(_.rating).head
+    ratedItems.sorted(byCost).head
   }
 }
 
 /*
 Bundles a possible start item with a rating (where lower implies better) and a list of predicates that
-are implicitly solved when using the start item
+are implicitly solved when using the start item. Start items that can tell how many nodes they will produce
+carry that estimate, which is used to choose between start items with the same rating
  */
-case class RatedStartItem(s: StartItem, rating: Integer, solvedPredicates: Seq[Predicate])
+case class RatedStartItem(s: StartItem, rating: Integer, solvedPredicates: Seq[Predicate],
+                          estimatedNodes: Long = Long.MaxValue)
 
 /*
 Finders produce StartItemWithRatings for a node and a set of required predicates over that node
@@ -71,8 +79,8 @@ trait NodeStrategy {
 
 object NodeByIdStrategy extends NodeStrategy {
   def findRatedStartItems(node: String, where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem] = {
-    val idPredicates: Seq[SolvedPredicate[Long]] = findEqualityPredicatesUsingNodeId(node, where)
-    val ids: Seq[Long] = idPredicates.map(_.solution)
+    val idPredicates: Seq[SolvedPredicate[Expression]] = findEqualityPredicatesUsingNodeId(node, where)
+    val ids: Seq[Expression] = idPredicates.map(_.solution)
     val predicates: Seq[Predicate] = idPredicates.map(_.predicate)
     if (ids.nonEmpty)
       Seq(RatedStartItem(NodeByIdOrEmpty(node, ids.head), Single, predicates))
@@ -80,10 +88,12 @@ object NodeByIdStrategy extends NodeStrategy {
       Seq.empty
   }
 
-  private def findEqualityPredicatesUsingNodeId(identifier: IdentifierName, where: Seq[Predicate]): Seq[SolvedPredicate[Long]] =
+  private def findEqualityPredicatesUsingNodeId(identifier: IdentifierName, where: Seq[Predicate]): Seq[SolvedPredicate[Expression]] =
     where.collect {
-      case predicate @ Equals(IdFunction(Identifier(id)), Literal(idValue)) if id == identifier && idValue.isInstanceOf[Number] => SolvedPredicate(idValue.asInstanceOf[Number].longValue(), predicate)
-      case predicate @ Equals(Literal(idValue), IdFunction(Identifier(id))) if id == identifier && idValue.isInstanceOf[Number] => SolvedPredicate(idValue.asInstanceOf[Number].longValue(), predicate)
+      case predicate @ Equals(IdFunction(Identifier(id)), Literal(idValue)) if id == identifier && idValue.isInstanceOf[Number] => SolvedPredicate(Literal(idValue.asInstanceOf[Number].longValue()), predicate)
+      case predicate @ Equals(Literal(idValue), IdFunction(Identifier(id))) if id == identifier && idValue.isInstanceOf[Number] => SolvedPredicate(Literal(idValue.asInstanceOf[Number].longValue()), predicate)
+      case predicate @ Equals(IdFunction(Identifier(id)), parameter: ParameterExpression) if id == identifier => SolvedPredicate(parameter, predicate)
+      case predicate @ Equals(parameter: ParameterExpression, IdFunction(Identifier(id))) if id == identifier => SolvedPredicate(parameter, predicate)
     }
 
 }
@@ -121,12 +131,18 @@ object GlobalStrategy extends NodeStrategy {
 }
 
 object LabelScanStrategy extends NodeStrategy {
+  /*
+  Labels with more nodes than this are all considered equally expensive to scan, which keeps counting them cheap
+   */
+  val CountLimit = 10000L
+
   def findRatedStartItems(node: String, where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem] = {
     val labelPredicates: Seq[SolvedPredicate[LabelName]] = findLabelsForNode(node, where)
 
     labelPredicates.map {
       case SolvedPredicate(labelName, predicate) =>
-        RatedStartItem(NodeByLabel(node, labelName), LabelScan, Seq(predicate))
+        RatedStartItem(NodeByLabel(node, labelName), LabelScan, Seq(predicate),
+          ctx.countNodesWithLabel(labelName, CountLimit))
     }
   }
 }
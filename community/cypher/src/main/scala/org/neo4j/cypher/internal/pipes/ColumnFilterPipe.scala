@@ -37,15 +37,14 @@ class ColumnFilterPipe(source: Pipe, val returnItems: Seq[ReturnItem])
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
     input.map(ctx => {
-      val newMap = MutableMaps.create(ctx.size)
-
-      returnItems.foreach {
-        case ReturnItem(Identifier(oldName), newName, _) if isNamed(newName) => newMap.put(newName, ctx(oldName))
-        case ReturnItem(CachedExpression(oldName, _), newName, _)            => newMap.put(newName, ctx(oldName))
-        case ReturnItem(_, name, _)                                          => newMap.put(name, ctx(name))
+      // Added in return item order, so that all rows get the same slots
+      val newEntries = returnItems.map {
+        case ReturnItem(Identifier(oldName), newName, _) if isNamed(newName) => newName -> ctx(oldName)
+        case ReturnItem(CachedExpression(oldName, _), newName, _)            => newName -> ctx(oldName)
+        case ReturnItem(_, name, _)                                          => name -> ctx(name)
       }
 
-      ctx.newFrom( newMap )
+      ctx.newFrom( newEntries )
     })
   }
 
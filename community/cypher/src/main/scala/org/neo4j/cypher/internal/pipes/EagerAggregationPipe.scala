@@ -53,15 +53,8 @@ class EagerAggregationPipe(source: Pipe, val keyExpressions: Map[String, Express
     val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
 
     def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext = {
-      val newMap = MutableMaps.empty
-
-      //add key values
-      (keyNames zip key.original).foreach(newMap += _)
-
-      //add aggregated values
-      (aggregationNames zip aggregator.map(_.result)).foreach(newMap += _)
-
-      ctx.newFrom(newMap)
+      //add key values, then aggregated values
+      ctx.newFrom((keyNames zip key.original) ++ (aggregationNames zip aggregator.map(_.result)))
     }
 
     def createEmptyResult(params:Map[String,Any]): Iterator[ExecutionContext] = {
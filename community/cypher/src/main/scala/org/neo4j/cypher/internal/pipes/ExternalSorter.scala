@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import java.io._
+import org.neo4j.cypher.internal.ExecutionContext
+import collection.mutable
+
+/**
+ * Sorts rows while keeping at most `threshold` of them in memory. Whenever that many rows have been read, they
+ * are sorted and written to a file in the spill directory of the query as a run. If there are more runs than the
+ * merge fan-in of the query, groups of them are merged into larger runs until there aren't, so that no more than
+ * that many run files are open at once. The remaining runs are then merged lazily, together with the rows still in
+ * memory, as the sorted rows are read. Rows that [[org.neo4j.cypher.internal.pipes.RowCodec]] can't write are kept
+ * in memory. The sort is stable, like sorting in memory.
+ */
+class ExternalSorter(threshold: Int, before: (ExecutionContext, ExecutionContext) => Boolean, state: QueryState) {
+
+  private case class SequencedRow(row: ExecutionContext, sequence: Long)
+
+  private val ordering = new Ordering[SequencedRow] {
+    def compare(a: SequencedRow, b: SequencedRow): Int =
+      if (before(a.row, b.row)) -1
+      else if (before(b.row, a.row)) 1
+      else java.lang.Long.compare(a.sequence, b.sequence)
+  }
+
+  def sort(input: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
+    if (!input.hasNext) {
+      return Iterator.empty
+    }
+    val template = input.next()
+    val buffer = new mutable.ArrayBuffer[SequencedRow]()
+    val runs = new mutable.ArrayBuffer[File]()
+    buffer += SequencedRow(template, 0)
+    var sequence = 1L
+    var keptRows = 0
+    val readers = try {
+      while (input.hasNext) {
+        buffer += SequencedRow(input.next(), sequence)
+        sequence += 1
+        if (buffer.size - keptRows >= threshold) {
+          val (writable, kept) = buffer.partition(r => RowCodec.canWrite(r.row))
+          if (writable.nonEmpty) {
+            runs += writeRun(writable.sorted(ordering).iterator)
+          }
+          buffer.clear()
+          buffer ++= kept
+          keptRows = kept.size
+        }
+      }
+      while (runs.size > state.sortMergeFanIn) {
+        val merged = new mutable.ArrayBuffer[File]()
+        try {
+          runs.grouped(state.sortMergeFanIn).foreach(group =>
+            merged += (if (group.size == 1) group.head else mergeRuns(group, template)))
+        }
+        catch {
+          case e: Throwable =>
+            merged.foreach(_.delete())
+            throw e
+        }
+        runs.clear()
+        runs ++= merged
+      }
+      // from here on the query closes the runs, also when their rows aren't all read
+      runs.map(run => state.resources.register(new RunReader(run, template)))
+    }
+    catch {
+      case e: Throwable =>
+        runs.foreach(_.delete())
+        throw e
+    }
+
+    val sources = readers.map(_.buffered) :+ buffer.sorted(ordering).iterator.buffered
+    merge(sources).map(_.row)
+  }
+
+  /**
+   * Merges the given runs into a single one, deleting them.
+   */
+  private def mergeRuns(runs: Seq[File], template: ExecutionContext): File = {
+    val readers = new mutable.ArrayBuffer[RunReader]()
+    try {
+      runs.foreach(run => readers += new RunReader(run, template))
+      writeRun(merge(readers.map(_.buffered)))
+    } finally {
+      readers.foreach(_.close())
+    }
+  }
+
+  private def writeRun(rows: Iterator[SequencedRow]): File = {
+    val file = state.sortSpillDirectory match {
+      case Some(directory) =>
+        directory.mkdirs()
+        File.createTempFile("cypher-sort", ".run", directory)
+      case None =>
+        File.createTempFile("cypher-sort", ".run")
+    }
+    val out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))
+    try {
+      rows.foreach(r => {
+        out.writeBoolean(true)
+        out.writeLong(r.sequence)
+        RowCodec.write(r.row, out)
+      })
+      out.writeBoolean(false)
+    }
+    catch {
+      case e: Throwable =>
+        out.close()
+        file.delete()
+        throw e
+    }
+    out.close()
+    file
+  }
+
+  private def merge(sources: Seq[BufferedIterator[SequencedRow]]): Iterator[SequencedRow] = {
+    val heads = new mutable.PriorityQueue[BufferedIterator[SequencedRow]]()(
+      Ordering.by[BufferedIterator[SequencedRow], SequencedRow](_.head)(ordering).reverse)
+    sources.filter(_.hasNext).foreach(heads += _)
+
+    new Iterator[SequencedRow] {
+      def hasNext = heads.nonEmpty
+
+      def next() = {
+        val source = heads.dequeue()
+        val row = source.next()
+        if (source.hasNext) {
+          heads += source
+        }
+        row
+      }
+    }
+  }
+
+  /**
+   * Reads a run back, and deletes its file once all of it has been read or it is closed.
+   */
+  private class RunReader(file: File, template: ExecutionContext) extends Iterator[SequencedRow] with Closeable {
+    private val in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+    private var hasMore = readMarker()
+
+    private def readMarker(): Boolean = {
+      val more = in.readBoolean()
+      if (!more) {
+        close()
+      }
+      more
+    }
+
+    def close() {
+      hasMore = false
+      in.close()
+      file.delete()
+    }
+
+    def hasNext = hasMore
+
+    def next() = {
+      if (!hasMore) {
+        throw new NoSuchElementException
+      }
+      val sequence = in.readLong()
+      val row = RowCodec.read(template, in, state)
+      hasMore = readMarker()
+      SequencedRow(row, sequence)
+    }
+  }
+}
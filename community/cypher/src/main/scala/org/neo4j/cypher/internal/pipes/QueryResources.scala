@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import java.io.{IOException, Closeable}
+import collection.mutable
+
+/**
+ * Resources a query holds on to while its result is read, like the temporary files of a sort that didn't fit in
+ * memory. They are all closed when the query is closed, whether its result was read to the end, closed early or
+ * failed. Closing a resource twice must be harmless.
+ */
+class QueryResources {
+  private val resources = new mutable.ArrayBuffer[Closeable]()
+
+  def register[T <: Closeable](resource: T): T = {
+    resources += resource
+    resource
+  }
+
+  def close() {
+    // a resource that fails to close doesn't keep the others open, nor fails the query
+    resources.foreach(resource => try {
+      resource.close()
+    } catch {
+      case _: IOException =>
+    })
+    resources.clear()
+  }
+}
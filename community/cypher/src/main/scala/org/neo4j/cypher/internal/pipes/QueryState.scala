@@ -24,13 +24,18 @@ import org.neo4j.cypher.internal.spi.UpdateCountingQueryContext
 import org.neo4j.cypher.internal.spi.QueryContext
 import org.neo4j.kernel.GraphDatabaseAPI
 import org.neo4j.cypher.ParameterNotFoundException
+import java.io.File
 
 case class QueryState(db: GraphDatabaseService,
                       inner: QueryContext,
                       params: Map[String, Any],
                       decorator: PipeDecorator,
                       var transaction: Option[Transaction] = None,
-                      timeReader: TimeReader = new TimeReader) {
+                      timeReader: TimeReader = new TimeReader,
+                      sortSpillThreshold: Int = 0,
+                      sortSpillDirectory: Option[File] = None,
+                      sortMergeFanIn: Int = 64,
+                      resources: QueryResources = new QueryResources) {
   def readTimeStamp(): Long = timeReader.getTime
 
 
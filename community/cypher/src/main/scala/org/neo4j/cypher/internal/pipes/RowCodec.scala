@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import java.io.{DataInputStream, DataOutputStream}
+import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.graphdb.{Relationship, Node}
+import collection.Map
+
+/**
+ * Writes rows to, and reads them back from, temporary files. Nodes and relationships are written as their ids
+ * and looked up again when read. Rows with values that can't be written, f.ex. paths, or with pending
+ * mutations are left for the caller to keep in memory.
+ */
+object RowCodec {
+  private val NULL = 0
+  private val TRUE = 1
+  private val FALSE = 2
+  private val LONG = 3
+  private val INT = 4
+  private val SHORT = 5
+  private val BYTE = 6
+  private val DOUBLE = 7
+  private val FLOAT = 8
+  private val CHAR = 9
+  private val STRING = 10
+  private val NODE = 11
+  private val RELATIONSHIP = 12
+  private val SEQ = 13
+  private val MAP = 14
+  private val ARRAY = 15
+
+  private val arrayTypes: Seq[Class[_]] = Seq(classOf[Long], classOf[Int], classOf[Short], classOf[Byte],
+    classOf[Double], classOf[Float], classOf[Char], classOf[Boolean], classOf[String])
+
+  def canWrite(row: ExecutionContext): Boolean = row.mutationCommands.isEmpty && row.forall {
+    case (_, value) => canWrite(value)
+  }
+
+  private def canWrite(value: Any): Boolean = value match {
+    case null | _: Boolean | _: Long | _: Int | _: Short | _: Byte | _: Double | _: Float | _: Char | _: String |
+         _: Node | _: Relationship => true
+    case seq: Seq[_]                                                                => seq.forall(canWrite)
+    case map: Map[_, _]                                                             => map.forall {
+      case (key, v) => key.isInstanceOf[String] && canWrite(v)
+    }
+    case array: Array[_]                                                            =>
+      arrayTypes.contains(array.getClass.getComponentType)
+    case _                                                                          => false
+  }
+
+  def write(row: ExecutionContext, out: DataOutputStream) {
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        out.writeUTF(key)
+        writeValue(value, out)
+    }
+  }
+
+  /**
+   * @param template a row derived the same way as the written rows, so that the read rows share its layout.
+   */
+  def read(template: ExecutionContext, in: DataInputStream, state: QueryState): ExecutionContext = {
+    val size = in.readInt()
+    val entries = (0 until size).map(_ => in.readUTF() -> readValue(in, state))
+    template.newFrom(entries)
+  }
+
+  private def writeValue(value: Any, out: DataOutputStream) {
+    value match {
+      case null               => out.writeByte(NULL)
+      case b: Boolean         => out.writeByte(if (b) TRUE else FALSE)
+      case l: Long            => out.writeByte(LONG); out.writeLong(l)
+      case i: Int             => out.writeByte(INT); out.writeInt(i)
+      case s: Short           => out.writeByte(SHORT); out.writeShort(s)
+      case b: Byte            => out.writeByte(BYTE); out.writeByte(b)
+      case d: Double          => out.writeByte(DOUBLE); out.writeDouble(d)
+      case f: Float           => out.writeByte(FLOAT); out.writeFloat(f)
+      case c: Char            => out.writeByte(CHAR); out.writeChar(c)
+      case s: String          => out.writeByte(STRING); writeString(s, out)
+      case n: Node            => out.writeByte(NODE); out.writeLong(n.getId)
+      case r: Relationship    => out.writeByte(RELATIONSHIP); out.writeLong(r.getId)
+      case seq: Seq[_]        =>
+        out.writeByte(SEQ)
+        out.writeInt(seq.size)
+        seq.foreach(writeValue(_, out))
+      case map: Map[_, _]     =>
+        out.writeByte(MAP)
+        out.writeInt(map.size)
+        map.foreach {
+          case (key, v) =>
+            writeString(key.asInstanceOf[String], out)
+            writeValue(v, out)
+        }
+      case array: Array[_]    =>
+        out.writeByte(ARRAY)
+        out.writeByte(arrayTypes.indexOf(array.getClass.getComponentType))
+        out.writeInt(array.length)
+        (0 until array.length).foreach(i => writeValue(java.lang.reflect.Array.get(array, i), out))
+    }
+  }
+
+  private def readValue(in: DataInputStream, state: QueryState): Any = in.readByte().toInt match {
+    case NULL         => null
+    case TRUE         => true
+    case FALSE        => false
+    case LONG         => in.readLong()
+    case INT          => in.readInt()
+    case SHORT        => in.readShort()
+    case BYTE         => in.readByte()
+    case DOUBLE       => in.readDouble()
+    case FLOAT        => in.readFloat()
+    case CHAR         => in.readChar()
+    case STRING       => readString(in)
+    case NODE         => state.query.nodeOps.getById(in.readLong())
+    case RELATIONSHIP => state.query.relationshipOps.getById(in.readLong())
+    case SEQ          =>
+      val size = in.readInt()
+      (0 until size).map(_ => readValue(in, state)).toList
+    case MAP          =>
+      val size = in.readInt()
+      (0 until size).map(_ => readString(in) -> readValue(in, state)).toMap
+    case ARRAY        =>
+      val componentType = arrayTypes(in.readByte().toInt)
+      val size = in.readInt()
+      val array = java.lang.reflect.Array.newInstance(componentType, size)
+      (0 until size).foreach(i => java.lang.reflect.Array.set(array, i, readValue(in, state).asInstanceOf[AnyRef]))
+      array
+  }
+
+  private def writeString(s: String, out: DataOutputStream) {
+    val bytes = s.getBytes("UTF-8")
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, "UTF-8")
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import collection.mutable.{Map => MutableMap}
+
+/**
+ * Assigns each identifier of a row a slot. Layouts are extended one identifier at a time, and extending a
+ * layout with the same identifier always gives the same layout. Since a pipe adds the same identifiers in the
+ * same order to every row it produces, all rows coming out of a pipe share one layout, and deriving a row
+ * from another is an array copy instead of building a new hash map.
+ */
+final class SlotLayout private(val keys: Array[String], parent: SlotLayout) {
+  private val slots = new java.util.HashMap[String, Integer]()
+  keys.zipWithIndex.foreach { case (key, slot) => slots.put(key, slot) }
+
+  private val extensions = new java.util.HashMap[String, SlotLayout]()
+
+  val root: SlotLayout = if (parent == null) this else parent.root
+
+  def size: Int = keys.length
+
+  def slotOf(key: String): Int = {
+    val slot = slots.get(key)
+    if (slot == null) -1 else slot
+  }
+
+  def extendedWith(key: String): SlotLayout = extensions.synchronized {
+    var extended = extensions.get(key)
+    if (extended == null) {
+      extended = new SlotLayout(keys :+ key, this)
+      extensions.put(key, extended)
+    }
+    extended
+  }
+}
+
+object SlotLayout {
+  def newRoot(): SlotLayout = new SlotLayout(Array.empty, null)
+}
+
+/**
+ * A row that keeps its values in an array, laid out by a shared [[org.neo4j.cypher.internal.pipes.SlotLayout]].
+ */
+final class SlottedMap private(private var layout: SlotLayout, private var slotValues: Array[Any], private var valueCount: Int)
+  extends MutableMap[String, Any] {
+
+  import SlottedMap.Absent
+
+  def slotLayout: SlotLayout = layout
+
+  private def isSet(slot: Int) = slot >= 0 && slot < slotValues.length && (slotValues(slot).asInstanceOf[AnyRef] ne Absent)
+
+  def get(key: String): Option[Any] = {
+    val slot = layout.slotOf(key)
+    if (isSet(slot)) Some(slotValues(slot)) else None
+  }
+
+  override def apply(key: String): Any = {
+    val slot = layout.slotOf(key)
+    if (isSet(slot)) slotValues(slot) else default(key)
+  }
+
+  override def contains(key: String): Boolean = isSet(layout.slotOf(key))
+
+  override def size: Int = valueCount
+
+  def iterator: Iterator[(String, Any)] =
+    (0 until slotValues.length).iterator.filter(isSet).map(slot => (layout.keys(slot), slotValues(slot)))
+
+  override def foreach[U](f: ((String, Any)) => U) {
+    var slot = 0
+    while (slot < slotValues.length) {
+      if (isSet(slot)) f((layout.keys(slot), slotValues(slot)))
+      slot += 1
+    }
+  }
+
+  def +=(kv: (String, Any)): this.type = {
+    var slot = layout.slotOf(kv._1)
+    if (slot < 0) {
+      layout = layout.extendedWith(kv._1)
+      slot = layout.size - 1
+    }
+    if (slot >= slotValues.length) {
+      slotValues = SlottedMap.grow(slotValues, layout.size)
+    }
+    if (!isSet(slot)) {
+      valueCount += 1
+    }
+    slotValues(slot) = kv._2
+    this
+  }
+
+  def -=(key: String): this.type = {
+    val slot = layout.slotOf(key)
+    if (isSet(slot)) {
+      slotValues(slot) = Absent
+      valueCount -= 1
+    }
+    this
+  }
+
+  /**
+   * A row with the same values and layout as this one, to add more values to.
+   */
+  def copy(): SlottedMap = new SlottedMap(layout, slotValues.clone(), valueCount)
+
+  /**
+   * An empty row that will get laid out like the rows this one was derived from.
+   */
+  def emptyCopy(): SlottedMap = new SlottedMap(layout.root, SlottedMap.NoValues, 0)
+}
+
+object SlottedMap {
+  private val Absent = new AnyRef
+
+  private val NoValues = new Array[Any](0)
+
+  def empty: SlottedMap = new SlottedMap(SlotLayout.newRoot(), NoValues, 0)
+
+  def copyOf(m: scala.collection.Map[String, Any]): SlottedMap = m match {
+    case slotted: SlottedMap => slotted.copy()
+    case _                   => empty ++= m
+  }
+
+  def emptyCopyOf(m: scala.collection.Map[String, Any]): SlottedMap = m match {
+    case slotted: SlottedMap => slotted.emptyCopy()
+    case _                   => empty
+  }
+
+  private def grow(slotValues: Array[Any], size: Int): Array[Any] = {
+    val grown = new Array[Any](size)
+    System.arraycopy(slotValues, 0, grown, 0, slotValues.length)
+    java.util.Arrays.fill(grown.asInstanceOf[Array[AnyRef]], slotValues.length, size, Absent)
+    grown
+  }
+}
@@ -30,8 +30,11 @@ class SortPipe(source: Pipe, sortDescription: List[SortItem]) extends PipeWithSo
   def symbols = source.symbols
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
-    input.toList.
-      sortWith((a, b) => compareBy(a, b, sortDescription)).iterator
+    if (state.sortSpillThreshold > 0)
+      new ExternalSorter(state.sortSpillThreshold, (a, b) => compareBy(a, b, sortDescription), state).sort(input)
+    else
+      input.toList.
+        sortWith((a, b) => compareBy(a, b, sortDescription)).iterator
 
   def throwIfSymbolsMissing(symbols: SymbolTable) {
     sortDescription.foreach {
@@ -21,58 +21,69 @@ package org.neo4j.cypher.internal.pipes
 
 import org.neo4j.cypher.internal.commands.SortItem
 import org.neo4j.cypher.internal.symbols.{NumberType, SymbolTable}
-import collection.mutable.ListBuffer
+import collection.mutable
+import scala.math.signum
 import org.neo4j.cypher.internal.commands.expressions.Expression
-import org.neo4j.cypher.internal.ExecutionContext
+import org.neo4j.cypher.internal.{Comparer, ExecutionContext}
 import org.neo4j.cypher.internal.data.SimpleVal
 
 /*
  * TopPipe is used when a query does a ORDER BY ... LIMIT query. Instead of ordering the whole result set and then
- * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier
+ * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier.
+ * The top results are kept in a heap with the largest of them on top, so each row read only costs a comparison with
+ * that one, and the sort keys of each row are only looked up once.
  */
-class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Expression) extends PipeWithSource(source) with ExecutionContextComparer {
+class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Expression) extends PipeWithSource(source) with Comparer {
+  private val columnNames: Array[String] = sortDescription.map(_.columnName).toArray
+  private val ascending: Array[Boolean] = sortDescription.map(_.ascending).toArray
+
   protected def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     implicit val s = state
-    var result = new ListBuffer[ExecutionContext]()
-    var last: Option[ExecutionContext] = None
-    val largerThanLast = (ctx: ExecutionContext) => last.forall(s => compareBy(s, ctx, sortDescription))
-    var size = 0
-    var sorted = false
 
     if (input.isEmpty)
-      Iterator.empty
-    else {
-      val first = input.next()
-      val count = countExpression(first).asInstanceOf[Number].intValue()
-
-      val iter = new HeadAndTail(first, input)
-      iter.foreach {
-        case ctx =>
+      return Iterator.empty
 
-          if (size < count) {
-            result += ctx
-            size += 1
+    val first = input.next()
+    val count = countExpression(first).asInstanceOf[Number].intValue()
+    if (count <= 0)
+      return Iterator.empty
 
-            if (largerThanLast(ctx)) {
-              last = Some(ctx)
-            }
-          } else
-            if (!largerThanLast(ctx)) {
-              result -= last.get
-              result += ctx
-              result = result.sortWith((a, b) => compareBy(a, b, sortDescription))
-              sorted = true
-              last = Some(result.last)
-            }
-      }
+    val top = new mutable.PriorityQueue[SortKey]()(SortKeyOrdering)
+    var sequence = 0L
+    new HeadAndTail(first, input).foreach {
+      ctx =>
+        val key = new SortKey(ctx, sequence)
+        sequence += 1
+        if (top.size < count) {
+          top += key
+        } else if (SortKeyOrdering.lt(key, top.head)) {
+          top.dequeue()
+          top += key
+        }
     }
 
-    if (!sorted) {
-      result = result.sortWith((a, b) => compareBy(a, b, sortDescription))
-    }
+    top.dequeueAll.reverseIterator.map(_.row)
+  }
 
+  /*
+   * The values to sort a row on, and its position in the input so that rows that sort the same keep their order
+   */
+  private class SortKey(val row: ExecutionContext, val sequence: Long) {
+    val values: Array[Any] = columnNames.map(row(_))
+  }
 
-    result.toIterator
+  private object SortKeyOrdering extends Ordering[SortKey] {
+    def compare(a: SortKey, b: SortKey): Int = {
+      var i = 0
+      while (i < ascending.length) {
+        val result = signum(TopPipe.this.compare(a.values(i), b.values(i)))
+        if (result != 0) {
+          return if (ascending(i)) result else -result
+        }
+        i += 1
+      }
+      java.lang.Long.compare(a.sequence, b.sequence)
+    }
   }
 
   def executionPlanDescription =
@@ -24,10 +24,11 @@ import org.neo4j.cypher.internal.pipes.QueryState
 import traversal._
 import java.lang.{Iterable => JIterable}
 import collection.JavaConverters._
-import org.neo4j.kernel.{StandardBranchCollisionDetector, Uniqueness, Traversal}
+import org.neo4j.kernel.{BidirectionalTraversalBranchPath, Uniqueness, Traversal}
 import org.neo4j.kernel.impl.traversal.BranchCollisionPolicy
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.EntityProducer
+import collection.mutable
 
 class BidirectionalTraversalMatcher(steps: ExpanderStep,
                                     start: EntityProducer[Node],
@@ -82,10 +83,44 @@ class BidirectionalTraversalMatcher(steps: ExpanderStep,
     i
   }
 
-  class StepCollisionDetector extends StandardBranchCollisionDetector(null) with BranchCollisionPolicy {
-    override def includePath(path: Path, startPath: TraversalBranch, endPath: TraversalBranch): Boolean = {
-      val s = startPath.state().asInstanceOf[Option[ExpanderStep]]
-      val e = endPath.state().asInstanceOf[Option[ExpanderStep]]
+  /*
+   * Joins branches from the two sides on the node where they meet, like StandardBranchCollisionDetector does, but
+   * also on the pattern steps the branches are at. Only branches whose steps can line up are paired up and checked,
+   * instead of every pair of branches that meet at a node, which is what makes patterns bound at both ends cheap.
+   */
+  class StepCollisionDetector extends BranchCollisionDetector with BranchCollisionPolicy {
+    private val meetings = new java.util.HashMap[Node, Meeting]()
+    private val returnedPaths = new java.util.HashSet[Path]()
+
+    def evaluate(branch: TraversalBranch, direction: Direction): JIterable[Path] = {
+      var meeting = meetings.get(branch.endNode())
+      if (meeting == null) {
+        meeting = new Meeting
+        meetings.put(branch.endNode(), meeting)
+      }
+
+      // Branches from the start side are expanded OUTGOING, branches from the end side INCOMING
+      val fromStart = direction == Direction.OUTGOING
+      val step = stepOf(branch)
+      val candidates = if (fromStart) meeting.endBranchesFor(step) else meeting.startBranchesFor(step)
+      meeting.add(branch, step, fromStart)
+
+      val foundPaths = new java.util.ArrayList[Path]()
+      candidates.foreach {
+        other =>
+          val (startPath, endPath) = if (fromStart) (branch, other) else (other, branch)
+          val path = new BidirectionalTraversalBranchPath(startPath, endPath)
+          if (!returnedPaths.contains(path) && includePath(path, startPath, endPath)) {
+            returnedPaths.add(path)
+            foundPaths.add(path)
+          }
+      }
+      if (foundPaths.isEmpty) null else foundPaths
+    }
+
+    def includePath(path: Path, startPath: TraversalBranch, endPath: TraversalBranch): Boolean = {
+      val s = stepOf(startPath)
+      val e = stepOf(endPath)
 
       def doBranchesMatch(startStep:ExpanderStep, endStep:ExpanderStep):(Boolean,Boolean)={
         val foundEnd = endStep.id + 1 == startStep.id
@@ -114,4 +149,51 @@ class BidirectionalTraversalMatcher(steps: ExpanderStep,
 
     def create(evaluator: Evaluator) = new StepCollisionDetector
   }
+
+  private def stepOf(branch: TraversalBranch) = branch.state().asInstanceOf[Option[ExpanderStep]]
+
+  /*
+   * The branches from both sides that have reached one node. Branches are kept by the id of the step they are at, so
+   * that a branch from one side can find the branches from the other side it may pair up with, following the same
+   * rules as StepCollisionDetector.includePath.
+   */
+  private class Meeting {
+    private val startByStep = new mutable.HashMap[Int, mutable.ArrayBuffer[TraversalBranch]]()
+    // start branches at a step that pairs up with end branches at any step
+    private val startInclusive = new mutable.ArrayBuffer[TraversalBranch]()
+    private val startDone = new mutable.ArrayBuffer[TraversalBranch]()
+    private val endByStep = new mutable.HashMap[Int, mutable.ArrayBuffer[TraversalBranch]]()
+    private val endDone = new mutable.ArrayBuffer[TraversalBranch]()
+
+    def add(branch: TraversalBranch, step: Option[ExpanderStep], fromStart: Boolean) {
+      step match {
+        case Some(s) if fromStart && s.shouldInclude() => startInclusive += branch
+        case Some(s) if fromStart                      => startByStep.getOrElseUpdate(s.id, new mutable.ArrayBuffer()) += branch
+        case Some(s)                                   => endByStep.getOrElseUpdate(s.id, new mutable.ArrayBuffer()) += branch
+        case None if fromStart                         => startDone += branch
+        case None                                      => endDone += branch
+      }
+    }
+
+    def startBranchesFor(endStep: Option[ExpanderStep]): Seq[TraversalBranch] = endStep match {
+      case Some(e) =>
+        atStep(startByStep, e.id + 1) ++ (if (e.shouldInclude()) atStep(startByStep, e.id) else Seq.empty) ++
+          startInclusive ++ startDone
+      case None    =>
+        startByStep.values.flatten.toSeq ++ startInclusive
+    }
+
+    def endBranchesFor(startStep: Option[ExpanderStep]): Seq[TraversalBranch] = startStep match {
+      case Some(s) if s.shouldInclude() =>
+        endByStep.values.flatten.toSeq ++ endDone
+      case Some(s)                      =>
+        atStep(endByStep, s.id - 1) ++ atStep(endByStep, s.id).filter(e => stepOf(e).exists(_.shouldInclude())) ++
+          endDone
+      case None                         =>
+        endByStep.values.flatten.toSeq
+    }
+
+    private def atStep(branches: mutable.HashMap[Int, mutable.ArrayBuffer[TraversalBranch]], id: Int): Seq[TraversalBranch] =
+      branches.getOrElse(id, Seq.empty)
+  }
 }
\ No newline at end of file
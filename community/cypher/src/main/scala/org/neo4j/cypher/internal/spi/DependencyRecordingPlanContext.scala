@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.spi
+
+import org.neo4j.kernel.impl.api.index.IndexDescriptor
+import org.neo4j.kernel.api.constraints.UniquenessConstraint
+
+/**
+ * Remembers which labels the plan builder asked about indexes and constraints for, so that the plan only needs
+ * to be thrown away when the schema of one of those labels changes.
+ */
+class DependencyRecordingPlanContext(inner: PlanContext) extends PlanContext {
+  private var labels = Set.empty[Long]
+  private var unknownLabels = false
+
+  /**
+   * The ids of the labels the plan depends on.
+   */
+  def labelDependencies: Set[Long] = labels
+
+  /**
+   * True if the plan depends on labels that didn't exist when it was built, and so have no id to track yet.
+   */
+  def dependsOnUnknownLabels: Boolean = unknownLabels
+
+  private def record(labelName: String) {
+    inner.getOptLabelId(labelName) match {
+      case Some(labelId) => labels += labelId
+      case None          => unknownLabels = true
+    }
+  }
+
+  def getIndexRule(labelName: String, propertyKey: String): Option[IndexDescriptor] = {
+    record(labelName)
+    inner.getIndexRule(labelName, propertyKey)
+  }
+
+  def getUniquenessConstraint(labelName: String, propertyKey: String): Option[UniquenessConstraint] = {
+    record(labelName)
+    inner.getUniquenessConstraint(labelName, propertyKey)
+  }
+
+  def countNodesWithLabel(labelName: String, limit: Long): Long = inner.countNodesWithLabel(labelName, limit)
+
+  def checkNodeIndex(idxName: String) {
+    inner.checkNodeIndex(idxName)
+  }
+
+  def checkRelIndex(idxName: String) {
+    inner.checkRelIndex(idxName)
+  }
+
+  def getLabelName(id: Long): String = inner.getLabelName(id)
+
+  def getOptLabelId(labelName: String): Option[Long] = inner.getOptLabelId(labelName)
+
+  def getLabelId(labelName: String): Long = inner.getLabelId(labelName)
+
+  def getPropertyKeyName(id: Long): String = inner.getPropertyKeyName(id)
+
+  def getOptPropertyKeyId(propertyKeyName: String): Option[Long] = inner.getOptPropertyKeyId(propertyKeyName)
+
+  def getPropertyKeyId(propertyKeyName: String): Long = inner.getPropertyKeyId(propertyKeyName)
+}
@@ -35,6 +35,11 @@ trait PlanContext extends TokenContext {
 
   def getUniquenessConstraint(labelName: String, propertyKey: String): Option[UniquenessConstraint]
 
+  /**
+   * Counts the nodes with a label, but stops counting at `limit` to keep it cheap.
+   */
+  def countNodesWithLabel(labelName: String, limit: Long): Long
+
   def checkNodeIndex(idxName: String)
 
   def checkRelIndex(idxName: String)
@@ -54,6 +54,16 @@ class TransactionBoundPlanContext(statement:ReadStatement, gdb:GraphDatabaseServ
     case _: KernelException => None
   }
 
+  def countNodesWithLabel(labelName: String, limit: Long): Long = {
+    val nodes = statement.nodesGetForLabel(statement.labelGetForName(labelName))
+    var count = 0L
+    while (count < limit && nodes.hasNext) {
+      nodes.next()
+      count += 1
+    }
+    count
+  }
+
   def checkNodeIndex(idxName: String) {
     if (!gdb.index().existsForNodes(idxName)) {
       throw new MissingIndexException(idxName)
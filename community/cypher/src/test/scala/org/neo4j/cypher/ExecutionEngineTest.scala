@@ -2847,4 +2847,46 @@ RETURN x0.name
     //THEN DOESN'T THROW EXCEPTION
     assert(result.toList === List())
   }
+
+  @Test
+  def queries_that_only_differ_in_literals_share_execution_plan() {
+    val andres = createNode("name" -> "Andres")
+    val stefan = createNode("name" -> "Stefan")
+
+    val first = parseAndExecute("MATCH n WHERE n.name = 'Andres' RETURN n").toList
+    val missesAfterFirstQuery = engine.planCacheStatistics.misses
+    val second = parseAndExecute("MATCH n WHERE n.name = 'Stefan' RETURN n").toList
+
+    assert(first === List(Map("n" -> andres)))
+    assert(second === List(Map("n" -> stefan)))
+    assert(engine.planCacheStatistics.misses === missesAfterFirstQuery)
+  }
+
+  @Test
+  def id_in_where_is_used_as_start_point_when_given_as_parameter() {
+    val node = createNode()
+
+    val result = parseAndExecute("MATCH n WHERE id(n) = {id} RETURN n", "id" -> node.getId)
+
+    assert(result.toList === List(Map("n" -> node)))
+    assert(result.executionPlanDescription().toString.contains("NodeByIdOrEmpty"))
+  }
+
+  @Test
+  def schema_changes_only_invalidate_plans_for_the_changed_label() {
+    createLabeledNode(Map("name" -> "Andres"), "Person")
+    createLabeledNode(Map("name" -> "Malmo"), "City")
+    val personQuery = "MATCH n:Person WHERE n.name = 'Andres' RETURN n"
+    val cityQuery = "MATCH n:City WHERE n.name = 'Malmo' RETURN n"
+    parseAndExecute(personQuery).toList
+    parseAndExecute(cityQuery).toList
+    val missesBeforeIndex = engine.planCacheStatistics.misses
+
+    graph.createIndex("City", "name")
+    parseAndExecute(personQuery).toList
+    assert(engine.planCacheStatistics.misses === missesBeforeIndex)
+
+    parseAndExecute(cityQuery).toList
+    assert(engine.planCacheStatistics.misses === missesBeforeIndex + 1)
+  }
 }
@@ -26,6 +26,8 @@ import org.mockito.Mockito.mock
 import org.mockito.Mockito.when
 import org.mockito.Mockito.verify
 import spi.QueryContext
+import pipes.QueryResources
+import java.io.Closeable
 import org.scalatest.Assertions
 
 class ClosingIteratorTest extends Assertions {
@@ -109,4 +111,22 @@ class ClosingIteratorTest extends Assertions {
     //Then
     verify(ctx).close(success = false)
   }
-}
\ No newline at end of file
+
+  @Test
+  def closing_early_should_close_query_resources() {
+    //Given
+    val ctx       = mock(classOf[QueryContext])
+    val resource  = mock(classOf[Closeable])
+    val resources = new QueryResources
+    resources.register(resource)
+    val iterator  = new ClosingIterator(Iterator(Map("k" -> 42), Map("k" -> 43)), ctx, resources)
+
+    //When
+    iterator.next()
+    iterator.close()
+
+    //Then
+    verify(resource).close()
+    verify(ctx).close(success = true)
+  }
+}
@@ -62,4 +62,25 @@ class LRUCacheTest extends Assertions {
     assertFalse(cache.containsKey("2"));
   }
 
-}
\ No newline at end of file
+  @Test def shouldCountHitsMissesAndEvictions() {
+    val cache = new LRUCache[String, String](5)
+    fillWithOneToFive(cache)
+
+    cache.getOrElseUpdate("1", () => "1")
+    cache.getOrElseUpdate("6", () => "6")
+
+    assert(cache.statistics.hits === 1)
+    assert(cache.statistics.misses === 1)
+    assert(cache.statistics.evictions === 1)
+  }
+
+  @Test def shouldRemoveMatchingValues() {
+    val cache = new LRUCache[String, String](5)
+    fillWithOneToFive(cache)
+
+    cache.removeWhere(value => value.toInt % 2 == 0)
+
+    assert(List("1", "2", "3", "4", "5").filter(cache.containsKey) === List("1", "3", "5"))
+    assert(cache.statistics.evictions === 0)
+  }
+}
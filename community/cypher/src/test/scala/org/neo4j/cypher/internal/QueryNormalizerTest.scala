@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import org.scalatest.Assertions
+import org.junit.Test
+import QueryNormalizer.NormalizedQuery
+
+class QueryNormalizerTest extends Assertions {
+  @Test def shouldTurnLiteralsInWhereIntoParameters() {
+    val result = QueryNormalizer("MATCH n:User WHERE n.id = 123 AND n.name = 'bob' AND n.score > 1.5 RETURN n")
+
+    assert(result === Some(NormalizedQuery(
+      "MATCH n:User WHERE n.id = {_auto_int_0} AND n.name = {_auto_string_1} AND n.score > {_auto_float_2} RETURN n",
+      Map("_auto_int_0" -> 123L, "_auto_string_1" -> "bob", "_auto_float_2" -> 1.5))))
+  }
+
+  @Test def shouldGiveQueriesThatOnlyDifferInLiteralsTheSameText() {
+    val first = QueryNormalizer("MATCH n WHERE n.name = 'Andres' RETURN n").get
+    val second = QueryNormalizer("MATCH n WHERE n.name = \"Stefan\" RETURN n").get
+
+    assert(first.text === second.text)
+    assert(first.parameters.values.toList === List("Andres"))
+    assert(second.parameters.values.toList === List("Stefan"))
+  }
+
+  @Test def shouldTurnSkipAndLimitIntoParameters() {
+    val result = QueryNormalizer("MATCH n RETURN n SKIP 10 LIMIT 20")
+
+    assert(result === Some(NormalizedQuery(
+      "MATCH n RETURN n SKIP {_auto_int_0} LIMIT {_auto_int_1}",
+      Map("_auto_int_0" -> 10L, "_auto_int_1" -> 20L))))
+  }
+
+  @Test def shouldLeaveLiteralsThatNameColumnsAlone() {
+    assert(QueryNormalizer("MATCH n RETURN n.name, 'x', 5") === None)
+    assert(QueryNormalizer("MATCH n WITH n, 5 AS five RETURN filter(x IN [1, 2] WHERE x = 1)") === None)
+  }
+
+  @Test def shouldLeaveLiteralsThatCantBeParametersAlone() {
+    assert(QueryNormalizer("MATCH a-[:KNOWS*1..3]->b WHERE a-[:KNOWS*2]->b AND a.x > -5 RETURN b") === None)
+    assert(QueryNormalizer("MATCH n WHERE n.name =~ 'A.*' RETURN n") === None)
+  }
+
+  @Test def shouldUnescapeStrings() {
+    val result = QueryNormalizer("MATCH n WHERE n.name = 'it\\'s' AND n.city = \"a\\tb\" RETURN n")
+
+    assert(result.map(_.parameters) === Some(Map("_auto_string_0" -> "it's", "_auto_string_1" -> "a\tb")))
+  }
+
+  @Test def shouldNotLookInsideIdentifiersCommentsOrParameters() {
+    val query = "MATCH n WHERE n.`where 1` = {p} AND n.x = {1} // 'comment'\nRETURN n"
+
+    assert(QueryNormalizer(query) === None)
+  }
+
+  @Test def shouldGiveUpOnQueriesItDoesNotUnderstand() {
+    assert(QueryNormalizer("MATCH n WHERE n.name = 'unterminated RETURN n") === None)
+    assert(QueryNormalizer("MATCH n WHERE n.name = '\\q' RETURN n") === None)
+  }
+}
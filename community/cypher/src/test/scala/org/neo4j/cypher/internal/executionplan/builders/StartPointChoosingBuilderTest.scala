@@ -354,6 +354,46 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
     assert(plan.query.start.toList === List(Unsolved(NodeByLabel("n", "Person"))))
   }
 
+  @Test
+  def should_start_from_the_label_with_fewest_nodes() {
+    // Given MATCH (n:Person)-[x]->(p:Country)
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      HasLabel(Identifier(otherIdentifier), KeyToken.Unresolved("Country", TokenType.Label))
+    ), patterns = Seq(
+      RelatedTo(SingleNode(identifier), SingleNode(otherIdentifier), "x", Seq.empty, Direction.OUTGOING, optional = false)
+    ))
+
+    when(context.countNodesWithLabel(Matchers.eq(label), Matchers.anyLong())).thenReturn(10000L)
+    when(context.countNodesWithLabel(Matchers.eq("Country"), Matchers.anyLong())).thenReturn(200L)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    assert(plan.query.start.toList === List(Unsolved(NodeByLabel(otherIdentifier, "Country"))))
+  }
+
+  @Test
+  def should_start_from_the_most_selective_of_the_labels_of_a_node() {
+    // Given MATCH (n:Person:Admin)
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      HasLabel(Identifier(identifier), KeyToken.Unresolved("Admin", TokenType.Label))
+    ), patterns = Seq(
+      SingleNode(identifier)
+    ))
+
+    when(context.countNodesWithLabel(Matchers.eq(label), Matchers.anyLong())).thenReturn(10000L)
+    when(context.countNodesWithLabel(Matchers.eq("Admin"), Matchers.anyLong())).thenReturn(3L)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    assert(plan.query.start.toList === List(Unsolved(NodeByLabel(identifier, "Admin"))))
+  }
+
   @Test
   def should_identify_start_points_with_id_from_where() {
     // Given MATCH n WHERE id(n) == 0
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.pipes
+
+import org.scalatest.Assertions
+import org.junit.Test
+import org.neo4j.cypher.internal.ExecutionContext
+
+class SlottedMapTest extends Assertions {
+  @Test def shouldBehaveLikeAMap() {
+    val map = SlottedMap.empty += ("a" -> 1) += ("b" -> null) += ("c" -> "x")
+
+    assert(map === Map("a" -> 1, "b" -> null, "c" -> "x"))
+    assert(map.size === 3)
+    assert(map.get("b") === Some(null))
+    assert(map.get("d") === None)
+    assert(map.contains("c"))
+    assert(!map.contains("d"))
+  }
+
+  @Test def shouldRemoveAndReAddKeys() {
+    val map = SlottedMap.empty += ("a" -> 1) += ("b" -> 2)
+
+    map -= "a"
+    assert(map === Map("b" -> 2))
+    assert(map.size === 1)
+
+    map += ("a" -> 3)
+    assert(map === Map("a" -> 3, "b" -> 2))
+    assert(map.size === 2)
+  }
+
+  @Test def shouldOverwriteValues() {
+    val map = SlottedMap.empty += ("a" -> 1)
+
+    map += ("a" -> 2)
+
+    assert(map === Map("a" -> 2))
+    assert(map.size === 1)
+  }
+
+  @Test def copiesShouldNotSeeChangesToEachOther() {
+    val original = SlottedMap.empty += ("a" -> 1)
+    val copy = original.copy()
+
+    copy += ("a" -> 2) += ("b" -> 3)
+    original -= "a"
+
+    assert(original === Map())
+    assert(copy === Map("a" -> 2, "b" -> 3))
+  }
+
+  @Test def rowsDerivedTheSameWayShouldShareLayout() {
+    val input = ExecutionContext.empty
+
+    val rows = (1 to 10).map(x => input.newWith("a" -> x).newWith("b" -> x))
+
+    val layouts = rows.map(_.m.asInstanceOf[SlottedMap].slotLayout).toSet
+    assert(layouts.size === 1)
+    assert(rows(3) === ExecutionContext.from("a" -> 4, "b" -> 4))
+  }
+
+  @Test def newFromShouldStartOverFromTheRootLayout() {
+    val row = ExecutionContext.empty.newWith("a" -> 1)
+
+    val newRow = row.newFrom(Seq("b" -> 2))
+
+    assert(newRow === ExecutionContext.from("b" -> 2))
+    assert(newRow.m.asInstanceOf[SlottedMap].slotLayout.keys.toSeq === Seq("b"))
+  }
+}
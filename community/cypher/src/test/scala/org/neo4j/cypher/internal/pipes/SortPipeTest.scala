@@ -26,6 +26,7 @@ import collection.mutable.{Map=>MutableMap}
 import org.neo4j.cypher.internal.commands.expressions.Identifier
 import org.neo4j.cypher.internal.symbols.{NumberType, StringType, ScalarType}
 import org.neo4j.cypher.internal.commands.SortItem
+import java.io.{FilenameFilter, File}
 
 class SortPipeTest extends JUnitSuite {
   @Test def emptyInIsEmptyOut() {
@@ -89,4 +90,87 @@ class SortPipeTest extends JUnitSuite {
       MutableMap("y" -> 2),
       MutableMap("y" -> null)), sortPipe.createResults(QueryStateHelper.empty).toList)
   }
+
+  @Test def shouldSpillSortedRunsToDiskAndMergeThem() {
+    val list: Seq[MutableMap[String, Any]] = (1 to 100).map(i => MutableMap[String, Any](
+      "x" -> (i * 37) % 10, "y" -> i, "z" -> Seq("a" + i, Array(i.toLong)), "m" -> Map("k" -> i.toString)))
+    val source = new FakePipe(list, "x" -> NumberType(), "y" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), false)))
+    val state = QueryStateHelper.empty.copy(sortSpillThreshold = 7)
+
+    val result = sortPipe.createResults(state).toList
+
+    // descending on x, and still in input order among rows with the same x
+    val expected = list.sortWith((a, b) => a("x").asInstanceOf[Int] > b("x").asInstanceOf[Int])
+    assertEquals(expected.map(_("y")), result.map(_("y")))
+    assertEquals(expected.map(_("m")), result.map(_("m")))
+    assertEquals("a17", result.find(_("y") == 17).get("z").asInstanceOf[Seq[Any]](0))
+    assertEquals(17L, result.find(_("y") == 17).get("z").asInstanceOf[Seq[Any]](1).asInstanceOf[Array[Long]](0))
+  }
+
+  @Test def shouldKeepRowsThatCantBeSpilledInMemory() {
+    val unwritable = new Object
+    val list: Seq[MutableMap[String, Any]] = (1 to 20).map(i => MutableMap[String, Any](
+      "x" -> (20 - i), "o" -> (if (i % 3 == 0) unwritable else i)))
+    val source = new FakePipe(list, "x" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+    val state = QueryStateHelper.empty.copy(sortSpillThreshold = 4)
+
+    val result = sortPipe.createResults(state).toList
+
+    assertEquals((0 until 20).toList, result.map(_("x")))
+    assertEquals(list.reverse.map(_("o")), result.map(_("o")))
+  }
+
+  @Test def shouldDeleteRunsWhenQueryIsClosedBeforeAllRowsAreRead() {
+    val list: Seq[MutableMap[String, Any]] = (1 to 100).map(i => MutableMap[String, Any]("x" -> (100 - i)))
+    val source = new FakePipe(list, "x" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+    val directory = spillDirectory()
+    val state = QueryStateHelper.empty.copy(sortSpillThreshold = 7, sortSpillDirectory = Some(directory))
+
+    val result = sortPipe.createResults(state)
+    assertEquals(0, result.next()("x"))
+    assertTrue(sortRuns(directory) > 0)
+
+    state.resources.close()
+
+    assertEquals(0, sortRuns(directory))
+  }
+
+  @Test def shouldMergeRunsInGroupsWhenThereAreMoreThanTheFanIn() {
+    val list: Seq[MutableMap[String, Any]] = (1 to 1000).map(i => MutableMap[String, Any](
+      "x" -> (i * 37) % 100, "y" -> i))
+    val source = new FakePipe(list, "x" -> NumberType(), "y" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+    val directory = spillDirectory()
+    // 333 runs, merged three at a time in five passes
+    val state = QueryStateHelper.empty.copy(sortSpillThreshold = 3, sortMergeFanIn = 3,
+      sortSpillDirectory = Some(directory))
+
+    val result = sortPipe.createResults(state)
+    assertTrue(result.hasNext)
+    assertTrue(sortRuns(directory) <= 3)
+
+    // ascending on x, and still in input order among rows with the same x
+    val expected = list.sortWith((a, b) => a("x").asInstanceOf[Int] < b("x").asInstanceOf[Int])
+    assertEquals(expected.map(_("y")), result.toList.map(_("y")))
+    assertEquals(0, sortRuns(directory))
+  }
+
+  private def spillDirectory(): File = {
+    val directory = File.createTempFile("cypher-sort", ".test")
+    directory.delete()
+    directory.mkdirs()
+    directory.deleteOnExit()
+    directory
+  }
+
+  private def sortRuns(directory: File): Int = directory.listFiles(new FilenameFilter {
+    def accept(dir: File, name: String) = name.startsWith("cypher-sort") && name.endsWith(".run")
+  }).length
 }
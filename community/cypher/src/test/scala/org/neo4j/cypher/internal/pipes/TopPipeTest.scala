@@ -63,6 +63,35 @@ class TopPipeTest extends Assertions {
     assert(result === List.empty)
   }
 
+  @Test def rowsThatSortTheSameKeepTheirOrder() {
+    val in = (0 until 100).map(i => Map("a" -> i % 3, "b" -> i))
+    val input = new FakePipe(in, "a" -> IntegerType(), "b" -> IntegerType())
+
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = false)), Literal(5))
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("b")).toList
+
+    assert(result === List(2, 5, 8, 11, 14))
+  }
+
+  @Test def sortsOnSeveralColumns() {
+    val in = (0 until 100).map(i => Map("a" -> i % 2, "b" -> i))
+    val input = new FakePipe(in, "a" -> IntegerType(), "b" -> IntegerType())
+
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true),
+      SortItem(Identifier("b"), ascending = false)), Literal(3))
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("b")).toList
+
+    assert(result === List(98, 96, 94))
+  }
+
+  @Test def limitOfZeroReturnsNothing() {
+    val input = createFakePipeWith(10)
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(0))
+    val result = pipe.createResults(QueryStateHelper.empty).toList
+
+    assert(result === List.empty)
+  }
+
   private def createFakePipeWith(count: Int): FakePipe = {
 
     val r = new Random(1337)
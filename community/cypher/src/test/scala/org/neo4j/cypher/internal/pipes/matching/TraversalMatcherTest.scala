@@ -28,6 +28,7 @@ import org.neo4j.graphdb.Direction.BOTH
 import org.neo4j.cypher.internal.ExecutionContext
 import org.neo4j.cypher.internal.pipes.QueryState
 import org.neo4j.cypher.internal.commands.True
+import collection.JavaConverters._
 
 
 class TraversalMatcherTest extends GraphDatabaseTestBase {
@@ -102,6 +103,34 @@ class TraversalMatcherTest extends GraphDatabaseTestBase {
     assert(result.head.endNode() === c)
   }
 
+  @Test def manyPathsBetweenTwoBoundNodes() {
+    /*Data nodes and rels
+     *
+     * (a)-A->(b1..b10)-B->(c1..c10)-C->(d), with every b related to every c
+     */
+    val a = createNode("a")
+    val d = createNode("d")
+    val bs = (1 to 10).map(i => createNode("b" + i))
+    val cs = (1 to 10).map(i => createNode("c" + i))
+    bs.foreach(b => relate(a, b, "A"))
+    for (b <- bs; c <- cs) relate(b, c, "B")
+    cs.foreach(c => relate(c, d, "C"))
+
+    val step3 = SingleStep(2, Seq("C"), OUTGOING, None, True(), True())
+    val step2 = SingleStep(1, Seq("B"), OUTGOING, Some(step3), True(), True())
+    val step1 = SingleStep(0, Seq("A"), OUTGOING, Some(step2), True(), True())
+
+    val matcher = new BidirectionalTraversalMatcher(step1, produce(a), produce(d))
+
+    val queryState = QueryStateHelper.queryStateFrom(graph)
+
+    val result: Seq[Path] = matcher.findMatchingPaths(queryState, ExecutionContext()).toSeq
+
+    assert(result.size === 100)
+    assert(result.map(p => p.nodes().asScala.toList).toSet.size === 100)
+    assert(result.forall(p => p.startNode() == a && p.endNode() == d && p.length() == 3))
+  }
+
   @Test def fullUndirected2NodeGraph()
   {
     val nodeA = createNode("a")
@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.cache.MonitorGc;
 import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.BYTES;
+import static org.neo4j.helpers.Settings.DURATION;
 import static org.neo4j.helpers.Settings.DURATION_FORMAT;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.FLOAT;
@@ -101,6 +102,16 @@ public abstract class GraphDatabaseSettings
     @Description("Used to set the number of Cypher query execution plans that are cached.")
     public static Setting<Integer> query_cache_size = setting( "query_cache_size", INTEGER, "100", min( 0 ) );
 
+    @Description("The number of rows a Cypher ORDER BY keeps in memory before it writes them to temporary files as " +
+            "sorted runs, to be merged back when the result is read. 0 means that sorting is always done in memory.")
+    public static Setting<Integer> query_sort_spill_threshold = setting( "query_sort_spill_threshold", INTEGER, "0",
+            min( 0 ) );
+
+    @Description("The largest number of sorted runs a Cypher ORDER BY reads at the same time. When there are more, " +
+            "groups of them are first merged into larger runs.")
+    public static Setting<Integer> query_sort_merge_fan_in = setting( "query_sort_merge_fan_in", INTEGER, "64",
+            min( 2 ) );
+
     // Store files
     @Description("The directory where the database files are located.")
     public static final Setting<File> store_dir = setting("store_dir", PATH, NO_DEFAULT );
@@ -113,6 +124,11 @@ public abstract class GraphDatabaseSettings
             "setting. This should generally not be changed.")
     public static final Setting<File> logical_log = setting("logical_log", PATH, "nioneo_logical.log", basePath(store_dir));
 
+    @Description("The directory where a Cypher ORDER BY writes its sorted runs, either an absolute path or relative " +
+            "to the store_dir setting.")
+    public static final Setting<File> query_sort_spill_directory = setting("query_sort_spill_directory", PATH,
+            "sort_runs", basePath(store_dir) );
+
     // Remote logging
     @Description("Whether to enable logging to a remote server or not.")
     public static final Setting<Boolean> remote_logging_enabled = setting("remote_logging_enabled", BOOLEAN, FALSE );
@@ -150,6 +166,12 @@ public abstract class GraphDatabaseSettings
     @Description("Integer value that sets the maximum number of open lucene index searchers.")
     public static Setting<Integer> lucene_searcher_cache_size = setting("lucene_searcher_cache_size",INTEGER, Integer.toString( Integer.MAX_VALUE ), min( 1 ));
 
+    @Description("Whether or not lucene index searchers should be refreshed in the background right after a commit " +
+            "has changed their index, instead of by the first read that comes after it. Reads still always see " +
+            "committed changes.")
+    public static Setting<Boolean> lucene_searcher_refresh_in_background = setting(
+            "lucene_searcher_refresh_in_background", BOOLEAN, FALSE );
+
     @Description("NOTE: This no longer has any effect. Integer value that sets the maximum number of open lucene " +
             "index writers.")
     @Deprecated
@@ -174,6 +196,32 @@ public abstract class GraphDatabaseSettings
     public static final Setting<Long> logical_log_rotation_threshold = setting( "logical_log_rotation_threshold",
             Settings.LONG_WITH_OPTIONAL_UNIT, "25M" );
 
+    @Description( "Let concurrently committing transactions share a single force of the logical logs. A committed " +
+                  "transaction becomes visible to other transactions as soon as it has been applied, but the " +
+                  "committing thread doesn't return until its commit entry has been forced to disk." )
+    public static final Setting<Boolean> group_commit = setting( "group_commit", BOOLEAN, FALSE );
+
+    @Description( "The maximum number of transactions to make durable with a single force when using group commit." )
+    public static final Setting<Integer> group_commit_max_batch_size = setting( "group_commit_max_batch_size",
+            INTEGER, "100", min( 1 ) );
+
+    @Description( "How long the transaction leading a group commit may wait for more transactions to join it " +
+                  "before forcing the logical log. 0 means forcing right away, batching only the transactions " +
+                  "that committed while the previous force was in progress." )
+    public static final Setting<Long> group_commit_max_wait = setting( "group_commit_max_wait", DURATION, "0ms" );
+
+    @Description( "The number of independently synchronized tables the lock manager spreads locked resources " +
+                  "over. With the default of 1 all lock and release calls synchronize on a single table, which " +
+                  "limits write concurrency on machines with many cores." )
+    public static final Setting<Integer> lock_manager_stripes = setting( "lock_manager_stripes", INTEGER, "1",
+            min( 1 ) );
+
+    @Description( "The number of threads scanning the node store when schema indexes are populated. Indexes " +
+                  "that are populated at the same time, e.g. when the database starts after a batch import, share " +
+                  "a single scan of the store." )
+    public static final Setting<Integer> index_population_threads = setting( "index_population_threads", INTEGER,
+            "" + Runtime.getRuntime().availableProcessors(), min( 1 ) );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     public static final Setting<Boolean> rebuild_idgenerators_fast = setting("rebuild_idgenerators_fast", BOOLEAN, TRUE );
@@ -182,6 +230,10 @@ public abstract class GraphDatabaseSettings
     @Description("Tell Neo4j to use memory mapped buffers for accessing the native storage layer.")
     public static final Setting<Boolean> use_memory_mapped_buffers = setting( "use_memory_mapped_buffers", BOOLEAN, Boolean.toString(!Settings.osIsWindows()));
 
+    @Description("Use a single page cache shared between all stores, sized by all_stores_total_mapped_memory_size " +
+            "and mapped_memory_page_size, instead of memory mapping a configured amount of each store separately.")
+    public static final Setting<Boolean> use_page_cache = setting( "use_page_cache", BOOLEAN, FALSE );
+
     @Description("Target size for pages of mapped memory.")
     public static final Setting<Long> mapped_memory_page_size = setting("mapped_memory_page_size", BYTES, "1M" );
 
@@ -222,6 +274,10 @@ public abstract class GraphDatabaseSettings
     @Description("How many relationships to read at a time during iteration")
     public static final Setting<Integer> relationship_grab_size = setting("relationship_grab_size", INTEGER, "100", min( 1 ));
 
+    @Description("Number of relationships a node can have before its relationships are grouped by type and " +
+            "direction in the store, so that reading the relationships of one type doesn't have to read all of them")
+    public static final Setting<Integer> dense_node_threshold = setting("dense_node_threshold", INTEGER, "50", min( 1 ));
+
     @Description("Whether to grab locks on files or not.")
     @Deprecated
     public static final Setting<Boolean> grab_file_lock = setting("grab_file_lock", BOOLEAN, TRUE );
@@ -77,8 +77,15 @@ public class BridgingCacheAccess implements CacheAccessBackDoor
     @Override
     public void removeSchemaRuleFromCache( long id )
     {
-        schemaCache.removeSchemaRule( id );
-        schemaState.clear();
+        SchemaRule rule = schemaCache.removeSchemaRule( id );
+        if ( rule != null )
+        {
+            schemaState.clear( rule.getLabel() );
+        }
+        else
+        {
+            schemaState.clear();
+        }
     }
 
     @Override
@@ -113,8 +113,10 @@ import org.neo4j.kernel.impl.core.TxEventSyncHookFactory;
 import org.neo4j.kernel.impl.index.IndexStore;
 import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.PageCacheWindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.nioneo.xa.NioNeoDbPersistenceSource;
@@ -448,7 +450,7 @@ public abstract class InternalAbstractGraphDatabase
             if ( GraphDatabaseSettings.tx_manager_impl.getDefaultValue().equals( serviceName ) )
             {
                 txManager = new TxManager( this.storeDir, xaDataSourceManager, kernelPanicEventGenerator,
-                        logging.getMessagesLog( TxManager.class ), fileSystem, stateFactory );
+                        logging.getMessagesLog( TxManager.class ), fileSystem, stateFactory, config );
             }
             else
             {
@@ -736,10 +738,19 @@ public abstract class InternalAbstractGraphDatabase
 
     protected StoreFactory createStoreFactory()
     {
-        return new StoreFactory( config, idGeneratorFactory, new DefaultWindowPoolFactory(), fileSystem,
+        return new StoreFactory( config, idGeneratorFactory, createWindowPoolFactory(), fileSystem,
                 logging.getMessagesLog( StoreFactory.class ), txHook );
     }
 
+    protected WindowPoolFactory createWindowPoolFactory()
+    {
+        if ( config.get( GraphDatabaseSettings.use_page_cache ) )
+        {
+            return new PageCacheWindowPoolFactory( config );
+        }
+        return new DefaultWindowPoolFactory();
+    }
+
     protected RecoveryVerifier createRecoveryVerifier()
     {
         return RecoveryVerifier.ALWAYS_VALID;
@@ -846,7 +857,7 @@ public abstract class InternalAbstractGraphDatabase
 
     protected LockManager createLockManager()
     {
-        return new LockManagerImpl( new RagManager() );
+        return new LockManagerImpl( new RagManager(), config.get( GraphDatabaseSettings.lock_manager_stripes ) );
     }
 
     protected Logging createLogging()
@@ -27,7 +27,8 @@ public interface SchemaStateOperations
     /**
      * The schema state is flushed when ever the schema is updated. If you build objects
      * the rely on the current state of the schema, use this to make sure you don't use
-     * outdated schema information.
+     * outdated schema information. Values that are {@link org.neo4j.kernel.api.LabelScopedSchemaState} are
+     * instead asked to invalidate what they know about a label when only the schema of that label changes.
      *
      * Additionally, schema state entries are evicted using an LRU policy. The size
      * of the LRU cache is determined by GraphDatabaseSettings.query_cache_size
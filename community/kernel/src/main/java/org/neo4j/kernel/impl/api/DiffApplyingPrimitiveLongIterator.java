@@ -22,6 +22,10 @@ package org.neo4j.kernel.impl.api;
 import java.util.Iterator;
 import java.util.Set;
 
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
+
+import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
+
 public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLongIterator
 {
     private enum Phase
@@ -57,18 +61,21 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
     }
 
     private final PrimitiveLongIterator source;
-    private final Iterator<?> addedElementsIterator;
+    private final PrimitiveLongIterator addedElementsIterator;
     private final Set<?> addedElements;
     private final Set<?> removedElements;
 
     Phase phase;
 
+    @SuppressWarnings( "unchecked" )
     public DiffApplyingPrimitiveLongIterator( PrimitiveLongIterator source,
                                               Set<?> addedElements, Set<?> removedElements )
     {
         this.source = source;
         this.addedElements = addedElements;
-        this.addedElementsIterator = addedElements.iterator();
+        this.addedElementsIterator = addedElements instanceof PrimitiveLongSet ?
+                ((PrimitiveLongSet) addedElements).longIterator() :
+                toPrimitiveLongIterator( (Iterator<Long>) addedElements.iterator() );
         this.removedElements = removedElements;
         phase = Phase.FILTERED_SOURCE;
 
@@ -87,7 +94,7 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
         {
             long value = source.next();
             next( value );
-            if ( !removedElements.contains( value ) && !addedElements.contains( value ) )
+            if ( !contains( removedElements, value ) && !contains( addedElements, value ) )
             {
                 return;
             }
@@ -96,6 +103,12 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
         transitionToAddedElements();
     }
 
+    private static boolean contains( Set<?> elements, long value )
+    {
+        return elements instanceof PrimitiveLongSet ?
+                ((PrimitiveLongSet) elements).contains( value ) : elements.contains( value );
+    }
+
     private void transitionToAddedElements()
     {
         phase = !addedElementsIterator.hasNext() ? Phase.NO_ADDED_ELEMENTS : Phase.ADDED_ELEMENTS;
@@ -106,7 +119,7 @@ public final class DiffApplyingPrimitiveLongIterator extends AbstractPrimitiveLo
     {
         if ( addedElementsIterator.hasNext() )
         {
-            next( (Long) addedElementsIterator.next() );
+            next( addedElementsIterator.next() );
         }
         else
         {
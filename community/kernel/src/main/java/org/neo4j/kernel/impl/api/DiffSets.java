@@ -189,7 +189,7 @@ public class DiffSets<T>
         return new DiffSets<>( asSet( newAdded ), asSet( newRemoved ) );
     }
 
-    private Set<T> added( boolean create )
+    protected Set<T> added( boolean create )
     {
         if ( addedElements == null )
         {
@@ -202,7 +202,7 @@ public class DiffSets<T>
         return addedElements;
     }
 
-    private Set<T> removed( boolean create )
+    protected Set<T> removed( boolean create )
     {
         if ( removedElements == null )
         {
@@ -235,7 +235,7 @@ public class DiffSets<T>
         return added( false ).size() - removed( false ).size();
     }
 
-    private Set<T> newSet()
+    protected Set<T> newSet()
     {
         return new HashSet<>();
     }
@@ -19,8 +19,8 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.RollbackException;
@@ -446,7 +446,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
         {
             if ( hasTxStateWithChanges() )
             {
-                final AtomicBoolean clearState = new AtomicBoolean( false );
+                final Set<Long> labelsWithChangedConstraints = new HashSet<>();
                 txState().accept( new TxState.Visitor()
                 {
                     @Override
@@ -505,7 +505,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
                             // TODO: Revisit decision to rethrow as RuntimeException.
                             throw new ConstraintCreationException( e );
                         }
-                        clearState.set( true );
+                        labelsWithChangedConstraints.add( element.label() );
                         long constraintId = schemaStorage.newRuleId();
                         persistenceManager.createSchemaRule( UniquenessConstraintRule.uniquenessConstraintRule(
                                 constraintId, element.label(), element.propertyKeyId(), indexId ) );
@@ -517,7 +517,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
                     {
                         try
                         {
-                            clearState.set( true );
+                            labelsWithChangedConstraints.add( element.label() );
                             UniquenessConstraintRule rule = schemaStorage
                                     .uniquenessConstraint( element.label(), element.propertyKeyId() );
                             persistenceManager.dropSchemaRule( rule.getId() );
@@ -533,9 +533,9 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
                         visitRemovedIndex( new IndexDescriptor( element.label(), element.propertyKeyId() ), true );
                     }
                 } );
-                if ( clearState.get() )
+                for ( long labelId : labelsWithChangedConstraints )
                 {
-                    schemaState.clear();
+                    schemaState.clear( labelId );
                 }
             }
         }
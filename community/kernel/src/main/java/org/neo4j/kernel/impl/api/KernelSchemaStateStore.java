@@ -20,11 +20,13 @@
 package org.neo4j.kernel.impl.api;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.neo4j.helpers.Function;
+import org.neo4j.kernel.api.LabelScopedSchemaState;
 
 /**
  * Used for the actual storage of "schema state".
@@ -116,4 +118,27 @@ public class KernelSchemaStateStore implements UpdateableSchemaState
             lock.writeLock().unlock();
         }
     }
+
+    public void clear( long labelId )
+    {
+        lock.writeLock().lock();
+        try {
+            Iterator<Object> values = state.values().iterator();
+            while ( values.hasNext() )
+            {
+                Object value = values.next();
+                if ( value instanceof LabelScopedSchemaState )
+                {
+                    ((LabelScopedSchemaState) value).invalidate( labelId );
+                }
+                else
+                {
+                    values.remove();
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
 }
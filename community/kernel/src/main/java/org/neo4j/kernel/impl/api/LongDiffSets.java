@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.Set;
+
+import org.neo4j.helpers.Predicate;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
+
+import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
+
+/**
+ * {@link DiffSets} of entity ids, keeping added and removed ids in {@link PrimitiveLongSet primitive sets}.
+ * The {@code long} overloads of the mutation and query methods avoid boxing altogether and should be
+ * preferred, the {@code Long} ones inherited from {@link DiffSets} still work.
+ */
+public class LongDiffSets extends DiffSets<Long>
+{
+    public boolean add( long elem )
+    {
+        boolean result = longs( added( true ) ).add( elem );
+        PrimitiveLongSet removed = longs( removed( false ) );
+        if ( removed != null )
+        {
+            removed.remove( elem );
+        }
+        return result;
+    }
+
+    public boolean remove( long elem )
+    {
+        PrimitiveLongSet added = longs( added( false ) );
+        // Add to the removed elements only if it wasn't removed from the added elements
+        return (added != null && added.remove( elem )) || longs( removed( true ) ).add( elem );
+    }
+
+    public boolean isAdded( long elem )
+    {
+        PrimitiveLongSet added = longs( added( false ) );
+        return added != null && added.contains( elem );
+    }
+
+    public boolean isRemoved( long elem )
+    {
+        PrimitiveLongSet removed = longs( removed( false ) );
+        return removed != null && removed.contains( elem );
+    }
+
+    public PrimitiveLongIterator addedIterator()
+    {
+        PrimitiveLongSet added = longs( added( false ) );
+        return added != null ? added.longIterator() : emptyPrimitiveLongIterator();
+    }
+
+    @Override
+    public LongDiffSets filterAdded( Predicate<Long> addedFilter )
+    {
+        LongDiffSets result = new LongDiffSets();
+        for ( PrimitiveLongIterator added = addedIterator(); added.hasNext(); )
+        {
+            long elem = added.next();
+            if ( addedFilter.accept( elem ) )
+            {
+                result.add( elem );
+            }
+        }
+        PrimitiveLongSet removed = longs( removed( false ) );
+        if ( removed != null )
+        {
+            for ( PrimitiveLongIterator iterator = removed.longIterator(); iterator.hasNext(); )
+            {
+                result.remove( iterator.next() );
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected Set<Long> newSet()
+    {
+        return new PrimitiveLongSet();
+    }
+
+    /**
+     * @return the given set as created by {@link #newSet()}, or {@code null} if it hasn't been created yet.
+     */
+    private static PrimitiveLongSet longs( Set<Long> set )
+    {
+        return set instanceof PrimitiveLongSet ? (PrimitiveLongSet) set : null;
+    }
+}
@@ -91,16 +91,20 @@ public class SchemaCache
         ruleByIdMap.put( rule.getId(), rule );
     }
 
-    public void removeSchemaRule( long id )
+    /**
+     * @return the removed rule, or {@code null} if there was no rule with the given id in the cache.
+     */
+    public SchemaRule removeSchemaRule( long id )
     {
         SchemaRule rule = ruleByIdMap.remove( id );
         if ( rule == null )
-            return;
+            return null;
         
         Map<Long, SchemaRule> rules = rulesByLabelMap.get( rule.getLabel() );
         if ( rules.remove( id ) != null && rules.isEmpty() )
         {
             rulesByLabelMap.remove( rule.getLabel() );
         }
+        return rule;
     }
 }
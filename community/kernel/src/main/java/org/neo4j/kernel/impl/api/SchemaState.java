@@ -28,4 +28,11 @@ public interface SchemaState {
     <K, V> V getOrCreate( K key, Function<K, V> creator );
 
     void clear();
+
+    /**
+     * Invalidates the state that depends on the schema of the given label. Entries that are
+     * {@link org.neo4j.kernel.api.LabelScopedSchemaState} get to drop just the parts of themselves that depend on
+     * the label, all other entries are removed.
+     */
+    void clear( long labelId );
 }
@@ -52,7 +52,6 @@ import static java.util.Collections.emptyList;
 
 import static org.neo4j.helpers.collection.Iterables.option;
 import static org.neo4j.helpers.collection.IteratorUtil.singleOrNull;
-import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
 
 public class StateHandlingStatementOperations implements
     EntityReadOperations,
@@ -128,8 +127,7 @@ public class StateHandlingStatementOperations implements
 
             if ( state.txState().nodeIsAddedInThisTx( nodeId ) )
             {
-                return
-                    toPrimitiveLongIterator( state.txState().nodeStateLabelDiffSets( nodeId ).getAdded().iterator() );
+                return state.txState().nodeStateLabelDiffSets( nodeId ).addedIterator();
             }
 
             return state.txState().nodeStateLabelDiffSets( nodeId ).applyPrimitiveLongIterator(
@@ -20,9 +20,11 @@
 package org.neo4j.kernel.impl.api.index;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 
@@ -46,30 +48,31 @@ import static org.neo4j.helpers.collection.Iterables.filter;
 import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
 
 /**
- * Represents one job of initially populating an index over existing data in the database.
- * Scans the store directly.
+ * Represents one job of initially populating one or more indexes over existing data in the database.
+ * Scans the store directly, once, no matter how many indexes are being populated. Each index is populated
+ * by its own {@link IndexPopulation}, which can fail or be cancelled without affecting the others.
  * 
  * @author Mattias Persson
  */
 public class IndexPopulationJob implements Runnable
 {
     private final IndexStoreView storeView;
-    private final String indexUserDescription;
-
-    // NOTE: unbounded queue expected here
-    private final Queue<NodePropertyUpdate> queue = new ConcurrentLinkedQueue<>();
-
-    private final IndexDescriptor descriptor;
-    private final FailedIndexProxyFactory failureDelegate;
-    private final IndexPopulator populator;
-    private final FlippableIndexProxy flipper;
+    // Populations are added before the job is started, and never removed
+    private final List<IndexPopulation> populations = new CopyOnWriteArrayList<>();
     private final UpdateableSchemaState updateableSchemaState;
     private final StringLogger log;
     private final CountDownLatch doneSignal = new CountDownLatch( 1 );
 
     private volatile StoreScan<IndexPopulationFailedKernelException> storeScan;
     private volatile boolean cancelled;
-    private final SchemaIndexProvider.Descriptor providerDescriptor;
+
+    public IndexPopulationJob( IndexStoreView storeView, UpdateableSchemaState updateableSchemaState,
+                               Logging logging )
+    {
+        this.storeView = storeView;
+        this.updateableSchemaState = updateableSchemaState;
+        this.log = logging.getMessagesLog( getClass() );
+    }
 
     public IndexPopulationJob(IndexDescriptor descriptor, SchemaIndexProvider.Descriptor providerDescriptor,
                               String indexUserDescription,
@@ -78,110 +81,66 @@ public class IndexPopulationJob implements Runnable
                               IndexStoreView storeView, UpdateableSchemaState updateableSchemaState,
                               Logging logging)
     {
-        this.descriptor = descriptor;
-        this.providerDescriptor = providerDescriptor;
-        this.populator = populator;
-        this.flipper = flipper;
-        this.storeView = storeView;
-        this.updateableSchemaState = updateableSchemaState;
-        this.indexUserDescription = indexUserDescription;
-        this.failureDelegate = failureDelegateFactory;
-        this.log = logging.getMessagesLog( getClass() );
+        this( storeView, updateableSchemaState, logging );
+        addPopulation( descriptor, providerDescriptor, indexUserDescription, failureDelegateFactory, populator,
+                flipper );
     }
-    
+
+    /**
+     * Adds an index to populate as part of this job. Must be called before the job is started.
+     */
+    public IndexPopulation addPopulation( IndexDescriptor descriptor,
+                                          SchemaIndexProvider.Descriptor providerDescriptor,
+                                          String indexUserDescription,
+                                          FailedIndexProxyFactory failureDelegateFactory,
+                                          IndexPopulator populator, FlippableIndexProxy flipper )
+    {
+        IndexPopulation population = new IndexPopulation( descriptor, providerDescriptor, indexUserDescription,
+                failureDelegateFactory, populator, flipper );
+        populations.add( population );
+        return population;
+    }
+
     @Override
     public void run()
     {
         String oldThreadName = currentThread().getName();
-        currentThread().setName( format( "Index populator on %s [runs on: %s]", indexUserDescription, oldThreadName ) );
-        boolean success = false;
-        Throwable failureCause = null;
+        currentThread().setName( format( "Index populator on %s [runs on: %s]", indexUserDescriptions(),
+                oldThreadName ) );
         try
         {
-            try
+            for ( IndexPopulation population : populations )
             {
-                log.info( format("Index population started: [%s]", indexUserDescription) );
-                log.flush();
-                populator.create();
+                population.create();
+            }
 
+            try
+            {
                 indexAllNodes();
-                if ( cancelled )
-                    // We remain in POPULATING state
-                    return;
-
-                Callable<Void> duringFlip = new Callable<Void>()
-                {
-                    @Override
-                    public Void call() throws Exception
-                    {
-                        populateFromQueueIfAvailable( Long.MAX_VALUE );
-                        populator.close( true );
-                        updateableSchemaState.clear();
-                        return null;
-                    }
-                };
-
-                flipper.flip( duringFlip, failureDelegate );
-                success = true;
-                log.info( format("Index population completed. Index is now online: [%s]", indexUserDescription) );
-                log.flush();
             }
             catch ( Throwable t )
             {
-                // If the cause of index population failure is a conflict in a (unique) index, the conflict is the
-                // failure
-                if ( t instanceof IndexPopulationFailedKernelException )
+                // Failing to scan the store fails all indexes that are still being populated
+                for ( IndexPopulation population : populations )
                 {
-                    Throwable cause = t.getCause();
-                    if ( cause instanceof IndexEntryConflictException )
-                    {
-                        t = cause;
-                    }
+                    population.fail( t );
                 }
-
-                // Index conflicts are expected (for unique indexes) so we don't need to log them.
-                if ( !(t instanceof IndexEntryConflictException) /*TODO: && this is a unique index...*/ )
-                {
-                    log.error( format("Failed to populate index: [%s]", indexUserDescription), t );
-                    log.flush();
-                }
-
-                // Set failure cause to be stored persistently
-                failureCause = t;
-
-                // The flipper will have already flipped to a failed index context here, but
-                // it will not include the cause of failure, so we do another flip to a failed
-                // context that does.
-
-                // The reason for having the flipper transition to the failed index context in the first
-                // place is that we would otherwise introduce a race condition where updates could come
-                // in to the old context, if something failed in the job we send to the flipper.
-                flipper.flipTo( new FailedIndexProxy( descriptor, providerDescriptor, indexUserDescription,
-                                                      populator, failure( t ) ) );
             }
-            finally
-            {
-                try
-                {
-                    if ( !success )
-                    {
-                        if ( failureCause != null )
-                        {
-                            populator.markAsFailed( failure( failureCause ).asString() );
-                        }
+            if ( cancelled )
+                // We remain in POPULATING state
+                return;
 
-                        populator.close( false );
-                    }
-                }
-                catch ( Throwable e )
-                {
-                    log.error( format("Unable to close failed populator for index: [%s]", indexUserDescription), e );
-                    log.flush();
-                }
+            for ( IndexPopulation population : populations )
+            {
+                population.flip();
             }
         }
         finally
         {
+            for ( IndexPopulation population : populations )
+            {
+                population.closeIfNotDone();
+            }
             doneSignal.countDown();
             currentThread().setName( oldThreadName );
         }
@@ -189,75 +148,345 @@ public class IndexPopulationJob implements Runnable
 
     private void indexAllNodes() throws IndexPopulationFailedKernelException
     {
-        storeScan = storeView.visitNodesWithPropertyAndLabel( descriptor, new Visitor<NodePropertyUpdate,
-                IndexPopulationFailedKernelException>()
+        if ( !anyActivePopulation() )
+        {
+            return;
+        }
+
+        long[] labelIds = new long[populations.size()];
+        long[] propertyKeyIds = new long[populations.size()];
+        for ( int i = 0; i < labelIds.length; i++ )
+        {
+            labelIds[i] = populations.get( i ).descriptor.getLabelId();
+            propertyKeyIds[i] = populations.get( i ).descriptor.getPropertyKeyId();
+        }
+
+        storeScan = storeView.visitNodesWithPropertiesAndLabels( labelIds, propertyKeyIds,
+                new Visitor<NodePropertyUpdate, IndexPopulationFailedKernelException>()
         {
             @Override
             public boolean visit( NodePropertyUpdate update ) throws IndexPopulationFailedKernelException
             {
-                try
+                for ( IndexPopulation population : populations )
                 {
-                    populator.add( update.getNodeId(), update.getValueAfter() );
-                    populateFromQueueIfAvailable( update.getNodeId() );
+                    population.add( update );
                 }
-                catch ( Exception conflict )
+                if ( !anyActivePopulation() )
                 {
-                    throw new IndexPopulationFailedKernelException( descriptor, indexUserDescription, conflict );
+                    // All indexes failed or were dropped, no point in scanning any further
+                    storeScan.stop();
                 }
                 return false;
             }
         });
+        if ( cancelled )
+        {
+            // Cancelled before the scan got assigned, it would have been stopped right away anyway
+            return;
+        }
         storeScan.run();
     }
 
-    private void populateFromQueueIfAvailable( final long highestIndexedNodeId )
-            throws IndexEntryConflictException, IOException
+    private boolean anyActivePopulation()
     {
-        if ( !queue.isEmpty() )
+        for ( IndexPopulation population : populations )
         {
-            Predicate<NodePropertyUpdate> hasBeenIndexed = new Predicate<NodePropertyUpdate>()
+            if ( population.isActive() )
             {
-                @Override
-                public boolean accept( NodePropertyUpdate item )
-                {
-                    return item.getNodeId() <= highestIndexedNodeId;
-                }
-            };
+                return true;
+            }
+        }
+        return false;
+    }
 
-            populator.update( filter( hasBeenIndexed, queue ) );
+    private String indexUserDescriptions()
+    {
+        StringBuilder builder = new StringBuilder();
+        for ( IndexPopulation population : populations )
+        {
+            builder.append( builder.length() > 0 ? ", " : "" ).append( population.indexUserDescription );
         }
+        return builder.toString();
     }
 
+    /**
+     * Cancels the population of all indexes in this job.
+     */
     public Future<Void> cancel()
     {
         // Stop the population
-        if ( storeScan != null )
+        cancelled = true;
+        StoreScan<IndexPopulationFailedKernelException> scan = storeScan;
+        if ( scan != null )
         {
-            cancelled = true;
-            storeScan.stop();
+            scan.stop();
         }
-        
+
         return latchGuardedValue( NO_VALUE, doneSignal );
     }
 
+    /**
+     * Cancels the population of one of the indexes in this job. The scan keeps going for the other indexes,
+     * unless this was the last one.
+     */
+    public Future<Void> cancel( IndexPopulation population )
+    {
+        population.cancelled = true;
+        for ( IndexPopulation other : populations )
+        {
+            if ( !other.cancelled )
+            {
+                return latchGuardedValue( NO_VALUE, population.doneSignal );
+            }
+        }
+        return cancel();
+    }
+
     /**
      * A transaction happened that produced the given updates. Let this job incorporate its data
      * into, feeding it to the {@link IndexPopulator}.
      */
     public void update( Iterable<NodePropertyUpdate> updates )
     {
-        for ( NodePropertyUpdate update : updates )
-            queue.add( update );
+        for ( IndexPopulation population : populations )
+        {
+            population.update( updates );
+        }
     }
     
     @Override
     public String toString()
     {
-        return getClass().getSimpleName() + "[populator:" + populator + ", descriptor:" + descriptor + "]";
+        return getClass().getSimpleName() + populations;
     }
 
     public void awaitCompletion() throws InterruptedException
     {
         doneSignal.await();
     }
+
+    /**
+     * The population of one index, fed by the store scan of the {@link IndexPopulationJob} it belongs to. All
+     * methods but {@link #update(Iterable)} are called from the thread running the job.
+     */
+    public class IndexPopulation
+    {
+        private final IndexDescriptor descriptor;
+        private final SchemaIndexProvider.Descriptor providerDescriptor;
+        private final String indexUserDescription;
+        private final FailedIndexProxyFactory failureDelegate;
+        private final IndexPopulator populator;
+        private final FlippableIndexProxy flipper;
+        private final CountDownLatch doneSignal = new CountDownLatch( 1 );
+
+        // NOTE: unbounded queue expected here
+        private final Queue<NodePropertyUpdate> queue = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean cancelled;
+        private boolean done;
+
+        IndexPopulation( IndexDescriptor descriptor, SchemaIndexProvider.Descriptor providerDescriptor,
+                         String indexUserDescription, FailedIndexProxyFactory failureDelegate,
+                         IndexPopulator populator, FlippableIndexProxy flipper )
+        {
+            this.descriptor = descriptor;
+            this.providerDescriptor = providerDescriptor;
+            this.indexUserDescription = indexUserDescription;
+            this.failureDelegate = failureDelegate;
+            this.populator = populator;
+            this.flipper = flipper;
+        }
+
+        private boolean isActive()
+        {
+            return !done && !cancelled;
+        }
+
+        private void create()
+        {
+            try
+            {
+                log.info( format("Index population started: [%s]", indexUserDescription) );
+                log.flush();
+                populator.create();
+            }
+            catch ( Throwable t )
+            {
+                fail( t );
+            }
+        }
+
+        private void add( NodePropertyUpdate update )
+        {
+            if ( !isActive() )
+            {
+                if ( cancelled )
+                {
+                    // Dropped during the scan, let whoever dropped it know as soon as possible
+                    closeIfNotDone();
+                }
+                return;
+            }
+            if ( update.getPropertyKeyId() != descriptor.getPropertyKeyId() ||
+                 !update.forLabel( descriptor.getLabelId() ) )
+            {
+                return;
+            }
+
+            try
+            {
+                populator.add( update.getNodeId(), update.getValueAfter() );
+                populateFromQueueIfAvailable( update.getNodeId() );
+            }
+            catch ( Exception conflict )
+            {
+                fail( new IndexPopulationFailedKernelException( descriptor, indexUserDescription, conflict ) );
+            }
+        }
+
+        private void flip()
+        {
+            if ( !isActive() )
+            {
+                return;
+            }
+
+            try
+            {
+                Callable<Void> duringFlip = new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        populateFromQueueIfAvailable( Long.MAX_VALUE );
+                        populator.close( true );
+                        updateableSchemaState.clear( descriptor.getLabelId() );
+                        return null;
+                    }
+                };
+
+                flipper.flip( duringFlip, failureDelegate );
+                done();
+                log.info( format("Index population completed. Index is now online: [%s]", indexUserDescription) );
+                log.flush();
+            }
+            catch ( Throwable t )
+            {
+                fail( t );
+            }
+        }
+
+        private void fail( Throwable t )
+        {
+            if ( done )
+            {
+                return;
+            }
+
+            // If the cause of index population failure is a conflict in a (unique) index, the conflict is the
+            // failure
+            if ( t instanceof IndexPopulationFailedKernelException )
+            {
+                Throwable cause = t.getCause();
+                if ( cause instanceof IndexEntryConflictException )
+                {
+                    t = cause;
+                }
+            }
+
+            // Index conflicts are expected (for unique indexes) so we don't need to log them.
+            if ( !(t instanceof IndexEntryConflictException) /*TODO: && this is a unique index...*/ )
+            {
+                log.error( format("Failed to populate index: [%s]", indexUserDescription), t );
+                log.flush();
+            }
+
+            try
+            {
+                // The flipper will have already flipped to a failed index context here, but
+                // it will not include the cause of failure, so we do another flip to a failed
+                // context that does.
+
+                // The reason for having the flipper transition to the failed index context in the first
+                // place is that we would otherwise introduce a race condition where updates could come
+                // in to the old context, if something failed in the job we send to the flipper.
+                flipper.flipTo( new FailedIndexProxy( descriptor, providerDescriptor, indexUserDescription,
+                                                      populator, failure( t ) ) );
+
+                // Set failure cause to be stored persistently
+                populator.markAsFailed( failure( t ).asString() );
+            }
+            catch ( Throwable e )
+            {
+                log.error( format("Unable to mark index as failed: [%s]", indexUserDescription), e );
+                log.flush();
+            }
+            finally
+            {
+                closeIfNotDone();
+            }
+        }
+
+        private void closeIfNotDone()
+        {
+            if ( done )
+            {
+                return;
+            }
+
+            try
+            {
+                populator.close( false );
+            }
+            catch ( Throwable e )
+            {
+                log.error( format("Unable to close failed populator for index: [%s]", indexUserDescription), e );
+                log.flush();
+            }
+            finally
+            {
+                done();
+            }
+        }
+
+        private void done()
+        {
+            done = true;
+            doneSignal.countDown();
+        }
+
+        private void populateFromQueueIfAvailable( final long highestIndexedNodeId )
+                throws IndexEntryConflictException, IOException
+        {
+            if ( !queue.isEmpty() )
+            {
+                Predicate<NodePropertyUpdate> hasBeenIndexed = new Predicate<NodePropertyUpdate>()
+                {
+                    @Override
+                    public boolean accept( NodePropertyUpdate item )
+                    {
+                        return item.getNodeId() <= highestIndexedNodeId;
+                    }
+                };
+
+                populator.update( filter( hasBeenIndexed, queue ) );
+            }
+        }
+
+        /**
+         * A transaction happened that produced the given updates. Let this population incorporate its data
+         * into, feeding it to the {@link IndexPopulator}.
+         */
+        public void update( Iterable<NodePropertyUpdate> updates )
+        {
+            for ( NodePropertyUpdate update : updates )
+                queue.add( update );
+        }
+
+        @Override
+        public String toString()
+        {
+            return "[populator:" + populator + ", descriptor:" + descriptor + "]";
+        }
+    }
 }
@@ -35,12 +35,14 @@ public interface IndexStoreView
     Iterator<Pair<Integer, Object>> nodeProperties( long nodeId, Iterator<Long> propertyKeys );
 
     /**
-     * Retrieve all nodes in the database with a given label and property, as pairs of node id and property value.
+     * Retrieve all nodes in the database which has got one or more of the given labels AND one or more of the
+     * given property key ids, as one update per such property of each node. The updates are visited in node
+     * id order, from the thread running the scan.
      *
      * @return a {@link StoreScan} to start and to stop the scan.
      */
-    <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel(
-            IndexDescriptor descriptor, Visitor<NodePropertyUpdate, FAILURE> visitor );
+    <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertiesAndLabels(
+            long[] labelIds, long[] propertyKeyIds, Visitor<NodePropertyUpdate, FAILURE> visitor );
 
     /**
      * Retrieve all nodes in the database which has got one or more of the given labels AND
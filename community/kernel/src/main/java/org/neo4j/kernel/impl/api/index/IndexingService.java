@@ -185,17 +185,22 @@ public class IndexingService extends LifecycleAdapter
         // Drop placeholder proxies for indexes that need to be rebuilt
         dropIndexes( rebuildingIndexes );
 
-        // Rebuild indexes by recreating and repopulating them
-        for ( Map.Entry<Long, Pair<IndexDescriptor, SchemaIndexProvider.Descriptor>> entry :
-                rebuildingIndexDescriptors.entrySet() )
+        // Rebuild indexes by recreating and repopulating them, all of them from a single scan of the store
+        if ( !rebuildingIndexDescriptors.isEmpty() )
         {
-            long ruleId = entry.getKey();
-            Pair<IndexDescriptor, SchemaIndexProvider.Descriptor> descriptors = entry.getValue();
-            IndexDescriptor indexDescriptor = descriptors.first();
-            SchemaIndexProvider.Descriptor providerDescriptor = descriptors.other();
-            IndexProxy indexProxy =
-                createAndStartPopulatingIndexProxy( ruleId, indexDescriptor, providerDescriptor, serviceRunning );
-            indexes.put( ruleId, indexProxy );
+            IndexPopulationJob populationJob = newIndexPopulationJob();
+            for ( Map.Entry<Long, Pair<IndexDescriptor, SchemaIndexProvider.Descriptor>> entry :
+                    rebuildingIndexDescriptors.entrySet() )
+            {
+                long ruleId = entry.getKey();
+                Pair<IndexDescriptor, SchemaIndexProvider.Descriptor> descriptors = entry.getValue();
+                IndexDescriptor indexDescriptor = descriptors.first();
+                SchemaIndexProvider.Descriptor providerDescriptor = descriptors.other();
+                IndexProxy indexProxy = createAndStartPopulatingIndexProxy( populationJob,
+                        ruleId, indexDescriptor, providerDescriptor, serviceRunning );
+                indexes.put( ruleId, indexProxy );
+            }
+            scheduler.schedule( populationJob );
         }
 
         serviceRunning = true;
@@ -265,8 +270,10 @@ public class IndexingService extends LifecycleAdapter
             assert index == null : "Index " + rule + " already exists";
             try
             {
-                index = createAndStartPopulatingIndexProxy(
+                IndexPopulationJob populationJob = newIndexPopulationJob();
+                index = createAndStartPopulatingIndexProxy( populationJob,
                             ruleId, descriptor, rule.getProviderDescriptor(), rule.isConstraintIndex() );
+                scheduler.schedule( populationJob );
             }
             catch ( IOException e )
             {
@@ -338,7 +345,13 @@ public class IndexingService extends LifecycleAdapter
         }
     }
 
-    private IndexProxy createAndStartPopulatingIndexProxy( final long ruleId,
+    private IndexPopulationJob newIndexPopulationJob()
+    {
+        return new IndexPopulationJob( storeView, updateableSchemaState, logging );
+    }
+
+    private IndexProxy createAndStartPopulatingIndexProxy( IndexPopulationJob populationJob,
+                                                           final long ruleId,
                                                            final IndexDescriptor descriptor,
                                                            final SchemaIndexProvider.Descriptor providerDescriptor,
                                                            final boolean unique ) throws IOException
@@ -353,10 +366,10 @@ public class IndexingService extends LifecycleAdapter
         FailedIndexProxyFactory failureDelegateFactory =
             new FailedPopulatingIndexProxyFactory( descriptor, providerDescriptor, populator, indexUserDescription );
 
+        IndexPopulationJob.IndexPopulation population = populationJob.addPopulation( descriptor,
+                providerDescriptor, indexUserDescription, failureDelegateFactory, populator, flipper );
         PopulatingIndexProxy populatingIndex =
-            new PopulatingIndexProxy( scheduler, descriptor, providerDescriptor,
-                    failureDelegateFactory, populator, flipper, storeView,
-                indexUserDescription, updateableSchemaState, logging );
+            new PopulatingIndexProxy( descriptor, providerDescriptor, populationJob, population );
         flipper.flipTo( populatingIndex );
 
         // Prepare for flipping to online mode
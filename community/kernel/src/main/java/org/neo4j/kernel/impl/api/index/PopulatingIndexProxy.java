@@ -24,50 +24,40 @@ import java.util.concurrent.Future;
 
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelException;
-import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
-import org.neo4j.kernel.impl.api.UpdateableSchemaState;
-import org.neo4j.kernel.impl.util.JobScheduler;
-import org.neo4j.kernel.logging.Logging;
 
 
 public class PopulatingIndexProxy implements IndexProxy
 {
-    private final JobScheduler scheduler;
     private final IndexDescriptor descriptor;
     private final SchemaIndexProvider.Descriptor providerDescriptor;
     private final IndexPopulationJob job;
+    private final IndexPopulationJob.IndexPopulation population;
 
-    public PopulatingIndexProxy( JobScheduler scheduler,
-                                 final IndexDescriptor descriptor,
-                                 final SchemaIndexProvider.Descriptor providerDescriptor,
-                                 final FailedIndexProxyFactory failureDelegateFactory,
-                                 final IndexPopulator writer,
-                                 FlippableIndexProxy flipper,
-                                 IndexStoreView storeView, final String indexUserDescription,
-                                 UpdateableSchemaState updateableSchemaState, Logging logging )
+    public PopulatingIndexProxy( IndexDescriptor descriptor,
+                                 SchemaIndexProvider.Descriptor providerDescriptor,
+                                 IndexPopulationJob job,
+                                 IndexPopulationJob.IndexPopulation population )
     {
-        this.scheduler  = scheduler;
         this.descriptor = descriptor;
         this.providerDescriptor = providerDescriptor;
-        this.job  = new IndexPopulationJob( descriptor, providerDescriptor,
-                indexUserDescription, failureDelegateFactory, writer, flipper, storeView,
-                updateableSchemaState, logging );
+        this.job = job;
+        this.population = population;
     }
 
     @Override
     public void start()
     {
-        scheduler.schedule( job );
+        // The job is scheduled by whoever created it, once all the indexes it populates have been added to it
     }
 
     @Override
     public void update( Iterable<NodePropertyUpdate> updates )
     {
-        job.update( updates );
+        population.update( updates );
     }
     
     @Override
@@ -79,7 +69,7 @@ public class PopulatingIndexProxy implements IndexProxy
     @Override
     public Future<Void> drop()
     {
-        return job.cancel();
+        return job.cancel( population );
     }
 
     @Override
@@ -109,7 +99,7 @@ public class PopulatingIndexProxy implements IndexProxy
     @Override
     public Future<Void> close()
     {
-        return job.cancel();
+        return job.cancel( population );
     }
     
     @Override
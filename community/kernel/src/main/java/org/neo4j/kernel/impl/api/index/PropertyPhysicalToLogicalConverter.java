@@ -23,16 +23,14 @@ import static org.neo4j.kernel.api.index.NodePropertyUpdate.EMPTY_LONG_ARRAY;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveIntIterator;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveIntSet;
 
 public class PropertyPhysicalToLogicalConverter
 {
@@ -50,17 +48,14 @@ public class PropertyPhysicalToLogicalConverter
         assert before.getNodeId() == after.getNodeId() :
             "Node ids differ between before(" + before.getNodeId() + ") and after(" + after.getNodeId() + ")";
         long nodeId = before.getNodeId();
-        Map<Integer, PropertyBlock> beforeMap = mapBlocks( before );
-        Map<Integer, PropertyBlock> afterMap = mapBlocks( after );
-        
-        @SuppressWarnings( "unchecked" )
-        Set<Integer> allKeys = union( beforeMap.keySet(), afterMap.keySet() );
-        
+        PrimitiveIntSet allKeys = keys( before, after );
+
         Collection<NodePropertyUpdate> result = new ArrayList<NodePropertyUpdate>();
-        for ( int key : allKeys )
+        for ( PrimitiveIntIterator keys = allKeys.iterator(); keys.hasNext(); )
         {
-            PropertyBlock beforeBlock = beforeMap.get( key );
-            PropertyBlock afterBlock = afterMap.get( key );
+            int key = keys.next();
+            PropertyBlock beforeBlock = before.getPropertyBlock( key );
+            PropertyBlock afterBlock = after.getPropertyBlock( key );
             NodePropertyUpdate update = null;
 
             if ( beforeBlock != null && afterBlock != null )
@@ -95,20 +90,13 @@ public class PropertyPhysicalToLogicalConverter
         return result;
     }
 
-    private <T> Set<T> union( Set<T>... sets )
-    {
-        Set<T> union = new HashSet<T>();
-        for ( Set<T> set : sets )
-            union.addAll( set );
-        return union;
-    }
-
-    private Map<Integer, PropertyBlock> mapBlocks( PropertyRecord before )
+    private PrimitiveIntSet keys( PropertyRecord... records )
     {
-        HashMap<Integer, PropertyBlock> map = new HashMap<Integer, PropertyBlock>();
-        for ( PropertyBlock block : before.getPropertyBlocks() )
-            map.put( block.getKeyIndexId(), block );
-        return map;
+        PrimitiveIntSet keys = new PrimitiveIntSet();
+        for ( PropertyRecord record : records )
+            for ( PropertyBlock block : record.getPropertyBlocks() )
+                keys.add( block.getKeyIndexId() );
+        return keys;
     }
 
     private Object valueOf( PropertyBlock block )
@@ -30,7 +30,7 @@ import org.neo4j.kernel.api.index.DuplicateIndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.PreexistingIndexEntryConflictException;
-import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
 
 public class PropertyUpdateUniquenessValidator
 {
@@ -46,7 +46,7 @@ public class PropertyUpdateUniquenessValidator
     public static void validateUniqueness( Iterable<NodePropertyUpdate> updates, Lookup lookup )
             throws IndexEntryConflictException, IOException
     {
-        Map<Object, DiffSets<Long>> referenceCount = new HashMap<Object, DiffSets<Long>>();
+        Map<Object, LongDiffSets> referenceCount = new HashMap<Object, LongDiffSets>();
 
         for ( NodePropertyUpdate update : updates )
         {
@@ -67,7 +67,7 @@ public class PropertyUpdateUniquenessValidator
             }
         }
 
-        for ( Map.Entry<Object, DiffSets<Long>> entry : referenceCount.entrySet() )
+        for ( Map.Entry<Object, LongDiffSets> entry : referenceCount.entrySet() )
         {
             Object value = entry.getKey();
             int delta = entry.getValue().delta();
@@ -89,12 +89,12 @@ public class PropertyUpdateUniquenessValidator
         }
     }
 
-    private static DiffSets<Long> propertyValueDiffSet( Map<Object, DiffSets<Long>> referenceCount, Object value )
+    private static LongDiffSets propertyValueDiffSet( Map<Object, LongDiffSets> referenceCount, Object value )
     {
-        DiffSets<Long> diffSets = referenceCount.get( value );
+        LongDiffSets diffSets = referenceCount.get( value );
         if ( diffSets == null )
         {
-            referenceCount.put( value, diffSets = new DiffSets<Long>() );
+            referenceCount.put( value, diffSets = new LongDiffSets() );
         }
         return diffSets;
     }
@@ -0,0 +1,719 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.kernel.api.scan.LabelScanReader;
+import org.neo4j.kernel.api.scan.LabelScanStore;
+import org.neo4j.kernel.api.scan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.FullStoreChangeStream;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongObjectMap;
+import org.neo4j.kernel.logging.Logging;
+
+import static org.neo4j.helpers.collection.IteratorUtil.asResourceIterator;
+import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
+import static org.neo4j.helpers.collection.IteratorUtil.iterator;
+
+/**
+ * {@link LabelScanStore} keeping a bitmap per label of the nodes that have it. A bitmap is split into ranges
+ * of {@link #RANGE_SIZE} node ids and only ranges where some node has had the label exist, so sparse labels
+ * stay small while scanning a dense label is a sequential walk over arrays of longs.
+ *
+ * All ranges are kept in memory and stored in one file as fixed size records, where a range keeps its record
+ * for as long as the store lives:
+ *
+ * [magic:long, format version:int, range size:int]
+ * [label id:long, range id:long, bits:long * (range size / 64)] ...
+ *
+ * Only ranges changed since the last {@link #force()} are written. An update sets the labels a node has after
+ * a change, so applying it again, as happens during recovery, leaves the store the same.
+ * A range is copied the first time an update changes it instead of being changed in place, so a
+ * {@link LabelScanReader} keeps seeing the ranges as they were when it was created.
+ */
+public class NativeLabelScanStore implements LabelScanStore
+{
+    public static final String FILE_NAME = "labelscan.db";
+    static final int RANGE_SIZE = 8192;
+    private static final int WORDS_PER_RANGE = RANGE_SIZE / Long.SIZE;
+    private static final long MAGIC = 0x4e4c53746f7265L; // "NLStore"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8 + 4 + 4;
+    private static final int RECORD_SIZE = 8 + 8 + WORDS_PER_RANGE * 8;
+    // number of records read or written with one call to the channel
+    private static final int RECORDS_PER_BUFFER = 64;
+
+    private final FileSystemAbstraction fs;
+    private final File file;
+    // We get in a full store stream here in case we need to fully rebuild the store if it's missing or corrupted.
+    private final FullStoreChangeStream fullStoreStream;
+    private final Monitor monitor;
+    private FileChannel channel;
+    private boolean needsRebuild;
+
+    // label id -> ranges of that label, replaced as a whole by every update and never changed once published
+    private volatile Map<Long, LabelRanges> labels = Collections.emptyMap();
+    // ranges changed since the last force, by record
+    private final PrimitiveLongObjectMap<Range> changedRanges = new PrimitiveLongObjectMap<>();
+    private long nextRecord;
+    // incremented for each call to updateAndCommit, ranges created by that call are owned by it
+    private long version;
+
+    public interface Monitor
+    {
+        void init();
+
+        void noStore();
+
+        void corruptStore( IOException e );
+
+        void rebuilding();
+
+        void rebuilt( long roughNodeCount );
+    }
+
+    public static Monitor loggerMonitor( Logging logging )
+    {
+        final StringLogger logger = logging.getMessagesLog( NativeLabelScanStore.class );
+        return new Monitor()
+        {
+            @Override
+            public void init()
+            {
+            }
+
+            @Override
+            public void noStore()
+            {
+                logger.info( "No label scan store found, this might just be first use. Preparing to rebuild." );
+            }
+
+            @Override
+            public void corruptStore( IOException corruptionException )
+            {
+                logger.warn( "Corrupt label scan store found. Preparing to rebuild.", corruptionException );
+            }
+
+            @Override
+            public void rebuilding()
+            {
+                logger.info( "Rebuilding label scan store, this may take a while" );
+            }
+
+            @Override
+            public void rebuilt( long highNodeId )
+            {
+                logger.info( "Label scan store rebuilt (roughly " + highNodeId + " nodes)" );
+            }
+        };
+    }
+
+    public NativeLabelScanStore( FileSystemAbstraction fs, File file, FullStoreChangeStream fullStoreStream,
+            Monitor monitor )
+    {
+        this.fs = fs;
+        this.file = file;
+        this.fullStoreStream = fullStoreStream;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public synchronized void updateAndCommit( Iterator<NodeLabelUpdate> updates ) throws IOException
+    {
+        // Updates from committing transactions, also when recovering them, know the labels a node had before
+        apply( updates, false );
+    }
+
+    @Override
+    public synchronized void recover( Iterator<NodeLabelUpdate> updates ) throws IOException
+    {
+        // Updates recovered here, or made from scanning the node store of an existing database, may not say
+        // which labels a node had in this store, so clear it from the labels it no longer has.
+        apply( updates, true );
+    }
+
+    private void apply( Iterator<NodeLabelUpdate> updates, boolean mayHaveUnknownPreviousLabels )
+    {
+        Updater updater = new Updater( labels, ++version, mayHaveUnknownPreviousLabels );
+        while ( updates.hasNext() )
+        {
+            updater.apply( updates.next() );
+        }
+        labels = updater.publish();
+    }
+
+    @Override
+    public synchronized void force()
+    {
+        try
+        {
+            if ( !changedRanges.isEmpty() )
+            {
+                writeChangedRanges();
+            }
+            channel.force( false );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    private void writeChangedRanges() throws IOException
+    {
+        // write in record order, so that the file is written sequentially
+        long[] records = new long[changedRanges.size()];
+        int count = 0;
+        for ( PrimitiveLongIterator iterator = changedRanges.keyIterator(); iterator.hasNext(); )
+        {
+            records[count++] = iterator.next();
+        }
+        Arrays.sort( records );
+
+        ByteBuffer buffer = ByteBuffer.allocate( RECORD_SIZE * RECORDS_PER_BUFFER );
+        long bufferStart = -1;
+        for ( long record : records )
+        {
+            if ( bufferStart != -1 &&
+                    (record != bufferStart + buffer.position() / RECORD_SIZE || !buffer.hasRemaining()) )
+            {
+                writeRecords( buffer, bufferStart );
+                bufferStart = -1;
+            }
+            if ( bufferStart == -1 )
+            {
+                bufferStart = record;
+            }
+            Range range = changedRanges.get( record );
+            buffer.putLong( range.labelId ).putLong( range.id );
+            for ( long word : range.bits )
+            {
+                buffer.putLong( word );
+            }
+        }
+        writeRecords( buffer, bufferStart );
+        changedRanges.clear();
+    }
+
+    private void writeRecords( ByteBuffer buffer, long firstRecord ) throws IOException
+    {
+        buffer.flip();
+        channel.position( HEADER_SIZE + firstRecord * RECORD_SIZE );
+        while ( buffer.hasRemaining() )
+        {
+            channel.write( buffer );
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public LabelScanReader newReader()
+    {
+        final Map<Long, LabelRanges> snapshot = labels;
+        return new LabelScanReader()
+        {
+            @Override
+            public PrimitiveLongIterator nodesWithLabel( long labelId )
+            {
+                LabelRanges ranges = snapshot.get( labelId );
+                return ranges == null ? emptyPrimitiveLongIterator() : new NodeIterator( ranges );
+            }
+
+            @Override
+            public void close()
+            {   // Nothing to close, the snapshot is left for the garbage collector
+            }
+        };
+    }
+
+    @Override
+    public ResourceIterator<File> snapshotStoreFiles() throws IOException
+    {
+        force();
+        return asResourceIterator( iterator( file ) );
+    }
+
+    @Override
+    public void init() throws IOException
+    {
+        monitor.init();
+        if ( !fs.fileExists( file ) )
+        {   // This is the first time we start up this scan store, prepare to rebuild from scratch later.
+            monitor.noStore();
+            fs.mkdirs( file.getParentFile() );
+            channel = fs.create( file );
+            prepareRebuild();
+            return;
+        }
+
+        channel = fs.open( file, "rw" );
+        try
+        {
+            load();
+        }
+        catch ( IOException e )
+        {   // The store was somehow corrupted, prepare to rebuild from scratch.
+            monitor.corruptStore( e );
+            prepareRebuild();
+        }
+    }
+
+    @Override
+    public synchronized void start() throws IOException
+    {
+        if ( needsRebuild )
+        {   // we saw in init() that we need to rebuild the store, so do it here after the
+            // neostore has been properly started.
+            monitor.rebuilding();
+            // the store is empty so there are no previous labels to clear
+            apply( fullStoreStream.iterator(), false );
+            force();
+            monitor.rebuilt( fullStoreStream.highestNodeId() );
+            needsRebuild = false;
+        }
+    }
+
+    @Override
+    public void stop()
+    {   // Not needed
+    }
+
+    @Override
+    public synchronized void shutdown() throws IOException
+    {
+        force();
+        channel.close();
+        channel = null;
+    }
+
+    private void prepareRebuild() throws IOException
+    {
+        channel.truncate( 0 );
+        ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+        header.putLong( MAGIC ).putInt( FORMAT_VERSION ).putInt( RANGE_SIZE ).flip();
+        channel.position( 0 );
+        while ( header.hasRemaining() )
+        {
+            channel.write( header );
+        }
+        labels = Collections.emptyMap();
+        changedRanges.clear();
+        nextRecord = 0;
+        needsRebuild = true;
+    }
+
+    private void load() throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+        channel.position( 0 );
+        readFully( header );
+        if ( header.remaining() != HEADER_SIZE || header.getLong() != MAGIC ||
+                header.getInt() != FORMAT_VERSION || header.getInt() != RANGE_SIZE )
+        {
+            throw new IOException( "Not a label scan store file of a known format: " + file );
+        }
+
+        // A record only partially written when a force got interrupted is left out, it will be recovered
+        // from the logical log and written again.
+        long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        Map<Long, List<Range>> loaded = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate( RECORD_SIZE * RECORDS_PER_BUFFER );
+        for ( long record = 0; record < records; )
+        {
+            buffer.clear();
+            buffer.limit( (int) Math.min( RECORDS_PER_BUFFER, records - record ) * RECORD_SIZE );
+            readFully( buffer );
+            if ( buffer.remaining() < RECORD_SIZE )
+            {
+                throw new IOException( "Unexpected end of label scan store file " + file );
+            }
+            while ( buffer.remaining() >= RECORD_SIZE )
+            {
+                long labelId = buffer.getLong();
+                long rangeId = buffer.getLong();
+                if ( labelId < 0 || rangeId < 0 )
+                {
+                    throw new IOException( "Invalid label scan store record " + record + " in " + file );
+                }
+                long[] bits = new long[WORDS_PER_RANGE];
+                for ( int i = 0; i < bits.length; i++ )
+                {
+                    bits[i] = buffer.getLong();
+                }
+                List<Range> ranges = loaded.get( labelId );
+                if ( ranges == null )
+                {
+                    loaded.put( labelId, ranges = new ArrayList<>() );
+                }
+                ranges.add( new Range( labelId, rangeId, record++, bits, 0 ) );
+            }
+        }
+
+        Map<Long, LabelRanges> result = new HashMap<>();
+        for ( Map.Entry<Long, List<Range>> entry : loaded.entrySet() )
+        {
+            result.put( entry.getKey(), LabelRanges.of( entry.getValue() ) );
+        }
+        labels = result;
+        nextRecord = records;
+    }
+
+    private void readFully( ByteBuffer buffer ) throws IOException
+    {
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer ) == -1 )
+            {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * The bits of {@link #RANGE_SIZE} consecutive node ids for one label. Changed only by the update that
+     * created it, as told by {@link #version}.
+     */
+    private static class Range
+    {
+        private final long labelId;
+        private final long id;
+        private final long record;
+        private final long[] bits;
+        private final long version;
+
+        Range( long labelId, long id, long record, long[] bits, long version )
+        {
+            this.labelId = labelId;
+            this.id = id;
+            this.record = record;
+            this.bits = bits;
+            this.version = version;
+        }
+    }
+
+    /**
+     * The ranges of a label ordered by range id, in arrays which may be longer than {@link #size}.
+     */
+    private static class LabelRanges
+    {
+        private static final LabelRanges EMPTY = new LabelRanges( new long[0], new Range[0], 0 );
+
+        private final long[] ids;
+        private final Range[] ranges;
+        private final int size;
+
+        LabelRanges( long[] ids, Range[] ranges, int size )
+        {
+            this.ids = ids;
+            this.ranges = ranges;
+            this.size = size;
+        }
+
+        static LabelRanges of( List<Range> ranges ) throws IOException
+        {
+            Collections.sort( ranges, new Comparator<Range>()
+            {
+                @Override
+                public int compare( Range o1, Range o2 )
+                {
+                    return Long.compare( o1.id, o2.id );
+                }
+            } );
+            long[] ids = new long[ranges.size()];
+            for ( int i = 0; i < ids.length; i++ )
+            {
+                ids[i] = ranges.get( i ).id;
+                if ( i > 0 && ids[i] == ids[i - 1] )
+                {
+                    throw new IOException( "Duplicate range " + ids[i] + " for label " + ranges.get( i ).labelId );
+                }
+            }
+            return new LabelRanges( ids, ranges.toArray( new Range[ids.length] ), ids.length );
+        }
+    }
+
+    /**
+     * Applies the updates of one call to {@link #updateAndCommit(Iterator)} to copies of the ranges it changes
+     * and {@link #publish() publishes} them when done.
+     */
+    private class Updater
+    {
+        private final Map<Long, LabelRanges> before;
+        private final long version;
+        private final boolean mayHaveUnknownPreviousLabels;
+        private final Map<Long, LabelCursor> cursors = new HashMap<>();
+        private boolean allLabelsHaveCursors;
+
+        Updater( Map<Long, LabelRanges> before, long version, boolean mayHaveUnknownPreviousLabels )
+        {
+            this.before = before;
+            this.version = version;
+            this.mayHaveUnknownPreviousLabels = mayHaveUnknownPreviousLabels;
+        }
+
+        void apply( NodeLabelUpdate update )
+        {
+            long nodeId = update.getNodeId();
+            long rangeId = nodeId / RANGE_SIZE;
+            int word = (int) (nodeId % RANGE_SIZE) / Long.SIZE;
+            long bit = 1L << (nodeId % Long.SIZE);
+            long[] labelsBefore = update.getLabelsBefore();
+            long[] labelsAfter = update.getLabelsAfter();
+
+            if ( labelsBefore.length == 0 && mayHaveUnknownPreviousLabels )
+            {   // Updates built from scanning the node store don't say which labels a node had before,
+                // so make sure it's cleared from all labels it no longer has.
+                for ( LabelCursor cursor : allCursors() )
+                {
+                    if ( !contains( labelsAfter, cursor.labelId ) )
+                    {
+                        cursor.clear( rangeId, word, bit );
+                    }
+                }
+            }
+            else
+            {
+                for ( long labelId : labelsBefore )
+                {
+                    if ( !contains( labelsAfter, labelId ) )
+                    {
+                        cursor( labelId ).clear( rangeId, word, bit );
+                    }
+                }
+            }
+            for ( long labelId : labelsAfter )
+            {
+                cursor( labelId ).set( rangeId, word, bit );
+            }
+        }
+
+        Map<Long, LabelRanges> publish()
+        {
+            Map<Long, LabelRanges> result = new HashMap<>( before );
+            for ( LabelCursor cursor : cursors.values() )
+            {
+                if ( cursor.copied )
+                {
+                    result.put( cursor.labelId, new LabelRanges( cursor.ids, cursor.ranges, cursor.size ) );
+                }
+            }
+            return result;
+        }
+
+        private Iterable<LabelCursor> allCursors()
+        {
+            if ( !allLabelsHaveCursors )
+            {
+                for ( Long labelId : before.keySet() )
+                {
+                    cursor( labelId );
+                }
+                allLabelsHaveCursors = true;
+            }
+            return cursors.values();
+        }
+
+        private LabelCursor cursor( long labelId )
+        {
+            LabelCursor cursor = cursors.get( labelId );
+            if ( cursor == null )
+            {
+                LabelRanges ranges = before.get( labelId );
+                cursor = new LabelCursor( labelId, ranges != null ? ranges : LabelRanges.EMPTY );
+                cursors.put( labelId, cursor );
+            }
+            return cursor;
+        }
+
+        /**
+         * The ranges of one label as changed by this update, only copied once something changes.
+         * Remembers where the last range was found since updates often come in node id order.
+         */
+        private class LabelCursor
+        {
+            private final long labelId;
+            private long[] ids;
+            private Range[] ranges;
+            private int size;
+            private boolean copied;
+            private int hint;
+
+            LabelCursor( long labelId, LabelRanges ranges )
+            {
+                this.labelId = labelId;
+                this.ids = ranges.ids;
+                this.ranges = ranges.ranges;
+                this.size = ranges.size;
+            }
+
+            void set( long rangeId, int word, long bit )
+            {
+                int index = find( rangeId );
+                if ( index >= 0 && (ranges[index].bits[word] & bit) != 0 )
+                {
+                    return;
+                }
+                Range range = index >= 0 ? writable( index ) : insert( -index - 1, rangeId );
+                range.bits[word] |= bit;
+            }
+
+            void clear( long rangeId, int word, long bit )
+            {
+                int index = find( rangeId );
+                if ( index < 0 || (ranges[index].bits[word] & bit) == 0 )
+                {
+                    return;
+                }
+                writable( index ).bits[word] &= ~bit;
+            }
+
+            private int find( long rangeId )
+            {
+                if ( hint < size && ids[hint] == rangeId )
+                {
+                    return hint;
+                }
+                if ( hint + 1 < size && ids[hint + 1] == rangeId )
+                {
+                    return ++hint;
+                }
+                int index = Arrays.binarySearch( ids, 0, size, rangeId );
+                if ( index >= 0 )
+                {
+                    hint = index;
+                }
+                return index;
+            }
+
+            private Range writable( int index )
+            {
+                copyArrays( size );
+                Range range = ranges[index];
+                if ( range.version != version )
+                {
+                    range = new Range( labelId, range.id, range.record, range.bits.clone(), version );
+                    ranges[index] = range;
+                }
+                changedRanges.put( range.record, range );
+                return range;
+            }
+
+            private Range insert( int index, long rangeId )
+            {
+                copyArrays( size + 1 );
+                System.arraycopy( ids, index, ids, index + 1, size - index );
+                System.arraycopy( ranges, index, ranges, index + 1, size - index );
+                Range range = new Range( labelId, rangeId, nextRecord++, new long[WORDS_PER_RANGE], version );
+                ids[index] = rangeId;
+                ranges[index] = range;
+                size++;
+                hint = index;
+                changedRanges.put( range.record, range );
+                return range;
+            }
+
+            private void copyArrays( int minimumCapacity )
+            {
+                if ( !copied || ids.length < minimumCapacity )
+                {
+                    int capacity = Math.max( minimumCapacity, copied ? ids.length * 2 : size + 1 );
+                    ids = Arrays.copyOf( ids, capacity );
+                    ranges = Arrays.copyOf( ranges, capacity );
+                    copied = true;
+                }
+            }
+        }
+    }
+
+    private static boolean contains( long[] values, long value )
+    {
+        for ( long candidate : values )
+        {
+            if ( candidate == value )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the ranges of a label in order, word by word, turning set bits into node ids.
+     */
+    private static class NodeIterator extends AbstractPrimitiveLongIterator
+    {
+        private final LabelRanges ranges;
+        private int rangeIndex;
+        private int wordIndex = -1;
+        private long word;
+
+        NodeIterator( LabelRanges ranges )
+        {
+            this.ranges = ranges;
+            computeNext();
+        }
+
+        @Override
+        protected void computeNext()
+        {
+            while ( word == 0 )
+            {
+                if ( ++wordIndex == WORDS_PER_RANGE )
+                {
+                    wordIndex = 0;
+                    rangeIndex++;
+                }
+                if ( rangeIndex >= ranges.size )
+                {
+                    endReached();
+                    return;
+                }
+                word = ranges.ranges[rangeIndex].bits[wordIndex];
+            }
+            int bit = Long.numberOfTrailingZeros( word );
+            word &= word - 1;
+            next( ranges.ids[rangeIndex] * RANGE_SIZE + wordIndex * Long.SIZE + bit );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + file + "]";
+    }
+}
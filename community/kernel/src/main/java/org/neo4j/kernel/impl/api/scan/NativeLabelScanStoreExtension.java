@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Service;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.impl.api.scan.NativeLabelScanStore.Monitor;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
+import org.neo4j.kernel.logging.Logging;
+
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.fullStoreLabelUpdateStream;
+import static org.neo4j.kernel.impl.api.scan.NativeLabelScanStore.loggerMonitor;
+
+@Service.Implementation(KernelExtensionFactory.class)
+public class NativeLabelScanStoreExtension extends KernelExtensionFactory<NativeLabelScanStoreExtension.Dependencies>
+{
+    public static final String KEY = "native";
+
+    private final int priority;
+    private final Monitor monitor;
+
+    public interface Dependencies
+    {
+        Config getConfig();
+
+        FileSystemAbstraction getFileSystem();
+
+        NeoStoreProvider getNeoStoreProvider();
+
+        Logging getLogging();
+    }
+
+    public NativeLabelScanStoreExtension()
+    {
+        // Prioritized over the lucene label scan store, which it replaces
+        this( 20, null );
+    }
+
+    NativeLabelScanStoreExtension( int priority, Monitor monitor )
+    {
+        super( KEY );
+        this.priority = priority;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public LabelScanStoreProvider newKernelExtension( Dependencies dependencies ) throws Throwable
+    {
+        File storeDir = dependencies.getConfig().get( GraphDatabaseSettings.store_dir );
+        NativeLabelScanStore scanStore = new NativeLabelScanStore( dependencies.getFileSystem(),
+
+                // <db>/schema/label/native/labelscan.db
+                new File( new File( new File( new File( storeDir, "schema" ), "label" ), KEY ),
+                        NativeLabelScanStore.FILE_NAME ),
+
+                fullStoreLabelUpdateStream( dependencies.getNeoStoreProvider() ),
+                monitor != null ? monitor : loggerMonitor( dependencies.getLogging() ) );
+
+        return new LabelScanStoreProvider( scanStore, priority );
+    }
+}
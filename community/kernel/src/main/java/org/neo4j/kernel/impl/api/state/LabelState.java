@@ -21,11 +21,12 @@ package org.neo4j.kernel.impl.api.state;
 
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
 import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 
 public final class LabelState extends EntityState
 {
-    private final DiffSets<Long> nodeDiffSets = new DiffSets<Long>();
+    private final LongDiffSets nodeDiffSets = new LongDiffSets();
     private final DiffSets<IndexDescriptor> indexChanges = new DiffSets<IndexDescriptor>();
     private final DiffSets<IndexDescriptor> constraintIndexChanges = new DiffSets<IndexDescriptor>();
     private final DiffSets<UniquenessConstraint> constraintsChanges = new DiffSets<UniquenessConstraint>();
@@ -35,7 +36,7 @@ public final class LabelState extends EntityState
         super( id );
     }
 
-    public DiffSets<Long> getNodeDiffSets()
+    public LongDiffSets getNodeDiffSets()
     {
         return nodeDiffSets;
     }
@@ -19,22 +19,22 @@
  */
 package org.neo4j.kernel.impl.api.state;
 
-import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
 
 public final class NodeState extends PropertyContainerState
 {
-    private DiffSets<Long> labelDiffSets;
+    private LongDiffSets labelDiffSets;
 
     public NodeState( long id )
     {
         super( id );
     }
 
-    public DiffSets<Long> labelDiffSets()
+    public LongDiffSets labelDiffSets()
     {
         if ( null == labelDiffSets )
         {
-            labelDiffSets = new DiffSets<>();
+            labelDiffSets = new LongDiffSets();
         }
         return labelDiffSets;
     }
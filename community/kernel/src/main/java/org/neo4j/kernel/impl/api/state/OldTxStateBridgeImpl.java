@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
 import org.neo4j.kernel.impl.core.GraphPropertiesImpl;
 import org.neo4j.kernel.impl.core.NodeImpl;
 import org.neo4j.kernel.impl.core.NodeManager;
@@ -47,7 +48,7 @@ public class OldTxStateBridgeImpl implements OldTxStateBridge
     @Override
     public DiffSets<Long> getNodesWithChangedProperty( long propertyKey, Object value )
     {
-        DiffSets<Long> diff = new DiffSets<Long>();
+        LongDiffSets diff = new LongDiffSets();
         for ( WritableTransactionState.CowNodeElement changedNode : state.getChangedNodes() )
         {
             // All nodes where the property has been removed altogether
@@ -26,6 +26,7 @@ import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.api.properties.SafeProperty;
 import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
 import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 
 /**
@@ -128,9 +129,9 @@ public interface TxState
 
     public abstract Iterable<NodeState> nodeStates();
 
-    public abstract DiffSets<Long> labelStateNodeDiffSets( long labelId );
+    public abstract LongDiffSets labelStateNodeDiffSets( long labelId );
 
-    public abstract DiffSets<Long> nodeStateLabelDiffSets( long nodeId );
+    public abstract LongDiffSets nodeStateLabelDiffSets( long nodeId );
 
     public abstract DiffSets<SafeProperty> nodePropertyDiffSets( long nodeId );
 
@@ -149,7 +150,7 @@ public interface TxState
     public abstract DiffSets<Long> nodesWithLabelChanged( long labelId );
 
     // Temporary: Should become DiffSets<Long> of all node changes, not just deletions
-    public abstract DiffSets<Long> nodesDeletedInTx();
+    public abstract LongDiffSets nodesDeletedInTx();
 
     public abstract boolean nodeIsAddedInThisTx( long nodeId );
 
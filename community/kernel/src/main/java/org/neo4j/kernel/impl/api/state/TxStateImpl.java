@@ -31,8 +31,10 @@ import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.api.properties.SafeProperty;
 import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
 import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 import org.neo4j.kernel.impl.persistence.PersistenceManager;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongObjectMap;
 
 import static org.neo4j.helpers.collection.Iterables.map;
 
@@ -40,7 +42,7 @@ import static org.neo4j.helpers.collection.Iterables.map;
  * This organizes three disjoint containers of state. The goal is to bring that down to one, but for now, it's three.
  * Those three are:
  *
- *  * TxState - this class itself, containing HashMaps and DiffSets for changes
+ *  * TxState - this class itself, containing maps and DiffSets for changes
  *  * TransactionState - The legacy transaction state, to be refactored into this class.
  *  * WriteTransaction - More legacy transaction state, accessed through PersistenceManager.
  *
@@ -103,16 +105,16 @@ public final class TxStateImpl implements TxState
         }
     };
 
-    private Map<Long/*Node ID*/, NodeState> nodeStatesMap;
-    private Map<Long/*Relationship ID*/, RelationshipState> relationshipStatesMap;
-    private Map<Long/*Label ID*/, LabelState> labelStatesMap;
+    private PrimitiveLongObjectMap<NodeState> nodeStatesMap;
+    private PrimitiveLongObjectMap<RelationshipState> relationshipStatesMap;
+    private PrimitiveLongObjectMap<LabelState> labelStatesMap;
 
     private GraphState graphState;
     private DiffSets<IndexDescriptor> indexChanges;
     private DiffSets<IndexDescriptor> constraintIndexChanges;
     private DiffSets<UniquenessConstraint> constraintsChanges;
-    private DiffSets<Long> deletedNodes;
-    private DiffSets<Long> deletedRelationships;
+    private LongDiffSets deletedNodes;
+    private LongDiffSets deletedRelationships;
     private Map<UniquenessConstraint, Long> createdConstraintIndexesByConstraint;
 
     private final OldTxStateBridge legacyState;
@@ -202,13 +204,13 @@ public final class TxStateImpl implements TxState
     }
 
     @Override
-    public DiffSets<Long> labelStateNodeDiffSets( long labelId )
+    public LongDiffSets labelStateNodeDiffSets( long labelId )
     {
         return getOrCreateLabelState( labelId ).getNodeDiffSets();
     }
 
     @Override
-    public DiffSets<Long> nodeStateLabelDiffSets( long nodeId )
+    public LongDiffSets nodeStateLabelDiffSets( long nodeId )
     {
         return getOrCreateNodeState( nodeId ).labelDiffSets();
     }
@@ -385,7 +387,7 @@ public final class TxStateImpl implements TxState
         NodeState nodeState = getState( nodeStatesMap(), nodeId, null );
         if ( nodeState != null )
         {
-            DiffSets<Long> labelDiff = nodeState.labelDiffSets();
+            LongDiffSets labelDiff = nodeState.labelDiffSets();
             if ( labelDiff.isAdded( labelId ) )
             {
                 return UpdateTriState.ADDED;
@@ -530,11 +532,11 @@ public final class TxStateImpl implements TxState
     }
 
     @Override
-    public DiffSets<Long> nodesDeletedInTx()
+    public LongDiffSets nodesDeletedInTx()
     {
         if ( !hasDeletedNodesDiffSets() )
         {
-            deletedNodes = new DiffSets<>();
+            deletedNodes = new LongDiffSets();
         }
         return deletedNodes;
     }
@@ -544,11 +546,11 @@ public final class TxStateImpl implements TxState
         return deletedNodes != null;
     }
 
-    public DiffSets<Long> deletedRelationships()
+    public LongDiffSets deletedRelationships()
     {
         if ( !hasDeletedRelationshipsDiffSets() )
         {
-            deletedRelationships = new DiffSets<>();
+            deletedRelationships = new LongDiffSets();
         }
         return deletedRelationships;
     }
@@ -587,7 +589,7 @@ public final class TxStateImpl implements TxState
         STATE newState( long id );
     }
 
-    private <STATE> STATE getState( Map<Long, STATE> states, long id, StateCreator<STATE> creator )
+    private <STATE> STATE getState( PrimitiveLongObjectMap<STATE> states, long id, StateCreator<STATE> creator )
     {
         STATE result = states.get( id );
         if ( result != null )
@@ -711,11 +713,11 @@ public final class TxStateImpl implements TxState
         return null != createdConstraintIndexesByConstraint;
     }
 
-    private Map<Long, NodeState> nodeStatesMap()
+    private PrimitiveLongObjectMap<NodeState> nodeStatesMap()
     {
         if ( !hasNodeStatesMap() )
         {
-            nodeStatesMap = new HashMap<>();
+            nodeStatesMap = new PrimitiveLongObjectMap<>();
         }
         return nodeStatesMap;
     }
@@ -725,11 +727,11 @@ public final class TxStateImpl implements TxState
         return null != nodeStatesMap;
     }
 
-    private Map<Long, RelationshipState> relationshipStatesMap()
+    private PrimitiveLongObjectMap<RelationshipState> relationshipStatesMap()
     {
         if ( !hasRelationshipsStatesMap() )
         {
-            relationshipStatesMap = new HashMap<>();
+            relationshipStatesMap = new PrimitiveLongObjectMap<>();
         }
         return relationshipStatesMap;
     }
@@ -739,11 +741,11 @@ public final class TxStateImpl implements TxState
         return null != relationshipStatesMap;
     }
 
-    private Map<Long, LabelState> labelStatesMap()
+    private PrimitiveLongObjectMap<LabelState> labelStatesMap()
     {
         if ( !hasLabelStatesMap() )
         {
-            labelStatesMap = new HashMap<>();
+            labelStatesMap = new PrimitiveLongObjectMap<>();
         }
         return labelStatesMap;
     }
@@ -78,6 +78,13 @@ public interface Cache<E extends EntityWithSizeObject>
 
     long missCount();
 
+    /**
+     * @return the number of elements this cache has removed on its own accord,
+     * for example to stay within its size limit, as opposed to elements
+     * explicitly {@link #remove(long) removed}.
+     */
+    long evictionCount();
+
     void updateSize( E entity, int newSize );
     
     void printStatistics();
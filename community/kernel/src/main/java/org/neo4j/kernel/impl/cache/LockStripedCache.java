@@ -139,6 +139,12 @@ public class LockStripedCache<E extends EntityWithSizeObject> implements Cache<E
         return actual.missCount();
     }
 
+    @Override
+    public long evictionCount()
+    {
+        return actual.evictionCount();
+    }
+
     @Override
     public void updateSize( E entity, int newSize )
     {
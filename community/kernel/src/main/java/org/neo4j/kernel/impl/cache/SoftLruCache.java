@@ -26,6 +26,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.neo4j.helpers.Counter;
+
 public class SoftLruCache<E extends EntityWithSizeObject> extends ReferenceCache<E>
 {
     private final ConcurrentHashMap<Long,SoftValue<Long,E>> cache =
@@ -37,6 +39,7 @@ public class SoftLruCache<E extends EntityWithSizeObject> extends ReferenceCache
     private final String name;
 
     private final HitCounter counter = new HitCounter();
+    private final Counter evictions = new Counter();
 
     public SoftLruCache( String name )
     {
@@ -96,7 +99,10 @@ public class SoftLruCache<E extends EntityWithSizeObject> extends ReferenceCache
         SoftValue<Long,E> clearedValue = refQueue.safePoll();
         while ( clearedValue != null )
         {
-            cache.remove( clearedValue.key );
+            if ( cache.remove( clearedValue.key ) != null )
+            {
+                evictions.inc();
+            }
             clearedValue = refQueue.safePoll();
         }
     }
@@ -127,4 +133,10 @@ public class SoftLruCache<E extends EntityWithSizeObject> extends ReferenceCache
     {
         return counter.getMissCount();
     }
+
+    @Override
+    public long evictionCount()
+    {
+        return evictions.count();
+    }
 }
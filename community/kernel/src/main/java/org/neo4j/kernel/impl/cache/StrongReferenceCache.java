@@ -86,6 +86,12 @@ public class StrongReferenceCache<E extends EntityWithSizeObject> implements Cac
         return counter.getMissCount();
     }
 
+    @Override
+    public long evictionCount()
+    {
+        return 0;
+    }
+
     public long size()
     {
         return cache.size();
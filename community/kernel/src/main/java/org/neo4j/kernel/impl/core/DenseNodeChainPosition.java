@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+import static org.neo4j.kernel.impl.cache.SizeOfs.REFERENCE_SIZE;
+import static org.neo4j.kernel.impl.cache.SizeOfs.withArrayOverhead;
+import static org.neo4j.kernel.impl.cache.SizeOfs.withObjectOverhead;
+
+/**
+ * Positions in the relationship chains of a dense node, one chain per type and direction as given by
+ * its {@link RelationshipGroupRecord relationship groups}. Loading relationships of a given type and
+ * direction only visits the chains of that type and direction, and loops are visited for any direction.
+ */
+public class DenseNodeChainPosition implements RelationshipLoadingPosition
+{
+    private static final int OUT = 0, IN = 1, LOOP = 2;
+    private static final int[] OUTGOING_CHAINS = {OUT, LOOP}, INCOMING_CHAINS = {IN, LOOP},
+            ALL_CHAINS = {OUT, IN, LOOP};
+
+    // Built once and never structurally modified after that, only the positions in the arrays change
+    private final Map<Integer, long[]> positions = new HashMap<>();
+    private final int[] allTypes;
+    private long[] currentPositions;
+    private int currentChain;
+
+    public DenseNodeChainPosition( Map<Integer, RelationshipGroupRecord> groups )
+    {
+        allTypes = new int[groups.size()];
+        int i = 0;
+        for ( RelationshipGroupRecord group : groups.values() )
+        {
+            positions.put( group.getType(),
+                    new long[] {group.getFirstOut(), group.getFirstIn(), group.getFirstLoop()} );
+            allTypes[i++] = group.getType();
+        }
+        Arrays.sort( allTypes );
+    }
+
+    @Override
+    public long position( DirectionWrapper direction, int[] types )
+    {
+        int[] chains = chainsFor( direction );
+        for ( int type : types.length == 0 ? allTypes : types )
+        {
+            long[] typePositions = positions.get( type );
+            if ( typePositions == null )
+            {
+                continue;
+            }
+            for ( int chain : chains )
+            {
+                if ( !Record.NO_NEXT_RELATIONSHIP.is( typePositions[chain] ) )
+                {
+                    currentPositions = typePositions;
+                    currentChain = chain;
+                    return typePositions[chain];
+                }
+            }
+        }
+        currentPositions = null;
+        return Record.NO_NEXT_RELATIONSHIP.intValue();
+    }
+
+    @Override
+    public long nextPosition( long position, DirectionWrapper direction, int[] types )
+    {
+        if ( currentPositions != null )
+        {
+            currentPositions[currentChain] = position;
+        }
+        return position( direction, types );
+    }
+
+    @Override
+    public boolean hasMore( DirectionWrapper direction, int[] types )
+    {
+        int[] chains = chainsFor( direction );
+        for ( int type : types.length == 0 ? allTypes : types )
+        {
+            long[] typePositions = positions.get( type );
+            if ( typePositions == null )
+            {
+                continue;
+            }
+            for ( int chain : chains )
+            {
+                if ( !Record.NO_NEXT_RELATIONSHIP.is( typePositions[chain] ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void patchPosition( long relIdDeleted, long nextRelId )
+    {
+        for ( long[] typePositions : positions.values() )
+        {
+            for ( int chain = 0; chain < typePositions.length; chain++ )
+            {
+                if ( typePositions[chain] == relIdDeleted )
+                {
+                    typePositions[chain] = nextRelId;
+                }
+            }
+        }
+    }
+
+    private static int[] chainsFor( DirectionWrapper direction )
+    {
+        switch ( direction )
+        {
+        case OUTGOING: return OUTGOING_CHAINS;
+        case INCOMING: return INCOMING_CHAINS;
+        default: return ALL_CHAINS;
+        }
+    }
+
+    @Override
+    public int sizeOfObjectInBytesIncludingOverhead()
+    {
+        int entrySize = withObjectOverhead( 3 * REFERENCE_SIZE + 4 ) + withObjectOverhead( 4 ) +
+                withArrayOverhead( 3 * 8 ) + REFERENCE_SIZE;
+        return withObjectOverhead( 3 * REFERENCE_SIZE + 4 ) + withArrayOverhead( 4 * allTypes.length ) +
+                withObjectOverhead( positions.size() * entrySize );
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "DenseNodeChain[" );
+        for ( Map.Entry<Integer, long[]> entry : positions.entrySet() )
+        {
+            builder.append( entry.getKey() ).append( ":" ).append( Arrays.toString( entry.getValue() ) ).append( " " );
+        }
+        return builder.append( "]" ).toString();
+    }
+}
@@ -19,7 +19,6 @@
  */
 package org.neo4j.kernel.impl.core;
 
-import java.util.Collection;
 import java.util.Set;
 
 import org.neo4j.graphdb.NotInTransactionException;
@@ -30,6 +29,7 @@ import org.neo4j.kernel.impl.transaction.TxHook;
 import org.neo4j.kernel.impl.transaction.xaframework.TxIdGenerator;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 
 import static java.util.Collections.emptySet;
 
@@ -48,13 +48,13 @@ public class NoTransactionState implements TransactionState
     }
     
     @Override
-    public ArrayMap<Integer, Collection<Long>> getCowRelationshipRemoveMap( NodeImpl node )
+    public ArrayMap<Integer, PrimitiveLongSet> getCowRelationshipRemoveMap( NodeImpl node )
     {
         return null;
     }
 
     @Override
-    public Collection<Long> getOrCreateCowRelationshipRemoveMap( NodeImpl node, int type )
+    public PrimitiveLongSet getOrCreateCowRelationshipRemoveMap( NodeImpl node, int type )
     {
         throw new NotInTransactionException();
     }
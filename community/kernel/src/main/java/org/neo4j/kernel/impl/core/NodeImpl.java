@@ -20,7 +20,6 @@
 package org.neo4j.kernel.impl.core;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -43,12 +42,12 @@ import org.neo4j.kernel.impl.core.WritableTransactionState.CowEntityElement;
 import org.neo4j.kernel.impl.core.WritableTransactionState.PrimitiveElement;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
 import org.neo4j.kernel.impl.nioneo.store.PropertyData;
-import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.CombinedRelIdIterator;
 import org.neo4j.kernel.impl.util.RelIdArray;
 import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 import org.neo4j.kernel.impl.util.RelIdIterator;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 
 import static java.lang.System.arraycopy;
 
@@ -66,15 +65,16 @@ import static org.neo4j.kernel.impl.util.RelIdArray.wrap;
 public class NodeImpl extends ArrayBasedPrimitive
 {
     private static final RelIdArray[] NO_RELATIONSHIPS = new RelIdArray[0];
+    private static final int[] ALL_TYPES = new int[0];
 
     private volatile RelIdArray[] relationships;
 
     // TODO do this more efficiently, perhaps using a sorted array
     private volatile Set<Long> labels;
     /*
-     * This is the id of the next relationship to load from disk.
+     * This keeps track of the next relationships to load from disk.
      */
-    private volatile long relChainPosition = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private volatile RelationshipLoadingPosition relChainPosition = RelationshipLoadingPosition.EMPTY;
     private final long id;
 
     public NodeImpl( long id )
@@ -117,7 +117,9 @@ public class NodeImpl extends ArrayBasedPrimitive
     @Override
     public int sizeOfObjectInBytesIncludingOverhead()
     {
-        int size = super.sizeOfObjectInBytesIncludingOverhead() + SizeOfs.REFERENCE_SIZE/*relationships reference*/ + 8/*relChainPosition*/ + 8/*id*/;
+        int size = super.sizeOfObjectInBytesIncludingOverhead() + SizeOfs.REFERENCE_SIZE/*relationships reference*/ +
+                SizeOfs.REFERENCE_SIZE/*relChainPosition reference*/ + 8/*id*/ +
+                relChainPosition.sizeOfObjectInBytesIncludingOverhead();
         if ( relationships != null )
         {
             size = withArrayOverheadIncludingReferences( size, relationships.length );
@@ -144,20 +146,20 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     Iterable<Relationship> getAllRelationships( NodeManager nodeManager, DirectionWrapper direction )
     {
-        ensureRelationshipMapNotNull( nodeManager );
+        ensureRelationshipMapNotNull( nodeManager, direction, ALL_TYPES );
 
         // We need to check if there are more relationships to load before grabbing
         // the references to the RelIdArrays since otherwise there could be
         // another concurrent thread exhausting the chain position in between the point
         // where we got an empty iterator for a type that the other thread loaded and
         // the point where we check whether or not there are more relationships to load.
-        boolean hasMore = hasMoreRelationshipsToLoad();
+        boolean hasMore = hasMoreRelationshipsToLoad( direction, ALL_TYPES );
 
         RelIdArray[] localRelationships = relationships;
         RelIdIterator[] result = new RelIdIterator[localRelationships.length];
         TransactionState tx = nodeManager.getTransactionState();
         ArrayMap<Integer, RelIdArray> addMap = null;
-        ArrayMap<Integer, Collection<Long>> skipMap = null;
+        ArrayMap<Integer, PrimitiveLongSet> skipMap = null;
         if ( tx.hasChanges() )
         {
             addMap = tx.getCowRelationshipAddMap( this );
@@ -206,64 +208,66 @@ public class NodeImpl extends ArrayBasedPrimitive
         {
             return Collections.emptyList();
         }
-        return new RelationshipIterator( result, this, direction, nodeManager, hasMore, true );
+        return new RelationshipIterator( result, this, direction, ALL_TYPES, nodeManager, hasMore );
     }
 
     Iterable<Relationship> getAllRelationshipsOfType( NodeManager nodeManager,
                                                       DirectionWrapper direction, RelationshipType... types )
     {
-        ensureRelationshipMapNotNull( nodeManager );
-
-        // We need to check if there are more relationships to load before grabbing
-        // the references to the RelIdArrays. Otherwise there could be
-        // another concurrent thread exhausting the chain position in between the point
-        // where we got an empty iterator for a type that the other thread loaded and
-        // the point where we check if there are more relationships to load.
-        boolean hasMore = hasMoreRelationshipsToLoad();
-
-        RelIdIterator[] result = new RelIdIterator[types.length];
-        TransactionState tx = nodeManager.getTransactionState();
-        ArrayMap<Integer, RelIdArray> addMap = null;
-        ArrayMap<Integer, Collection<Long>> skipMap = null;
-        if ( tx.hasChanges() )
-        {
-            addMap = tx.getCowRelationshipAddMap( this );
-            skipMap = tx.getCowRelationshipRemoveMap( this );
-        }
+        int[] typeIds = new int[types.length];
         int actualLength = 0;
         for ( RelationshipType type : types )
         {
-            int typeId;
             try
             {
-                typeId = nodeManager.getRelationshipTypeIdFor( type );
+                typeIds[actualLength++] = nodeManager.getRelationshipTypeIdFor( type );
             }
             catch ( TokenNotFoundException e )
             {
                 // This relationship type doesn't even exist in this database
-                continue;
+                actualLength--;
             }
-
-            result[actualLength++] = getRelationshipsIterator( direction,
-                                                               addMap != null ? addMap.get( typeId ) : null,
-                                                               skipMap != null ? skipMap.get( typeId ) : null, typeId );
         }
+        if ( actualLength == 0 )
+        {
+            // An empty array of type ids would mean all types further down
+            return Collections.emptyList();
+        }
+        if ( actualLength < typeIds.length )
+        {
+            typeIds = Arrays.copyOf( typeIds, actualLength );
+        }
+
+        ensureRelationshipMapNotNull( nodeManager, direction, typeIds );
+
+        // We need to check if there are more relationships to load before grabbing
+        // the references to the RelIdArrays. Otherwise there could be
+        // another concurrent thread exhausting the chain position in between the point
+        // where we got an empty iterator for a type that the other thread loaded and
+        // the point where we check if there are more relationships to load.
+        boolean hasMore = hasMoreRelationshipsToLoad( direction, typeIds );
 
-        if ( actualLength < result.length )
+        RelIdIterator[] result = new RelIdIterator[typeIds.length];
+        TransactionState tx = nodeManager.getTransactionState();
+        ArrayMap<Integer, RelIdArray> addMap = null;
+        ArrayMap<Integer, PrimitiveLongSet> skipMap = null;
+        if ( tx.hasChanges() )
         {
-            RelIdIterator[] compacted = new RelIdIterator[actualLength];
-            arraycopy( result, 0, compacted, 0, actualLength );
-            result = compacted;
+            addMap = tx.getCowRelationshipAddMap( this );
+            skipMap = tx.getCowRelationshipRemoveMap( this );
         }
-        if ( result.length == 0 )
+        for ( int i = 0; i < typeIds.length; i++ )
         {
-            return Collections.emptyList();
+            int typeId = typeIds[i];
+            result[i] = getRelationshipsIterator( direction,
+                                                  addMap != null ? addMap.get( typeId ) : null,
+                                                  skipMap != null ? skipMap.get( typeId ) : null, typeId );
         }
-        return new RelationshipIterator( result, this, direction, nodeManager, hasMore, false );
+        return new RelationshipIterator( result, this, direction, typeIds, nodeManager, hasMore );
     }
 
     private RelIdIterator getRelationshipsIterator( DirectionWrapper direction, RelIdArray add,
-                                                    Collection<Long> remove, int type )
+                                                    PrimitiveLongSet remove, int type )
     {
         RelIdArray src = getRelIdArray( type );
         if ( add != null || remove != null )
@@ -343,15 +347,15 @@ public class NodeImpl extends ArrayBasedPrimitive
         return "NodeImpl#" + this.getId();
     }
 
-    private void ensureRelationshipMapNotNull( NodeManager nodeManager )
+    private void ensureRelationshipMapNotNull( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         if ( relationships == null )
         {
-            loadInitialRelationships( nodeManager );
+            loadInitialRelationships( nodeManager, direction, types );
         }
     }
 
-    private void loadInitialRelationships( NodeManager nodeManager )
+    private void loadInitialRelationships( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels = null;
         synchronized ( this )
@@ -369,11 +373,11 @@ public class NodeImpl extends ArrayBasedPrimitive
                 }
 
                 ArrayMap<Integer, RelIdArray> tmpRelMap = new ArrayMap<>();
-                rels = getMoreRelationships( nodeManager, tmpRelMap );
+                rels = getMoreRelationships( nodeManager, tmpRelMap, direction, types );
                 this.relationships = toRelIdArray( tmpRelMap );
                 if ( rels != null )
                 {
-                    setRelChainPosition( rels.third() );
+                    updateRelChainPosition( rels.third(), direction, types );
                 }
                 updateSize( nodeManager );
             }
@@ -433,15 +437,15 @@ public class NodeImpl extends ArrayBasedPrimitive
     }
 
     private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships(
-            NodeManager nodeManager, ArrayMap<Integer, RelIdArray> tmpRelMap )
+            NodeManager nodeManager, ArrayMap<Integer, RelIdArray> tmpRelMap, DirectionWrapper direction, int[] types )
     {
-        if ( !hasMoreRelationshipsToLoad() )
+        if ( !hasMoreRelationshipsToLoad( direction, types ) )
         {
             return null;
         }
         Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels;
 
-        rels = loadMoreRelationshipsFromNodeManager( nodeManager );
+        rels = loadMoreRelationshipsFromNodeManager( nodeManager, direction, types );
 
         ArrayMap<Integer, RelIdArray> addMap = rels.first();
         if ( addMap.size() == 0 )
@@ -472,7 +476,12 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     boolean hasMoreRelationshipsToLoad()
     {
-        return getRelChainPosition() != Record.NO_NEXT_RELATIONSHIP.intValue();
+        return hasMoreRelationshipsToLoad( DirectionWrapper.BOTH, ALL_TYPES );
+    }
+
+    boolean hasMoreRelationshipsToLoad( DirectionWrapper direction, int[] types )
+    {
+        return relChainPosition.hasMore( direction, types );
     }
 
     static enum LoadStatus
@@ -501,21 +510,25 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
-    LoadStatus getMoreRelationships( NodeManager nodeManager )
+    /**
+     * Loads another batch of relationships of the given direction and types, where an empty array
+     * of types means all types.
+     */
+    LoadStatus getMoreRelationships( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels;
-        if ( !hasMoreRelationshipsToLoad() )
+        if ( !hasMoreRelationshipsToLoad( direction, types ) )
         {
             return LoadStatus.NOTHING;
         }
         boolean more;
         synchronized ( this )
         {
-            if ( !hasMoreRelationshipsToLoad() )
+            if ( !hasMoreRelationshipsToLoad( direction, types ) )
             {
                 return LoadStatus.NOTHING;
             }
-            rels = loadMoreRelationshipsFromNodeManager( nodeManager );
+            rels = loadMoreRelationshipsFromNodeManager( nodeManager, direction, types );
             ArrayMap<Integer, RelIdArray> addMap = rels.first();
             if ( addMap.size() == 0 )
             {
@@ -539,8 +552,8 @@ public class NodeImpl extends ArrayBasedPrimitive
                     }
                 }
             }
-            setRelChainPosition( rels.third() );
-            more = hasMoreRelationshipsToLoad();
+            updateRelChainPosition( rels.third(), direction, types );
+            more = hasMoreRelationshipsToLoad( direction, types );
             updateSize( nodeManager );
         }
         nodeManager.putAllInRelCache( rels.second() );
@@ -548,11 +561,11 @@ public class NodeImpl extends ArrayBasedPrimitive
     }
 
     private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long>
-    loadMoreRelationshipsFromNodeManager( NodeManager nodeManager )
+    loadMoreRelationshipsFromNodeManager( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         try
         {
-            return nodeManager.getMoreRelationships( this );
+            return nodeManager.getMoreRelationships( this, direction, types );
         }
         catch ( InvalidRecordException e )
         {
@@ -624,7 +637,7 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     protected void commitRelationshipMaps(
             ArrayMap<Integer, RelIdArray> cowRelationshipAddMap,
-            ArrayMap<Integer, Collection<Long>> cowRelationshipRemoveMap )
+            ArrayMap<Integer, PrimitiveLongSet> cowRelationshipRemoveMap )
     {
         if ( relationships == null )
         {
@@ -639,7 +652,7 @@ public class NodeImpl extends ArrayBasedPrimitive
                 for ( int type : cowRelationshipAddMap.keySet() )
                 {
                     RelIdArray add = cowRelationshipAddMap.get( type );
-                    Collection<Long> remove = null;
+                    PrimitiveLongSet remove = null;
                     if ( cowRelationshipRemoveMap != null )
                     {
                         remove = cowRelationshipRemoveMap.get( type );
@@ -660,7 +673,7 @@ public class NodeImpl extends ArrayBasedPrimitive
                     RelIdArray src = getRelIdArray( type );
                     if ( src != null )
                     {
-                        Collection<Long> remove = cowRelationshipRemoveMap.get( type );
+                        PrimitiveLongSet remove = cowRelationshipRemoveMap.get( type );
                         putRelIdArray( RelIdArray.from( src, null, remove ) );
                     }
                 }
@@ -668,14 +681,35 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
-    long getRelChainPosition()
+    RelationshipLoadingPosition getRelChainPosition()
     {
         return relChainPosition;
     }
 
-    void setRelChainPosition( long position )
+    void setRelChainPosition( RelationshipLoadingPosition position )
     { // precondition: must be called under synchronization
         relChainPosition = position;
+        shrinkIfDoneLoading();
+    }
+
+    private void updateRelChainPosition( long position, DirectionWrapper direction, int[] types )
+    { // precondition: must be called under synchronization
+        relChainPosition.nextPosition( position, direction, types );
+        shrinkIfDoneLoading();
+    }
+
+    /**
+     * Called when a relationship of this node has been deleted, so that loading doesn't continue
+     * from a relationship that no longer exists.
+     */
+    void patchRelChainPosition( long relIdDeleted, long nextRelId )
+    {
+        relChainPosition.patchPosition( relIdDeleted, nextRelId );
+        shrinkIfDoneLoading();
+    }
+
+    private void shrinkIfDoneLoading()
+    {
         // use local reference to avoid multiple read barriers
         RelIdArray[] array = relationships;
         if ( !hasMoreRelationshipsToLoad() && array != null )
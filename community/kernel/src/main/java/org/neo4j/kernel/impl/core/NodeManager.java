@@ -584,9 +584,9 @@ public class NodeManager implements Lifecycle, EntityFactory
     private void invalidateNode( long nodeId, long relIdDeleted, long nextRelId )
     {
         NodeImpl node = nodeCache.getIfCached( nodeId );
-        if ( node != null && node.getRelChainPosition() == relIdDeleted )
+        if ( node != null )
         {
-            node.setRelChainPosition( nextRelId );
+            node.patchRelChainPosition( relIdDeleted, nextRelId );
         }
     }
 
@@ -605,15 +605,16 @@ public class NodeManager implements Lifecycle, EntityFactory
         return persistenceManager.graphLoadPropertyValue( propertyKey );
     }
 
-    long getRelationshipChainPosition( NodeImpl node )
+    RelationshipLoadingPosition getRelationshipChainPosition( NodeImpl node )
     {
         return persistenceManager.getRelationshipChainPosition( node.getId() );
     }
 
-    Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships( NodeImpl node )
+    Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships( NodeImpl node,
+            DirectionWrapper direction, int[] types )
     {
         long nodeId = node.getId();
-        long position = node.getRelChainPosition();
+        long position = node.getRelChainPosition().position( direction, types );
         Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> rels =
                 persistenceManager.getMoreRelationships( nodeId, position );
         ArrayMap<Integer, RelIdArray> newRelationshipMap =
@@ -19,7 +19,6 @@
  */
 package org.neo4j.kernel.impl.core;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -32,6 +31,7 @@ import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.RelIdArray;
 import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 import org.neo4j.kernel.impl.util.RelIdIterator;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 
 class RelationshipIterator extends PrefetchingIterator<Relationship> implements Iterable<Relationship>
 {
@@ -42,17 +42,22 @@ class RelationshipIterator extends PrefetchingIterator<Relationship> implements
     private final NodeManager nodeManager;
     
     private boolean lastTimeILookedThereWasMoreToLoad;
+    private final int[] types;
     private final boolean allTypes;
 
+    /**
+     * @param types the ids of the relationship types to iterate over, or an empty array for all types.
+     */
     RelationshipIterator( RelIdIterator[] rels, NodeImpl fromNode,
-        DirectionWrapper direction, NodeManager nodeManager, boolean hasMoreToLoad, boolean allTypes )
+        DirectionWrapper direction, int[] types, NodeManager nodeManager, boolean hasMoreToLoad )
     {
         initializeRels( rels );
         this.lastTimeILookedThereWasMoreToLoad = hasMoreToLoad;
         this.fromNode = fromNode;
         this.direction = direction;
         this.nodeManager = nodeManager;
-        this.allTypes = allTypes;
+        this.types = types;
+        this.allTypes = types.length == 0;
     }
 
     private void initializeRels( RelIdIterator[] rels )
@@ -95,7 +100,7 @@ class RelationshipIterator extends PrefetchingIterator<Relationship> implements
                     // There are other relationship types to try to get relationships from, go to the next type
                     currentTypeIterator = rels[++currentTypeIndex];
                 }
-                else if ( (status = fromNode.getMoreRelationships( nodeManager )).loaded()
+                else if ( (status = fromNode.getMoreRelationships( nodeManager, direction, types )).loaded()
                         // This is here to guard for that someone else might have loaded
                         // stuff in this relationship chain (and exhausted it) while I
                         // iterated over my batch of relationships. It will only happen
@@ -125,7 +130,7 @@ class RelationshipIterator extends PrefetchingIterator<Relationship> implements
                     // initiate iterators for them
                     if ( allTypes )
                     {
-                        ArrayMap<Integer, Collection<Long>> skipMap = nodeManager.getTransactionState().
+                        ArrayMap<Integer, PrimitiveLongSet> skipMap = nodeManager.getTransactionState().
                                 getCowRelationshipRemoveMap( fromNode );
                         for ( RelIdArray ids : fromNode.getRelationshipIds() )
                         {
@@ -133,7 +138,7 @@ class RelationshipIterator extends PrefetchingIterator<Relationship> implements
                             RelIdIterator itr = newRels.get( type );
                             if ( itr == null )
                             {
-                                Collection<Long> remove = skipMap != null ? skipMap.get( type ) : null;
+                                PrimitiveLongSet remove = skipMap != null ? skipMap.get( type ) : null;
                                 itr = remove == null ? ids.iterator( direction ) :
                                         RelIdArray.from( ids, null, remove ).iterator( direction );
                                 newRels.put( type, itr );
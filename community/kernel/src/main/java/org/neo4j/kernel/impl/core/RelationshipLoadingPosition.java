@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import org.neo4j.kernel.impl.cache.SizeOfObject;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+/**
+ * Keeps track of how far the relationships of a {@link NodeImpl} have been loaded from the store. A node
+ * with few relationships has them all in a single chain, whereas a dense node has one chain per type and
+ * direction, so that loading relationships of some types and direction only has to visit those chains.
+ *
+ * Methods taking types interpret an empty array as all types. Apart from {@link #hasMore(DirectionWrapper, int[])}
+ * the methods are expected to be called while holding the lock of the owning node.
+ */
+public interface RelationshipLoadingPosition extends SizeOfObject
+{
+    /**
+     * @return the id of the next relationship to load for the given direction and types, or
+     * {@link Record#NO_NEXT_RELATIONSHIP} if there are no more of those relationships to load.
+     */
+    long position( DirectionWrapper direction, int[] types );
+
+    /**
+     * Records that relationships have been loaded up to {@code position} in the chain last returned
+     * from {@link #position(DirectionWrapper, int[])}.
+     *
+     * @return the id of the next relationship to load for the given direction and types, possibly in
+     * another chain.
+     */
+    long nextPosition( long position, DirectionWrapper direction, int[] types );
+
+    boolean hasMore( DirectionWrapper direction, int[] types );
+
+    /**
+     * Called when a relationship has been deleted, so that a chain position pointing to it can
+     * continue from the relationship after it instead.
+     */
+    void patchPosition( long relIdDeleted, long nextRelId );
+
+    public static final RelationshipLoadingPosition EMPTY = new RelationshipLoadingPosition()
+    {
+        @Override
+        public long position( DirectionWrapper direction, int[] types )
+        {
+            return Record.NO_NEXT_RELATIONSHIP.intValue();
+        }
+
+        @Override
+        public long nextPosition( long position, DirectionWrapper direction, int[] types )
+        {
+            return Record.NO_NEXT_RELATIONSHIP.intValue();
+        }
+
+        @Override
+        public boolean hasMore( DirectionWrapper direction, int[] types )
+        {
+            return false;
+        }
+
+        @Override
+        public void patchPosition( long relIdDeleted, long nextRelId )
+        {
+        }
+
+        @Override
+        public int sizeOfObjectInBytesIncludingOverhead()
+        {
+            // Shared instance, not accounted for in any node
+            return 0;
+        }
+    };
+}
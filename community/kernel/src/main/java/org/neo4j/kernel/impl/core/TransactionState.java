@@ -19,7 +19,6 @@
  */
 package org.neo4j.kernel.impl.core;
 
-import java.util.Collection;
 import java.util.Set;
 
 import org.neo4j.graphdb.event.TransactionData;
@@ -28,6 +27,7 @@ import org.neo4j.kernel.impl.transaction.TxHook;
 import org.neo4j.kernel.impl.transaction.xaframework.TxIdGenerator;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 
 /**
  * Keeps transaction state for a single transaction, such as:
@@ -50,9 +50,9 @@ public interface TransactionState
     
     RelIdArray getOrCreateCowRelationshipAddMap( NodeImpl node, int type );
     
-    ArrayMap<Integer, Collection<Long>> getCowRelationshipRemoveMap( NodeImpl node );
+    ArrayMap<Integer, PrimitiveLongSet> getCowRelationshipRemoveMap( NodeImpl node );
 
-    Collection<Long> getOrCreateCowRelationshipRemoveMap( NodeImpl node, int type );
+    PrimitiveLongSet getOrCreateCowRelationshipRemoveMap( NodeImpl node, int type );
 
     void setFirstIds( long nodeId, long firstRel, long firstProp );
     
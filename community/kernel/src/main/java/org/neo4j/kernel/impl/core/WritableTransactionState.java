@@ -22,7 +22,6 @@ package org.neo4j.kernel.impl.core;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -45,6 +44,7 @@ import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 import org.neo4j.kernel.impl.util.RelIdArrayWithLoops;
 import org.neo4j.kernel.impl.util.RelIdIterator;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 import org.neo4j.kernel.logging.Logging;
 
 public class WritableTransactionState implements TransactionState
@@ -72,8 +72,8 @@ public class WritableTransactionState implements TransactionState
         private final ArrayMap<Long,CowRelElement> relationships =
                 new ArrayMap<Long,CowRelElement>();
 
-        private final Set<Long> createdNodes = new HashSet<Long>();
-        private final Set<Long> createdRelationships = new HashSet<Long>();
+        private final PrimitiveLongSet createdNodes = new PrimitiveLongSet();
+        private final PrimitiveLongSet createdRelationships = new PrimitiveLongSet();
 
         private CowGraphElement graph;
 
@@ -175,7 +175,7 @@ public class WritableTransactionState implements TransactionState
         private long firstProp = Record.NO_NEXT_PROPERTY.intValue();
 
         private ArrayMap<Integer, RelIdArray> relationshipAddMap;
-        private ArrayMap<Integer, Collection<Long>> relationshipRemoveMap;
+        private ArrayMap<Integer, PrimitiveLongSet> relationshipRemoveMap;
 
         public ArrayMap<Integer, RelIdArray> getRelationshipAddMap( boolean create )
         {
@@ -202,26 +202,26 @@ public class WritableTransactionState implements TransactionState
             return result;
         }
 
-        public ArrayMap<Integer, Collection<Long>> getRelationshipRemoveMap( boolean create )
+        public ArrayMap<Integer, PrimitiveLongSet> getRelationshipRemoveMap( boolean create )
         {
             if ( relationshipRemoveMap == null && create )
             {
-                relationshipRemoveMap = new ArrayMap<Integer, Collection<Long>>();
+                relationshipRemoveMap = new ArrayMap<Integer, PrimitiveLongSet>();
             }
             return relationshipRemoveMap;
         }
 
-        public Collection<Long> getRelationshipRemoveMap( int type, boolean create )
+        public PrimitiveLongSet getRelationshipRemoveMap( int type, boolean create )
         {
-            ArrayMap<Integer, Collection<Long>> map = getRelationshipRemoveMap( create );
+            ArrayMap<Integer, PrimitiveLongSet> map = getRelationshipRemoveMap( create );
             if ( map == null )
             {
                 return null;
             }
-            Collection<Long> result = map.get( type );
+            PrimitiveLongSet result = map.get( type );
             if ( result == null && create )
             {
-                result = new HashSet<Long>();
+                result = new PrimitiveLongSet();
                 map.put( type, result );
             }
             return result;
@@ -316,7 +316,7 @@ public class WritableTransactionState implements TransactionState
     }
 
     @Override
-    public ArrayMap<Integer, Collection<Long>> getCowRelationshipRemoveMap( NodeImpl node )
+    public ArrayMap<Integer, PrimitiveLongSet> getCowRelationshipRemoveMap( NodeImpl node )
     {
         if ( primitiveElement != null )
         {
@@ -332,7 +332,7 @@ public class WritableTransactionState implements TransactionState
     }
 
     @Override
-    public Collection<Long> getOrCreateCowRelationshipRemoveMap( NodeImpl node, int type )
+    public PrimitiveLongSet getOrCreateCowRelationshipRemoveMap( NodeImpl node, int type )
     {
         return getPrimitiveElement( true ).nodeElement( node.getId(), true ).getRelationshipRemoveMap( type, true );
     }
@@ -639,7 +639,7 @@ public class WritableTransactionState implements TransactionState
             {
                 for ( Integer type : nodeElement.relationshipRemoveMap.keySet() )
                 {
-                    Collection<Long> deletedRels = nodeElement.relationshipRemoveMap.get( type );
+                    PrimitiveLongSet deletedRels = nodeElement.relationshipRemoveMap.get( type );
                     for ( long relId : deletedRels )
                     {
                         if ( primitiveElement.createdRelationships.contains( relId ) )
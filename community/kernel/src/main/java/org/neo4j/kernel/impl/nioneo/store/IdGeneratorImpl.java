@@ -23,9 +23,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongQueue;
+
 import static java.lang.Math.max;
 
 import static org.neo4j.kernel.impl.util.FileUtils.truncateFile;
@@ -58,6 +60,10 @@ import static org.neo4j.kernel.impl.util.FileUtils.truncateFile;
  * "sticky" and unusable next time you try to initialize a generator using the
  * same file. There can only be one id generator instance per id generator file.
  * <p>
+ * While there are no defragged ids to hand out {@link #nextId()} and the high id part of
+ * {@link #nextIdBatch(int)} advance the high id with compare-and-set instead of grabbing the
+ * monitor, so that concurrent transactions creating new records don't serialize on it.
+ * <p>
  * In case of disk/file I/O failure an <CODE>IOException</CODE> is thrown.
  */
 public class IdGeneratorImpl implements IdGenerator
@@ -86,10 +92,15 @@ public class IdGeneratorImpl implements IdGenerator
     private final FileSystemAbstraction fs;
     private FileChannel fileChannel = null;
     // defragged ids read from file (freed in a previous session).
-    private final LinkedList<Long> idsReadFromFile = new LinkedList<>();
+    private final PrimitiveLongQueue idsReadFromFile;
     // ids freed in this session that havn't been flushed to disk yet
-    private final LinkedList<Long> releasedIdList = new LinkedList<>();
-    
+    private final PrimitiveLongQueue releasedIdList;
+    // reused for writing batches of defragged ids to file
+    private final ByteBuffer writeBuffer;
+    // false when nextId() is known to not find any defragged id, so that it can go straight for the high id
+    // without synchronizing. Only changed while holding the monitor.
+    private volatile boolean mayHaveDefraggedIds = true;
+
     private final long max;
     private final boolean aggressiveReuse;
 
@@ -131,6 +142,9 @@ public class IdGeneratorImpl implements IdGenerator
         this.max = max;
         this.fileName = fileName;
         this.grabSize = grabSize;
+        this.idsReadFromFile = new PrimitiveLongQueue( grabSize );
+        this.releasedIdList = new PrimitiveLongQueue( grabSize );
+        this.writeBuffer = ByteBuffer.allocate( grabSize*8 );
         initGenerator();
         this.highId.set( max( this.highId.get(), highId ) );
     }
@@ -147,22 +161,58 @@ public class IdGeneratorImpl implements IdGenerator
      * @throws IllegalStateException if this id generator has been closed
      */
     @Override
-    public synchronized long nextId()
+    public long nextId()
     {
-        assertStillOpen();
-        long nextDefragId = nextIdFromDefragList();
-        if ( nextDefragId != -1 ) return nextDefragId;
+        if ( mayHaveDefraggedIds )
+        {
+            synchronized ( this )
+            {
+                assertStillOpen();
+                long nextDefragId = nextIdFromDefragList();
+                if ( nextDefragId != -1 ) return nextDefragId;
+            }
+        }
+        return nextHighId();
+    }
 
-        long id = highId.get();
-        if ( id == INTEGER_MINUS_ONE )
+    private long nextHighId()
+    {
+        while ( true )
+        {
+            long current = highId.get();
+            if ( current == -1 )
+            {
+                throw new IllegalStateException( "Closed id generator " + fileName );
+            }
+            long id = current;
+            if ( id == INTEGER_MINUS_ONE )
+            {
+                // Skip the integer -1 (0xFFFFFFFF) because it represents
+                // special values, f.ex. the end of a relationships/property chain.
+                id++;
+            }
+            assertIdWithinCapacity( id );
+            if ( highId.compareAndSet( current, id + 1 ) )
+            {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Reserves {@code count} consecutive high ids, returning the first of them.
+     */
+    private long reserveHighIds( int count )
+    {
+        while ( true )
         {
-            // Skip the integer -1 (0xFFFFFFFF) because it represents
-            // special values, f.ex. the end of a relationships/property chain.
-            id = highId.incrementAndGet();
+            long start = highId.get();
+            assertIdWithinCapacity( start + count );
+            if ( highId.compareAndSet( start, start + count ) )
+            {
+                return start;
+            }
         }
-        assertIdWithinCapacity( id );
-        highId.incrementAndGet();
-        return id;
     }
 
     private void assertIdWithinCapacity( long id )
@@ -182,27 +232,37 @@ public class IdGeneratorImpl implements IdGenerator
     {
         if ( aggressiveReuse )
         {
-            Long id = releasedIdList.poll();
-            if ( id != null )
+            if ( !releasedIdList.isEmpty() )
             {
                 defraggedIdCount--;
-                return id.longValue();
+                return releasedIdList.removeFirst();
             }
         }
 
         if ( !idsReadFromFile.isEmpty() || canReadMoreIdBatches() )
         {
-            if ( idsReadFromFile.isEmpty() )
+            // a batch can come back empty if it only held the skipped integer -1
+            while ( idsReadFromFile.isEmpty() && canReadMoreIdBatches() )
             {
                 readIdBatch();
             }
-            long id = idsReadFromFile.removeFirst();
-            defraggedIdCount--;
-            return id;
+            if ( !idsReadFromFile.isEmpty() )
+            {
+                long id = idsReadFromFile.removeFirst();
+                defraggedIdCount--;
+                return id;
+            }
         }
+        mayHaveDefraggedIds = false;
         return -1;
     }
 
+    private void updateMayHaveDefraggedIds()
+    {
+        mayHaveDefraggedIds = !idsReadFromFile.isEmpty() || canReadMoreIdBatches() ||
+                (aggressiveReuse && !releasedIdList.isEmpty());
+    }
+
     private void assertStillOpen()
     {
         if ( fileChannel == null )
@@ -235,8 +295,7 @@ public class IdGeneratorImpl implements IdGenerator
         System.arraycopy( tmpArray, 0, defragIds, 0, count );
 
         int sizeLeftForRange = size - count;
-        long start = highId.get();
-        setHighId( start + sizeLeftForRange );
+        long start = reserveHighIds( sizeLeftForRange );
         return new IdRange( defragIds, start, sizeLeftForRange );
     }
 
@@ -301,8 +360,9 @@ public class IdGeneratorImpl implements IdGenerator
         defraggedIdCount++;
         if ( releasedIdList.size() >= grabSize )
         {
-            writeIdBatch( ByteBuffer.allocate( grabSize*8 ) );
+            writeIdBatch();
         }
+        updateMayHaveDefraggedIds();
     }
 
     /**
@@ -320,16 +380,18 @@ public class IdGeneratorImpl implements IdGenerator
     @Override
     public synchronized void close()
     {
-        if ( highId.get() == -1 )
+        // make this generator unusable, also for concurrent nextId() calls not synchronizing on it
+        long highIdAtClose = highId.getAndSet( -1 );
+        if ( highIdAtClose == -1 )
         {
             return;
         }
+        mayHaveDefraggedIds = false;
 
         // write out lists
-        ByteBuffer writeBuffer = ByteBuffer.allocate( grabSize*8 );
         if ( !releasedIdList.isEmpty() )
         {
-            writeIdBatch( writeBuffer );
+            writeIdBatch();
         }
         if ( !idsReadFromFile.isEmpty() )
         {
@@ -337,14 +399,14 @@ public class IdGeneratorImpl implements IdGenerator
             {
                 releasedIdList.add( idsReadFromFile.removeFirst() );
             }
-            writeIdBatch( writeBuffer );
+            writeIdBatch();
         }
 
         try
         {
             ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE );
-            writeHeader( buffer );
-            defragReusableIdsInFile( writeBuffer );
+            writeHeader( buffer, highIdAtClose );
+            defragReusableIdsInFile();
             
             fileChannel.force( false );
             
@@ -354,8 +416,6 @@ public class IdGeneratorImpl implements IdGenerator
             fileChannel.force( false );
             fileChannel.close();
             fileChannel = null;
-            // make this generator unusable
-            highId.set( -1 );
         }
         catch ( IOException e )
         {
@@ -375,7 +435,7 @@ public class IdGeneratorImpl implements IdGenerator
         fileChannel.write( buffer );
     }
 
-    private void defragReusableIdsInFile( ByteBuffer writeBuffer ) throws IOException
+    private void defragReusableIdsInFile() throws IOException
     {
         if ( readPosition > HEADER_SIZE )
         {
@@ -398,10 +458,10 @@ public class IdGeneratorImpl implements IdGenerator
         }
     }
 
-    private void writeHeader( ByteBuffer buffer ) throws IOException
+    private void writeHeader( ByteBuffer buffer, long highId ) throws IOException
     {
         fileChannel.position( 0 );
-        buffer.put( STICKY_GENERATOR ).putLong( highId.get() );
+        buffer.put( STICKY_GENERATOR ).putLong( highId );
         buffer.flip();
         fileChannel.write( buffer );
     }
@@ -466,6 +526,7 @@ public class IdGeneratorImpl implements IdGenerator
             maxReadPosition = fileChannel.size();
             defraggedIdCount = (int) (maxReadPosition - HEADER_SIZE) / 8;
             readIdBatch();
+            updateMayHaveDefraggedIds();
         }
         catch ( IOException e )
         {
@@ -537,7 +598,7 @@ public class IdGeneratorImpl implements IdGenerator
     }
 
     // writes a batch of defragged ids to file
-    private void writeIdBatch( ByteBuffer writeBuffer )
+    private void writeIdBatch()
     {
         // position at end
         try
@@ -594,7 +655,7 @@ public class IdGeneratorImpl implements IdGenerator
         {
             readIdBatch();
         }
-        java.util.Iterator<Long> itr = idsReadFromFile.iterator();
+        PrimitiveLongIterator itr = idsReadFromFile.iterator();
         while ( itr.hasNext() )
         {
             System.out.print( " " + itr.next() );
@@ -615,7 +676,7 @@ public class IdGeneratorImpl implements IdGenerator
         return defraggedIdCount;
     }
 
-    public void clearFreeIds()
+    public synchronized void clearFreeIds()
     {
         releasedIdList.clear();
         idsReadFromFile.clear();
@@ -623,6 +684,7 @@ public class IdGeneratorImpl implements IdGenerator
         try
         {
             truncateFile( fileChannel, HEADER_SIZE );
+            updateMayHaveDefraggedIds();
         }
         catch ( IOException e )
         {
@@ -126,6 +126,11 @@ abstract class LockableWindow implements PersistenceWindow
         isDirty = false;
     }
 
+    synchronized boolean isLocked()
+    {
+        return locked;
+    }
+
     synchronized void unLock()
     {
         Thread currentThread = Thread.currentThread();
@@ -147,6 +152,11 @@ abstract class LockableWindow implements PersistenceWindow
         }
     }
 
+    synchronized boolean isInUse()
+    {
+        return !isFree( false );
+    }
+
     private boolean isFree( boolean assumingOwnerUnlockedIt )
     {
         return assumingOwnerUnlockedIt ?
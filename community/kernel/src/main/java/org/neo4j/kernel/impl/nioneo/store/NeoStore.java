@@ -50,6 +50,7 @@ public class NeoStore extends AbstractStore
         extends AbstractStore.Configuration
     {
         public static final Setting<Integer> relationship_grab_size = GraphDatabaseSettings.relationship_grab_size;
+        public static final Setting<Integer> dense_node_threshold = GraphDatabaseSettings.dense_node_threshold;
     }
 
     public static final String TYPE_DESCRIPTOR = "NeoStore";
@@ -70,6 +71,7 @@ public class NeoStore extends AbstractStore
     private NodeStore nodeStore;
     private PropertyStore propStore;
     private RelationshipStore relStore;
+    private RelationshipGroupStore relGroupStore;
     private RelationshipTypeTokenStore relTypeStore;
     private LabelTokenStore labelTokenStore;
     private SchemaStore schemaStore;
@@ -77,6 +79,7 @@ public class NeoStore extends AbstractStore
     private long lastCommittedTx = -1;
 
     private final int REL_GRAB_SIZE;
+    private final int DENSE_NODE_THRESHOLD;
 
     public NeoStore( File fileName, Config conf,
                      IdGeneratorFactory idGeneratorFactory, WindowPoolFactory windowPoolFactory,
@@ -84,7 +87,7 @@ public class NeoStore extends AbstractStore
                      StringLogger stringLogger, TxHook txHook,
                      RelationshipTypeTokenStore relTypeStore, LabelTokenStore labelTokenStore,
                      PropertyStore propStore, RelationshipStore relStore,
-                     NodeStore nodeStore, SchemaStore schemaStore )
+                     RelationshipGroupStore relGroupStore, NodeStore nodeStore, SchemaStore schemaStore )
     {
         super( fileName, conf, IdType.NEOSTORE_BLOCK, idGeneratorFactory, windowPoolFactory,
                 fileSystemAbstraction, stringLogger);
@@ -92,9 +95,11 @@ public class NeoStore extends AbstractStore
         this.labelTokenStore = labelTokenStore;
         this.propStore = propStore;
         this.relStore = relStore;
+        this.relGroupStore = relGroupStore;
         this.nodeStore = nodeStore;
         this.schemaStore = schemaStore;
         REL_GRAB_SIZE = conf.get( Configuration.relationship_grab_size );
+        DENSE_NODE_THRESHOLD = conf.get( Configuration.dense_node_threshold );
         this.txHook = txHook;
 
         /* [MP:2012-01-03] Fix for the problem in 1.5.M02 where store version got upgraded but
@@ -240,6 +245,11 @@ public class NeoStore extends AbstractStore
             relStore.close();
             relStore = null;
         }
+        if ( relGroupStore != null )
+        {
+            relGroupStore.close();
+            relGroupStore = null;
+        }
         if ( nodeStore != null )
         {
             nodeStore.close();
@@ -256,7 +266,7 @@ public class NeoStore extends AbstractStore
     public void flushAll()
     {
         if ( relTypeStore == null || labelTokenStore == null || propStore == null || relStore == null ||
-                nodeStore == null || schemaStore == null )
+                relGroupStore == null || nodeStore == null || schemaStore == null )
         {
             return;
         }
@@ -265,6 +275,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.flushAll();
         propStore.flushAll();
         relStore.flushAll();
+        relGroupStore.flushAll();
         nodeStore.flushAll();
         schemaStore.flushAll();
     }
@@ -409,6 +420,7 @@ public class NeoStore extends AbstractStore
             nodeStore.setRecovered();
             propStore.setRecovered();
             relStore.setRecovered();
+            relGroupStore.setRecovered();
             relTypeStore.setRecovered();
             labelTokenStore.setRecovered();
             schemaStore.setRecovered();
@@ -419,6 +431,7 @@ public class NeoStore extends AbstractStore
             nodeStore.unsetRecovered();
             propStore.unsetRecovered();
             relStore.unsetRecovered();
+            relGroupStore.unsetRecovered();
             relTypeStore.unsetRecovered();
             labelTokenStore.unsetRecovered();
             schemaStore.unsetRecovered();
@@ -541,6 +554,16 @@ public class NeoStore extends AbstractStore
         return relStore;
     }
 
+    /**
+     * The relationship group store, holding the per type relationship chains of dense nodes.
+     *
+     * @return The relationship group store
+     */
+    public RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return relGroupStore;
+    }
+
     /**
      * Returns the relationship type store.
      *
@@ -578,6 +601,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.makeStoreOk();
         propStore.makeStoreOk();
         relStore.makeStoreOk();
+        relGroupStore.makeStoreOk();
         nodeStore.makeStoreOk();
         schemaStore.makeStoreOk();
         super.makeStoreOk();
@@ -590,6 +614,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.rebuildIdGenerators();
         propStore.rebuildIdGenerators();
         relStore.rebuildIdGenerators();
+        relGroupStore.rebuildIdGenerators();
         nodeStore.rebuildIdGenerators();
         schemaStore.rebuildIdGenerators();
         super.rebuildIdGenerators();
@@ -602,6 +627,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.updateIdGenerators();
         propStore.updateIdGenerators();
         relStore.updateHighId();
+        relGroupStore.updateHighId();
         nodeStore.updateIdGenerators();
         schemaStore.updateHighId();
     }
@@ -611,6 +637,15 @@ public class NeoStore extends AbstractStore
         return REL_GRAB_SIZE;
     }
 
+    /**
+     * @return the number of relationships a node can have before its relationships are
+     * split up in one chain per type and direction, see {@link RelationshipGroupStore}.
+     */
+    public int getDenseNodeThreshold()
+    {
+        return DENSE_NODE_THRESHOLD;
+    }
+
     @Override
     public List<WindowPoolStats> getAllWindowPoolStats()
     {
@@ -620,6 +655,7 @@ public class NeoStore extends AbstractStore
         list.addAll( nodeStore.getAllWindowPoolStats() );
         list.addAll( propStore.getAllWindowPoolStats() );
         list.addAll( relStore.getAllWindowPoolStats() );
+        list.addAll( relGroupStore.getAllWindowPoolStats() );
         list.addAll( relTypeStore.getAllWindowPoolStats() );
         list.addAll( labelTokenStore.getAllWindowPoolStats() );
         return list;
@@ -632,6 +668,7 @@ public class NeoStore extends AbstractStore
         // TODO no stats for schema store?
         nodeStore.logAllWindowPoolStats( logger );
         relStore.logAllWindowPoolStats( logger );
+        relGroupStore.logAllWindowPoolStats( logger );
         relTypeStore.logAllWindowPoolStats( logger );
         labelTokenStore.logAllWindowPoolStats( logger );
         propStore.logAllWindowPoolStats( logger );
@@ -640,7 +677,8 @@ public class NeoStore extends AbstractStore
     public boolean isStoreOk()
     {
         return getStoreOk() && relTypeStore.getStoreOk() && labelTokenStore.getStoreOk() &&
-            propStore.getStoreOk() && relStore.getStoreOk() && nodeStore.getStoreOk() && schemaStore.getStoreOk();
+            propStore.getStoreOk() && relStore.getStoreOk() && relGroupStore.getStoreOk() &&
+            nodeStore.getStoreOk() && schemaStore.getStoreOk();
     }
 
     @Override
@@ -652,6 +690,7 @@ public class NeoStore extends AbstractStore
         schemaStore.logVersions( msgLog );
         nodeStore.logVersions( msgLog );
         relStore.logVersions( msgLog );
+        relGroupStore.logVersions( msgLog );
         relTypeStore.logVersions( msgLog );
         labelTokenStore.logVersions( msgLog );
         propStore.logVersions( msgLog );
@@ -666,6 +705,7 @@ public class NeoStore extends AbstractStore
         schemaStore.logIdUsage( msgLog );
         nodeStore.logIdUsage( msgLog );
         relStore.logIdUsage( msgLog );
+        relGroupStore.logIdUsage( msgLog );
         relTypeStore.logIdUsage( msgLog );
         labelTokenStore.logIdUsage( msgLog );
         propStore.logIdUsage( msgLog );
@@ -30,6 +30,7 @@ public class NodeRecord extends PrimitiveRecord
     private final long committedNextRel;
     private long nextRel;
     private long labels;
+    private boolean dense;
     private Collection<DynamicRecord> dynamicLabelRecords = emptyList();
     private boolean isLight = true;
 
@@ -49,6 +50,21 @@ public class NodeRecord extends PrimitiveRecord
         this.nextRel = nextRel;
     }
 
+    /**
+     * A dense node keeps its relationships in one chain per type and direction. For such a node
+     * {@link #getNextRel()} points to its first {@link RelationshipGroupRecord} rather than to a
+     * relationship.
+     */
+    public boolean isDense()
+    {
+        return dense;
+    }
+
+    public void setDense( boolean dense )
+    {
+        this.dense = dense;
+    }
+
     public long getCommittedNextRel()
     {
         return isCreated() ? Record.NO_NEXT_RELATIONSHIP.intValue() : committedNextRel;
@@ -100,7 +116,7 @@ public class NodeRecord extends PrimitiveRecord
     {
         StringBuilder builder = new StringBuilder( "Node[" ).append( getId() )
                 .append( ",used=" ).append( inUse() )
-                .append( ",rel=" ).append( nextRel )
+                .append( dense ? ",group=" : ",rel=" ).append( nextRel )
                 .append( ",prop=" ).append( getNextProp() )
                 .append( ",labels=" ).append( getLabelField() )
                 .append( "," ).append( isLight ? "light" : "heavy" );
@@ -122,6 +138,7 @@ public class NodeRecord extends PrimitiveRecord
         clone.setNextProp( getNextProp() );
         clone.nextRel = nextRel;
         clone.labels = labels;
+        clone.dense = dense;
         clone.isLight = isLight;
 
         if( dynamicLabelRecords.size() > 0 )
@@ -64,8 +64,8 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
 
     public static final String TYPE_DESCRIPTOR = "NodeStore";
 
-    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)
-    public static final int RECORD_SIZE = 14;
+    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)+extra(byte)
+    public static final int RECORD_SIZE = 15;
 
     private DynamicArrayStore dynamicLabelStore;
 
@@ -267,9 +267,13 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
         long hsbLabels = buffer.get();
         long labels = lsbLabels | (hsbLabels << 32);
 
+        // [    ,   x] dense
+        byte extra = buffer.get();
+
         NodeRecord nodeRecord = new NodeRecord( id, longFromIntAndMod( nextRel, relModifier ), longFromIntAndMod( nextProp, propModifier ) );
         nodeRecord.setInUse( inUse );
         nodeRecord.setLabelField( labels );
+        nodeRecord.setDense( (extra & 0x1) > 0 );
         
         return nodeRecord;
     }
@@ -299,6 +303,9 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
             buffer.putInt( (int) labelField );
             // msb of labels
             buffer.put( (byte) ((labelField&0xFF00000000L) >>> 32) );
+
+            // [    ,   x] dense
+            buffer.put( (byte) (record.isDense() ? 0x1 : 0x0) );
         }
         else
         {
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+/**
+ * A fixed number of equally sized pages shared between all the
+ * {@link PageCacheWindowPool stores} of a database, so that a single memory
+ * budget covers all of them. Pages are loaded on demand by the store pools and
+ * handed to {@link #admit(PageCacheWindow)}, which gives the new page a frame,
+ * evicting an old page using the clock algorithm if needed: the clock hand
+ * sweeps over the frames, giving referenced pages a second chance and evicting
+ * the first page which hasn't been referenced since the hand last passed it
+ * and isn't currently in use. Dirty pages are written out as they are evicted,
+ * outside of the monitor of the page cache.
+ * <p>
+ * Looking up an already loaded page never touches this class, only setting
+ * the reference bit of the page, so hits don't contend on any shared monitor.
+ */
+public class PageCache
+{
+    private final long memory;
+    private final int pageSize;
+    private final PageCacheWindow[] frames;
+    private int hand;
+
+    private long evictions;
+    private long failedAdmissions;
+
+    /**
+     * @param memory the total number of bytes to use for pages.
+     * @param pageSize the target size in bytes of each page. Stores fit as
+     * many whole records as possible into each page.
+     */
+    public PageCache( long memory, int pageSize )
+    {
+        if ( pageSize <= 0 )
+        {
+            throw new IllegalArgumentException( "Page size must be positive, was " + pageSize );
+        }
+        long pageCount = memory / pageSize;
+        if ( pageCount > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Page size " + pageSize + " and memory " + memory +
+                    " implies too many pages" );
+        }
+        this.memory = memory;
+        this.pageSize = pageSize;
+        this.frames = new PageCacheWindow[(int) pageCount];
+    }
+
+    public long getMemory()
+    {
+        return memory;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public int getMaxPages()
+    {
+        return frames.length;
+    }
+
+    /**
+     * Gives a freshly loaded page a frame. If no page can be evicted, because
+     * they are all in use, the page isn't cached and it's up to the pool to
+     * close it as soon as no one is using it anymore. The page to evict is
+     * chosen while holding the monitor of the page cache, but written out after
+     * releasing it, so that loading pages doesn't wait for the IO of others.
+     */
+    void admit( PageCacheWindow page )
+    {
+        PageCacheWindow victim = placeEvicting( page );
+        // If someone started using the victim since it was chosen, it will be closed when they release it
+        if ( victim != null && victim.evict() )
+        {
+            synchronized ( this )
+            {
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * @return the page that lost its frame to {@code page}, or {@code null} if there was none.
+     */
+    private synchronized PageCacheWindow placeEvicting( PageCacheWindow page )
+    {
+        for ( int swept = 0; swept < frames.length * 2; swept++ )
+        {
+            PageCacheWindow candidate = frames[hand];
+            if ( candidate == null || candidate.isClosed() )
+            {
+                place( page );
+                return null;
+            }
+            if ( !candidate.clearReferenced() && !candidate.isInUse() )
+            {
+                candidate.setUncached();
+                place( page );
+                return candidate;
+            }
+            advanceHand();
+        }
+        failedAdmissions++;
+        return null;
+    }
+
+    private void place( PageCacheWindow page )
+    {
+        frames[hand] = page;
+        page.setCached();
+        advanceHand();
+    }
+
+    private void advanceHand()
+    {
+        if ( ++hand == frames.length )
+        {
+            hand = 0;
+        }
+    }
+
+    /**
+     * @return the number of pages evicted to make room for other pages.
+     */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * @return the number of loaded pages which couldn't be given a frame
+     * because all pages were in use at the time.
+     */
+    public synchronized long getFailedAdmissions()
+    {
+        return failedAdmissions;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return getClass().getSimpleName() + "[pages:" + frames.length + ", page size:" + pageSize +
+                ", evictions:" + evictions + ", failed admissions:" + failedAdmissions + "]";
+    }
+}
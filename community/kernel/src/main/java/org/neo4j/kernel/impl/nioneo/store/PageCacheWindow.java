@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A page of a store held by the {@link PageCache}. It reads the whole page
+ * when loaded and writes it back when forced, just like a
+ * {@link PlainPersistenceWindow}, but also knows which pool it belongs to
+ * and carries the reference bit used by the clock eviction.
+ */
+class PageCacheWindow extends AbstractPersistenceWindow
+{
+    private final PageCacheWindowPool pool;
+    private final long pageId;
+    private volatile boolean referenced = true;
+    private volatile boolean cached;
+
+    PageCacheWindow( PageCacheWindowPool pool, long pageId, int recordSize, int recordsPerPage,
+            FileChannel channel )
+    {
+        super( pageId * recordsPerPage, recordSize, recordSize * recordsPerPage, channel,
+                ByteBuffer.allocate( recordSize * recordsPerPage ) );
+        this.pool = pool;
+        this.pageId = pageId;
+    }
+
+    long pageId()
+    {
+        return pageId;
+    }
+
+    void reference()
+    {
+        referenced = true;
+    }
+
+    /**
+     * @return whether or not this page was referenced since last time this was called.
+     */
+    boolean clearReferenced()
+    {
+        boolean result = referenced;
+        referenced = false;
+        return result;
+    }
+
+    void setCached()
+    {
+        cached = true;
+    }
+
+    /**
+     * Called when this page loses its frame in the page cache, after which it will be closed
+     * as soon as no one uses it.
+     */
+    void setUncached()
+    {
+        cached = false;
+    }
+
+    boolean isCached()
+    {
+        return cached;
+    }
+
+    synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    boolean evict()
+    {
+        return pool.evict( this );
+    }
+
+    /**
+     * Unlike {@link #writeOutAndCloseIfFree(boolean)} this won't close the
+     * page if it's locked by the current thread, since the thread evicting it
+     * may well be in the middle of using it.
+     */
+    synchronized boolean writeOutAndCloseIfUnused( boolean readOnly )
+    {
+        return !isLocked() && writeOutAndCloseIfFree( readOnly );
+    }
+
+    /**
+     * Pages are compared by identity, unlike other windows, since an evicted page and the one
+     * loaded in its place cover the same position, and must not be mistaken for one another
+     * when removing them from the pool.
+     */
+    @Override
+    public boolean equals( Object o )
+    {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return System.identityHashCode( this );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageCacheWindow[" + pageId + "]";
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPool;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * Manages the pages of one store in a {@link PageCache} shared with the other
+ * stores. Every position maps to exactly one fixed size page, which is loaded
+ * on first access and stays around until the page cache evicts it, so there's
+ * no separate handling of records outside of mapped memory as in
+ * {@link PersistenceWindowPool}, and no periodic re-balancing of what's
+ * loaded. A store larger than the page cache will see more page loads, not a
+ * different access path.
+ */
+public class PageCacheWindowPool implements WindowPool
+{
+    private final File storeName;
+    private final int recordSize;
+    private final int recordsPerPage;
+    private final PageCache pageCache;
+    private final boolean readOnly;
+    private final StringLogger log;
+    private FileChannel fileChannel;
+    private final ConcurrentMap<Long,PageCacheWindow> pages = new ConcurrentHashMap<Long,PageCacheWindow>();
+
+    // It's OK to miss some updates for these statistics
+    private int hit;
+    private int miss;
+    private int evictions;
+
+    public PageCacheWindowPool( File storeName, int recordSize, FileChannel fileChannel, PageCache pageCache,
+            boolean readOnly, StringLogger log )
+    {
+        if ( recordSize <= 0 )
+        {
+            throw new IllegalArgumentException( "Record size must be positive, was " + recordSize );
+        }
+        this.storeName = storeName;
+        this.recordSize = recordSize;
+        this.recordsPerPage = Math.max( 1, pageCache.getPageSize() / recordSize );
+        this.fileChannel = fileChannel;
+        this.pageCache = pageCache;
+        this.readOnly = readOnly;
+        this.log = log;
+    }
+
+    @Override
+    public PersistenceWindow acquire( long position, OperationType operationType )
+    {
+        long pageId = position / recordsPerPage;
+        while ( true )
+        {
+            PageCacheWindow window = pages.get( pageId );
+            if ( window == null )
+            {
+                window = new PageCacheWindow( this, pageId, recordSize, recordsPerPage, fileChannel );
+                // Lock it before anyone else can see it, so that no one uses it before it has been read. It's
+                // published before being read so that a page is only loaded by one thread at a time, and since
+                // an evicted page stays in the map until it has been written out, what's read is never stale.
+                window.markAsInUse();
+                window.lock( operationType );
+                if ( pages.putIfAbsent( pageId, window ) != null )
+                {
+                    // Another thread loaded this page before us, go and use that one instead
+                    window.unLock();
+                    continue;
+                }
+                miss++;
+                try
+                {
+                    window.readFullWindow();
+                    pageCache.admit( window );
+                }
+                catch ( RuntimeException e )
+                {
+                    // Threads waiting for this page will see that it's closed and load it again
+                    pages.remove( pageId, window );
+                    window.close();
+                    window.unLock();
+                    throw e;
+                }
+                return window;
+            }
+
+            if ( !window.markAsInUse() )
+            {
+                // It got evicted right before we managed to mark it, load it again
+                pages.remove( pageId, window );
+                continue;
+            }
+            window.lock( operationType );
+            if ( window.isClosed() )
+            {
+                // The thread loading it failed to read it
+                window.unLock();
+                continue;
+            }
+            window.reference();
+            hit++;
+            return window;
+        }
+    }
+
+    @Override
+    public void release( PersistenceWindow window )
+    {
+        PageCacheWindow page = (PageCacheWindow) window;
+        page.unLock();
+        // A page without a frame in the page cache, because it didn't get one or lost it while in use, is only
+        // kept around for as long as it's in use. Checked after unlocking so that it can't be missed by both
+        // this thread and the page cache taking away the frame.
+        if ( !page.isCached() && page.writeOutAndCloseIfUnused( readOnly ) )
+        {
+            pages.remove( page.pageId(), page );
+        }
+    }
+
+    /**
+     * Called by the {@link PageCache} when it wants to reuse the frame of
+     * {@code page}.
+     *
+     * @return {@code true} if the page was evicted, or {@code false} if it's
+     * in use and can't be evicted right now.
+     */
+    boolean evict( PageCacheWindow page )
+    {
+        if ( page.writeOutAndCloseIfUnused( readOnly ) )
+        {
+            pages.remove( page.pageId(), page );
+            evictions++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void flushAll()
+    {
+        if ( readOnly )
+            return;
+
+        for ( PageCacheWindow page : pages.values() )
+        {
+            page.force();
+        }
+        try
+        {
+            fileChannel.force( false );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Failed to flush file channel " + storeName, e );
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        flushAll();
+        for ( PageCacheWindow page : pages.values() )
+        {
+            page.close();
+        }
+        pages.clear();
+        fileChannel = null;
+        log.info( storeName + " hit=" + hit + " miss=" + miss + " evictions=" + evictions + " " + pageCache );
+    }
+
+    @Override
+    public WindowPoolStats getStats()
+    {
+        int pageCount = pages.size();
+        int pageBytes = recordsPerPage * recordSize;
+        return new WindowPoolStats( storeName, pageCache.getMemory(), (long) pageCount * pageBytes, pageCount,
+                pageBytes, hit, miss, 0, evictions, 0, 0, 0 );
+    }
+}
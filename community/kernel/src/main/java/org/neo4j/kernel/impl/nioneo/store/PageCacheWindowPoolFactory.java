@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPool;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolFactory;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static java.lang.String.format;
+
+/**
+ * Creates {@link PageCacheWindowPool window pools} which all share the same
+ * {@link PageCache}, sized by
+ * {@link GraphDatabaseSettings#all_stores_total_mapped_memory_size} and
+ * {@link GraphDatabaseSettings#mapped_memory_page_size}. Use one instance
+ * per database.
+ */
+public class PageCacheWindowPoolFactory implements WindowPoolFactory
+{
+    private final PageCache pageCache;
+
+    public PageCacheWindowPoolFactory( Config config )
+    {
+        this.pageCache = new PageCache( config.get( GraphDatabaseSettings.all_stores_total_mapped_memory_size ),
+                pageSize( config ) );
+    }
+
+    private static int pageSize( Config config )
+    {
+        long pageSize = config.get( GraphDatabaseSettings.mapped_memory_page_size );
+        if ( pageSize > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( format( "configured page size [%d bytes] is too large", pageSize ) );
+        }
+        return (int) pageSize;
+    }
+
+    @Override
+    public WindowPool create( File storageFileName, int recordSize, FileChannel fileChannel, Config configuration,
+                              StringLogger log )
+    {
+        boolean readOnly = configuration.get( CommonAbstractStore.Configuration.read_only ) &&
+                !configuration.get( CommonAbstractStore.Configuration.backup_slave );
+        return new PageCacheWindowPool( storageFileName, recordSize, fileChannel, pageCache, readOnly, log );
+    }
+
+    public PageCache getPageCache()
+    {
+        return pageCache;
+    }
+}
@@ -96,6 +96,12 @@ public interface RecordStore<R extends AbstractBaseRecord>
             processRecord( RelationshipRecord.class, store, rel );
         }
 
+        public void processRelationshipGroup( RecordStore<RelationshipGroupRecord> store,
+                                              RelationshipGroupRecord group ) throws FAILURE
+        {
+            processRecord( RelationshipGroupRecord.class, store, group );
+        }
+
         public void processProperty( RecordStore<PropertyRecord> store, PropertyRecord property ) throws FAILURE
         {
             processRecord( PropertyRecord.class, store, property );
@@ -153,34 +159,63 @@ public interface RecordStore<R extends AbstractBaseRecord>
                 @Override
                 public Iterator<R> iterator()
                 {
-                    return new PrefetchingIterator<R>()
-                    {
-                        final long highId = store.getHighId();
-                        int id = 0;
-
-                        @Override
-                        protected R fetchNextOrNull()
-                        {
-                            scan: while ( id <= highId && id >= 0 )
-                            {
-                                if (!continueScanning)
-                                {
-                                    return null;
-                                }
-                                R record = getRecord( store, id++ );
-                                for ( Predicate<? super R> filter : filters )
-                                {
-                                    if ( !filter.accept( record ) ) continue scan;
-                                }
-                                return record;
-                            }
-                            return null;
-                        }
-                    };
+                    return new Scanner<>( store, 0, store.getHighId() + 1, filters );
                 }
             };
         }
 
+        /**
+         * Scans only the records with ids in {@code [fromId, toId)}, so that a store can be split into ranges
+         * that are processed separately, for example by different threads.
+         */
+        public <R extends AbstractBaseRecord> Iterable<R> scan( final RecordStore<R> store, final long fromId,
+                final long toId, final Predicate<? super R>... filters )
+        {
+            return new Iterable<R>()
+            {
+                @Override
+                public Iterator<R> iterator()
+                {
+                    return new Scanner<>( store, fromId, toId, filters );
+                }
+            };
+        }
+
+        private class Scanner<R extends AbstractBaseRecord> extends PrefetchingIterator<R>
+        {
+            private final RecordStore<R> store;
+            private final long toId;
+            private final Predicate<? super R>[] filters;
+            private long id;
+
+            Scanner( RecordStore<R> store, long fromId, long toId, Predicate<? super R>[] filters )
+            {
+                this.store = store;
+                this.id = fromId;
+                this.toId = toId;
+                this.filters = filters;
+            }
+
+            @Override
+            protected R fetchNextOrNull()
+            {
+                scan: while ( id < toId && id >= 0 )
+                {
+                    if (!continueScanning)
+                    {
+                        return null;
+                    }
+                    R record = getRecord( store, id++ );
+                    for ( Predicate<? super R> filter : filters )
+                    {
+                        if ( !filter.accept( record ) ) continue scan;
+                    }
+                    return record;
+                }
+                return null;
+            }
+        }
+
         protected <R extends AbstractBaseRecord> R getRecord( RecordStore<R> store, long id )
         {
             return store.forceGetRecord( id );
@@ -216,6 +251,17 @@ public interface RecordStore<R extends AbstractBaseRecord>
             apply( store, progressListener, filters );
         }
 
+        public <R extends AbstractBaseRecord> void applyFiltered( RecordStore<R> store, long fromId, long toId,
+                ProgressListener progressListener, Predicate<? super R>... filters ) throws FAILURE
+        {
+            for ( R record : scan( store, fromId, toId, filters ) )
+            {
+                store.accept( this, record );
+                progressListener.set( record.getLongId() - fromId );
+            }
+            progressListener.done();
+        }
+
         private <R extends AbstractBaseRecord> void apply( RecordStore<R> store, ProgressListener progressListener,
                 Predicate<? super R>... filters ) throws FAILURE
         {
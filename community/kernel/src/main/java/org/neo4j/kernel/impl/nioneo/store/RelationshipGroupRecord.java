@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+/**
+ * Holds the heads of the outgoing, incoming and loop relationship chains of one type for a dense node.
+ * The groups of a node form a singly linked list, ordered by type, starting at
+ * {@link NodeRecord#getNextRel()} of that node, see {@link NodeRecord#isDense()}.
+ */
+public class RelationshipGroupRecord extends Abstract64BitRecord
+{
+    private int type;
+    private long next = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long firstOut = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long firstIn = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long firstLoop = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long owningNode = Record.NO_NEXT_RELATIONSHIP.intValue();
+
+    public RelationshipGroupRecord( long id, int type )
+    {
+        super( id );
+        this.type = type;
+    }
+
+    public RelationshipGroupRecord( long id, int type, long next, long firstOut, long firstIn, long firstLoop,
+            long owningNode )
+    {
+        this( id, type );
+        this.next = next;
+        this.firstOut = firstOut;
+        this.firstIn = firstIn;
+        this.firstLoop = firstLoop;
+        this.owningNode = owningNode;
+    }
+
+    public int getType()
+    {
+        return type;
+    }
+
+    public void setType( int type )
+    {
+        this.type = type;
+    }
+
+    public long getNext()
+    {
+        return next;
+    }
+
+    public void setNext( long next )
+    {
+        this.next = next;
+    }
+
+    public long getFirstOut()
+    {
+        return firstOut;
+    }
+
+    public void setFirstOut( long firstOut )
+    {
+        this.firstOut = firstOut;
+    }
+
+    public long getFirstIn()
+    {
+        return firstIn;
+    }
+
+    public void setFirstIn( long firstIn )
+    {
+        this.firstIn = firstIn;
+    }
+
+    public long getFirstLoop()
+    {
+        return firstLoop;
+    }
+
+    public void setFirstLoop( long firstLoop )
+    {
+        this.firstLoop = firstLoop;
+    }
+
+    public long getOwningNode()
+    {
+        return owningNode;
+    }
+
+    public void setOwningNode( long owningNode )
+    {
+        this.owningNode = owningNode;
+    }
+
+    /**
+     * @return {@code true} if none of the three chains of this group have any relationships left.
+     */
+    public boolean isEmpty()
+    {
+        return Record.NO_NEXT_RELATIONSHIP.is( firstOut ) && Record.NO_NEXT_RELATIONSHIP.is( firstIn ) &&
+                Record.NO_NEXT_RELATIONSHIP.is( firstLoop );
+    }
+
+    @Override
+    public String toString()
+    {
+        return new StringBuilder( "RelationshipGroup[" ).append( getId() )
+                .append( ",used=" ).append( inUse() )
+                .append( ",type=" ).append( type )
+                .append( ",out=" ).append( firstOut )
+                .append( ",in=" ).append( firstIn )
+                .append( ",loop=" ).append( firstLoop )
+                .append( ",next=" ).append( next )
+                .append( ",node=" ).append( owningNode )
+                .append( "]" ).toString();
+    }
+
+    @Override
+    public RelationshipGroupRecord clone()
+    {
+        RelationshipGroupRecord clone = new RelationshipGroupRecord( getId(), type, next, firstOut, firstIn,
+                firstLoop, owningNode );
+        clone.setInUse( inUse() );
+        if ( isCreated() )
+        {
+            clone.setCreated();
+        }
+        return clone;
+    }
+}
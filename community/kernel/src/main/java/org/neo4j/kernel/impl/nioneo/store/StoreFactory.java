@@ -74,6 +74,7 @@ public class StoreFactory
     public static final String PROPERTY_STRINGS_STORE_NAME = PROPERTY_STORE_NAME + STRINGS_PART;
     public static final String PROPERTY_ARRAYS_STORE_NAME = PROPERTY_STORE_NAME + ARRAYS_PART;
     public static final String RELATIONSHIP_STORE_NAME = ".relationshipstore.db";
+    public static final String RELATIONSHIP_GROUP_STORE_NAME = ".relationshipgroupstore.db";
     public static final String RELATIONSHIP_TYPE_TOKEN_STORE_NAME = ".relationshiptypestore.db";
     public static final String RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME = RELATIONSHIP_TYPE_TOKEN_STORE_NAME + NAMES_PART;
     public static final String LABEL_TOKEN_STORE_NAME = ".labeltokenstore.db";
@@ -133,6 +134,7 @@ public class StoreFactory
                 newLabelTokenStore( new File( fileName.getPath() + LABEL_TOKEN_STORE_NAME ) ),
                 newPropertyStore(new File( fileName.getPath() + PROPERTY_STORE_NAME)),
                 newRelationshipStore(new File( fileName.getPath() + RELATIONSHIP_STORE_NAME)),
+                newRelationshipGroupStore( new File( fileName.getPath() + RELATIONSHIP_GROUP_STORE_NAME ) ),
                 newNodeStore(new File( fileName.getPath() + NODE_STORE_NAME)),
                 // We don't need any particular upgrade when we add the schema store
                 newSchemaStore(new File( fileName.getPath() + SCHEMA_STORE_NAME)));
@@ -199,6 +201,12 @@ public class StoreFactory
                 fileSystemAbstraction, stringLogger);
     }
 
+    public RelationshipGroupStore newRelationshipGroupStore( File baseFileName )
+    {
+        return new RelationshipGroupStore( baseFileName, config, idGeneratorFactory, windowPoolFactory,
+                fileSystemAbstraction, stringLogger );
+    }
+
     public DynamicArrayStore newDynamicArrayStore(File baseFileName)
     {
         return new DynamicArrayStore( baseFileName, config, IdType.ARRAY_BLOCK, idGeneratorFactory, windowPoolFactory,
@@ -224,6 +232,7 @@ public class StoreFactory
         createEmptyStore( fileName, buildTypeDescriptorAndVersion( NeoStore.TYPE_DESCRIPTOR ) );
         createNodeStore(new File( fileName.getPath() + NODE_STORE_NAME));
         createRelationshipStore(new File( fileName.getPath() + RELATIONSHIP_STORE_NAME));
+        createRelationshipGroupStore( new File( fileName.getPath() + RELATIONSHIP_GROUP_STORE_NAME ) );
         createPropertyStore(new File( fileName.getPath() + PROPERTY_STORE_NAME));
         createRelationshipTypeStore(new File( fileName.getPath() + RELATIONSHIP_TYPE_TOKEN_STORE_NAME ));
         createLabelTokenStore( new File( fileName.getPath() + LABEL_TOKEN_STORE_NAME ) );
@@ -283,6 +292,17 @@ public class StoreFactory
         createEmptyStore( fileName, buildTypeDescriptorAndVersion( RelationshipStore.TYPE_DESCRIPTOR ) );
     }
 
+    /**
+     * Creates a new relationship group store contained in <CODE>fileName</CODE>.
+     *
+     * @param fileName
+     *            File name of the new relationship group store
+     */
+    public void createRelationshipGroupStore( File fileName )
+    {
+        createEmptyStore( fileName, buildTypeDescriptorAndVersion( RelationshipGroupStore.TYPE_DESCRIPTOR ) );
+    }
+
     /**
      * Creates a new property store contained in <CODE>fileName</CODE> If
      * filename is <CODE>null</CODE> or the file already exists an
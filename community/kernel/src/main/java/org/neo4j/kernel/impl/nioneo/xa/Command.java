@@ -46,6 +46,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
@@ -334,6 +336,10 @@ public abstract class Command extends XaCommand
     private static final byte NEOSTORE_COMMAND = (byte) 6;
     private static final byte SCHEMA_RULE_COMMAND = (byte) 7;
     private static final byte LABEL_KEY_COMMAND = (byte) 8;
+    private static final byte REL_GROUP_COMMAND = (byte) 9;
+
+    // Bit in the in use byte of a node command marking the node as dense
+    private static final byte DENSE_NODE = (byte) 0x2;
 
     abstract void removeFromCache( CacheAccessBackDoor cacheAccess );
 
@@ -392,6 +398,10 @@ public abstract class Command extends XaCommand
         {
             byte inUse = record.inUse() ? Record.IN_USE.byteValue()
                     : Record.NOT_IN_USE.byteValue();
+            if ( record.isDense() )
+            {
+                inUse |= DENSE_NODE;
+            }
             buffer.put( inUse );
             if ( record.inUse() )
             {
@@ -428,7 +438,7 @@ public abstract class Command extends XaCommand
                 return null;
             byte inUseFlag = buffer.get();
             boolean inUse = false;
-            if ( inUseFlag == Record.IN_USE.byteValue() )
+            if ( (inUseFlag & ~DENSE_NODE) == Record.IN_USE.byteValue() )
             {
                 inUse = true;
             }
@@ -453,6 +463,7 @@ public abstract class Command extends XaCommand
                 record = new NodeRecord( id, Record.NO_NEXT_RELATIONSHIP.intValue(),
                         Record.NO_NEXT_PROPERTY.intValue() );
             record.setInUse( inUse );
+            record.setDense( (inUseFlag & DENSE_NODE) != 0 );
             return record;
         }
 
@@ -601,6 +612,101 @@ public abstract class Command extends XaCommand
         }
     }
     
+    static class RelationshipGroupCommand extends Command
+    {
+        private final RelationshipGroupRecord record;
+        private final RelationshipGroupStore store;
+
+        RelationshipGroupCommand( RelationshipGroupStore store, RelationshipGroupRecord record )
+        {
+            super( record.getId(), Mode.fromRecordState( record ) );
+            this.record = record;
+            this.store = store;
+        }
+
+        @Override
+        public void accept( CommandRecordVisitor visitor )
+        {
+            visitor.visitRelationshipGroup( record );
+        }
+
+        @Override
+        public String toString()
+        {
+            return record.toString();
+        }
+
+        @Override
+        void removeFromCache( CacheAccessBackDoor cacheAccess )
+        {
+            // The chain positions of the owning node are read from its groups
+            if ( record.getOwningNode() != -1 )
+            {
+                cacheAccess.removeNodeFromCache( record.getOwningNode() );
+            }
+        }
+
+        @Override
+        public void execute()
+        {
+            store.updateRecord( record );
+        }
+
+        @Override
+        public void writeToFile( LogBuffer buffer ) throws IOException
+        {
+            byte inUse = record.inUse() ? Record.IN_USE.byteValue()
+                : Record.NOT_IN_USE.byteValue();
+            buffer.put( REL_GROUP_COMMAND );
+            buffer.putLong( record.getId() );
+            buffer.put( inUse );
+            if ( record.inUse() )
+            {
+                buffer.putInt( record.getType() )
+                        .putLong( record.getNext() )
+                        .putLong( record.getFirstOut() )
+                        .putLong( record.getFirstIn() )
+                        .putLong( record.getFirstLoop() )
+                        .putLong( record.getOwningNode() );
+            }
+        }
+
+        public static Command readFromFile( NeoStore neoStore,
+            ReadableByteChannel byteChannel, ByteBuffer buffer )
+            throws IOException
+        {
+            if ( !readAndFlip( byteChannel, buffer, 9 ) )
+                return null;
+            long id = buffer.getLong();
+            byte inUseFlag = buffer.get();
+            boolean inUse = false;
+            if ( inUseFlag == Record.IN_USE.byteValue() )
+            {
+                inUse = true;
+            }
+            else if ( inUseFlag != Record.NOT_IN_USE.byteValue() )
+            {
+                throw new IOException( "Illegal in use flag: " + inUseFlag );
+            }
+            RelationshipGroupRecord record;
+            if ( inUse )
+            {
+                if ( !readAndFlip( byteChannel, buffer, 44 ) )
+                    return null;
+                record = new RelationshipGroupRecord( id, buffer.getInt(), buffer.getLong(), buffer.getLong(),
+                        buffer.getLong(), buffer.getLong(), buffer.getLong() );
+            }
+            else
+            {
+                record = new RelationshipGroupRecord( id, -1 );
+                record.setOwningNode( -1 );
+            }
+            record.setInUse( inUse );
+            return new RelationshipGroupCommand( neoStore == null ? null : neoStore.getRelationshipGroupStore(),
+                record );
+        }
+    }
+
     static class NeoStoreCommand extends Command
     {
         private final NeoStoreRecord record;
@@ -1306,6 +1412,8 @@ public abstract class Command extends XaCommand
                 return PropertyKeyTokenCommand.readFromFile( neoStore, byteChannel, buffer );
             case REL_COMMAND:
                 return RelationshipCommand.readFromFile( neoStore, byteChannel, buffer );
+            case REL_GROUP_COMMAND:
+                return RelationshipGroupCommand.readFromFile( neoStore, byteChannel, buffer );
             case REL_TYPE_COMMAND:
                 return RelationshipTypeTokenCommand.readFromFile( neoStore, byteChannel, buffer );
             case LABEL_KEY_COMMAND:
@@ -27,6 +27,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -40,6 +41,8 @@ public interface CommandRecordVisitor
 
     void visitRelationship( RelationshipRecord record );
 
+    void visitRelationshipGroup( RelationshipGroupRecord record );
+
     void visitProperty( PropertyRecord record );
 
     void visitRelationshipTypeToken( RelationshipTypeTokenRecord record );
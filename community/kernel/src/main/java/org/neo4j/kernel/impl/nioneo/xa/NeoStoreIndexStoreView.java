@@ -19,14 +19,28 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.helpers.Function;
+import org.neo4j.helpers.DaemonThreadFactory;
 import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.Predicates;
 import org.neo4j.helpers.PrimitiveLongPredicate;
+import org.neo4j.helpers.progress.ProgressListener;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.scan.NodeLabelUpdate;
@@ -43,6 +57,7 @@ import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore.Processor;
 
+import static org.neo4j.helpers.Exceptions.launderedException;
 import static org.neo4j.helpers.collection.Iterables.filter;
 import static org.neo4j.helpers.collection.Iterables.flatMap;
 import static org.neo4j.helpers.collection.Iterables.map;
@@ -55,13 +70,26 @@ import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLab
 
 public class NeoStoreIndexStoreView implements IndexStoreView
 {
+    /**
+     * Number of node records each thread scans at a time when a scan is split up between several threads.
+     * Also decides how many property updates are held in memory at most, which is a couple of batches per thread.
+     */
+    static final int NODES_PER_BATCH = 10000;
+
     private final PropertyStore propertyStore;
     private final NodeStore nodeStore;
+    private final int scanThreads;
 
     public NeoStoreIndexStoreView( NeoStore neoStore )
+    {
+        this( neoStore, 1 );
+    }
+
+    public NeoStoreIndexStoreView( NeoStore neoStore, int scanThreads )
     {
         this.propertyStore = neoStore.getPropertyStore();
         this.nodeStore = neoStore.getNodeStore();
+        this.scanThreads = scanThreads;
     }
 
     @Override
@@ -89,24 +117,15 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     }
 
     @Override
-    public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel( IndexDescriptor descriptor,
-                                                                                          Visitor<NodePropertyUpdate,
-                                                                                                  FAILURE> visitor )
+    public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertiesAndLabels( long[] labelIds,
+            long[] propertyKeyIds, Visitor<NodePropertyUpdate, FAILURE> visitor )
     {
-        // Create a processor that for each accepted node (containing the desired label) looks through its properties,
-        // getting the desired one (if any) and feeds to the index manipulator.
-        LabelsReference labelsReference = new LabelsReference();
-        RecordStore.Processor<FAILURE> processor = new NodePropertyUpdateProcessor<>( propertyStore,
-                singleLongPredicate( descriptor.getPropertyKeyId() ),
-                labelsReference, visitor );
-
-        // Run the processor for the nodes containing the given label.
+        // Nodes containing one of the desired labels have their properties looked through, getting the desired
+        // ones (if any) and feeding them to the visitor. Large stores are split up in ranges of node ids that
+        // are scanned by several threads, see ParallelNodePropertyUpdateScan.
         // TODO When we've got a decent way of getting nodes with a label, use that instead.
-        Predicate<NodeRecord> predicate = new NodeLabelFilterPredicate( nodeStore,
-                singleLongPredicate( descriptor.getLabelId() ), labelsReference );
-
-        // Run the processor, be sure that the predicate filters out removed nodes by checking in-use
-        return new ProcessStoreScan<>( processor, predicate );
+        return new ParallelNodePropertyUpdateScan<>( multipleLongPredicate( labelIds ),
+                multipleLongPredicate( propertyKeyIds ), visitor );
     }
 
     @Override
@@ -156,18 +175,6 @@ public class NeoStoreIndexStoreView implements IndexStoreView
         }
     }
 
-    private static PrimitiveLongPredicate singleLongPredicate( final long acceptedValue )
-    {
-        return new PrimitiveLongPredicate()
-        {
-            @Override
-            public boolean accept( long value )
-            {
-                return value == acceptedValue;
-            }
-        };
-    }
-
     private static PrimitiveLongPredicate multipleLongPredicate( final long... acceptedValues )
     {
         return new PrimitiveLongPredicate()
@@ -365,4 +372,161 @@ public class NeoStoreIndexStoreView implements IndexStoreView
             processor.stopScanning();
         }
     }
+
+    /**
+     * Scans the node store for property updates. Small stores, or when only one thread is configured, are scanned
+     * by the thread running the scan. Otherwise the node store is split up in ranges of {@link #NODES_PER_BATCH}
+     * node ids, which are scanned by a pool of threads, a couple of ranges ahead per thread. The updates of each
+     * range are handed to the visitor from the thread running the scan, range by range, so the visitor sees the
+     * updates in node id order and doesn't need to be thread safe.
+     */
+    private class ParallelNodePropertyUpdateScan<FAILURE extends Exception> implements StoreScan<FAILURE>
+    {
+        private final PrimitiveLongPredicate labelPredicate;
+        private final PrimitiveLongPredicate propertyKeyPredicate;
+        private final Visitor<NodePropertyUpdate, FAILURE> visitor;
+        private final Set<RecordStore.Processor<?>> activeProcessors =
+                Collections.newSetFromMap( new ConcurrentHashMap<RecordStore.Processor<?>, Boolean>() );
+        private volatile boolean continueScanning = true;
+
+        ParallelNodePropertyUpdateScan( PrimitiveLongPredicate labelPredicate,
+                                        PrimitiveLongPredicate propertyKeyPredicate,
+                                        Visitor<NodePropertyUpdate, FAILURE> visitor )
+        {
+            this.labelPredicate = labelPredicate;
+            this.propertyKeyPredicate = propertyKeyPredicate;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void run() throws FAILURE
+        {
+            long highId = nodeStore.getHighId();
+            if ( scanThreads == 1 || highId <= NODES_PER_BATCH )
+            {
+                scan( 0, highId, visitor );
+                return;
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool( scanThreads,
+                    new DaemonThreadFactory( "Index population scan" ) );
+            Queue<Future<List<NodePropertyUpdate>>> batches = new LinkedList<>();
+            try
+            {
+                long nextId = 0;
+                while ( continueScanning && (nextId < highId || !batches.isEmpty()) )
+                {
+                    while ( nextId < highId && batches.size() < scanThreads * 2 )
+                    {
+                        long toId = Math.min( nextId + NODES_PER_BATCH, highId );
+                        batches.add( executor.submit( new RangeScan( nextId, toId ) ) );
+                        nextId = toId;
+                    }
+                    for ( NodePropertyUpdate update : awaitBatch( batches.poll() ) )
+                    {
+                        visitor.visit( update );
+                    }
+                }
+            }
+            finally
+            {
+                // Don't interrupt the scanning threads, that would close the channels of the stores they read from
+                stop();
+                executor.shutdown();
+                awaitTermination( executor );
+            }
+        }
+
+        private <VISITOR_FAILURE extends Exception> void scan( long fromId, long toId,
+                Visitor<NodePropertyUpdate, VISITOR_FAILURE> visitor ) throws VISITOR_FAILURE
+        {
+            LabelsReference labelsReference = new LabelsReference();
+            RecordStore.Processor<VISITOR_FAILURE> processor = new NodePropertyUpdateProcessor<>( propertyStore,
+                    propertyKeyPredicate, labelsReference, visitor );
+            Predicate<NodeRecord> predicate = new NodeLabelFilterPredicate( nodeStore, labelPredicate,
+                    labelsReference );
+            activeProcessors.add( processor );
+            try
+            {
+                if ( continueScanning )
+                {
+                    processor.applyFiltered( nodeStore, fromId, toId, ProgressListener.NONE, predicate );
+                }
+            }
+            finally
+            {
+                activeProcessors.remove( processor );
+            }
+        }
+
+        private List<NodePropertyUpdate> awaitBatch( Future<List<NodePropertyUpdate>> batch )
+        {
+            try
+            {
+                return batch.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while scanning the node store", e );
+            }
+            catch ( ExecutionException e )
+            {
+                throw launderedException( e.getCause() );
+            }
+        }
+
+        private void awaitTermination( ExecutorService executor )
+        {
+            try
+            {
+                while ( !executor.awaitTermination( 1, TimeUnit.SECONDS ) )
+                {
+                    // Keep waiting, the scanning threads will finish their current record shortly
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void stop()
+        {
+            continueScanning = false;
+            for ( RecordStore.Processor<?> processor : activeProcessors )
+            {
+                processor.stopScanning();
+            }
+        }
+
+        private class RangeScan implements Callable<List<NodePropertyUpdate>>
+        {
+            private final long fromId;
+            private final long toId;
+
+            RangeScan( long fromId, long toId )
+            {
+                this.fromId = fromId;
+                this.toId = toId;
+            }
+
+            @Override
+            public List<NodePropertyUpdate> call()
+            {
+                final List<NodePropertyUpdate> updates = new ArrayList<>();
+                scan( fromId, toId, new Visitor<NodePropertyUpdate, RuntimeException>()
+                {
+                    @Override
+                    public boolean visit( NodePropertyUpdate update )
+                    {
+                        updates.add( update );
+                        return false;
+                    }
+                } );
+                return updates;
+            }
+        }
+    }
 }
@@ -318,7 +318,8 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource implements NeoSt
                 new IndexingService(
                         scheduler,
                         providerMap,
-                        new NeoStoreIndexStoreView( neoStore ),
+                        new NeoStoreIndexStoreView( neoStore,
+                                config.get( GraphDatabaseSettings.index_population_threads ) ),
                         tokenNameLookup, updateableSchemaState,
                         logging ) );
 
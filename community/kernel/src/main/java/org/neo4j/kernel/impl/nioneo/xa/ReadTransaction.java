@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.nioneo.xa;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.transaction.SystemException;
@@ -31,6 +32,9 @@ import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.core.DenseNodeChainPosition;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
+import org.neo4j.kernel.impl.core.SingleChainPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
@@ -44,6 +48,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
@@ -97,9 +103,34 @@ class ReadTransaction implements NeoStoreTransaction
     }
 
     @Override
-    public long getRelationshipChainPosition( long nodeId )
+    public RelationshipLoadingPosition getRelationshipChainPosition( long nodeId )
     {
-        return getNodeStore().getRecord( nodeId ).getNextRel();
+        return getRelationshipChainPosition( getNodeStore().getRecord( nodeId ), neoStore.getRelationshipGroupStore() );
+    }
+
+    static RelationshipLoadingPosition getRelationshipChainPosition( NodeRecord node,
+            RelationshipGroupStore groupStore )
+    {
+        if ( !node.isDense() )
+        {
+            return new SingleChainPosition( node.getNextRel() );
+        }
+        return new DenseNodeChainPosition( loadRelationshipGroups( node, groupStore ) );
+    }
+
+    static Map<Integer, RelationshipGroupRecord> loadRelationshipGroups( NodeRecord node,
+            RelationshipGroupStore groupStore )
+    {
+        assert node.isDense();
+        Map<Integer, RelationshipGroupRecord> groups = new HashMap<>();
+        long groupId = node.getNextRel();
+        while ( !Record.NO_NEXT_RELATIONSHIP.is( groupId ) )
+        {
+            RelationshipGroupRecord group = groupStore.getRecord( groupId );
+            groups.put( group.getType(), group );
+            groupId = group.getNext();
+        }
+        return groups;
     }
 
     @Override
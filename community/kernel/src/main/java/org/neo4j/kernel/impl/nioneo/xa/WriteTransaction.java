@@ -51,6 +51,7 @@ import org.neo4j.kernel.api.scan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.AbstractDynamicStore;
@@ -72,6 +73,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
@@ -187,6 +190,31 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 {
                 }
             }, false );
+    private final RecordChanges<Long, RelationshipGroupRecord, Integer> relGroupRecords =
+            new RecordChanges<>( new RecordChanges.Loader<Long, RelationshipGroupRecord, Integer>()
+            {
+                @Override
+                public RelationshipGroupRecord newUnused( Long key, Integer type )
+                {
+                    return new RelationshipGroupRecord( key, type );
+                }
+
+                @Override
+                public RelationshipGroupRecord load( Long key, Integer type )
+                {
+                    return getRelationshipGroupStore().getRecord( key );
+                }
+
+                @Override
+                public void ensureHeavy( RelationshipGroupRecord record )
+                {
+                }
+            }, false );
+    /*
+     * Number of relationships of nodes that aren't dense (yet), counted up to the dense node threshold
+     * the first time a relationship is created for the node in this transaction.
+     */
+    private final Map<Long, Integer> sparseNodeDegrees = new HashMap<>();
     private final Map<Long, Pair<Collection<DynamicRecord>, SchemaRule>> schemaRuleRecords = new HashMap<>();
     private Map<Integer, RelationshipTypeTokenRecord> relationshipTypeTokenRecords;
     private Map<Integer, LabelTokenRecord> labelTokenRecords;
@@ -196,6 +224,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     private final Map<Long, Command.NodeCommand> nodeCommands = new TreeMap<>();
     private final ArrayList<Command.PropertyCommand> propCommands = new ArrayList<>();
     private final ArrayList<Command.RelationshipCommand> relCommands = new ArrayList<>();
+    private final ArrayList<Command.RelationshipGroupCommand> relGroupCommands = new ArrayList<>();
     private final ArrayList<Command.SchemaRuleCommand> schemaRuleCommands = new ArrayList<>();
     private ArrayList<Command.RelationshipTypeTokenCommand> relationshipTypeTokenCommands;
     private ArrayList<Command.LabelTokenCommand> labelTokenCommands;
@@ -229,10 +258,12 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         if ( isRecovered() )
         {
             return nodeCommands.size() == 0 && propCommands.size() == 0 &&
-                   relCommands.size() == 0 && schemaRuleCommands.size() == 0 && relationshipTypeTokenCommands == null &&
+                   relCommands.size() == 0 && relGroupCommands.size() == 0 && schemaRuleCommands.size() == 0 &&
+                   relationshipTypeTokenCommands == null &&
                    labelTokenCommands == null && propertyKeyTokenCommands == null;
         }
-        return nodeRecords.changeSize() == 0 && relRecords.changeSize() == 0 && schemaRuleRecords.size() == 0 &&
+        return nodeRecords.changeSize() == 0 && relRecords.changeSize() == 0 && relGroupRecords.changeSize() == 0 &&
+               schemaRuleRecords.size() == 0 &&
                propertyRecords.changeSize() == 0 && relationshipTypeTokenRecords == null && labelTokenRecords == null &&
                propertyKeyTokenRecords == null;
     }
@@ -255,6 +286,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     {
         int noOfCommands = nodeRecords.changeSize() +
                            relRecords.changeSize() +
+                           relGroupRecords.changeSize() +
                            propertyRecords.changeSize() +
                            schemaRuleRecords.size() +
                            (propertyKeyTokenRecords != null ? propertyKeyTokenRecords.size() : 0) +
@@ -321,6 +353,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             relCommands.add( command );
             commands.add( command );
         }
+        for ( RecordChange<Long, RelationshipGroupRecord, Integer> change : relGroupRecords.changes() )
+        {
+            Command.RelationshipGroupCommand command = new Command.RelationshipGroupCommand(
+                    neoStore.getRelationshipGroupStore(), change.forReadingData() );
+            relGroupCommands.add( command );
+            commands.add( command );
+        }
         if ( neoStoreRecord != null )
         {
             for ( RecordChange<Long, NeoStoreRecord, Void> change : neoStoreRecord.changes() )
@@ -384,6 +423,10 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         {
             relCommands.add( (Command.RelationshipCommand) xaCommand );
         }
+        else if ( xaCommand instanceof Command.RelationshipGroupCommand )
+        {
+            relGroupCommands.add( (Command.RelationshipGroupCommand) xaCommand );
+        }
         else if ( xaCommand instanceof Command.PropertyCommand )
         {
             propCommands.add( (Command.PropertyCommand) xaCommand );
@@ -482,6 +525,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 patchDeletedRelationshipNodes( id, record.getFirstNode(), record.getFirstNextRel(),
                                                record.getSecondNode(), record.getSecondNextRel() );
             }
+            for ( RecordChange<Long, RelationshipGroupRecord, Integer> change : relGroupRecords.changes() )
+            {
+                if ( freeIds && change.isCreated() )
+                {
+                    getRelationshipGroupStore().freeId( change.getKey() );
+                }
+            }
             if ( neoStoreRecord != null )
             {
                 removeGraphPropertiesFromCache();
@@ -700,10 +750,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
 
             // primitives
             java.util.Collections.sort( relCommands, sorter );
+            java.util.Collections.sort( relGroupCommands, sorter );
             java.util.Collections.sort( propCommands, sorter );
-            executeCreated( isRecovered, propCommands, relCommands, nodeCommands.values() );
-            executeModified( isRecovered, propCommands, relCommands, nodeCommands.values() );
-            executeDeleted( propCommands, relCommands, nodeCommands.values() );
+            executeCreated( isRecovered, propCommands, relCommands, relGroupCommands, nodeCommands.values() );
+            executeModified( isRecovered, propCommands, relCommands, relGroupCommands, nodeCommands.values() );
+            executeDeleted( propCommands, relCommands, relGroupCommands, nodeCommands.values() );
 
             // property change set for index updates
             List<NodePropertyUpdate> propertyUpdates = new ArrayList<>();
@@ -747,6 +798,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             {
                 updateFirstRelationships();
                 state.commitCows(); // updates the cached primitives
+                removeConvertedDenseNodesFromCache();
             }
             neoStore.setLastCommittedTx( getCommitTxId() );
             if ( isRecovered )
@@ -866,6 +918,18 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         return xaConnection.delistResource( tx, tmsuccess );
     }
 
+    private void removeConvertedDenseNodesFromCache()
+    {
+        // The relationship chain position of a cached node that just turned dense points into a chain that is no more
+        for ( NodeCommand command : nodeCommands.values() )
+        {
+            if ( command.getAfter().isDense() && !command.getBefore().isDense() )
+            {
+                removeNodeFromCache( command.getKey() );
+            }
+        }
+    }
+
     private void updateFirstRelationships()
     {
         for ( RecordChange<Long, NodeRecord, Void> change : nodeRecords.changes() )
@@ -939,6 +1003,8 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         nodeRecords.clear();
         propertyRecords.clear();
         relRecords.clear();
+        relGroupRecords.clear();
+        sparseNodeDegrees.clear();
         schemaRuleRecords.clear();
         relationshipTypeTokenRecords = null;
         propertyKeyTokenRecords = null;
@@ -948,6 +1014,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         propCommands.clear();
         propertyKeyTokenCommands = null;
         relCommands.clear();
+        relGroupCommands.clear();
         schemaRuleCommands.clear();
         relationshipTypeTokenCommands = null;
         labelTokenCommands = null;
@@ -984,6 +1051,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private PropertyStore getPropertyStore()
     {
         return neoStore.getPropertyStore();
@@ -1042,6 +1114,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         disconnectRelationship( record );
         updateNodes( record );
         record.setInUse( false );
+        decrementSparseNodeDegree( record.getFirstNode() );
+        if ( record.getFirstNode() != record.getSecondNode() )
+        {
+            decrementSparseNodeDegree( record.getSecondNode() );
+        }
         return propertyMap;
     }
 
@@ -1179,9 +1256,10 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     }
 
     @Override
-    public long getRelationshipChainPosition( long nodeId )
+    public RelationshipLoadingPosition getRelationshipChainPosition( long nodeId )
     {
-        return nodeRecords.getOrLoad( nodeId, null ).getBefore().getNextRel();
+        return ReadTransaction.getRelationshipChainPosition( nodeRecords.getOrLoad( nodeId, null ).getBefore(),
+                getRelationshipGroupStore() );
     }
 
     @Override
@@ -1195,13 +1273,156 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     {
         if ( rel.getFirstPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() )
         {
-            NodeRecord firstNode = nodeRecords.getOrLoad( rel.getFirstNode(), null ).forChangingLinkage();
-            firstNode.setNextRel( rel.getFirstNextRel() );
+            updateFirstInChain( rel.getFirstNode(), rel, rel.getFirstNextRel() );
         }
-        if ( rel.getSecondPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() )
+        if ( rel.getSecondPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() &&
+                rel.getFirstNode() != rel.getSecondNode() )
         {
-            NodeRecord secondNode = nodeRecords.getOrLoad( rel.getSecondNode(), null ).forChangingLinkage();
-            secondNode.setNextRel( rel.getSecondNextRel() );
+            updateFirstInChain( rel.getSecondNode(), rel, rel.getSecondNextRel() );
+        }
+    }
+
+    private void updateFirstInChain( long nodeId, RelationshipRecord rel, long nextRel )
+    {
+        RecordChange<Long, NodeRecord, Void> nodeChange = nodeRecords.getOrLoad( nodeId, null );
+        NodeRecord node = nodeChange.forReadingLinkage();
+        if ( !node.isDense() )
+        {
+            nodeChange.forChangingLinkage().setNextRel( nextRel );
+            return;
+        }
+
+        RecordChange<Long, RelationshipGroupRecord, Integer> groupChange =
+                getRelationshipGroup( node, rel.getType() );
+        if ( groupChange == null )
+        {
+            throw new InvalidRecordException( "No relationship group of type " + rel.getType() + " for " + node +
+                    " which " + rel + " belongs to" );
+        }
+        RelationshipGroupRecord group = groupChange.forChangingData();
+        setFirstInGroupChain( group, nodeId, rel, nextRel );
+        if ( group.isEmpty() )
+        {
+            deleteRelationshipGroup( nodeChange.forChangingLinkage(), group );
+        }
+    }
+
+    /**
+     * @return the group of the given type for the given dense node, or {@code null} if it has none.
+     */
+    private RecordChange<Long, RelationshipGroupRecord, Integer> getRelationshipGroup( NodeRecord node, int type )
+    {
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RecordChange<Long, RelationshipGroupRecord, Integer> change = relGroupRecords.getOrLoad( groupId, type );
+            RelationshipGroupRecord group = change.forReadingData();
+            if ( group.getType() == type )
+            {
+                return change;
+            }
+            if ( group.getType() > type )
+            { // groups are ordered by type
+                return null;
+            }
+            groupId = group.getNext();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the group of the given type for the given dense node, creating it if the node has none.
+     * A created group is linked into the group chain of the node so that the chain stays ordered by type.
+     */
+    private RelationshipGroupRecord getOrCreateRelationshipGroup( NodeRecord node, int type )
+    {
+        RecordChange<Long, RelationshipGroupRecord, Integer> previous = null;
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RecordChange<Long, RelationshipGroupRecord, Integer> change = relGroupRecords.getOrLoad( groupId, type );
+            RelationshipGroupRecord group = change.forReadingData();
+            if ( group.getType() == type )
+            {
+                return change.forChangingData();
+            }
+            if ( group.getType() > type )
+            {
+                break;
+            }
+            previous = change;
+            groupId = group.getNext();
+        }
+
+        long id = getRelationshipGroupStore().nextId();
+        RelationshipGroupRecord group = relGroupRecords.create( id, type ).forChangingData();
+        group.setInUse( true );
+        group.setCreated();
+        group.setOwningNode( node.getId() );
+        group.setNext( groupId );
+        if ( previous == null )
+        {
+            node.setNextRel( id );
+        }
+        else
+        {
+            previous.forChangingData().setNext( id );
+        }
+        return group;
+    }
+
+    private void deleteRelationshipGroup( NodeRecord node, RelationshipGroupRecord group )
+    {
+        if ( node.getNextRel() == group.getId() )
+        {
+            node.setNextRel( group.getNext() );
+        }
+        else
+        {
+            long previousId = node.getNextRel();
+            while ( true )
+            {
+                RecordChange<Long, RelationshipGroupRecord, Integer> previousChange =
+                        relGroupRecords.getOrLoad( previousId, null );
+                RelationshipGroupRecord previous = previousChange.forReadingData();
+                if ( previous.getNext() == group.getId() )
+                {
+                    previousChange.forChangingData().setNext( group.getNext() );
+                    break;
+                }
+                previousId = previous.getNext();
+                if ( previousId == Record.NO_NEXT_RELATIONSHIP.intValue() )
+                {
+                    throw new InvalidRecordException( group + " not in the relationship group chain of " + node );
+                }
+            }
+        }
+        group.setInUse( false );
+    }
+
+    private static long firstInGroupChain( RelationshipGroupRecord group, long nodeId, RelationshipRecord rel )
+    {
+        if ( rel.getFirstNode() == rel.getSecondNode() )
+        {
+            return group.getFirstLoop();
+        }
+        return rel.getFirstNode() == nodeId ? group.getFirstOut() : group.getFirstIn();
+    }
+
+    private static void setFirstInGroupChain( RelationshipGroupRecord group, long nodeId, RelationshipRecord rel,
+            long firstRel )
+    {
+        if ( rel.getFirstNode() == rel.getSecondNode() )
+        {
+            group.setFirstLoop( firstRel );
+        }
+        else if ( rel.getFirstNode() == nodeId )
+        {
+            group.setFirstOut( firstRel );
+        }
+        else
+        {
+            group.setFirstIn( firstRel );
         }
     }
 
@@ -1628,6 +1849,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         record.setLinks( firstNodeId, secondNodeId, type );
         record.setInUse( true );
         record.setCreated();
+        convertNodeToDenseIfNecessary( firstNode );
+        if ( firstNodeId != secondNodeId )
+        {
+            convertNodeToDenseIfNecessary( secondNode );
+        }
         connectRelationship( firstNode, secondNode, record );
     }
 
@@ -1636,35 +1862,151 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     {
         assert firstNode.getNextRel() != rel.getId();
         assert secondNode.getNextRel() != rel.getId();
-        rel.setFirstNextRel( firstNode.getNextRel() );
-        rel.setSecondNextRel( secondNode.getNextRel() );
-        connect( firstNode, rel );
-        connect( secondNode, rel );
-        firstNode.setNextRel( rel.getId() );
-        secondNode.setNextRel( rel.getId() );
+        if ( firstNode.isDense() )
+        {
+            // A loop is connected to both its ends at once
+            connectRelationshipToDenseNode( firstNode, rel );
+        }
+        else
+        {
+            rel.setFirstNextRel( firstNode.getNextRel() );
+        }
+        if ( secondNode.isDense() )
+        {
+            if ( firstNode.getId() != secondNode.getId() )
+            {
+                connectRelationshipToDenseNode( secondNode, rel );
+            }
+        }
+        else
+        {
+            rel.setSecondNextRel( secondNode.getNextRel() );
+        }
+        if ( !firstNode.isDense() )
+        {
+            connect( firstNode.getId(), firstNode.getNextRel(), rel );
+        }
+        if ( !secondNode.isDense() )
+        {
+            connect( secondNode.getId(), secondNode.getNextRel(), rel );
+        }
+        if ( !firstNode.isDense() )
+        {
+            firstNode.setNextRel( rel.getId() );
+            incrementSparseNodeDegree( firstNode.getId() );
+        }
+        if ( !secondNode.isDense() )
+        {
+            secondNode.setNextRel( rel.getId() );
+            if ( firstNode.getId() != secondNode.getId() )
+            {
+                incrementSparseNodeDegree( secondNode.getId() );
+            }
+        }
+    }
+
+    /**
+     * Puts {@code rel} first in the chain of its type and direction of the given dense node.
+     */
+    private void connectRelationshipToDenseNode( NodeRecord node, RelationshipRecord rel )
+    {
+        RelationshipGroupRecord group = getOrCreateRelationshipGroup( node, rel.getType() );
+        long firstRel = firstInGroupChain( group, node.getId(), rel );
+        if ( rel.getFirstNode() == node.getId() )
+        {
+            rel.setFirstPrevRel( Record.NO_PREV_RELATIONSHIP.intValue() );
+            rel.setFirstNextRel( firstRel );
+        }
+        if ( rel.getSecondNode() == node.getId() )
+        {
+            rel.setSecondPrevRel( Record.NO_PREV_RELATIONSHIP.intValue() );
+            rel.setSecondNextRel( firstRel );
+        }
+        connect( node.getId(), firstRel, rel );
+        setFirstInGroupChain( group, node.getId(), rel, rel.getId() );
+    }
+
+    private void convertNodeToDenseIfNecessary( NodeRecord node )
+    {
+        if ( node.isDense() || getSparseNodeDegree( node ) < neoStore.getDenseNodeThreshold() )
+        {
+            return;
+        }
+
+        // Move all relationships from the single chain into chains per type and direction
+        long relId = node.getNextRel();
+        node.setDense( true );
+        node.setNextRel( Record.NO_NEXT_RELATIONSHIP.intValue() );
+        while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            getWriteLock( new LockableRelationship( relId ) );
+            RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forChangingLinkage();
+            relId = rel.getFirstNode() == node.getId() ? rel.getFirstNextRel() : rel.getSecondNextRel();
+            connectRelationshipToDenseNode( node, rel );
+        }
+        sparseNodeDegrees.remove( node.getId() );
+    }
+
+    private int getSparseNodeDegree( NodeRecord node )
+    {
+        Integer degree = sparseNodeDegrees.get( node.getId() );
+        if ( degree == null )
+        {
+            // Only count as far as needed to know whether or not the node should be dense
+            int threshold = neoStore.getDenseNodeThreshold();
+            int count = 0;
+            long relId = node.getNextRel();
+            while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() && count < threshold )
+            {
+                RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forReadingLinkage();
+                relId = rel.getFirstNode() == node.getId() ? rel.getFirstNextRel() : rel.getSecondNextRel();
+                count++;
+            }
+            degree = count;
+            sparseNodeDegrees.put( node.getId(), degree );
+        }
+        return degree;
+    }
+
+    private void incrementSparseNodeDegree( long nodeId )
+    {
+        Integer degree = sparseNodeDegrees.get( nodeId );
+        if ( degree != null )
+        {
+            sparseNodeDegrees.put( nodeId, degree + 1 );
+        }
+    }
+
+    private void decrementSparseNodeDegree( long nodeId )
+    {
+        Integer degree = sparseNodeDegrees.get( nodeId );
+        if ( degree != null )
+        {
+            sparseNodeDegrees.put( nodeId, degree - 1 );
+        }
     }
 
-    private void connect( NodeRecord node, RelationshipRecord rel )
+    private void connect( long nodeId, long firstRelId, RelationshipRecord rel )
     {
-        if ( node.getNextRel() != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        if ( firstRelId != Record.NO_NEXT_RELATIONSHIP.intValue() )
         {
-            Relationship lockableRel = new LockableRelationship( node.getNextRel() );
+            Relationship lockableRel = new LockableRelationship( firstRelId );
             getWriteLock( lockableRel );
-            RelationshipRecord nextRel = relRecords.getOrLoad( node.getNextRel(), null ).forChangingLinkage();
+            RelationshipRecord nextRel = relRecords.getOrLoad( firstRelId, null ).forChangingLinkage();
             boolean changed = false;
-            if ( nextRel.getFirstNode() == node.getId() )
+            if ( nextRel.getFirstNode() == nodeId )
             {
                 nextRel.setFirstPrevRel( rel.getId() );
                 changed = true;
             }
-            if ( nextRel.getSecondNode() == node.getId() )
+            if ( nextRel.getSecondNode() == nodeId )
             {
                 nextRel.setSecondPrevRel( rel.getId() );
                 changed = true;
             }
             if ( !changed )
             {
-                throw new InvalidRecordException( node + " dont match " + nextRel );
+                throw new InvalidRecordException( "Node[" + nodeId + "] dont match " + nextRel );
             }
         }
     }
@@ -25,6 +25,7 @@ import javax.transaction.Transaction;
 
 import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyData;
@@ -298,7 +299,11 @@ public interface NeoStoreTransaction
      */
     void createRelationshipTypeToken( int id, String name );
 
-    long getRelationshipChainPosition( long nodeId );
+    /**
+     * @return the position to start loading relationships of the given node from, as many chains as
+     * the node has, for example one chain per type and direction for dense nodes.
+     */
+    RelationshipLoadingPosition getRelationshipChainPosition( long nodeId );
 
     /*
      * List<Iterable<RelationshipRecord>> is a list with three items:
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 
 public class DatabaseFiles
 {
@@ -43,7 +44,10 @@ public class DatabaseFiles
                     backupDirectory.getAbsolutePath() ) );
         }
         fs.mkdir( backupDirectory );
-        move( workingDirectory, backupDirectory, StoreFile.legacyStoreFiles() );
+        boolean legacy20 = new UpgradableDatabase( fs ).isLegacy20Store(
+                new File( workingDirectory, NeoStore.DEFAULT_NAME ) );
+        move( workingDirectory, backupDirectory,
+                legacy20 ? StoreFile.legacy20StoreFiles() : StoreFile.legacyStoreFiles() );
     }
 
     public void moveToWorkingDirectory( File upgradeDirectory, File workingDirectory )
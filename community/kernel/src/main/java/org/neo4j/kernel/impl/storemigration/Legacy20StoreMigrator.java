@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration;
+
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
+import org.neo4j.kernel.impl.storemigration.monitoring.MigrationProgressMonitor;
+
+import static org.neo4j.helpers.collection.IteratorUtil.loop;
+
+/**
+ * Migrates a neo4j 2.0 database, see {@link Legacy20Store}, to the current store format version.
+ * Node records are rewritten in the current, larger, format, with none of the nodes being dense.
+ * The relationship group store starts out empty, nodes with many relationships are converted to
+ * dense nodes on the next write that passes the threshold. All other stores are just copied.
+ */
+public class Legacy20StoreMigrator
+{
+    private final MigrationProgressMonitor progressMonitor;
+
+    public Legacy20StoreMigrator( MigrationProgressMonitor progressMonitor )
+    {
+        this.progressMonitor = progressMonitor;
+    }
+
+    /**
+     * @param neoStore a newly created, empty, store to migrate into.
+     */
+    public void migrate( Legacy20Store legacyStore, NeoStore neoStore ) throws IOException
+    {
+        progressMonitor.started();
+
+        // Migrate
+        legacyStore.copyNeoStore( neoStore );
+        neoStore.setStoreVersion( NeoStore.versionStringToLong( NeoStore.ALL_STORES_VERSION ) );
+        migrateNodes( legacyStore, neoStore.getNodeStore() );
+
+        // Close
+        neoStore.close();
+        legacyStore.close();
+
+        // Just copy unchanged stores that doesn't need migration
+        legacyStore.copyUnchangedStores( neoStore );
+
+        progressMonitor.finished();
+    }
+
+    private void migrateNodes( Legacy20Store legacyStore, NodeStore nodeStore ) throws IOException
+    {
+        long totalNodes = legacyStore.getNodeStoreReader().getMaxId();
+        int percentComplete = 0;
+        for ( NodeRecord nodeRecord : loop( legacyStore.getNodeStoreReader().readNodeStore() ) )
+        {
+            int newPercent = (int) ((nodeRecord.getId() + 1) * 100 / totalNodes);
+            if ( newPercent > percentComplete )
+            {
+                percentComplete = newPercent;
+                progressMonitor.percentComplete( percentComplete );
+            }
+            nodeStore.setHighId( nodeRecord.getId() + 1 );
+            if ( nodeRecord.inUse() )
+            {
+                nodeStore.updateRecord( nodeRecord );
+            }
+            else
+            {
+                nodeStore.freeId( nodeRecord.getId() );
+            }
+        }
+    }
+}
@@ -27,28 +27,31 @@ import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 
 public enum StoreFile
 {
     NEO_STORE( "NeoStore", "" ),
     NODE_STORE( "NodeStore", StoreFactory.NODE_STORE_NAME ),
-    NODE_LABEL_STORE( "NodeLabelStore", StoreFactory.NODE_LABELS_STORE_NAME, false ),
+    NODE_LABEL_STORE( "ArrayPropertyStore", StoreFactory.NODE_LABELS_STORE_NAME, false ),
     PROPERTY_STORE( "PropertyStore", StoreFactory.PROPERTY_STORE_NAME ),
     PROPERTY_ARRAY_STORE( "ArrayPropertyStore", StoreFactory.PROPERTY_ARRAYS_STORE_NAME ),
     PROPERTY_STRING_STORE( "StringPropertyStore", StoreFactory.PROPERTY_STRINGS_STORE_NAME ),
     PROPERTY_INDEX_STORE( "PropertyIndexStore", StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME ),
     PROPERTY_INDEX_KEYS_STORE( "StringPropertyStore", StoreFactory.PROPERTY_KEY_TOKEN_NAMES_STORE_NAME ),
     RELATIONSHIP_STORE( "RelationshipStore", StoreFactory.RELATIONSHIP_STORE_NAME ),
+    RELATIONSHIP_GROUP_STORE( "RelationshipGroupStore", StoreFactory.RELATIONSHIP_GROUP_STORE_NAME, false, false ),
     RELATIONSHIP_TYPE_STORE( "RelationshipTypeStore", StoreFactory.RELATIONSHIP_TYPE_TOKEN_STORE_NAME ),
     RELATIONSHIP_TYPE_NAMES_STORE( "StringPropertyStore", StoreFactory.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME ),
-    LABEL_NAME_STORE( "LabelNameStore", StoreFactory.LABEL_TOKEN_STORE_NAME, false ),
+    LABEL_NAME_STORE( "LabelTokenStore", StoreFactory.LABEL_TOKEN_STORE_NAME, false ),
     LABEL_NAME_NAMES_STORE( "StringPropertyStore", StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME, false ),
     SCHEMA_STORE( "SchemaStore", StoreFactory.SCHEMA_STORE_NAME, false );
     
     private final String typeDescriptor;
     private final String storeFileNamePart;
     private final boolean existsInBoth;
+    private final boolean existsIn20;
 
     private StoreFile( String typeDescriptor, String storeFileNamePart )
     {
@@ -56,16 +59,27 @@ public enum StoreFile
     }
     
     private StoreFile( String typeDescriptor, String storeFileNamePart, boolean existsInBoth )
+    {
+        this( typeDescriptor, storeFileNamePart, existsInBoth, true );
+    }
+
+    private StoreFile( String typeDescriptor, String storeFileNamePart, boolean existsInBoth, boolean existsIn20 )
     {
         this.typeDescriptor = typeDescriptor;
         this.storeFileNamePart = storeFileNamePart;
         this.existsInBoth = existsInBoth;
+        this.existsIn20 = existsIn20;
     }
     
     public String legacyVersion()
     {
         return typeDescriptor + " " + LegacyStore.LEGACY_VERSION;
     }
+
+    public String legacy20Version()
+    {
+        return typeDescriptor + " " + Legacy20Store.LEGACY_VERSION;
+    }
     
     public String storeFileName()
     {
@@ -91,6 +105,22 @@ public enum StoreFile
         return Iterables.filter( predicate, storeFiles );
     }
     
+    /**
+     * @return the store files of a 2.0 database, see {@link Legacy20Store}.
+     */
+    public static Iterable<StoreFile> legacy20StoreFiles()
+    {
+        Predicate<StoreFile> predicate = new Predicate<StoreFile>()
+        {
+            @Override
+            public boolean accept( StoreFile item )
+            {
+                return item.existsIn20;
+            }
+        };
+        return Iterables.filter( predicate, currentStoreFiles() );
+    }
+
     public static Iterable<StoreFile> currentStoreFiles()
     {
         return Iterables.iterable( values() );
@@ -34,6 +34,7 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 import org.neo4j.kernel.impl.storemigration.monitoring.MigrationProgressMonitor;
 
@@ -47,6 +48,8 @@ import static org.neo4j.helpers.collection.IteratorUtil.loop;
  * 
  * Since only one store migration is supported at any given version (migration from the previous store version)
  * the migration code is specific for the current upgrade and changes with each store format version.
+ * The exception is a 2.0 database, which is only one minor format change behind and is migrated
+ * by {@link Legacy20StoreMigrator}.
  */
 public class StoreMigrator
 {
@@ -63,6 +66,16 @@ public class StoreMigrator
         new Migration( legacyStore, neoStore ).migrate();
         progressMonitor.finished();
     }
+
+    /**
+     * Migrates a neo4j 2.0 database, which is only one store format version behind.
+     *
+     * @see Legacy20StoreMigrator
+     */
+    public void migrate( Legacy20Store legacyStore, NeoStore neoStore ) throws IOException
+    {
+        new Legacy20StoreMigrator( progressMonitor ).migrate( legacyStore, neoStore );
+    }
     
     protected class Migration
     {
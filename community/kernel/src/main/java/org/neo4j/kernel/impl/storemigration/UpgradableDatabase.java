@@ -23,9 +23,12 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
+import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 
 /**
  * Logic to check whether a database version is upgradable to the current version. It looks at the
@@ -56,12 +59,18 @@ public class UpgradableDatabase
         }
     }
 
+    /**
+     * A 1.9 database, see {@link LegacyStore}, or a 2.0 database, see {@link Legacy20Store}, can be upgraded.
+     * Which one it is is decided by the version of the neostore file, all other store files must then
+     * have that same version.
+     */
     public void checkUpgradeable( File neoStoreFile )
     {
+        boolean legacy20 = isLegacy20Store( neoStoreFile );
         File storeDirectory = neoStoreFile.getParentFile();
-        for ( StoreFile store : StoreFile.legacyStoreFiles() )
+        for ( StoreFile store : legacy20 ? StoreFile.legacy20StoreFiles() : StoreFile.legacyStoreFiles() )
         {
-            String expectedVersion = store.legacyVersion();
+            String expectedVersion = legacy20 ? store.legacy20Version() : store.legacyVersion();
             FileChannel fileChannel = null;
             byte[] expectedVersionBytes = UTF8.encode( expectedVersion );
             try
@@ -110,4 +119,40 @@ public class UpgradableDatabase
             }
         }
     }
+
+    /**
+     * @return whether or not the given neostore file has the version of a 2.0 database, in which
+     * case it should be migrated by {@link Legacy20StoreMigrator}.
+     */
+    public boolean isLegacy20Store( File neoStoreFile )
+    {
+        byte[] expectedVersionBytes = UTF8.encode( StoreFile.NEO_STORE.legacy20Version() );
+        try
+        {
+            if ( !fs.fileExists( neoStoreFile ) )
+            {
+                return false;
+            }
+            FileChannel fileChannel = fs.open( neoStoreFile, "r" );
+            try
+            {
+                if ( fileChannel.size() < expectedVersionBytes.length )
+                {
+                    return false;
+                }
+                fileChannel.position( fileChannel.size() - expectedVersionBytes.length );
+                byte[] foundVersionBytes = new byte[expectedVersionBytes.length];
+                fileChannel.read( ByteBuffer.wrap( foundVersionBytes ) );
+                return Arrays.equals( expectedVersionBytes, foundVersionBytes );
+            }
+            finally
+            {
+                fileChannel.close();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
 }
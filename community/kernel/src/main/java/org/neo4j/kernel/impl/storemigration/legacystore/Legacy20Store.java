@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration.legacystore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.nioneo.store.DynamicArrayStore;
+import org.neo4j.kernel.impl.nioneo.store.DynamicStringStore;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.LabelTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
+import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+
+import static org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore.buildTypeDescriptorAndVersion;
+import static org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore.assertLegacyAndCurrentVersionHaveSameLength;
+import static org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore.copyStore;
+
+/**
+ * Reader for a database in the 2.0 store format version, which only differs from the current one
+ * in the node records. Those got an extra byte for marking dense nodes, whose relationships are kept
+ * in the relationship group store, which 2.0 doesn't have.
+ *
+ * {@link #LEGACY_VERSION} marks which version it's able to read.
+ */
+public class Legacy20Store implements Closeable
+{
+    public static final String LEGACY_VERSION = "v0.A.1";
+
+    private final FileSystemAbstraction fs;
+    private final File storageFileName;
+    private final Legacy20NodeStoreReader nodeStoreReader;
+
+    public Legacy20Store( FileSystemAbstraction fs, File storageFileName ) throws IOException
+    {
+        this.fs = fs;
+        this.storageFileName = storageFileName;
+        assertLegacyAndCurrentVersionHaveSameLength( LEGACY_VERSION, CommonAbstractStore.ALL_STORES_VERSION );
+        nodeStoreReader = new Legacy20NodeStoreReader( fs,
+                new File( storageFileName.getPath() + StoreFactory.NODE_STORE_NAME ) );
+    }
+
+    public File getStorageFileName()
+    {
+        return storageFileName;
+    }
+
+    public Legacy20NodeStoreReader getNodeStoreReader()
+    {
+        return nodeStoreReader;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        nodeStoreReader.close();
+    }
+
+    /**
+     * Copies all stores, except the node store, to the given store and replaces their trailing
+     * versions by the current version. They have the same format in both versions.
+     */
+    public void copyUnchangedStores( NeoStore neoStore ) throws IOException
+    {
+        copy( neoStore, StoreFactory.NODE_LABELS_STORE_NAME, DynamicArrayStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.RELATIONSHIP_STORE_NAME, RelationshipStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.RELATIONSHIP_TYPE_TOKEN_STORE_NAME, RelationshipTypeTokenStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.LABEL_TOKEN_STORE_NAME, LabelTokenStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.PROPERTY_STORE_NAME, PropertyStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME, PropertyKeyTokenStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.PROPERTY_KEY_TOKEN_NAMES_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.PROPERTY_STRINGS_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.PROPERTY_ARRAYS_STORE_NAME, DynamicArrayStore.TYPE_DESCRIPTOR );
+        copy( neoStore, StoreFactory.SCHEMA_STORE_NAME, SchemaStore.TYPE_DESCRIPTOR );
+    }
+
+    public void copyNeoStore( NeoStore neoStore ) throws IOException
+    {
+        copyStore( fs, storageFileName, neoStore.getStorageFileName(), "", neoStore.getTypeAndVersionDescriptor() );
+    }
+
+    private void copy( NeoStore neoStore, String storeNamePart, String typeDescriptor ) throws IOException
+    {
+        copyStore( fs, storageFileName, neoStore.getStorageFileName(), storeNamePart,
+                buildTypeDescriptorAndVersion( typeDescriptor ) );
+    }
+}
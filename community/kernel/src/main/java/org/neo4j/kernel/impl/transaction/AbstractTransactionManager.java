@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction;
 
+import java.io.IOException;
+
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
@@ -28,6 +30,7 @@ import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 
 import static java.lang.String.format;
@@ -60,6 +63,17 @@ public abstract class AbstractTransactionManager implements TransactionManager,
         return ForceMode.forced;
     }
     
+    /**
+     * Called by a resource which has written out, but not forced, the commit entry of the
+     * transaction tied to the calling thread, see {@link GroupCommit}. The default is to wait
+     * for the force right away. Implementations may instead defer the wait until the transaction
+     * has released its commit monitors, but must wait for it before the commit returns.
+     */
+    public void awaitForced( GroupCommit groupCommit, long ticket ) throws IOException
+    {
+        groupCommit.awaitForced( ticket );
+    }
+
     /**
      * Returns the {@link TransactionState} associated with the current transaction.
      * If no transaction is active for the current thread {@link TransactionState#NO_STATE}
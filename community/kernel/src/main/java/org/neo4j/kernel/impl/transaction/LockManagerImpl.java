@@ -53,14 +53,46 @@ import org.neo4j.kernel.logging.Logging;
  */
 public class LockManagerImpl implements LockManager
 {
-    private final Map<Object,RWLock> resourceLockMap =
-        new HashMap<Object,RWLock>();
+    // Each stripe is a resource to lock map guarded by its own monitor
+    private final Map<Object,RWLock>[] resourceLockMaps;
 
     private final RagManager ragManager;
 
     public LockManagerImpl( RagManager ragManager )
     {
+        this( ragManager, 1 );
+    }
+
+    /**
+     * @param stripes the number of independently synchronized resource tables to spread
+     * resources over, so that transactions locking different resources don't contend
+     * on a single monitor. A single stripe means one global resource table.
+     */
+    @SuppressWarnings( "unchecked" )
+    public LockManagerImpl( RagManager ragManager, int stripes )
+    {
+        if ( stripes < 1 )
+        {
+            throw new IllegalArgumentException( "Need at least one stripe, was " + stripes );
+        }
         this.ragManager = ragManager;
+        this.resourceLockMaps = new Map[stripes];
+        for ( int i = 0; i < stripes; i++ )
+        {
+            resourceLockMaps[i] = new HashMap<Object,RWLock>();
+        }
+    }
+
+    private Map<Object,RWLock> resourceLockMap( Object resource )
+    {
+        if ( resourceLockMaps.length == 1 )
+        {
+            return resourceLockMaps[0];
+        }
+        int hash = resource.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return resourceLockMaps[(hash & Integer.MAX_VALUE) % resourceLockMaps.length];
     }
 
     @Override
@@ -87,6 +119,7 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
+        Map<Object,RWLock> resourceLockMap = resourceLockMap( resource );
         RWLock lock;
         synchronized ( resourceLockMap )
         {
@@ -119,6 +152,7 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
+        Map<Object,RWLock> resourceLockMap = resourceLockMap( resource );
         RWLock lock;
         synchronized ( resourceLockMap )
         {
@@ -157,6 +191,7 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
+        Map<Object,RWLock> resourceLockMap = resourceLockMap( resource );
         RWLock lock;
         synchronized ( resourceLockMap )
         {
@@ -192,6 +227,7 @@ public class LockManagerImpl implements LockManager
     {
         assertValidArguments( resource, tx );
 
+        Map<Object,RWLock> resourceLockMap = resourceLockMap( resource );
         RWLock lock;
         synchronized ( resourceLockMap )
         {
@@ -211,6 +247,24 @@ public class LockManagerImpl implements LockManager
         }
     }
 
+    /**
+     * Checks whether a transaction already holds a lock on a resource, f.ex. to avoid asking someone else
+     * for a lock that it's already been given.
+     *
+     * @return whether {@code tx} holds a lock of the given type on {@code resource}, where a write lock
+     * also counts as a read lock.
+     */
+    public boolean isLockedBy( Object resource, Transaction tx, LockType lockType )
+    {
+        Map<Object,RWLock> resourceLockMap = resourceLockMap( resource );
+        RWLock lock;
+        synchronized ( resourceLockMap )
+        {
+            lock = resourceLockMap.get( resource );
+        }
+        return lock != null && lock.isHeldBy( tx, lockType );
+    }
+
     /**
      * Utility method for debugging. Dumps info to console of txs having locks
      * on resources.
@@ -219,6 +273,7 @@ public class LockManagerImpl implements LockManager
     public void dumpLocksOnResource( Object resource, Logging logging )
     {
         StringLogger logger = logging.getMessagesLog( LockManager.class );
+        Map<Object,RWLock> resourceLockMap = resourceLockMap( resource );
         RWLock lock;
         synchronized ( resourceLockMap )
         {
@@ -253,11 +308,14 @@ public class LockManagerImpl implements LockManager
      */
     private <V extends Visitor<LockInfo, RuntimeException>> V eachLock( V visitor )
     {
-        synchronized ( resourceLockMap )
+        for ( Map<Object,RWLock> resourceLockMap : resourceLockMaps )
         {
-            for ( RWLock lock : resourceLockMap.values() )
+            synchronized ( resourceLockMap )
             {
-                if ( visitor.visit( lock.info() ) ) break;
+                for ( RWLock lock : resourceLockMap.values() )
+                {
+                    if ( visitor.visit( lock.info() ) ) return visitor;
+                }
             }
         }
         return visitor;
@@ -277,11 +335,14 @@ public class LockManagerImpl implements LockManager
     private <V extends Visitor<LockInfo, RuntimeException>> V eachAwaitedLock( V visitor, long minWaitTime )
     {
         long waitStart = System.currentTimeMillis() - minWaitTime;
-        synchronized ( resourceLockMap )
+        for ( Map<Object,RWLock> resourceLockMap : resourceLockMaps )
         {
-            for ( RWLock lock : resourceLockMap.values() )
+            synchronized ( resourceLockMap )
             {
-                if ( lock.acceptVisitorIfWaitedSinceBefore( visitor, waitStart ) ) break;
+                for ( RWLock lock : resourceLockMap.values() )
+                {
+                    if ( lock.acceptVisitorIfWaitedSinceBefore( visitor, waitStart ) ) return visitor;
+                }
             }
         }
         return visitor;
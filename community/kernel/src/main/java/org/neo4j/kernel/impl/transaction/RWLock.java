@@ -424,6 +424,20 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
         }
     }
 
+    /**
+     * @return whether {@code tx} holds a lock of the given type on this resource, where a write lock
+     * also counts as a read lock.
+     */
+    synchronized boolean isHeldBy( Transaction tx, LockType lockType )
+    {
+        TxLockElement tle = txLockElementMap.get( tx );
+        if ( tle == null )
+        {
+            return false;
+        }
+        return tle.writeCount > 0 || (lockType == LockType.READ && tle.readCount > 0);
+    }
+
     int getWriteCount()
     {
         return writeCount;
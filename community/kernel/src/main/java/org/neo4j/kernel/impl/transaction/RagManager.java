@@ -19,19 +19,19 @@
  */
 package org.neo4j.kernel.impl.transaction;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.transaction.Transaction;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.DeadlockDetectedException;
-import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.StringLogger.LineLogger;
 
 /**
@@ -71,12 +71,20 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
     // in a DeadlockDetectedException the transaction must wait
     // o When the transaction wakes up from waiting on a resource the
     // stopWaitOn( resource ) method must be invoked
+    //
+    // RWLock invokes lockAcquired/lockReleased while holding the monitor of the
+    // lock in question, so updates to the locking tx list of a resource never
+    // race with each other. They therefore don't take the monitor of this
+    // manager, which is only needed by the deadlock detection in checkWaitOn,
+    // i.e. only when a transaction actually has to wait. The locking tx lists
+    // are copy-on-write so that deadlock detection can traverse lists of other
+    // resources while they are being updated.
 
     private final Map<Object,List<Transaction>> resourceMap =
-        new HashMap<Object,List<Transaction>>();
+        new ConcurrentHashMap<Object,List<Transaction>>();
 
-    private final ArrayMap<Transaction,Object> waitingTxMap =
-        new ArrayMap<Transaction,Object>( (byte)5, false, true );
+    private final Map<Transaction,Object> waitingTxMap =
+        new ConcurrentHashMap<Transaction,Object>();
 
     private final AtomicInteger deadlockCount = new AtomicInteger();
 
@@ -85,7 +93,7 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
         return deadlockCount.longValue();
     }
 
-    synchronized void lockAcquired( Object resource, Transaction tx )
+    void lockAcquired( Object resource, Transaction tx )
     {
         List<Transaction> lockingTxList = resourceMap.get( resource );
         if ( lockingTxList != null )
@@ -95,13 +103,13 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
         }
         else
         {
-            lockingTxList = new LinkedList<Transaction>();
+            lockingTxList = new CopyOnWriteArrayList<Transaction>();
             lockingTxList.add( tx );
             resourceMap.put( resource, lockingTxList );
         }
     }
 
-    synchronized void lockReleased( Object resource, Transaction tx )
+    void lockReleased( Object resource, Transaction tx )
     {
         List<Transaction> lockingTxList = resourceMap.get( resource );
         if ( lockingTxList == null )
@@ -119,7 +127,7 @@ public class RagManager implements Visitor<LineLogger, RuntimeException>
         }
     }
 
-    synchronized void stopWaitOn( Object resource, Transaction tx )
+    void stopWaitOn( Object resource, Transaction tx )
     {
         if ( waitingTxMap.remove( tx ) == null )
         {
@@ -22,9 +22,11 @@ package org.neo4j.kernel.impl.transaction;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.RollbackException;
@@ -42,6 +44,7 @@ import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
 import org.neo4j.kernel.impl.util.MultipleCauseException;
 import org.neo4j.kernel.impl.util.StringLogger;
 
@@ -69,6 +72,7 @@ class TransactionImpl implements Transaction
 
     private final TransactionState state;
     private KernelTransaction kernelTransaction;
+    private Map<GroupCommit, Long> deferredForces;
 
     TransactionImpl( TxManager txManager, ForceMode forceMode, TransactionStateFactory stateFactory,
                      StringLogger logger )
@@ -571,6 +575,42 @@ class TransactionImpl implements Transaction
         status = Status.STATUS_COMMITTED;
     }
 
+    void deferForce( GroupCommit groupCommit, long ticket )
+    {
+        if ( deferredForces == null )
+        {
+            deferredForces = new HashMap<>();
+        }
+        Long previous = deferredForces.get( groupCommit );
+        if ( previous == null || previous < ticket )
+        {
+            deferredForces.put( groupCommit, ticket );
+        }
+    }
+
+    /**
+     * Waits for the commit entries of resources using group commit to be forced. Called by
+     * {@link TxManager} after it has released its commit monitor.
+     */
+    void awaitDeferredForces() throws IOException
+    {
+        if ( deferredForces == null )
+        {
+            return;
+        }
+        try
+        {
+            for ( Map.Entry<GroupCommit, Long> force : deferredForces.entrySet() )
+            {
+                force.getKey().awaitForced( force.getValue() );
+            }
+        }
+        finally
+        {
+            deferredForces = null;
+        }
+    }
+
     void doRollback() throws XAException
     {
         status = Status.STATUS_ROLLING_BACK;
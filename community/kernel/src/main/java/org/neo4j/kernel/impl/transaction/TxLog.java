@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -41,11 +42,11 @@ import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.xaframework.DirectMappedLogBuffer;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBuffer;
 
 // TODO: fixed sized logs (pre-initialize them)
 // keep dangling records in memory for log switch
-// batch disk forces
 /**
  * This class is made public for testing purposes only, do not use.
  * <p>
@@ -65,6 +66,7 @@ public class TxLog
     public static final byte MARK_COMMIT = 3;
     public static final byte TX_DONE = 4;
     private final FileSystemAbstraction fileSystem;
+    private GroupCommit groupCommit;
     
     private static final class ByteArrayKey
     {
@@ -122,6 +124,43 @@ public class TxLog
                     activeTransactions.add( new ByteArrayKey( record.getGlobalId() ) );
     }
 
+    /**
+     * Makes {@link #markAsCommitting(byte[], ForceMode)} force the log outside of the monitor
+     * of this log, sharing the force with other concurrently committing transactions.
+     */
+    public synchronized void enableGroupCommit( int maxBatchSize, long maxWaitMillis )
+    {
+        groupCommit = new GroupCommit( new GroupCommit.Target()
+        {
+            @Override
+            public void force() throws IOException
+            {
+                FileChannel channel;
+                synchronized ( TxLog.this )
+                {
+                    channel = logBuffer.getFileChannel();
+                }
+                try
+                {
+                    channel.force( false );
+                }
+                catch ( ClosedChannelException e )
+                {
+                    // Switched or closed after we got hold of it, both of which force it
+                }
+            }
+        }, maxBatchSize, maxWaitMillis );
+    }
+
+    /**
+     * @return the {@link GroupCommit} forces of this log go through, or {@code null} if group commit
+     * isn't enabled.
+     */
+    public synchronized GroupCommit getGroupCommit()
+    {
+        return groupCommit;
+    }
+
     /**
      * Returns the name of the transaction log.
      */
@@ -234,15 +273,29 @@ public class TxLog
      */
     // mark_committing(byte)|gid_length(byte)|globalId
     // forces
-    public synchronized void markAsCommitting( byte globalId[], ForceMode forceMode )
+    public void markAsCommitting( byte globalId[], ForceMode forceMode )
         throws IOException
     {
-        assertNotNull( globalId, "global id" );
-        assertActive( globalId );
-        
-        logBuffer.put( MARK_COMMIT ).put( (byte) globalId.length ).put( globalId );
-        forceMode.force( logBuffer );
-        recordCount++;
+        GroupCommit groupCommit;
+        long ticket;
+        synchronized ( this )
+        {
+            assertNotNull( globalId, "global id" );
+            assertActive( globalId );
+
+            logBuffer.put( MARK_COMMIT ).put( (byte) globalId.length ).put( globalId );
+            recordCount++;
+            groupCommit = this.groupCommit;
+            if ( groupCommit == null || forceMode != ForceMode.forced )
+            {
+                forceMode.force( logBuffer );
+                return;
+            }
+            logBuffer.writeOut();
+            ticket = groupCommit.appended();
+        }
+        // The branches may only be committed after this record is on disk, so this force isn't deferred
+        groupCommit.awaitForced( ticket );
     }
 
     /**
@@ -40,14 +40,17 @@ import javax.transaction.xa.XAResource;
 
 import org.neo4j.graphdb.TransactionFailureException;
 import org.neo4j.graphdb.event.ErrorState;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.XaResource;
 import org.neo4j.kernel.impl.util.ExceptionCauseSetter;
@@ -92,6 +95,8 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
 
     private KernelAPI kernel;
 
+    private final Config config;
+
     public TxManager( File txLogDir,
                       XaDataSourceManager xaDataSourceManager,
                       KernelPanicEventGenerator kpe,
@@ -100,6 +105,19 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                       TransactionStateFactory stateFactory
     )
     {
+        this( txLogDir, xaDataSourceManager, kpe, log, fileSystem, stateFactory, new Config() );
+    }
+
+    public TxManager( File txLogDir,
+                      XaDataSourceManager xaDataSourceManager,
+                      KernelPanicEventGenerator kpe,
+                      StringLogger log,
+                      FileSystemAbstraction fileSystem,
+                      TransactionStateFactory stateFactory,
+                      Config config
+    )
+    {
+        this.config = config;
         this.txLogDir = txLogDir;
         this.xaDataSourceManager = xaDataSourceManager;
         this.fileSystem = fileSystem;
@@ -214,6 +232,16 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
         return txLog;
     }
 
+    /**
+     * @return the {@link GroupCommit} of the transaction log, or {@code null} if group commit isn't
+     * enabled or the log isn't open.
+     */
+    public GroupCommit getGroupCommit()
+    {
+        TxLog log = txLog;
+        return log == null ? null : log.getGroupCommit();
+    }
+
     private void closeLog()
     {
         if ( txLog != null )
@@ -510,6 +538,21 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                 }
             }
         }
+        try
+        {
+            // Commit entries written with group commit are forced here, outside of the commit monitor,
+            // so that concurrent committers can share a force. Not being able to force means that we no
+            // longer know which of the committed transactions are durable.
+            tx.awaitDeferredForces();
+        }
+        catch ( IOException e )
+        {
+            log.logMessage( "Error forcing logical log", e );
+            setTmNotOk( e );
+            throw logAndReturn( "TM error tx commit",
+                    Exceptions.withCause( new SystemException( "TM encountered a problem, "
+                            + " error forcing logical log" ), e ) );
+        }
         tx.doAfterCompletion();
         try
         {
@@ -720,6 +763,17 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
         // ...
     }
 
+    private TxLog newTxLog( File fileName ) throws IOException
+    {
+        TxLog newLog = new TxLog( fileName, fileSystem );
+        if ( config.get( GraphDatabaseSettings.group_commit ) )
+        {
+            newLog.enableGroupCommit( config.get( GraphDatabaseSettings.group_commit_max_batch_size ),
+                    config.get( GraphDatabaseSettings.group_commit_max_wait ) );
+        }
+        return newLog;
+    }
+
     private void openLog()
     {
         logSwitcherFileName = new File( txLogDir, "active_tx_log");
@@ -742,7 +796,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                                     "Unable to start TM, " + "active tx log file[" +
                                             currentTxLog + "] not found." ) );
                 }
-                txLog = new TxLog( currentTxLog, fileSystem );
+                txLog = newTxLog( currentTxLog );
                 log.logMessage( "TM opening log: " + currentTxLog, true );
             }
             else
@@ -762,7 +816,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                         .getBytes( "UTF-8" ) );
                 FileChannel fc = fileSystem.open( logSwitcherFileName, "rw" );
                 fc.write( buf );
-                txLog = new TxLog( new File( txLogDir, txLog1FileName), fileSystem );
+                txLog = newTxLog( new File( txLogDir, txLog1FileName ) );
                 log.info( "TM new log: " + txLog1FileName );
                 fc.force( true );
                 fc.close();
@@ -885,6 +939,20 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
         return -1;
     }
 
+    @Override
+    public void awaitForced( GroupCommit groupCommit, long ticket ) throws IOException
+    {
+        TransactionImpl tx = txThreadMap != null ? txThreadMap.get() : null;
+        if ( tx != null && tx.getStatus() == Status.STATUS_COMMITTING )
+        {
+            tx.deferForce( groupCommit, ticket );
+        }
+        else
+        {
+            groupCommit.awaitForced( ticket );
+        }
+    }
+
     @Override
     public ForceMode getForceMode()
     {
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+
+/**
+ * Coalesces forces of a log so that many committers can share a single
+ * fsync. A committer appends its entries and calls {@link #appended()} while
+ * still holding the log monitor, which gives it a ticket. It then releases
+ * the monitor and calls {@link #awaitForced(long)} with that ticket. The
+ * first thread to arrive becomes the leader of the next batch: it waits until
+ * either {@code maxBatchSize} tickets are pending or {@code maxWaitMillis}
+ * have passed, forces the log once and releases every committer whose ticket
+ * was covered by that force. Committers arriving while a force is in
+ * progress will naturally form the next batch.
+ * <p>
+ * Tickets are handed out in the order entries are written to the log, so a
+ * force covering ticket {@code n} also covers every ticket before it.
+ */
+public class GroupCommit
+{
+    /**
+     * The thing being forced. Implementations should force whatever has been
+     * written out to the log up until the time of the call, but must not
+     * require the log monitor to do so.
+     */
+    public interface Target
+    {
+        void force() throws IOException;
+    }
+
+    private final Target target;
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+
+    private long appended;
+    private long forced;
+    private boolean forcing;
+
+    private long forceCount;
+    private long forcedCommitCount;
+    private long largestBatch;
+
+    public GroupCommit( Target target, int maxBatchSize, long maxWaitMillis )
+    {
+        if ( maxBatchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Max batch size must be at least 1, was " + maxBatchSize );
+        }
+        this.target = target;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Called after an entry has been written out to the log, while still
+     * holding whatever monitor guards writing to it.
+     *
+     * @return the ticket to pass to {@link #awaitForced(long)}.
+     */
+    public synchronized long appended()
+    {
+        appended++;
+        if ( forcing && appended - forced >= maxBatchSize )
+        {
+            notifyAll();
+        }
+        return appended;
+    }
+
+    /**
+     * Marks everything appended so far as forced, for example when the log
+     * has been forced and rotated by other means.
+     */
+    public synchronized void allForced()
+    {
+        forced = appended;
+        notifyAll();
+    }
+
+    /**
+     * Blocks until the entry identified by {@code ticket} has been forced to
+     * disk, forcing the log on behalf of the whole batch if no other thread
+     * is currently doing so.
+     *
+     * @throws IOException if the force performed by this thread failed.
+     */
+    public void awaitForced( long ticket ) throws IOException
+    {
+        boolean interrupted = false;
+        try
+        {
+            long batchEnd;
+            synchronized ( this )
+            {
+                while ( forced < ticket && forcing )
+                {
+                    interrupted |= waitUninterruptibly( 0 );
+                }
+                if ( forced >= ticket )
+                {
+                    return;
+                }
+                forcing = true;
+                long deadline = System.currentTimeMillis() + maxWaitMillis;
+                long remaining = maxWaitMillis;
+                while ( appended - forced < maxBatchSize && remaining > 0 )
+                {
+                    interrupted |= waitUninterruptibly( remaining );
+                    remaining = deadline - System.currentTimeMillis();
+                }
+                batchEnd = appended;
+            }
+            forceBatch( batchEnd );
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void forceBatch( long batchEnd ) throws IOException
+    {
+        boolean success = false;
+        try
+        {
+            target.force();
+            success = true;
+        }
+        finally
+        {
+            synchronized ( this )
+            {
+                forcing = false;
+                if ( success && batchEnd > forced )
+                {
+                    long batchSize = batchEnd - forced;
+                    forceCount++;
+                    forcedCommitCount += batchSize;
+                    largestBatch = Math.max( largestBatch, batchSize );
+                    forced = batchEnd;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean waitUninterruptibly( long millis )
+    {
+        try
+        {
+            wait( millis );
+            return false;
+        }
+        catch ( InterruptedException e )
+        {
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of forces performed on behalf of committers.
+     */
+    public synchronized long getForceCount()
+    {
+        return forceCount;
+    }
+
+    /**
+     * @return the number of commits made durable by those forces.
+     */
+    public synchronized long getForcedCommitCount()
+    {
+        return forcedCommitCount;
+    }
+
+    /**
+     * @return the largest number of commits made durable by a single force.
+     */
+    public synchronized long getLargestBatch()
+    {
+        return largestBatch;
+    }
+
+    /**
+     * @return the average number of commits made durable per force.
+     */
+    public synchronized double getAverageBatchSize()
+    {
+        return forceCount == 0 ? 0 : (double) forcedCommitCount / forceCount;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return getClass().getSimpleName() + "[forces:" + forceCount + ", commits:" + forcedCommitCount +
+                ", largest batch:" + largestBatch + ", max batch size:" + maxBatchSize +
+                ", max wait:" + maxWaitMillis + "ms]";
+    }
+}
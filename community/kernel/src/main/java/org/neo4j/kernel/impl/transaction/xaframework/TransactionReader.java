@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.xa.Command;
@@ -175,6 +176,12 @@ public class TransactionReader
             }
         }
 
+        @Override
+        public void visitRelationshipGroup( RelationshipGroupRecord record )
+        {
+            // Relationship groups are a storage detail of dense nodes, not visible as entities
+        }
+
         @Override
         public void visitProperty( PropertyRecord record )
         {
@@ -28,6 +28,9 @@ import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
 import org.neo4j.kernel.logging.Logging;
 
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.group_commit;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.group_commit_max_batch_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.group_commit_max_wait;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_rotation_threshold;
 
 /**
@@ -83,6 +86,10 @@ public class XaFactory
             log = new XaLogicalLog( logicalLog, rm, cf, tf, logBufferFactory, fileSystemAbstraction,
                     logging, pruneStrategy, stateFactory, rotateAtSize );
         }
+        if ( config.get( group_commit ) )
+        {
+            log.enableGroupCommit( config.get( group_commit_max_batch_size ), config.get( group_commit_max_wait ) );
+        }
 
         // TODO These setters should be removed somehow
         rm.setLogicalLog( log );
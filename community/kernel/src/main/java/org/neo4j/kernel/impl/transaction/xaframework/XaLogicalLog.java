@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.xaframework;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
@@ -75,6 +76,12 @@ import static org.neo4j.kernel.impl.transaction.xaframework.XaLogicalLogTokens.L
  */
 public class XaLogicalLog implements LogLoader
 {
+    /**
+     * Returned from the commit methods when the commit entry has been forced, or
+     * wasn't asked to be forced, by the time the method returns.
+     */
+    public static final long NO_PENDING_FORCE = -1;
+
     private FileChannel fileChannel = null;
     private final ByteBuffer sharedBuffer;
     private LogBuffer writeBuffer = null;
@@ -111,6 +118,8 @@ public class XaLogicalLog implements LogLoader
 
     private final TransactionStateFactory stateFactory;
 
+    private GroupCommit groupCommit;
+
     public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandFactory cf,
                          XaTransactionFactory xaTf, LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystem,
                          Logging logging, LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
@@ -135,6 +144,46 @@ public class XaLogicalLog implements LogLoader
         this.partialTransactionCopier = new PartialTransactionCopier( sharedBuffer, cf, msgLog, positionCache, this, xidIdentMap );
     }
 
+    /**
+     * Makes forced commits go through a {@link GroupCommit}. The commit methods will then only
+     * write out the commit entry and return a ticket, which the committer passes to
+     * {@link org.neo4j.kernel.impl.transaction.AbstractTransactionManager#awaitForced(GroupCommit, long)}
+     * once it has released the monitor of this log, so that concurrent committers can share a single force.
+     */
+    public synchronized void enableGroupCommit( int maxBatchSize, long maxWaitMillis )
+    {
+        groupCommit = new GroupCommit( new GroupCommit.Target()
+        {
+            @Override
+            public void force() throws IOException
+            {
+                FileChannel channel;
+                synchronized ( XaLogicalLog.this )
+                {
+                    channel = fileChannel;
+                }
+                if ( channel == null )
+                {
+                    // Being rotated or closed, both of which force what has been written so far
+                    return;
+                }
+                try
+                {
+                    channel.force( false );
+                }
+                catch ( ClosedChannelException e )
+                {
+                    // Rotated or closed after we got hold of it, which forced it
+                }
+            }
+        }, maxBatchSize, maxWaitMillis );
+    }
+
+    public synchronized GroupCommit getGroupCommit()
+    {
+        return groupCommit;
+    }
+
     synchronized void open() throws IOException
     {
         switch ( logFiles.determineState() )
@@ -332,7 +381,7 @@ public class XaLogicalLog implements LogLoader
     }
 
     // [TX_1P_COMMIT][identifier]
-    public synchronized void commitOnePhase( int identifier, long txId, ForceMode forceMode )
+    public synchronized long commitOnePhase( int identifier, long txId, ForceMode forceMode )
             throws XAException
     {
         LogEntry.Start startEntry = xidIdentMap.get( identifier );
@@ -342,7 +391,7 @@ public class XaLogicalLog implements LogLoader
         {
             positionCache.cacheStartPosition( txId, startEntry, logVersion );
             LogIoUtils.writeCommit( false, writeBuffer, identifier, txId, System.currentTimeMillis() );
-            forceMode.force( writeBuffer );
+            return forceCommit( forceMode );
         }
         catch ( IOException e )
         {
@@ -389,7 +438,7 @@ public class XaLogicalLog implements LogLoader
     }
 
     // [TX_2P_COMMIT][identifier]
-    public synchronized void commitTwoPhase( int identifier, long txId, ForceMode forceMode )
+    public synchronized long commitTwoPhase( int identifier, long txId, ForceMode forceMode )
             throws XAException
     {
         LogEntry.Start startEntry = xidIdentMap.get( identifier );
@@ -399,7 +448,7 @@ public class XaLogicalLog implements LogLoader
         {
             positionCache.cacheStartPosition( txId, startEntry, logVersion );
             LogIoUtils.writeCommit( true, writeBuffer, identifier, txId, System.currentTimeMillis() );
-            forceMode.force( writeBuffer );
+            return forceCommit( forceMode );
         }
         catch ( IOException e )
         {
@@ -407,6 +456,17 @@ public class XaLogicalLog implements LogLoader
         }
     }
 
+    private long forceCommit( ForceMode forceMode ) throws IOException
+    {
+        if ( groupCommit == null || forceMode != ForceMode.forced )
+        {
+            forceMode.force( writeBuffer );
+            return NO_PENDING_FORCE;
+        }
+        writeBuffer.writeOut();
+        return groupCommit.appended();
+    }
+
     // [COMMAND][identifier][COMMAND_DATA]
     public synchronized void writeCommand( XaCommand command, int identifier )
             throws IOException
@@ -711,7 +771,7 @@ public class XaLogicalLog implements LogLoader
         xaTf.getAndSetNewVersion();
         pruneStrategy.prune( this );
 
-        msgLog.info( "Closed log " + fileName );
+        msgLog.info( "Closed log " + fileName + (groupCommit != null ? " " + groupCommit : "") );
     }
 
     static long[] readAndAssertLogHeader( ByteBuffer localBuffer,
@@ -1375,6 +1435,10 @@ public class XaLogicalLog implements LogLoader
                 currentVersion + " to " + newLogFile + " from position " +
                 endPosition, true );
         writeBuffer.force();
+        if ( groupCommit != null )
+        {
+            groupCommit.allForced();
+        }
         FileChannel newLog = fileSystem.open( newLogFile, "rw" );
         long lastTx = xaTf.getLastCommittedTx();
         LogIoUtils.writeLogHeader( sharedBuffer, currentVersion+1, lastTx );
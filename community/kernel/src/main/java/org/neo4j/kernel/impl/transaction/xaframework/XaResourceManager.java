@@ -35,6 +35,7 @@ import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.xaframework.LogEntry.Start;
 import org.neo4j.kernel.impl.util.ArrayMap;
@@ -417,6 +418,7 @@ public class XaResourceManager
     {
         XaTransaction xaTransaction;
         boolean isReadOnly;
+        long forceTicket = XaLogicalLog.NO_PENDING_FORCE;
 
         synchronized ( this )
         {
@@ -440,7 +442,7 @@ public class XaResourceManager
                     long txId = txIdGenerator.generate( dataSource,
                             xaTransaction.getIdentifier() );
                     xaTransaction.setCommitTxId( txId );
-                    log.commitOnePhase( xaTransaction.getIdentifier(),
+                    forceTicket = log.commitOnePhase( xaTransaction.getIdentifier(),
                             xaTransaction.getCommitTxId(), getForceMode() );
                 }
             }
@@ -456,7 +458,7 @@ public class XaResourceManager
                     long txId = txIdGenerator.generate( dataSource,
                             xaTransaction.getIdentifier() );
                     xaTransaction.setCommitTxId( txId );
-                    log.commitTwoPhase( xaTransaction.getIdentifier(),
+                    forceTicket = log.commitTwoPhase( xaTransaction.getIdentifier(),
                             xaTransaction.getCommitTxId(), getForceMode() );
                 }
                 txStatus.markCommitStarted();
@@ -493,6 +495,18 @@ public class XaResourceManager
             }
         }
 
+        if ( forceTicket != XaLogicalLog.NO_PENDING_FORCE )
+        {
+            try
+            {
+                transactionManager.awaitForced( log.getGroupCommit(), forceTicket );
+            }
+            catch ( IOException e )
+            {
+                throw Exceptions.withCause( new XAException( XAException.XAER_RMERR ), e );
+            }
+        }
+
         if ( !xaTransaction.isRecovered() && !isReadOnly )
             txIdGenerator.committed( dataSource, xaTransaction.getIdentifier(), xaTransaction.getCommitTxId(), null );
         return xaTransaction;
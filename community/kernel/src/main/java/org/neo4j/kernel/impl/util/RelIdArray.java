@@ -20,11 +20,11 @@
 package org.neo4j.kernel.impl.util;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.NoSuchElementException;
 
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.impl.cache.SizeOfObject;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 
 import static java.lang.System.arraycopy;
 
@@ -784,7 +784,7 @@ public class RelIdArray implements SizeOfObject
         }
     }
 
-    public static RelIdArray from( RelIdArray src, RelIdArray add, Collection<Long> remove )
+    public static RelIdArray from( RelIdArray src, RelIdArray add, PrimitiveLongSet remove )
     {
         if ( remove == null )
         {
@@ -833,7 +833,7 @@ public class RelIdArray implements SizeOfObject
         }
     }
 
-    private static void evictExcluded( RelIdArray ids, Collection<Long> excluded )
+    private static void evictExcluded( RelIdArray ids, PrimitiveLongSet excluded )
     {
         for ( RelIdIteratorImpl iterator = (RelIdIteratorImpl) DirectionWrapper.BOTH.iterator( ids );
               iterator.hasNext(); )
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+/**
+ * Hashing and sizing shared by the open addressing hash tables in this package. Tables are always
+ * sized to a power of two, so that the slot for a hash can be found by masking.
+ */
+final class Hashing
+{
+    static final int DEFAULT_CAPACITY = 8;
+
+    private Hashing()
+    {
+    }
+
+    static int hash( long value )
+    {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int hash( int value )
+    {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return a power of two table size that can hold {@code expectedSize} entries
+     * without exceeding the load factor.
+     */
+    static int tableSizeFor( int expectedSize )
+    {
+        int size = DEFAULT_CAPACITY;
+        while ( resizeThreshold( size ) < expectedSize )
+        {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Linear probing degrades quickly with high load, so tables are kept at most three quarters full.
+     */
+    static int resizeThreshold( int tableSize )
+    {
+        return tableSize - (tableSize >>> 2);
+    }
+
+    /**
+     * @return {@code true} if an entry at {@code slot}, which hashes to {@code home}, may be moved
+     * back into {@code gap} without becoming unreachable, i.e. if {@code gap} lies cyclically
+     * between {@code home} and {@code slot}.
+     */
+    static boolean canMoveBack( int home, int gap, int slot, int mask )
+    {
+        return ((slot - home) & mask) >= ((slot - gap) & mask);
+    }
+}
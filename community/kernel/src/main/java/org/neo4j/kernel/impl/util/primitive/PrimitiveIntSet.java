@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.neo4j.kernel.impl.util.primitive.Hashing.canMoveBack;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.hash;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.resizeThreshold;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.tableSizeFor;
+
+/**
+ * A set of {@code int} values kept in an open addressing hash table with linear probing, the
+ * {@code int} counterpart of {@link PrimitiveLongSet}. Not thread safe.
+ */
+public class PrimitiveIntSet
+{
+    // Marks a free slot in the table, the value itself is tracked separately
+    private static final int FREE = -1;
+
+    private int[] table;
+    private int tableSize;
+    private boolean containsFree;
+
+    public PrimitiveIntSet()
+    {
+        this( 0 );
+    }
+
+    public PrimitiveIntSet( int expectedSize )
+    {
+        table = newTable( tableSizeFor( expectedSize ) );
+    }
+
+    public boolean add( int value )
+    {
+        if ( value == FREE )
+        {
+            boolean added = !containsFree;
+            containsFree = true;
+            return added;
+        }
+        int mask = table.length - 1;
+        for ( int slot = hash( value ) & mask; ; slot = (slot + 1) & mask )
+        {
+            int current = table[slot];
+            if ( current == FREE )
+            {
+                table[slot] = value;
+                if ( ++tableSize > resizeThreshold( table.length ) )
+                {
+                    rehash( table.length << 1 );
+                }
+                return true;
+            }
+            if ( current == value )
+            {
+                return false;
+            }
+        }
+    }
+
+    public boolean contains( int value )
+    {
+        if ( value == FREE )
+        {
+            return containsFree;
+        }
+        return slotOf( value ) != -1;
+    }
+
+    public boolean remove( int value )
+    {
+        if ( value == FREE )
+        {
+            boolean removed = containsFree;
+            containsFree = false;
+            return removed;
+        }
+        int slot = slotOf( value );
+        if ( slot == -1 )
+        {
+            return false;
+        }
+        closeGap( slot );
+        tableSize--;
+        return true;
+    }
+
+    public int size()
+    {
+        return containsFree ? tableSize + 1 : tableSize;
+    }
+
+    public boolean isEmpty()
+    {
+        return tableSize == 0 && !containsFree;
+    }
+
+    public void clear()
+    {
+        if ( tableSize > 0 )
+        {
+            table = newTable( table.length );
+            tableSize = 0;
+        }
+        containsFree = false;
+    }
+
+    public PrimitiveIntIterator iterator()
+    {
+        return new PrimitiveIntIterator()
+        {
+            private int slot = nextSlot( -1 );
+
+            @Override
+            public boolean hasNext()
+            {
+                return slot <= table.length;
+            }
+
+            @Override
+            public int next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                int value = slot == table.length ? FREE : table[slot];
+                slot = nextSlot( slot );
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @return the next occupied slot after {@code slot}, {@code table.length} if the free marker
+     * value is next, or {@code table.length + 1} if there are no more values.
+     */
+    private int nextSlot( int slot )
+    {
+        while ( ++slot < table.length )
+        {
+            if ( table[slot] != FREE )
+            {
+                return slot;
+            }
+        }
+        return slot == table.length && containsFree ? slot : table.length + 1;
+    }
+
+    private int slotOf( int value )
+    {
+        int mask = table.length - 1;
+        for ( int slot = hash( value ) & mask; ; slot = (slot + 1) & mask )
+        {
+            int current = table[slot];
+            if ( current == value )
+            {
+                return slot;
+            }
+            if ( current == FREE )
+            {
+                return -1;
+            }
+        }
+    }
+
+    private void closeGap( int gap )
+    {
+        int mask = table.length - 1;
+        for ( int slot = (gap + 1) & mask; table[slot] != FREE; slot = (slot + 1) & mask )
+        {
+            if ( canMoveBack( hash( table[slot] ) & mask, gap, slot, mask ) )
+            {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = FREE;
+    }
+
+    private void rehash( int newTableSize )
+    {
+        int[] oldTable = table;
+        table = newTable( newTableSize );
+        int mask = newTableSize - 1;
+        for ( int value : oldTable )
+        {
+            if ( value != FREE )
+            {
+                int slot = hash( value ) & mask;
+                while ( table[slot] != FREE )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private static int[] newTable( int size )
+    {
+        int[] table = new int[size];
+        Arrays.fill( table, FREE );
+        return table;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+/**
+ * A growable list of {@code long} values backed by a {@code long[]}, as opposed to a
+ * {@code List<Long>} which allocates a boxed value per element. Not thread safe.
+ */
+public class PrimitiveLongList
+{
+    private static final long[] EMPTY = new long[0];
+
+    private long[] values;
+    private int size;
+
+    public PrimitiveLongList()
+    {
+        this.values = EMPTY;
+    }
+
+    public PrimitiveLongList( int initialCapacity )
+    {
+        this.values = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+    }
+
+    public void add( long value )
+    {
+        if ( size == values.length )
+        {
+            values = Arrays.copyOf( values, Math.max( Hashing.DEFAULT_CAPACITY, values.length << 1 ) );
+        }
+        values[size++] = value;
+    }
+
+    public void addAll( PrimitiveLongIterator iterator )
+    {
+        while ( iterator.hasNext() )
+        {
+            add( iterator.next() );
+        }
+    }
+
+    public long get( int index )
+    {
+        if ( index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index " + index + ", size " + size );
+        }
+        return values[index];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    public PrimitiveLongIterator iterator()
+    {
+        return new PrimitiveLongIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            public long next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                return values[index++];
+            }
+        };
+    }
+
+    public long[] toArray()
+    {
+        return Arrays.copyOf( values, size );
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString( toArray() );
+    }
+}
@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.neo4j.kernel.impl.util.primitive.Hashing.canMoveBack;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.hash;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.resizeThreshold;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.tableSizeFor;
+
+/**
+ * A map from {@code long} keys to objects, kept in an open addressing hash table with linear probing
+ * using parallel key and value arrays. As opposed to a {@code HashMap<Long,V>} there's no entry or boxed
+ * key allocated per mapping, and no boxing on lookup. {@code null} values aren't supported.
+ * Iterators don't support removal and don't detect concurrent modification. Not thread safe.
+ */
+public class PrimitiveLongObjectMap<V>
+{
+    // Marks a free slot in the table, the mapping for the key itself is kept separately
+    private static final long FREE = -1;
+
+    private long[] keys;
+    private Object[] values;
+    private int tableSize;
+    private V freeKeyValue;
+
+    public PrimitiveLongObjectMap()
+    {
+        this( 0 );
+    }
+
+    public PrimitiveLongObjectMap( int expectedSize )
+    {
+        allocate( tableSizeFor( expectedSize ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public V get( long key )
+    {
+        if ( key == FREE )
+        {
+            return freeKeyValue;
+        }
+        int slot = slotOf( key );
+        return slot == -1 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey( long key )
+    {
+        return get( key ) != null;
+    }
+
+    /**
+     * @return the value previously mapped to {@code key}, or {@code null} if there was none.
+     */
+    @SuppressWarnings( "unchecked" )
+    public V put( long key, V value )
+    {
+        if ( value == null )
+        {
+            throw new IllegalArgumentException( "Null values not supported, for key " + key );
+        }
+        if ( key == FREE )
+        {
+            V previous = freeKeyValue;
+            freeKeyValue = value;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        for ( int slot = hash( key ) & mask; ; slot = (slot + 1) & mask )
+        {
+            long current = keys[slot];
+            if ( current == FREE )
+            {
+                keys[slot] = key;
+                values[slot] = value;
+                if ( ++tableSize > resizeThreshold( keys.length ) )
+                {
+                    rehash( keys.length << 1 );
+                }
+                return null;
+            }
+            if ( current == key )
+            {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * @return the value that was mapped to {@code key}, or {@code null} if there was none.
+     */
+    @SuppressWarnings( "unchecked" )
+    public V remove( long key )
+    {
+        if ( key == FREE )
+        {
+            V previous = freeKeyValue;
+            freeKeyValue = null;
+            return previous;
+        }
+        int slot = slotOf( key );
+        if ( slot == -1 )
+        {
+            return null;
+        }
+        V previous = (V) values[slot];
+        closeGap( slot );
+        tableSize--;
+        return previous;
+    }
+
+    public int size()
+    {
+        return freeKeyValue != null ? tableSize + 1 : tableSize;
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    public void clear()
+    {
+        if ( tableSize > 0 )
+        {
+            allocate( keys.length );
+            tableSize = 0;
+        }
+        freeKeyValue = null;
+    }
+
+    public PrimitiveLongIterator keyIterator()
+    {
+        return new AbstractPrimitiveLongIterator()
+        {
+            private int slot = nextSlot( -1 );
+
+            {
+                computeNext();
+            }
+
+            @Override
+            protected void computeNext()
+            {
+                if ( slot > keys.length )
+                {
+                    endReached();
+                }
+                else
+                {
+                    next( slot == keys.length ? FREE : keys[slot] );
+                    slot = nextSlot( slot );
+                }
+            }
+        };
+    }
+
+    public Iterable<V> values()
+    {
+        return new Iterable<V>()
+        {
+            @Override
+            public Iterator<V> iterator()
+            {
+                return new Iterator<V>()
+                {
+                    private int slot = nextSlot( -1 );
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return slot <= keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings( "unchecked" )
+                    public V next()
+                    {
+                        if ( !hasNext() )
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        V value = slot == keys.length ? freeKeyValue : (V) values[slot];
+                        slot = nextSlot( slot );
+                        return value;
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @return the next occupied slot after {@code slot}, {@code keys.length} if the free marker
+     * key is next, or {@code keys.length + 1} if there are no more mappings.
+     */
+    private int nextSlot( int slot )
+    {
+        while ( ++slot < keys.length )
+        {
+            if ( keys[slot] != FREE )
+            {
+                return slot;
+            }
+        }
+        return slot == keys.length && freeKeyValue != null ? slot : keys.length + 1;
+    }
+
+    private int slotOf( long key )
+    {
+        int mask = keys.length - 1;
+        for ( int slot = hash( key ) & mask; ; slot = (slot + 1) & mask )
+        {
+            long current = keys[slot];
+            if ( current == key )
+            {
+                return slot;
+            }
+            if ( current == FREE )
+            {
+                return -1;
+            }
+        }
+    }
+
+    private void closeGap( int gap )
+    {
+        int mask = keys.length - 1;
+        for ( int slot = (gap + 1) & mask; keys[slot] != FREE; slot = (slot + 1) & mask )
+        {
+            if ( canMoveBack( hash( keys[slot] ) & mask, gap, slot, mask ) )
+            {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    private void rehash( int newTableSize )
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate( newTableSize );
+        int mask = newTableSize - 1;
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            long key = oldKeys[i];
+            if ( key != FREE )
+            {
+                int slot = hash( key ) & mask;
+                while ( keys[slot] != FREE )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate( int size )
+    {
+        keys = new long[size];
+        Arrays.fill( keys, FREE );
+        values = new Object[size];
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "{" );
+        String separator = "";
+        for ( PrimitiveLongIterator iterator = keyIterator(); iterator.hasNext(); )
+        {
+            long key = iterator.next();
+            builder.append( separator ).append( key ).append( '=' ).append( get( key ) );
+            separator = ", ";
+        }
+        return builder.append( '}' ).toString();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+/**
+ * A first-in-first-out queue of {@code long} values backed by a circular {@code long[]}, as opposed to a
+ * {@code Queue<Long>} which allocates a boxed value and a node per element. Not thread safe.
+ */
+public class PrimitiveLongQueue
+{
+    private long[] values;
+    private int head;
+    private int size;
+
+    public PrimitiveLongQueue()
+    {
+        this( Hashing.DEFAULT_CAPACITY );
+    }
+
+    public PrimitiveLongQueue( int initialCapacity )
+    {
+        this.values = new long[Math.max( 1, initialCapacity )];
+    }
+
+    public void add( long value )
+    {
+        if ( size == values.length )
+        {
+            grow();
+        }
+        values[(head + size) % values.length] = value;
+        size++;
+    }
+
+    public long removeFirst()
+    {
+        if ( size == 0 )
+        {
+            throw new NoSuchElementException();
+        }
+        long value = values[head];
+        head = (head + 1) % values.length;
+        size--;
+        return value;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        head = 0;
+        size = 0;
+    }
+
+    public PrimitiveLongIterator iterator()
+    {
+        return new PrimitiveLongIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            public long next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                return values[(head + index++) % values.length];
+            }
+        };
+    }
+
+    public long[] toArray()
+    {
+        long[] result = new long[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            result[i] = values[(head + i) % values.length];
+        }
+        return result;
+    }
+
+    private void grow()
+    {
+        long[] grown = toArray();
+        values = Arrays.copyOf( grown, values.length << 1 );
+        head = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString( toArray() );
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.neo4j.kernel.impl.util.primitive.Hashing.canMoveBack;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.hash;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.resizeThreshold;
+import static org.neo4j.kernel.impl.util.primitive.Hashing.tableSizeFor;
+
+/**
+ * A set of {@code long} values kept in an open addressing hash table with linear probing, so that
+ * adding a value doesn't allocate any objects, as opposed to a {@code HashSet<Long>} which allocates
+ * both an entry and a boxed value.
+ * <p>
+ * It also is a {@code Set<Long>} so that it can be handed to code expecting one, but the primitive
+ * {@link #add(long)}, {@link #contains(long)}, {@link #remove(long)} and {@link #longIterator()}
+ * should be preferred since they don't box. Iterators don't support removal and don't detect
+ * concurrent modification. Not thread safe.
+ */
+public class PrimitiveLongSet extends AbstractSet<Long>
+{
+    // Marks a free slot in the table, the value itself is tracked separately
+    private static final long FREE = -1;
+
+    private long[] table;
+    private int tableSize;
+    private boolean containsFree;
+
+    public PrimitiveLongSet()
+    {
+        this( 0 );
+    }
+
+    public PrimitiveLongSet( int expectedSize )
+    {
+        table = newTable( tableSizeFor( expectedSize ) );
+    }
+
+    public boolean add( long value )
+    {
+        if ( value == FREE )
+        {
+            boolean added = !containsFree;
+            containsFree = true;
+            return added;
+        }
+        int mask = table.length - 1;
+        for ( int slot = hash( value ) & mask; ; slot = (slot + 1) & mask )
+        {
+            long current = table[slot];
+            if ( current == FREE )
+            {
+                table[slot] = value;
+                if ( ++tableSize > resizeThreshold( table.length ) )
+                {
+                    rehash( table.length << 1 );
+                }
+                return true;
+            }
+            if ( current == value )
+            {
+                return false;
+            }
+        }
+    }
+
+    public boolean contains( long value )
+    {
+        if ( value == FREE )
+        {
+            return containsFree;
+        }
+        return slotOf( value ) != -1;
+    }
+
+    public boolean remove( long value )
+    {
+        if ( value == FREE )
+        {
+            boolean removed = containsFree;
+            containsFree = false;
+            return removed;
+        }
+        int slot = slotOf( value );
+        if ( slot == -1 )
+        {
+            return false;
+        }
+        closeGap( slot );
+        tableSize--;
+        return true;
+    }
+
+    public PrimitiveLongIterator longIterator()
+    {
+        return new SlotIterator();
+    }
+
+    public long[] toLongArray()
+    {
+        long[] result = new long[size()];
+        int i = 0;
+        for ( PrimitiveLongIterator iterator = longIterator(); iterator.hasNext(); )
+        {
+            result[i++] = iterator.next();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean add( Long value )
+    {
+        return add( value.longValue() );
+    }
+
+    @Override
+    public boolean contains( Object value )
+    {
+        return value instanceof Long && contains( ((Long) value).longValue() );
+    }
+
+    @Override
+    public boolean remove( Object value )
+    {
+        return value instanceof Long && remove( ((Long) value).longValue() );
+    }
+
+    @Override
+    public Iterator<Long> iterator()
+    {
+        final PrimitiveLongIterator iterator = longIterator();
+        return new Iterator<Long>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Long next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public int size()
+    {
+        return containsFree ? tableSize + 1 : tableSize;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return tableSize == 0 && !containsFree;
+    }
+
+    @Override
+    public void clear()
+    {
+        if ( tableSize > 0 )
+        {
+            table = newTable( table.length );
+            tableSize = 0;
+        }
+        containsFree = false;
+    }
+
+    private int slotOf( long value )
+    {
+        int mask = table.length - 1;
+        for ( int slot = hash( value ) & mask; ; slot = (slot + 1) & mask )
+        {
+            long current = table[slot];
+            if ( current == value )
+            {
+                return slot;
+            }
+            if ( current == FREE )
+            {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Moves back entries following the freed {@code gap} that would otherwise become unreachable,
+     * which avoids the need for tombstones.
+     */
+    private void closeGap( int gap )
+    {
+        int mask = table.length - 1;
+        for ( int slot = (gap + 1) & mask; table[slot] != FREE; slot = (slot + 1) & mask )
+        {
+            if ( canMoveBack( hash( table[slot] ) & mask, gap, slot, mask ) )
+            {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = FREE;
+    }
+
+    private void rehash( int newTableSize )
+    {
+        long[] oldTable = table;
+        table = newTable( newTableSize );
+        int mask = newTableSize - 1;
+        for ( long value : oldTable )
+        {
+            if ( value != FREE )
+            {
+                int slot = hash( value ) & mask;
+                while ( table[slot] != FREE )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private static long[] newTable( int size )
+    {
+        long[] table = new long[size];
+        Arrays.fill( table, FREE );
+        return table;
+    }
+
+    private class SlotIterator extends AbstractPrimitiveLongIterator
+    {
+        private int slot = -1;
+
+        SlotIterator()
+        {
+            computeNext();
+        }
+
+        @Override
+        protected void computeNext()
+        {
+            while ( ++slot < table.length )
+            {
+                if ( table[slot] != FREE )
+                {
+                    next( table[slot] );
+                    return;
+                }
+            }
+            if ( slot == table.length && containsFree )
+            {
+                next( FREE );
+                return;
+            }
+            endReached();
+        }
+    }
+}
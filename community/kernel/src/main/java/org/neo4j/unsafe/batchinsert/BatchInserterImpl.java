@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -93,6 +94,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
@@ -123,6 +126,7 @@ import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLab
 public class BatchInserterImpl implements BatchInserter
 {
     private static final long MAX_NODE_ID = IdType.NODE.getMaxValue();
+    private static final int MAX_CACHED_NODE_DEGREES = 100000;
 
     private final LifeSupport life;
     private final NeoStore neoStore;
@@ -150,6 +154,19 @@ public class BatchInserterImpl implements BatchInserter
         }
     };
 
+    /*
+     * Number of relationships of recently connected nodes that aren't dense, counted up to the dense
+     * node threshold, so that the chain of a node doesn't have to be walked for every new relationship.
+     */
+    private final Map<Long, Integer> sparseNodeDegrees = new LinkedHashMap<Long, Integer>( 16, 0.75f, true )
+    {
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<Long, Integer> eldest )
+        {
+            return size() > MAX_CACHED_NODE_DEGREES;
+        }
+    };
+
     private final BatchInserterImpl.BatchSchemaActions actions;
     private final StoreLocker storeLocker;
 
@@ -382,7 +399,9 @@ public class BatchInserterImpl implements BatchInserter
 
         private void writeAndResetBatch() throws IOException
         {
-            labelScanStore.updateAndCommit( iterator( cursor, updateBatch ) );
+            // Updates from scanning the node store don't know which labels a node had in the label scan
+            // store of an existing database, so apply them the way recovered updates are applied.
+            labelScanStore.recover( iterator( cursor, updateBatch ) );
             cursor = 0;
         }
 
@@ -633,6 +652,25 @@ public class BatchInserterImpl implements BatchInserter
         return propertyKeyId;
     }
 
+    private int getOrCreatePropertyKeyId( String name, Map<String, Integer> keyIdCache )
+    {
+        if ( keyIdCache == null )
+        {
+            return getOrCreatePropertyKeyId( name );
+        }
+        Integer keyId = keyIdCache.get( name );
+        if ( keyId == null )
+        {
+            // Several threads may be encoding properties, see encodePropertyChain
+            synchronized ( propertyKeyTokens )
+            {
+                keyId = getOrCreatePropertyKeyId( name );
+            }
+            keyIdCache.put( name, keyId );
+        }
+        return keyId;
+    }
+
     private int getPropertyKeyId( String name )
     {
         return propertyKeyTokens.idOf( name );
@@ -688,16 +726,16 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public long createNode( Map<String, Object> properties, Label... labels )
     {
-        return internalCreateNode( getNodeStore().nextId(), properties, labels );
+        return internalCreateNode( getNodeStore().nextId(), encodePropertyChain( properties, null ), labels );
     }
 
-    private long internalCreateNode( long nodeId, Map<String, Object> properties, Label... labels )
+    private long internalCreateNode( long nodeId, List<PropertyRecord> properties, Label... labels )
     {
         NodeRecord nodeRecord = new NodeRecord( nodeId, Record.NO_NEXT_RELATIONSHIP.intValue(),
                                                 Record.NO_NEXT_PROPERTY.intValue() );
         nodeRecord.setInUse( true );
         nodeRecord.setCreated();
-        nodeRecord.setNextProp( createPropertyChain( properties ) );
+        nodeRecord.setNextProp( writePropertyChain( properties ) );
 
         setNodeLabels( nodeRecord, labels );
 
@@ -723,6 +761,15 @@ public class BatchInserterImpl implements BatchInserter
 
     @Override
     public void createNode( long id, Map<String, Object> properties, Label... labels )
+    {
+        createNode( id, encodePropertyChain( properties, null ), labels );
+    }
+
+    /**
+     * Like {@link #createNode(long, Map, Label...)}, but with properties already encoded by
+     * {@link #encodePropertyChain(Map, Map)}.
+     */
+    void createNode( long id, List<PropertyRecord> properties, Label... labels )
     {
         if ( id < 0 || id > MAX_NODE_ID )
         {
@@ -785,9 +832,19 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public long createRelationship( long node1, long node2, RelationshipType
             type, Map<String, Object> properties )
+    {
+        return createRelationship( node1, node2, type, encodePropertyChain( properties, null ) );
+    }
+
+    /**
+     * Like {@link #createRelationship(long, long, RelationshipType, Map)}, but with properties already
+     * encoded by {@link #encodePropertyChain(Map, Map)}.
+     */
+    long createRelationship( long node1, long node2, RelationshipType type, List<PropertyRecord> properties )
     {
         NodeRecord firstNode = getNodeRecord( node1 );
-        NodeRecord secondNode = getNodeRecord( node2 );
+        // A loop must see the changes made to its one node record from both ends
+        NodeRecord secondNode = node1 == node2 ? firstNode : getNodeRecord( node2 );
         int typeId = relationshipTypeTokens.idOf( type.name() );
         if ( typeId == -1 )
         {
@@ -797,10 +854,18 @@ public class BatchInserterImpl implements BatchInserter
         RelationshipRecord record = new RelationshipRecord( id, node1, node2, typeId );
         record.setInUse( true );
         record.setCreated();
+        convertNodeToDenseIfNecessary( firstNode );
+        if ( secondNode != firstNode )
+        {
+            convertNodeToDenseIfNecessary( secondNode );
+        }
         connectRelationship( firstNode, secondNode, record );
         getNodeStore().updateRecord( firstNode );
-        getNodeStore().updateRecord( secondNode );
-        record.setNextProp( createPropertyChain( properties ) );
+        if ( secondNode != firstNode )
+        {
+            getNodeStore().updateRecord( secondNode );
+        }
+        record.setNextProp( writePropertyChain( properties ) );
         getRelationshipStore().updateRecord( record );
         return id;
     }
@@ -810,33 +875,186 @@ public class BatchInserterImpl implements BatchInserter
     {
         assert firstNode.getNextRel() != rel.getId();
         assert secondNode.getNextRel() != rel.getId();
-        rel.setFirstNextRel( firstNode.getNextRel() );
-        rel.setSecondNextRel( secondNode.getNextRel() );
-        connect( firstNode, rel );
-        connect( secondNode, rel );
-        firstNode.setNextRel( rel.getId() );
-        secondNode.setNextRel( rel.getId() );
+        if ( firstNode.isDense() )
+        {
+            // A loop is connected to both its ends at once
+            connectRelationshipToDenseNode( firstNode, rel );
+        }
+        else
+        {
+            rel.setFirstNextRel( firstNode.getNextRel() );
+        }
+        if ( secondNode.isDense() )
+        {
+            if ( secondNode != firstNode )
+            {
+                connectRelationshipToDenseNode( secondNode, rel );
+            }
+        }
+        else
+        {
+            rel.setSecondNextRel( secondNode.getNextRel() );
+        }
+        if ( !firstNode.isDense() )
+        {
+            connect( firstNode.getId(), firstNode.getNextRel(), rel );
+            firstNode.setNextRel( rel.getId() );
+            incrementSparseNodeDegree( firstNode.getId() );
+        }
+        if ( !secondNode.isDense() && secondNode != firstNode )
+        {
+            connect( secondNode.getId(), secondNode.getNextRel(), rel );
+            secondNode.setNextRel( rel.getId() );
+            incrementSparseNodeDegree( secondNode.getId() );
+        }
+    }
+
+    /**
+     * Puts {@code rel} first in the chain of its type and direction of the given dense node. {@code rel}
+     * itself is left for the caller to write.
+     */
+    private void connectRelationshipToDenseNode( NodeRecord node, RelationshipRecord rel )
+    {
+        RelationshipGroupRecord group = getOrCreateRelationshipGroup( node, rel.getType() );
+        long firstRel;
+        if ( rel.getFirstNode() == rel.getSecondNode() )
+        {
+            firstRel = group.getFirstLoop();
+            group.setFirstLoop( rel.getId() );
+        }
+        else if ( rel.getFirstNode() == node.getId() )
+        {
+            firstRel = group.getFirstOut();
+            group.setFirstOut( rel.getId() );
+        }
+        else
+        {
+            firstRel = group.getFirstIn();
+            group.setFirstIn( rel.getId() );
+        }
+        getRelationshipGroupStore().updateRecord( group );
+        if ( rel.getFirstNode() == node.getId() )
+        {
+            rel.setFirstPrevRel( Record.NO_PREV_RELATIONSHIP.intValue() );
+            rel.setFirstNextRel( firstRel );
+        }
+        if ( rel.getSecondNode() == node.getId() )
+        {
+            rel.setSecondPrevRel( Record.NO_PREV_RELATIONSHIP.intValue() );
+            rel.setSecondNextRel( firstRel );
+        }
+        connect( node.getId(), firstRel, rel );
+    }
+
+    /**
+     * Returns the group of the given type for the given dense node, creating it if the node has none.
+     * A created group is linked into the group chain of the node so that the chain stays ordered by type.
+     */
+    private RelationshipGroupRecord getOrCreateRelationshipGroup( NodeRecord node, int type )
+    {
+        RelationshipGroupRecord previous = null;
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = getRelationshipGroupStore().getRecord( groupId );
+            if ( group.getType() == type )
+            {
+                return group;
+            }
+            if ( group.getType() > type )
+            {
+                break;
+            }
+            previous = group;
+            groupId = group.getNext();
+        }
+        RelationshipGroupRecord group = new RelationshipGroupRecord( getRelationshipGroupStore().nextId(), type );
+        group.setInUse( true );
+        group.setCreated();
+        group.setOwningNode( node.getId() );
+        group.setNext( groupId );
+        if ( previous == null )
+        {
+            node.setNextRel( group.getId() );
+        }
+        else
+        {
+            previous.setNext( group.getId() );
+            getRelationshipGroupStore().updateRecord( previous );
+        }
+        return group;
+    }
+
+    private void convertNodeToDenseIfNecessary( NodeRecord node )
+    {
+        if ( node.isDense() || getSparseNodeDegree( node ) < neoStore.getDenseNodeThreshold() )
+        {
+            return;
+        }
+
+        // Move all relationships from the single chain into chains per type and direction
+        long relId = node.getNextRel();
+        node.setDense( true );
+        node.setNextRel( Record.NO_NEXT_RELATIONSHIP.intValue() );
+        while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord rel = getRelationshipStore().getRecord( relId );
+            relId = rel.getFirstNode() == node.getId() ? rel.getFirstNextRel() : rel.getSecondNextRel();
+            connectRelationshipToDenseNode( node, rel );
+            getRelationshipStore().updateRecord( rel );
+        }
+        sparseNodeDegrees.remove( node.getId() );
     }
 
-    private void connect( NodeRecord node, RelationshipRecord rel )
+    private int getSparseNodeDegree( NodeRecord node )
     {
-        if ( node.getNextRel() != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        Integer degree = sparseNodeDegrees.get( node.getId() );
+        if ( degree == null )
         {
-            RelationshipRecord nextRel = getRelationshipStore().getRecord( node.getNextRel() );
+            // Only count as far as needed to know whether or not the node should be dense
+            int threshold = neoStore.getDenseNodeThreshold();
+            int count = 0;
+            long relId = node.getNextRel();
+            while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() && count < threshold )
+            {
+                RelationshipRecord rel = getRelationshipStore().getRecord( relId );
+                relId = rel.getFirstNode() == node.getId() ? rel.getFirstNextRel() : rel.getSecondNextRel();
+                count++;
+            }
+            degree = count;
+            sparseNodeDegrees.put( node.getId(), degree );
+        }
+        return degree;
+    }
+
+    private void incrementSparseNodeDegree( long nodeId )
+    {
+        Integer degree = sparseNodeDegrees.get( nodeId );
+        if ( degree != null )
+        {
+            sparseNodeDegrees.put( nodeId, degree + 1 );
+        }
+    }
+
+    private void connect( long nodeId, long firstRelId, RelationshipRecord rel )
+    {
+        if ( firstRelId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord nextRel = getRelationshipStore().getRecord( firstRelId );
             boolean changed = false;
-            if ( nextRel.getFirstNode() == node.getId() )
+            if ( nextRel.getFirstNode() == nodeId )
             {
                 nextRel.setFirstPrevRel( rel.getId() );
                 changed = true;
             }
-            if ( nextRel.getSecondNode() == node.getId() )
+            if ( nextRel.getSecondNode() == nodeId )
             {
                 nextRel.setSecondPrevRel( rel.getId() );
                 changed = true;
             }
             if ( !changed )
             {
-                throw new InvalidRecordException( node + " dont match " + nextRel );
+                throw new InvalidRecordException( "Node[" + nodeId + "] dont match " + nextRel );
             }
             getRelationshipStore().updateRecord( nextRel );
         }
@@ -904,29 +1122,10 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public Iterable<Long> getRelationshipIds( long nodeId )
     {
-        NodeRecord nodeRecord = getNodeRecord( nodeId );
-        long nextRel = nodeRecord.getNextRel();
         List<Long> ids = new ArrayList<>();
-        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        for ( RelationshipRecord relRecord : getRelationshipRecords( nodeId ) )
         {
-            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
             ids.add( relRecord.getId() );
-            long firstNode = relRecord.getFirstNode();
-            long secondNode = relRecord.getSecondNode();
-            if ( firstNode == nodeId )
-            {
-                nextRel = relRecord.getFirstNextRel();
-            }
-            else if ( secondNode == nodeId )
-            {
-                nextRel = relRecord.getSecondNextRel();
-            }
-            else
-            {
-                throw new InvalidRecordException( "Node[" + nodeId +
-                                                  "] not part of firstNode[" + firstNode +
-                                                  "] or secondNode[" + secondNode + "]" );
-            }
         }
         return ids;
     }
@@ -934,16 +1133,44 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public Iterable<BatchRelationship> getRelationships( long nodeId )
     {
-        NodeRecord nodeRecord = getNodeRecord( nodeId );
-        long nextRel = nodeRecord.getNextRel();
         List<BatchRelationship> rels = new ArrayList<BatchRelationship>();
-        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        for ( RelationshipRecord relRecord : getRelationshipRecords( nodeId ) )
         {
-            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
             RelationshipType type = new RelationshipTypeImpl(
                     relationshipTypeTokens.nameOf( relRecord.getType() ) );
             rels.add( new BatchRelationship( relRecord.getId(),
                                              relRecord.getFirstNode(), relRecord.getSecondNode(), type ) );
+        }
+        return rels;
+    }
+
+    private List<RelationshipRecord> getRelationshipRecords( long nodeId )
+    {
+        NodeRecord nodeRecord = getNodeRecord( nodeId );
+        List<RelationshipRecord> rels = new ArrayList<>();
+        if ( !nodeRecord.isDense() )
+        {
+            addRelationshipChain( nodeId, nodeRecord.getNextRel(), rels );
+            return rels;
+        }
+        long groupId = nodeRecord.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = getRelationshipGroupStore().getRecord( groupId );
+            addRelationshipChain( nodeId, group.getFirstOut(), rels );
+            addRelationshipChain( nodeId, group.getFirstIn(), rels );
+            addRelationshipChain( nodeId, group.getFirstLoop(), rels );
+            groupId = group.getNext();
+        }
+        return rels;
+    }
+
+    private void addRelationshipChain( long nodeId, long nextRel, List<RelationshipRecord> rels )
+    {
+        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
+            rels.add( relRecord );
             long firstNode = relRecord.getFirstNode();
             long secondNode = relRecord.getSecondNode();
             if ( firstNode == nodeId )
@@ -961,7 +1188,6 @@ public class BatchInserterImpl implements BatchInserter
                                                   "] or secondNode[" + secondNode + "]" );
             }
         }
-        return rels;
     }
 
     @Override
@@ -1041,10 +1267,25 @@ public class BatchInserterImpl implements BatchInserter
     }
 
     private long createPropertyChain( Map<String, Object> properties )
+    {
+        return writePropertyChain( encodePropertyChain( properties, null ) );
+    }
+
+    /**
+     * Encodes properties into a chain of property records, with their dynamic records, without writing them.
+     * As opposed to the rest of the batch inserter this can be called from several threads at once,
+     * given that each thread passes in its own {@code keyIdCache} for property key ids.
+     *
+     * @param properties the properties to encode, or {@code null}.
+     * @param keyIdCache property key ids looked up by the calling thread, or {@code null} if only
+     * one thread encodes properties.
+     * @return the property records, to be written with {@link #writePropertyChain(List)}.
+     */
+    List<PropertyRecord> encodePropertyChain( Map<String, Object> properties, Map<String, Integer> keyIdCache )
     {
         if ( properties == null || properties.isEmpty() )
         {
-            return Record.NO_NEXT_PROPERTY.intValue();
+            return Collections.emptyList();
         }
         PropertyStore propStore = getPropertyStore();
         List<PropertyRecord> propRecords = new ArrayList<>();
@@ -1054,11 +1295,7 @@ public class BatchInserterImpl implements BatchInserter
         propRecords.add( currentRecord );
         for ( Entry<String, Object> entry : properties.entrySet() )
         {
-            int keyId = propertyKeyTokens.idOf( entry.getKey() );
-            if ( keyId == -1 )
-            {
-                keyId = createNewPropertyKeyId( entry.getKey() );
-            }
+            int keyId = getOrCreatePropertyKeyId( entry.getKey(), keyIdCache );
 
             PropertyBlock block = new PropertyBlock();
             propStore.encodeValue( block, keyId, entry.getValue() );
@@ -1079,6 +1316,16 @@ public class BatchInserterImpl implements BatchInserter
             }
             currentRecord.addPropertyBlock( block );
         }
+        return propRecords;
+    }
+
+    private long writePropertyChain( List<PropertyRecord> propRecords )
+    {
+        if ( propRecords.isEmpty() )
+        {
+            return Record.NO_NEXT_PROPERTY.intValue();
+        }
+        PropertyStore propStore = getPropertyStore();
         /*
          * Add the property records in reverse order, which means largest
          * id first. That is to make sure we expand the property store file
@@ -1211,6 +1458,11 @@ public class BatchInserterImpl implements BatchInserter
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private RelationshipTypeTokenStore getRelationshipTypeStore()
     {
         return neoStore.getRelationshipTypeStore();
@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.batchinsert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+
+/**
+ * Imports nodes and relationships into a {@link BatchInserter} as a pipeline of three stages:
+ * <ol>
+ * <li>the calling thread reads batches of input from the given iterator,</li>
+ * <li>a pool of threads encodes the properties of each batch into property records and dynamic records,
+ * allocating their ids,</li>
+ * <li>a single thread writes the records of each batch to the store, in the order the batches were read.
+ * This is where node records are written and relationships get linked into their chains, which is done
+ * by one thread since relationships of different batches may be linked into the chains of the same nodes.</li>
+ * </ol>
+ * Encoding properties, especially strings and arrays, is what dominates an import so that's where the
+ * threads go. The batch inserter must not be used for anything else during an import, and label scan store
+ * and schema indexes get built when it's {@link BatchInserter#shutdown() shut down}, as usual.
+ */
+public class ParallelBatchImporter
+{
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Property key ids are looked up by each encoder thread on its own, to not contend on the token holder
+    private static final ThreadLocal<Map<String, Integer>> KEY_ID_CACHE = new ThreadLocal<Map<String, Integer>>()
+    {
+        @Override
+        protected Map<String, Integer> initialValue()
+        {
+            return new HashMap<>();
+        }
+    };
+
+    private final BatchInserterImpl inserter;
+    private final int threads;
+    private final int batchSize;
+
+    public ParallelBatchImporter( BatchInserter inserter )
+    {
+        this( inserter, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE );
+    }
+
+    public ParallelBatchImporter( BatchInserter inserter, int threads, int batchSize )
+    {
+        if ( !(inserter instanceof BatchInserterImpl) )
+        {
+            throw new IllegalArgumentException( "Can only import into a batch inserter created by " +
+                    BatchInserters.class.getSimpleName() + ", not " + inserter );
+        }
+        if ( threads < 1 || batchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Illegal threads:" + threads + " or batchSize:" + batchSize );
+        }
+        this.inserter = (BatchInserterImpl) inserter;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports nodes, with the ids they have in the input. Fails like
+     * {@link BatchInserter#createNode(long, Map, org.neo4j.graphdb.Label...)} if an id is already in use.
+     */
+    public void importNodes( Iterator<InputNode> nodes )
+    {
+        run( nodes, new EntityWriter<InputNode>()
+        {
+            @Override
+            public Map<String, Object> propertiesOf( InputNode node )
+            {
+                return node.getProperties();
+            }
+
+            @Override
+            public void write( InputNode node, List<PropertyRecord> properties )
+            {
+                inserter.createNode( node.getId(), properties, node.getLabels() );
+            }
+        } );
+    }
+
+    /**
+     * Imports relationships between nodes already in the store, f.ex. imported by
+     * {@link #importNodes(Iterator)}.
+     */
+    public void importRelationships( Iterator<InputRelationship> relationships )
+    {
+        run( relationships, new EntityWriter<InputRelationship>()
+        {
+            @Override
+            public Map<String, Object> propertiesOf( InputRelationship relationship )
+            {
+                return relationship.getProperties();
+            }
+
+            @Override
+            public void write( InputRelationship relationship, List<PropertyRecord> properties )
+            {
+                inserter.createRelationship( relationship.getStartNode(), relationship.getEndNode(),
+                        relationship.getType(), properties );
+            }
+        } );
+    }
+
+    private <T> void run( Iterator<T> input, EntityWriter<T> entityWriter )
+    {
+        ExecutorService encoders = Executors.newFixedThreadPool( threads,
+                new NamedThreadFactory( getClass().getSimpleName() + "-encoder" ) );
+        // Keeps all encoders busy while the writer works through the batches ahead of them
+        BlockingQueue<Future<EncodedBatch<T>>> encoded = new ArrayBlockingQueue<>( threads * 2 );
+        Writer<T> writer = new Writer<>( encoded, entityWriter );
+        writer.start();
+        try
+        {
+            while ( input.hasNext() )
+            {
+                List<T> batch = new ArrayList<>( batchSize );
+                while ( batch.size() < batchSize && input.hasNext() )
+                {
+                    batch.add( input.next() );
+                }
+                Future<EncodedBatch<T>> future = encoders.submit( new Encoder<>( batch, entityWriter ) );
+                while ( !encoded.offer( future, 100, TimeUnit.MILLISECONDS ) )
+                {
+                    writer.assertHealthy();
+                }
+            }
+            while ( !encoded.offer( Writer.<T>endOfInput(), 100, TimeUnit.MILLISECONDS ) )
+            {
+                writer.assertHealthy();
+            }
+            writer.join();
+            writer.assertNoFailure();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while importing", e );
+        }
+        finally
+        {
+            writer.halt();
+            encoders.shutdownNow();
+        }
+    }
+
+    private interface EntityWriter<T>
+    {
+        Map<String, Object> propertiesOf( T entity );
+
+        void write( T entity, List<PropertyRecord> properties );
+    }
+
+    private static class EncodedBatch<T>
+    {
+        private final List<T> entities;
+        private final List<List<PropertyRecord>> properties;
+
+        EncodedBatch( List<T> entities, List<List<PropertyRecord>> properties )
+        {
+            this.entities = entities;
+            this.properties = properties;
+        }
+    }
+
+    private class Encoder<T> implements Callable<EncodedBatch<T>>
+    {
+        private final List<T> batch;
+        private final EntityWriter<T> entityWriter;
+
+        Encoder( List<T> batch, EntityWriter<T> entityWriter )
+        {
+            this.batch = batch;
+            this.entityWriter = entityWriter;
+        }
+
+        @Override
+        public EncodedBatch<T> call()
+        {
+            Map<String, Integer> keyIdCache = KEY_ID_CACHE.get();
+            List<List<PropertyRecord>> properties = new ArrayList<>( batch.size() );
+            for ( T entity : batch )
+            {
+                properties.add( inserter.encodePropertyChain( entityWriter.propertiesOf( entity ), keyIdCache ) );
+            }
+            return new EncodedBatch<>( batch, properties );
+        }
+    }
+
+    private static class Writer<T> extends Thread
+    {
+        private static final Future<?> END_OF_INPUT = new FutureTask<>( new Callable<Object>()
+        {
+            @Override
+            public Object call()
+            {
+                return null;
+            }
+        } );
+
+        private final BlockingQueue<Future<EncodedBatch<T>>> encoded;
+        private final EntityWriter<T> entityWriter;
+        private volatile boolean halted;
+        private volatile Throwable failure;
+
+        Writer( BlockingQueue<Future<EncodedBatch<T>>> encoded, EntityWriter<T> entityWriter )
+        {
+            super( ParallelBatchImporter.class.getSimpleName() + "-writer" );
+            this.encoded = encoded;
+            this.entityWriter = entityWriter;
+        }
+
+        @SuppressWarnings( "unchecked" )
+        static <T> Future<EncodedBatch<T>> endOfInput()
+        {
+            return (Future<EncodedBatch<T>>) END_OF_INPUT;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while ( !halted )
+                {
+                    Future<EncodedBatch<T>> future = encoded.poll( 100, TimeUnit.MILLISECONDS );
+                    if ( future == END_OF_INPUT )
+                    {
+                        return;
+                    }
+                    if ( future != null )
+                    {
+                        write( future.get() );
+                    }
+                }
+            }
+            catch ( ExecutionException e )
+            {
+                failure = e.getCause();
+            }
+            catch ( Throwable e )
+            {
+                failure = e;
+            }
+        }
+
+        private void write( EncodedBatch<T> batch )
+        {
+            for ( int i = 0; i < batch.entities.size(); i++ )
+            {
+                entityWriter.write( batch.entities.get( i ), batch.properties.get( i ) );
+            }
+        }
+
+        void halt()
+        {
+            halted = true;
+        }
+
+        void assertHealthy()
+        {
+            assertNoFailure();
+            if ( !isAlive() )
+            {
+                throw new IllegalStateException( "Writer stopped before end of input" );
+            }
+        }
+
+        void assertNoFailure()
+        {
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            if ( failure != null )
+            {
+                throw new RuntimeException( "Import failed", failure );
+            }
+        }
+    }
+}
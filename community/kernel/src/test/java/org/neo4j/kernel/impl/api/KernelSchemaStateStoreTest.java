@@ -19,9 +19,13 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.api.LabelScopedSchemaState;
 
 import static org.junit.Assert.*;
 
@@ -57,6 +61,33 @@ public class KernelSchemaStateStoreTest
         assertEquals( null, result );
     }
 
+    @Test
+    public void should_let_label_scoped_state_invalidate_itself_when_flushing_a_single_label()
+    {
+        // GIVEN
+        InvalidationRecordingState scoped = new InvalidationRecordingState();
+        stateStore.apply( MapUtil.genericMap( "scoped", scoped, "key", "created_value" ) );
+
+        // WHEN
+        stateStore.clear( 42 );
+
+        // THEN
+        assertSame( scoped, stateStore.get( "scoped" ) );
+        assertEquals( null, stateStore.get( "key" ) );
+        assertTrue( scoped.invalidatedLabels.contains( 42l ) );
+    }
+
+    private static class InvalidationRecordingState implements LabelScopedSchemaState
+    {
+        private final Set<Long> invalidatedLabels = new HashSet<>();
+
+        @Override
+        public void invalidate( long labelId )
+        {
+            invalidatedLabels.add( labelId );
+        }
+    }
+
     @Before
     public void before()
     {
@@ -23,11 +23,17 @@ import java.util.Iterator;
 
 import org.junit.Test;
 
+import org.neo4j.helpers.Predicate;
+
 import static java.util.Arrays.asList;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import static org.neo4j.graphdb.Neo4jMatchers.hasSamePrimitiveItems;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 
 public class LongDiffSetsTest
 {
@@ -100,6 +106,69 @@ public class LongDiffSetsTest
         assertThat( expected, hasSamePrimitiveItems( actual ) );
     }
 
+    @Test
+    public void shouldApplyLongDiffSetsLikeDiffSets() throws Exception
+    {
+        // given
+        LongDiffSets diffSets = new LongDiffSets();
+        diffSets.add( 19l );
+        diffSets.add( 20l );
+        diffSets.remove( 2l );
+        Iterator<Long> expected = diffSets.apply( iteratorSource( 1l, 2l, 3l, 19l ) );
+
+        // when
+        PrimitiveLongIterator actual = diffSets.applyPrimitiveLongIterator( primitiveSource( 1l, 2l, 3l, 19l ) );
+
+        // then
+        assertThat( expected, hasSamePrimitiveItems( actual ) );
+    }
+
+    @Test
+    public void shouldTrackAddedAndRemovedIdsWithoutBoxing() throws Exception
+    {
+        // given
+        LongDiffSets diffSets = new LongDiffSets();
+
+        // when
+        diffSets.add( 1l );
+        diffSets.add( 2l );
+        diffSets.remove( 2l );
+        diffSets.remove( 3l );
+
+        // then
+        assertTrue( diffSets.isAdded( 1l ) );
+        assertFalse( diffSets.isAdded( 2l ) );
+        assertFalse( diffSets.isRemoved( 2l ) );
+        assertTrue( diffSets.isRemoved( 3l ) );
+        assertEquals( asSet( 1l ), diffSets.getAdded() );
+        assertEquals( asSet( 3l ), diffSets.getRemoved() );
+        assertEquals( 0, diffSets.delta() );
+    }
+
+    @Test
+    public void shouldFilterAddedIds() throws Exception
+    {
+        // given
+        LongDiffSets diffSets = new LongDiffSets();
+        diffSets.add( 1l );
+        diffSets.add( 2l );
+        diffSets.remove( 3l );
+
+        // when
+        LongDiffSets filtered = diffSets.filterAdded( new Predicate<Long>()
+        {
+            @Override
+            public boolean accept( Long item )
+            {
+                return item % 2 == 0;
+            }
+        } );
+
+        // then
+        assertEquals( asSet( 2l ), filtered.getAdded() );
+        assertEquals( asSet( 3l ), filtered.getRemoved() );
+    }
+
     private static PrimitiveLongIterator primitiveSource( long... values  )
     {
         return new PrimitiveLongIteratorForArray( values );
@@ -67,6 +67,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -220,7 +221,7 @@ public class IndexPopulationJobTest
         FlippableIndexProxy index = mock( FlippableIndexProxy.class );
         IndexStoreView storeView = mock( IndexStoreView.class );
         ControlledStoreScan storeScan = new ControlledStoreScan();
-        when( storeView.visitNodesWithPropertyAndLabel( any( IndexDescriptor.class ),
+        when( storeView.visitNodesWithPropertiesAndLabels( any( long[].class ), any( long[].class ),
                 Matchers.<Visitor<NodePropertyUpdate, RuntimeException>>any() ) ).thenReturn( storeScan );
 
 
@@ -341,6 +342,70 @@ public class IndexPopulationJobTest
         verify( populator ).markAsFailed( Matchers.contains( failureMessage ) );
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void shouldPopulateSeveralIndexesFromOneStoreScan() throws Exception
+    {
+        // GIVEN
+        long node1 = createNode( map( name, "Mattias", age, 31 ), FIRST );
+        long node2 = createNode( map( name, "Jacob" ), SECOND );
+        long node3 = createNode( map( age, 35 ), FIRST, SECOND );
+        IndexPopulator secondPopulator = mock( IndexPopulator.class );
+        IndexPopulator thirdPopulator = mock( IndexPopulator.class );
+        IndexStoreView storeView = spy( new NeoStoreIndexStoreView(
+                db.getXaDataSourceManager().getNeoStoreDataSource().getNeoStore() ) );
+        IndexPopulationJob job = new IndexPopulationJob( storeView, stateHolder,
+                new SingleLoggingService( StringLogger.DEV_NULL ) );
+        addPopulation( job, FIRST, age, populator, new FlippableIndexProxy() );
+        addPopulation( job, SECOND, name, secondPopulator, new FlippableIndexProxy() );
+        addPopulation( job, SECOND, age, thirdPopulator, new FlippableIndexProxy() );
+
+        // WHEN
+        job.run();
+
+        // THEN
+        verify( storeView, times( 1 ) ).visitNodesWithPropertiesAndLabels( any( long[].class ),
+                any( long[].class ), Matchers.<Visitor<NodePropertyUpdate, Exception>>any() );
+        verify( populator ).create();
+        verify( populator ).add( node1, 31 );
+        verify( populator ).add( node3, 35 );
+        verify( populator ).close( true );
+        verify( secondPopulator ).create();
+        verify( secondPopulator ).add( node2, "Jacob" );
+        verify( secondPopulator ).close( true );
+        verify( thirdPopulator ).create();
+        verify( thirdPopulator ).add( node3, 35 );
+        verify( thirdPopulator ).close( true );
+        verifyNoMoreInteractions( populator, secondPopulator, thirdPopulator );
+    }
+
+    @Test
+    public void shouldKeepPopulatingOtherIndexesWhenOneOfThemFails() throws Exception
+    {
+        // GIVEN
+        long node1 = createNode( map( name, "Taylor" ), FIRST );
+        long node2 = createNode( map( name, "Mattias" ), FIRST );
+        IndexPopulator failingPopulator = mock( IndexPopulator.class );
+        doThrow( new RuntimeException( "BORK BORK" ) ).when( failingPopulator ).add( anyLong(), any() );
+        FlippableIndexProxy failingIndex = new FlippableIndexProxy();
+        IndexPopulationJob job = new IndexPopulationJob( new NeoStoreIndexStoreView(
+                db.getXaDataSourceManager().getNeoStoreDataSource().getNeoStore() ), stateHolder,
+                new SingleLoggingService( StringLogger.DEV_NULL ) );
+        addPopulation( job, FIRST, name, failingPopulator, failingIndex );
+        addPopulation( job, FIRST, name, populator, new FlippableIndexProxy() );
+
+        // WHEN
+        job.run();
+
+        // THEN
+        assertThat( failingIndex.getState(), equalTo( InternalIndexState.FAILED ) );
+        verify( failingPopulator, times( 1 ) ).add( anyLong(), any() );
+        verify( failingPopulator ).close( false );
+        verify( populator ).add( node1, "Taylor" );
+        verify( populator ).add( node2, "Mattias" );
+        verify( populator ).close( true );
+    }
+
     private static class ControlledStoreScan implements StoreScan<RuntimeException>
     {
         private final DoubleLatch latch = new DoubleLatch();
@@ -534,27 +599,41 @@ public class IndexPopulationJobTest
                                                       StringLogger logger )
             throws LabelNotFoundKernelException, PropertyKeyNotFoundException
     {
-        IndexDescriptor descriptor;
+        flipper.setFlipTarget( mock( IndexProxyFactory.class ) );
+        return new IndexPopulationJob(
+                indexDescriptor( label, propertyKey ), PROVIDER_DESCRIPTOR,
+                format( ":%s(%s)", label.name(), propertyKey ),
+                failureDelegateFactory,
+                populator, flipper, storeView,
+                stateHolder, new SingleLoggingService( logger ) );
+    }
+
+    private void addPopulation( IndexPopulationJob job, Label label, String propertyKey, IndexPopulator populator,
+                                FlippableIndexProxy flipper )
+            throws LabelNotFoundKernelException, PropertyKeyNotFoundException
+    {
+        flipper.setFlipTarget( mock( IndexProxyFactory.class ) );
+        job.addPopulation( indexDescriptor( label, propertyKey ), PROVIDER_DESCRIPTOR,
+                format( ":%s(%s)", label.name(), propertyKey ), mock( FailedIndexProxyFactory.class ),
+                populator, flipper );
+    }
+
+    private IndexDescriptor indexDescriptor( Label label, String propertyKey )
+            throws LabelNotFoundKernelException, PropertyKeyNotFoundException
+    {
         Transaction tx = db.beginTx();
         try
         {
             ReadStatement statement = ctxProvider.readStatement();
-            descriptor = new IndexDescriptor( statement.labelGetForName( label.name() ),
+            IndexDescriptor descriptor = new IndexDescriptor( statement.labelGetForName( label.name() ),
                     statement.propertyKeyGetForName( propertyKey ) );
             tx.success();
+            return descriptor;
         }
         finally
         {
             tx.finish();
         }
-
-        flipper.setFlipTarget( mock( IndexProxyFactory.class ) );
-        return new IndexPopulationJob(
-                descriptor, PROVIDER_DESCRIPTOR,
-                format( ":%s(%s)", label.name(), propertyKey ),
-                failureDelegateFactory,
-                populator, flipper, storeView,
-                stateHolder, new SingleLoggingService( logger ) );
     }
 
     private long createNode( Map<String, Object> properties, Label... labels )
@@ -382,14 +382,14 @@ public class IndexingServiceTest
 
         void getsProcessedByStoreScanFrom( IndexStoreView mock )
         {
-            when( mock.visitNodesWithPropertyAndLabel( any( IndexDescriptor.class ), visitor( any( Visitor.class ) ) ) )
-                    .thenAnswer( this );
+            when( mock.visitNodesWithPropertiesAndLabels( any( long[].class ), any( long[].class ),
+                    visitor( any( Visitor.class ) ) ) ).thenAnswer( this );
         }
 
         @Override
         public StoreScan<RuntimeException> answer( InvocationOnMock invocation ) throws Throwable
         {
-            final Visitor<NodePropertyUpdate, RuntimeException> visitor = visitor( invocation.getArguments()[1] );
+            final Visitor<NodePropertyUpdate, RuntimeException> visitor = visitor( invocation.getArguments()[2] );
             return new StoreScan<RuntimeException>()
             {
                 @Override
@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.kernel.api.scan.LabelScanReader;
+import org.neo4j.kernel.api.scan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.FullStoreChangeStream;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.helpers.collection.IteratorUtil.emptyPrimitiveLongIterator;
+import static org.neo4j.helpers.collection.IteratorUtil.iterator;
+import static org.neo4j.kernel.api.scan.NodeLabelUpdate.labelChanges;
+
+public class NativeLabelScanStoreTest
+{
+    private static final long[] NO_LABELS = new long[0];
+
+    @Test
+    public void shouldUpdateStoreOnLabelChange() throws Exception
+    {
+        // GIVEN
+        long labelId = 1, nodeId = 10;
+        start();
+
+        // WHEN
+        store.updateAndCommit( iterator( labelChanges( nodeId, NO_LABELS, new long[] {labelId} ) ) );
+
+        // THEN
+        assertNodesForLabel( labelId, nodeId );
+    }
+
+    @Test
+    public void shouldUpdateStoreOnAddedAndRemovedLabels() throws Exception
+    {
+        // GIVEN
+        long labelId1 = 1, labelId2 = 2, nodeId = 10;
+        start();
+        store.updateAndCommit( iterator( labelChanges( nodeId, NO_LABELS, new long[] {labelId1} ) ) );
+
+        // WHEN
+        store.updateAndCommit( iterator( labelChanges( nodeId, new long[] {labelId1},
+                new long[] {labelId1, labelId2} ) ) );
+        store.updateAndCommit( iterator( labelChanges( nodeId, new long[] {labelId1, labelId2},
+                new long[] {labelId2} ) ) );
+
+        // THEN
+        assertNodesForLabel( labelId1 );
+        assertNodesForLabel( labelId2, nodeId );
+    }
+
+    @Test
+    public void shouldDeleteFromStoreWhenDeletedNode() throws Exception
+    {
+        // GIVEN
+        long labelId = 1, nodeId = 10;
+        start();
+        store.updateAndCommit( iterator( labelChanges( nodeId, NO_LABELS, new long[] {labelId} ) ) );
+
+        // WHEN
+        store.updateAndCommit( iterator( labelChanges( nodeId, new long[] {labelId}, NO_LABELS ) ) );
+
+        // THEN
+        assertNodesForLabel( labelId );
+    }
+
+    @Test
+    public void shouldClearLabelsNotInUpdateWhenPreviousLabelsAreUnknown() throws Exception
+    {
+        // GIVEN
+        long labelId1 = 1, labelId2 = 2, nodeId = 10;
+        start();
+        store.updateAndCommit( iterator( labelChanges( nodeId, NO_LABELS, new long[] {labelId1} ) ) );
+
+        // WHEN an update like the ones made from scanning the node store
+        store.recover( iterator( labelChanges( nodeId, NO_LABELS, new long[] {labelId2} ) ) );
+
+        // THEN
+        assertNodesForLabel( labelId1 );
+        assertNodesForLabel( labelId2, nodeId );
+    }
+
+    @Test
+    public void shouldReturnNodesInOrderAcrossRanges() throws Exception
+    {
+        // GIVEN
+        long labelId = 3;
+        long[] nodeIds = {0, 63, 64, NativeLabelScanStore.RANGE_SIZE - 1, NativeLabelScanStore.RANGE_SIZE,
+                NativeLabelScanStore.RANGE_SIZE * 1000L + 17, Integer.MAX_VALUE * 3L};
+        start();
+
+        // WHEN updating in reverse order, so that ranges get inserted in front of others
+        for ( int i = nodeIds.length - 1; i >= 0; i-- )
+        {
+            store.updateAndCommit( iterator( labelChanges( nodeIds[i], NO_LABELS, new long[] {labelId} ) ) );
+        }
+
+        // THEN
+        PrimitiveLongIterator nodes = store.newReader().nodesWithLabel( labelId );
+        for ( long nodeId : nodeIds )
+        {
+            assertTrue( nodes.hasNext() );
+            assertTrue( "Expected node " + nodeId, nodes.next() == nodeId );
+        }
+        assertFalse( nodes.hasNext() );
+    }
+
+    @Test
+    public void shouldNotSeeUpdatesMadeAfterReaderWasCreated() throws Exception
+    {
+        // GIVEN
+        long labelId = 1;
+        start();
+        store.updateAndCommit( iterator( labelChanges( 1, NO_LABELS, new long[] {labelId} ) ) );
+        LabelScanReader reader = store.newReader();
+
+        // WHEN
+        store.updateAndCommit( iterator(
+                labelChanges( 1, new long[] {labelId}, NO_LABELS ),
+                labelChanges( 2, NO_LABELS, new long[] {labelId} ) ) );
+
+        // THEN
+        assertNodes( reader.nodesWithLabel( labelId ), 1 );
+        reader.close();
+        assertNodesForLabel( labelId, 2 );
+    }
+
+    @Test
+    public void shouldKeepLabelsAfterRestart() throws Exception
+    {
+        // GIVEN
+        start();
+        store.updateAndCommit( iterator(
+                labelChanges( 1, NO_LABELS, new long[] {1} ),
+                labelChanges( 2, NO_LABELS, new long[] {1, 2} ),
+                labelChanges( 100000, NO_LABELS, new long[] {2} ) ) );
+        store.force();
+        store.updateAndCommit( iterator( labelChanges( 1, new long[] {1}, new long[] {2} ) ) );
+
+        // WHEN
+        life.shutdown();
+        start();
+
+        // THEN
+        assertFalse( "Shouldn't have rebuilt the store", monitor.rebuildingCalled );
+        assertNodesForLabel( 1, 2 );
+        assertNodesForLabel( 2, 1, 2, 100000 );
+    }
+
+    @Test
+    public void shouldRecoverUpdatesAlreadyInStore() throws Exception
+    {
+        // GIVEN
+        start();
+        List<NodeLabelUpdate> updates = asList(
+                labelChanges( 1, NO_LABELS, new long[] {1} ),
+                labelChanges( 2, NO_LABELS, new long[] {1} ),
+                labelChanges( 1, new long[] {1}, NO_LABELS ) );
+        store.updateAndCommit( updates.iterator() );
+
+        // WHEN
+        store.recover( updates.iterator() );
+
+        // THEN
+        assertNodesForLabel( 1, 2 );
+    }
+
+    @Test
+    public void shouldRebuildFromScratchIfStoreMissing() throws Exception
+    {
+        // GIVEN a start of the store with existing data in it
+        start( asList(
+                labelChanges( 1, NO_LABELS, new long[] {1} ),
+                labelChanges( 2, NO_LABELS, new long[] {1, 2} )
+                ) );
+
+        // THEN
+        assertTrue( "Didn't rebuild the store on startup",
+                monitor.noStoreCalled&monitor.rebuildingCalled&monitor.rebuiltCalled );
+        assertNodesForLabel( 1,
+                1, 2 );
+        assertNodesForLabel( 2,
+                2 );
+    }
+
+    @Test
+    public void shouldRebuildFromScratchIfStoreCorrupted() throws Exception
+    {
+        // GIVEN a start of the store with existing data in it
+        List<NodeLabelUpdate> data = asList(
+                labelChanges( 1, NO_LABELS, new long[] {1} ),
+                labelChanges( 2, NO_LABELS, new long[] {1, 2} ) );
+        start( data );
+
+        // WHEN the store is corrupted and then started again
+        life.shutdown();
+        scrambleHeader();
+        start( data );
+
+        // THEN
+        assertTrue( "Didn't rebuild the store on startup",
+                monitor.corruptStoreCalled&monitor.rebuildingCalled&monitor.rebuiltCalled );
+        assertNodesForLabel( 1,
+                1, 2 );
+        assertNodesForLabel( 2,
+                2 );
+    }
+
+    private void assertNodesForLabel( long labelId, long... expectedNodeIds )
+    {
+        LabelScanReader reader = store.newReader();
+        assertNodes( reader.nodesWithLabel( labelId ), expectedNodeIds );
+        reader.close();
+    }
+
+    private void assertNodes( PrimitiveLongIterator nodes, long... expectedNodeIds )
+    {
+        Set<Long> nodeSet = new HashSet<>();
+        while ( nodes.hasNext() )
+        {
+            nodeSet.add( nodes.next() );
+        }
+
+        for ( long expectedNodeId : expectedNodeIds )
+        {
+            assertTrue( "Expected node " + expectedNodeId + " not found in scan store",
+                    nodeSet.remove( expectedNodeId ) );
+        }
+        assertTrue( "Unexpected nodes in scan store " + nodeSet, nodeSet.isEmpty() );
+    }
+
+    private final EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+    private final File file = new File( new File( "store" ), NativeLabelScanStore.FILE_NAME );
+    private LifeSupport life;
+    private TrackingMonitor monitor;
+    private NativeLabelScanStore store;
+
+    private List<NodeLabelUpdate> noData()
+    {
+        return emptyList();
+    }
+
+    private void start()
+    {
+        start( noData() );
+    }
+
+    private void start( List<NodeLabelUpdate> existingData )
+    {
+        life = new LifeSupport();
+        monitor = new TrackingMonitor();
+        store = life.add( new NativeLabelScanStore( fs, file, asStream( existingData ), monitor ) );
+        life.start();
+        assertTrue( monitor.initCalled );
+    }
+
+    private FullStoreChangeStream asStream( final List<NodeLabelUpdate> existingData )
+    {
+        return new FullStoreChangeStream()
+        {
+            @Override
+            public Iterator<NodeLabelUpdate> iterator()
+            {
+                return existingData.iterator();
+            }
+
+            @Override
+            public long highestNodeId()
+            {
+                return existingData.size(); // Well... not really
+            }
+
+            @Override
+            public PrimitiveLongIterator labelIds()
+            {
+                return emptyPrimitiveLongIterator();
+            }
+        };
+    }
+
+    private void scrambleHeader() throws IOException
+    {
+        FileChannel channel = fs.open( file, "rw" );
+        try
+        {
+            channel.position( 0 );
+            channel.write( ByteBuffer.wrap( new byte[] {1, 2, 3, 4, 5, 6, 7, 8} ) );
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    @After
+    public void shutdown()
+    {
+        life.shutdown();
+        fs.shutdown();
+    }
+
+    private static class TrackingMonitor implements NativeLabelScanStore.Monitor
+    {
+        boolean initCalled, rebuildingCalled, rebuiltCalled, noStoreCalled, corruptStoreCalled;
+
+        @Override
+        public void noStore()
+        {
+            noStoreCalled = true;
+        }
+
+        @Override
+        public void corruptStore( IOException corruptionException )
+        {
+            corruptStoreCalled = true;
+        }
+
+        @Override
+        public void rebuilding()
+        {
+            rebuildingCalled = true;
+        }
+
+        @Override
+        public void rebuilt( long roughNodeCount )
+        {
+            rebuiltCalled = true;
+        }
+
+        @Override
+        public void init()
+        {
+            initCalled = true;
+        }
+    }
+}
@@ -58,12 +58,13 @@ public class RelationshipIteratorIssuesTest
         
         // -- a node that says it cannot load any more relationships
         NodeImpl node = mock( NodeImpl.class );
-        when( node.getMoreRelationships( nodeManager ) ).thenReturn( LoadStatus.NOTHING );
+        int[] types = new int[] { 0 };
+        when( node.getMoreRelationships( nodeManager, OUTGOING, types ) ).thenReturn( LoadStatus.NOTHING );
         
         // -- a type iterator that at this point contains one relationship (0)
         ControlledRelIdIterator typeIterator = new ControlledRelIdIterator( 0L );
         RelationshipIterator iterator = new RelationshipIterator( new RelIdIterator[] { typeIterator },
-                node, OUTGOING, nodeManager, false, false );
+                node, OUTGOING, types, nodeManager, false );
         // -- go forth one step in the iterator
         iterator.next();
         
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.test.TargetDirectory;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+
+public class TestDenseNodes
+{
+    private static final int THRESHOLD = 5;
+    private static final RelationshipType LIKES = DynamicRelationshipType.withName( "LIKES" );
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+
+    private File storeDir;
+    private GraphDatabaseAPI db;
+
+    @Before
+    public void startDb()
+    {
+        storeDir = TargetDirectory.forTest( getClass() ).directory( "dense", true );
+        db = newDb();
+    }
+
+    @After
+    public void stopDb()
+    {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldConvertNodeToDenseWhenPassingThreshold() throws Exception
+    {
+        // GIVEN
+        long hub = createNode();
+        createRelationships( hub, LIKES, 2, 1, 1 );
+        assertFalse( isDense( hub ) );
+
+        // WHEN
+        createRelationships( hub, KNOWS, 3, 4, 0 );
+
+        // THEN
+        assertTrue( isDense( hub ) );
+        assertDegrees( hub, 2, 1, 3, 4, 1 );
+    }
+
+    @Test
+    public void shouldSeeAllRelationshipsOfDenseNodeAfterClearingCacheAndRestart() throws Exception
+    {
+        // GIVEN
+        long hub = createNode();
+        createRelationships( hub, LIKES, 10, 7, 2 );
+        createRelationships( hub, KNOWS, 4, 9, 0 );
+
+        // WHEN
+        db.getNodeManager().clearCache();
+
+        // THEN
+        assertDegrees( hub, 10, 7, 4, 9, 2 );
+
+        // AND WHEN
+        db.shutdown();
+        db = newDb();
+
+        // THEN
+        assertTrue( isDense( hub ) );
+        assertDegrees( hub, 10, 7, 4, 9, 2 );
+    }
+
+    @Test
+    public void shouldDeleteRelationshipsOfDenseNode() throws Exception
+    {
+        // GIVEN
+        long hub = createNode();
+        createRelationships( hub, LIKES, 8, 3, 1 );
+        createRelationships( hub, KNOWS, 5, 5, 0 );
+        db.getNodeManager().clearCache();
+
+        // WHEN
+        deleteRelationships( hub, LIKES );
+        db.getNodeManager().clearCache();
+
+        // THEN
+        assertDegrees( hub, 0, 0, 5, 5, 0 );
+
+        // AND WHEN
+        deleteRelationships( hub, KNOWS );
+        db.getNodeManager().clearCache();
+
+        // THEN
+        assertDegrees( hub, 0, 0, 0, 0, 0 );
+        Transaction tx = db.beginTx();
+        try
+        {
+            db.getNodeById( hub ).delete();
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    @Test
+    public void shouldLoadRelationshipsOfOneTypeWithoutSeeingOthers() throws Exception
+    {
+        // GIVEN
+        long hub = createNode();
+        createRelationships( hub, LIKES, 20, 0, 0 );
+        createRelationships( hub, KNOWS, 0, 3, 0 );
+        db.getNodeManager().clearCache();
+
+        // WHEN
+        Transaction tx = db.beginTx();
+        try
+        {
+            Node node = db.getNodeById( hub );
+            int incomingKnows = count( node.getRelationships( Direction.INCOMING, KNOWS ) );
+            int outgoingKnows = count( node.getRelationships( Direction.OUTGOING, KNOWS ) );
+
+            // THEN
+            assertEquals( 3, incomingKnows );
+            assertEquals( 0, outgoingKnows );
+            assertEquals( 20, count( node.getRelationships( Direction.OUTGOING, LIKES ) ) );
+            assertEquals( 23, count( node.getRelationships() ) );
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private GraphDatabaseAPI newDb()
+    {
+        return (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder( storeDir.getAbsolutePath() )
+                .setConfig( GraphDatabaseSettings.dense_node_threshold, String.valueOf( THRESHOLD ) )
+                .setConfig( GraphDatabaseSettings.relationship_grab_size, "2" )
+                .newGraphDatabase();
+    }
+
+    private long createNode()
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            long id = db.createNode().getId();
+            tx.success();
+            return id;
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private void createRelationships( long nodeId, RelationshipType type, int outgoing, int incoming, int loops )
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            Node node = db.getNodeById( nodeId );
+            for ( int i = 0; i < outgoing; i++ )
+            {
+                node.createRelationshipTo( db.createNode(), type );
+            }
+            for ( int i = 0; i < incoming; i++ )
+            {
+                db.createNode().createRelationshipTo( node, type );
+            }
+            for ( int i = 0; i < loops; i++ )
+            {
+                node.createRelationshipTo( node, type );
+            }
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private void deleteRelationships( long nodeId, RelationshipType type )
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            for ( Relationship relationship : db.getNodeById( nodeId ).getRelationships( type ) )
+            {
+                relationship.delete();
+            }
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private void assertDegrees( long nodeId, int outgoingLikes, int incomingLikes,
+            int outgoingKnows, int incomingKnows, int likesLoops )
+    {
+        Transaction tx = db.beginTx();
+        try
+        {
+            Node node = db.getNodeById( nodeId );
+            assertEquals( outgoingLikes + likesLoops, count( node.getRelationships( Direction.OUTGOING, LIKES ) ) );
+            assertEquals( incomingLikes + likesLoops, count( node.getRelationships( Direction.INCOMING, LIKES ) ) );
+            assertEquals( outgoingKnows, count( node.getRelationships( Direction.OUTGOING, KNOWS ) ) );
+            assertEquals( incomingKnows, count( node.getRelationships( Direction.INCOMING, KNOWS ) ) );
+            assertEquals( outgoingLikes + incomingLikes + likesLoops, count( node.getRelationships( LIKES ) ) );
+            assertEquals( outgoingLikes + incomingLikes + outgoingKnows + incomingKnows + likesLoops,
+                    count( node.getRelationships() ) );
+        }
+        finally
+        {
+            tx.finish();
+        }
+    }
+
+    private boolean isDense( long nodeId )
+    {
+        NodeRecord record = db.getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                .getNeoStoreDataSource().getNeoStore().getNodeStore().getRecord( nodeId );
+        return record.isDense();
+    }
+}
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.neo4j.kernel.impl.util.RelIdArray;
 import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 import org.neo4j.kernel.impl.util.RelIdIterator;
+import org.neo4j.kernel.impl.util.primitive.PrimitiveLongSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -94,7 +95,7 @@ public class TestRelIdArray
         add.add( 5, OUTGOING );
         add.add( 6, OUTGOING );
         add.add( 7, OUTGOING );
-        Collection<Long> remove = new HashSet<>();
+        PrimitiveLongSet remove = new PrimitiveLongSet();
         remove.add( 2L );
         remove.add( 6L );
         List<Long> allIds = asList( RelIdArray.from( source, add, remove ) );
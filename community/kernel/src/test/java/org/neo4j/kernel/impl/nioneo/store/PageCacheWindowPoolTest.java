@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.ResourceCollection;
+import org.neo4j.test.TargetDirectory;
+
+public class PageCacheWindowPoolTest
+{
+    private static final int RECORD_SIZE = 8;
+    private static final int RECORDS_PER_PAGE = 4;
+    private static final int PAGE_SIZE = RECORD_SIZE * RECORDS_PER_PAGE;
+
+    private static final TargetDirectory target = TargetDirectory.forTest( PageCacheWindowPoolTest.class );
+    @Rule
+    public final TargetDirectory.TestDirectory directory = target.testDirectory();
+    @Rule
+    public final ResourceCollection resources = new ResourceCollection();
+
+    @Test
+    public void shouldReadBackWhatWasWrittenAfterPagesHaveBeenEvicted() throws Exception
+    {
+        // given
+        PageCache pageCache = new PageCache( 2 * PAGE_SIZE, PAGE_SIZE );
+        PageCacheWindowPool pool = newPool( "store", pageCache );
+
+        // when
+        for ( long id = 0; id < RECORDS_PER_PAGE * 10; id++ )
+        {
+            write( pool, id, id * 3 );
+        }
+
+        // then
+        for ( long id = 0; id < RECORDS_PER_PAGE * 10; id++ )
+        {
+            assertEquals( id * 3, read( pool, id ) );
+        }
+        assertTrue( pageCache.getEvictions() > 0 );
+        pool.close();
+    }
+
+    @Test
+    public void shouldKeepWithinTheMemoryBudget() throws Exception
+    {
+        // given
+        PageCache pageCache = new PageCache( 3 * PAGE_SIZE, PAGE_SIZE );
+        PageCacheWindowPool pool = newPool( "store", pageCache );
+
+        // when
+        for ( long id = 0; id < RECORDS_PER_PAGE * 20; id++ )
+        {
+            read( pool, id );
+        }
+
+        // then
+        WindowPoolStats stats = pool.getStats();
+        assertEquals( 3, stats.getWindowCount() );
+        assertEquals( 3 * PAGE_SIZE, stats.getMemUsed() );
+        pool.close();
+    }
+
+    @Test
+    public void shouldShareTheMemoryBudgetBetweenStores() throws Exception
+    {
+        // given
+        PageCache pageCache = new PageCache( 4 * PAGE_SIZE, PAGE_SIZE );
+        PageCacheWindowPool first = newPool( "first", pageCache );
+        PageCacheWindowPool second = newPool( "second", pageCache );
+
+        // when
+        for ( long id = 0; id < RECORDS_PER_PAGE * 10; id++ )
+        {
+            write( first, id, id );
+            write( second, id, -id );
+        }
+
+        // then
+        assertEquals( 4, first.getStats().getWindowCount() + second.getStats().getWindowCount() );
+        for ( long id = 0; id < RECORDS_PER_PAGE * 10; id++ )
+        {
+            assertEquals( id, read( first, id ) );
+            assertEquals( -id, read( second, id ) );
+        }
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void shouldNotEvictPagesInUse() throws Exception
+    {
+        // given
+        PageCache pageCache = new PageCache( 2 * PAGE_SIZE, PAGE_SIZE );
+        PageCacheWindowPool pool = newPool( "store", pageCache );
+        PersistenceWindow window = pool.acquire( 0, OperationType.WRITE );
+        window.getOffsettedBuffer( 0 ).putLong( 42 );
+
+        // when
+        for ( long id = RECORDS_PER_PAGE; id < RECORDS_PER_PAGE * 10; id++ )
+        {
+            read( pool, id );
+        }
+
+        // then
+        assertEquals( 42, window.getOffsettedBuffer( 0 ).getLong() );
+        pool.release( window );
+        PersistenceWindow again = pool.acquire( 1, OperationType.READ );
+        try
+        {
+            assertSame( window, again );
+        }
+        finally
+        {
+            pool.release( again );
+        }
+        pool.close();
+    }
+
+    @Test
+    public void shouldWriteOutPagesWhichDidNotFitWhenReleased() throws Exception
+    {
+        // given a page cache with a single page, which is in use
+        PageCache pageCache = new PageCache( PAGE_SIZE, PAGE_SIZE );
+        PageCacheWindowPool pool = newPool( "store", pageCache );
+        PersistenceWindow pinned = pool.acquire( 0, OperationType.READ );
+
+        // when
+        write( pool, RECORDS_PER_PAGE, 1337 );
+        pool.release( pinned );
+
+        // then
+        assertEquals( 1, pageCache.getFailedAdmissions() );
+        assertEquals( 1, pool.getStats().getWindowCount() );
+        assertEquals( 1337, read( pool, RECORDS_PER_PAGE ) );
+        pool.close();
+    }
+
+    @Test
+    public void shouldNotLoseUpdatesWhenPagesAreEvictedAndLoadedConcurrently() throws Exception
+    {
+        // given
+        PageCache pageCache = new PageCache( 2 * PAGE_SIZE, PAGE_SIZE );
+        final PageCacheWindowPool pool = newPool( "store", pageCache );
+        final int records = RECORDS_PER_PAGE * 8, threads = 8, incrementsPerThread = 5000;
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for ( int t = 0; t < threads; t++ )
+        {
+            final long seed = t;
+            futures.add( executor.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    Random random = new Random( seed );
+                    for ( int i = 0; i < incrementsPerThread; i++ )
+                    {
+                        increment( pool, random.nextInt( records ) );
+                    }
+                    return null;
+                }
+            } ) );
+        }
+        for ( Future<?> future : futures )
+        {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        long sum = 0;
+        for ( long id = 0; id < records; id++ )
+        {
+            sum += read( pool, id );
+        }
+        assertEquals( (long) threads * incrementsPerThread, sum );
+        assertTrue( pageCache.getEvictions() > 0 );
+        pool.close();
+    }
+
+    private PageCacheWindowPool newPool( String name, PageCache pageCache ) throws Exception
+    {
+        File file = new File( directory.directory(), name );
+        RandomAccessFile raf = resources.add( new RandomAccessFile( file, "rw" ) );
+        return new PageCacheWindowPool( file, RECORD_SIZE, raf.getChannel(), pageCache, false,
+                StringLogger.DEV_NULL );
+    }
+
+    private void write( PageCacheWindowPool pool, long id, long value )
+    {
+        PersistenceWindow window = pool.acquire( id, OperationType.WRITE );
+        try
+        {
+            window.getOffsettedBuffer( id ).putLong( value );
+        }
+        finally
+        {
+            pool.release( window );
+        }
+    }
+
+    private void increment( PageCacheWindowPool pool, long id )
+    {
+        PersistenceWindow window = pool.acquire( id, OperationType.WRITE );
+        try
+        {
+            long value = window.getOffsettedBuffer( id ).getLong();
+            window.getOffsettedBuffer( id ).putLong( value + 1 );
+        }
+        finally
+        {
+            pool.release( window );
+        }
+    }
+
+    private long read( PageCacheWindowPool pool, long id )
+    {
+        PersistenceWindow window = pool.acquire( id, OperationType.READ );
+        try
+        {
+            return window.getOffsettedBuffer( id ).getLong();
+        }
+        finally
+        {
+            pool.release( window );
+        }
+    }
+}
@@ -32,11 +32,15 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -726,4 +730,82 @@ public class TestIdGenerator
                 assertTrue( file.delete() );
         }
     }
+
+    @Test
+    public void concurrentAllocationShouldHandOutEachIdOnce() throws Exception
+    {
+        // GIVEN
+        IdGeneratorImpl.createGenerator( fs, idGeneratorFile() );
+        final IdGenerator idGenerator = new IdGeneratorImpl( fs, idGeneratorFile(), 10, 100000, true, 0 );
+        final int threadCount = 8, idsPerThread = 2000;
+        final Set<Long> ids = Collections.newSetFromMap( new ConcurrentHashMap<Long, Boolean>() );
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final List<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
+        Thread[] threads = new Thread[threadCount];
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            final boolean useBatches = i % 2 == 0;
+            threads[i] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for ( int j = 0; j < idsPerThread; )
+                        {
+                            if ( useBatches )
+                            {
+                                IdRange range = idGenerator.nextIdBatch( 10 );
+                                for ( long id : range.getDefragIds() )
+                                {
+                                    assertTrue( "Duplicate id " + id, ids.add( id ) );
+                                }
+                                for ( long id = range.getRangeStart(); id < range.getRangeStart() + range
+                                        .getRangeLength(); id++ )
+                                {
+                                    assertTrue( "Duplicate id " + id, ids.add( id ) );
+                                }
+                                j += 10;
+                            }
+                            else
+                            {
+                                long id = idGenerator.nextId();
+                                assertTrue( "Duplicate id " + id, ids.add( id ) );
+                                if ( j % 3 == 0 )
+                                {
+                                    // hand some ids back so that both defragged and high ids are handed out
+                                    ids.remove( id );
+                                    idGenerator.freeId( id );
+                                }
+                                j++;
+                            }
+                        }
+                    }
+                    catch ( Throwable e )
+                    {
+                        failures.add( e );
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        // WHEN
+        start.countDown();
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        // THEN
+        assertEquals( new ArrayList<Throwable>(), failures );
+        for ( long id : ids )
+        {
+            assertTrue( id < idGenerator.getHighId() );
+        }
+        assertEquals( idGenerator.getHighId() - idGenerator.getDefragCount(), ids.size() );
+        closeIdGenerator( idGenerator );
+    }
 }
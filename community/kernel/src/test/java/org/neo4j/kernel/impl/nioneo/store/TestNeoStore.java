@@ -412,7 +412,8 @@ public class TestNeoStore
 
     private AtomicLong getPosition( NeoStoreXaConnection xaCon, long node )
     {
-        return new AtomicLong( xaCon.getWriteTransaction().getRelationshipChainPosition( node ) );
+        return new AtomicLong( xaCon.getWriteTransaction().getRelationshipChainPosition( node )
+                .position( DirectionWrapper.BOTH, new int[0] ) );
     }
 
     private Iterable<RelationshipRecord> getMore( NeoStoreXaConnection xaCon, long node, AtomicLong pos )
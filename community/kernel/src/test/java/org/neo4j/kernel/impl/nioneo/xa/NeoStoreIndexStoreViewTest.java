@@ -19,7 +19,9 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.After;
@@ -45,6 +47,7 @@ import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
 import org.neo4j.test.TargetDirectory;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
@@ -58,6 +61,7 @@ public class NeoStoreIndexStoreViewTest
     Label label = DynamicLabel.label( "Person" );
 
     GraphDatabaseAPI graphDb;
+    NeoStore neoStore;
     NeoStoreIndexStoreView storeView;
 
     long labelId;
@@ -106,6 +110,36 @@ public class NeoStoreIndexStoreViewTest
         assertEquals( emptySetOf( NodePropertyUpdate.class ), visitor.getUpdates() );
     }
 
+    @Test
+    public void shouldVisitUpdatesInNodeIdOrderWhenScanningWithSeveralThreads() throws Exception
+    {
+        // given
+        int nodeCount = NeoStoreIndexStoreView.NODES_PER_BATCH * 5 / 2;
+        createPersonNodes( nodeCount );
+        NeoStoreIndexStoreView parallelStoreView = new NeoStoreIndexStoreView( neoStore, 4 );
+        final List<Long> visitedNodeIds = new ArrayList<>();
+        StoreScan<Exception> storeScan = parallelStoreView.visitNodesWithPropertiesAndLabels(
+                new long[] { labelId }, new long[] { propertyKeyId }, new Visitor<NodePropertyUpdate, Exception>()
+        {
+            @Override
+            public boolean visit( NodePropertyUpdate update )
+            {
+                visitedNodeIds.add( update.getNodeId() );
+                return false;
+            }
+        } );
+
+        // when
+        storeScan.run();
+
+        // then
+        assertEquals( nodeCount + 2, visitedNodeIds.size() );
+        for ( int i = 1; i < visitedNodeIds.size(); i++ )
+        {
+            assertTrue( visitedNodeIds.get( i - 1 ) < visitedNodeIds.get( i ) );
+        }
+    }
+
     @Before
     public void before() throws SchemaKernelException
     {
@@ -115,7 +149,7 @@ public class NeoStoreIndexStoreViewTest
         createAlistairAndStefanNodes();
         getOrCreateIds();
 
-        NeoStore neoStore = new StoreAccess( graphDb ).getRawNeoStore();
+        neoStore = new StoreAccess( graphDb ).getRawNeoStore();
         storeView = new NeoStoreIndexStoreView( neoStore );
     }
 
@@ -138,6 +172,18 @@ public class NeoStoreIndexStoreViewTest
         }
     }
 
+    private void createPersonNodes( int count )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                graphDb.createNode( label ).setProperty( "name", "Person " + i );
+            }
+            tx.success();
+        }
+    }
+
     private void deleteAlistairAndStefanNodes()
     {
         try ( Transaction tx = graphDb.beginTx() )
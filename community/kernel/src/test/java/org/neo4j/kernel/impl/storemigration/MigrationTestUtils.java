@@ -123,6 +123,12 @@ public class MigrationTestUtils
         return new File( legacyStoreResource.getFile() ).getParentFile();
     }
 
+    public static File find20FormatStoreDirectory()
+    {
+        URL legacyStoreResource = LegacyStore.class.getResource( "exampledb20/neostore" );
+        return new File( legacyStoreResource.getFile() ).getParentFile();
+    }
+
     public static boolean allStoreFilesHaveVersion( FileSystemAbstraction fileSystem, File workingDirectory,
             String version ) throws IOException
     {
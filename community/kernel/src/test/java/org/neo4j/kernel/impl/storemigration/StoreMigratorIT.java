@@ -47,6 +47,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 import org.neo4j.kernel.impl.storemigration.monitoring.MigrationProgressMonitor;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -60,9 +61,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.neo4j.graphdb.DynamicLabel.label;
 import static org.neo4j.graphdb.DynamicRelationshipType.withName;
 import static org.neo4j.graphdb.Neo4jMatchers.hasProperty;
 import static org.neo4j.graphdb.Neo4jMatchers.inTx;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
 import static org.neo4j.kernel.impl.nioneo.store.StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME;
 
 public class StoreMigratorIT
@@ -100,6 +103,80 @@ public class StoreMigratorIT
         database.shutdown();
     }
     
+    @Test
+    public void shouldMigrate20StoreToDenseNodeFormat() throws IOException
+    {
+        // GIVEN
+        // a 2.0 store with a hub node of 60 relationships, a node with dynamic labels and a deleted node
+        Legacy20Store legacyStore = new Legacy20Store( fs,
+                new File( getClass().getResource( "legacystore/exampledb20/neostore" ).getFile() ) );
+        NeoStore neoStore = storeFactory.createNeoStore( storeFileName );
+
+        // WHEN
+        new StoreMigrator( monitor ).migrate( legacyStore, neoStore );
+        legacyStore.close();
+
+        // THEN
+        neoStore = storeFactory.newNeoStore( storeFileName );
+        assertEquals( NeoStore.ALL_STORES_VERSION, NeoStore.versionLongToString( neoStore.getStoreVersion() ) );
+        neoStore.close();
+        assertTrue( monitor.started );
+        assertTrue( monitor.finished );
+
+        GraphDatabaseService database = new GraphDatabaseFactory().newEmbeddedDatabase( storeDir );
+        Transaction tx = database.beginTx();
+        try
+        {
+            Node hub = getNodeWithName( database, "hub" );
+            assertTrue( hub.hasLabel( label( "Hub" ) ) );
+            assertEquals( 30, count( hub.getRelationships( withName( "EVEN" ) ) ) );
+            assertEquals( 30, count( hub.getRelationships( withName( "ODD" ) ) ) );
+            for ( Relationship relationship : hub.getRelationships( Direction.OUTGOING ) )
+            {
+                Node leaf = relationship.getEndNode();
+                int index = (Integer) relationship.getProperty( "index" );
+                assertEquals( index, leaf.getProperty( "number" ) );
+                assertEquals( "leaf" + index, leaf.getProperty( "name" ) );
+                assertTrue( leaf.hasLabel( label( "Leaf" ) ) );
+            }
+
+            Node manyLabels = getNodeWithName( database, "many labels" );
+            for ( int i = 0; i < 10; i++ )
+            {
+                assertTrue( manyLabels.hasLabel( label( "Label" + i ) ) );
+            }
+            assertEquals( "a long string that certainly does not fit in a property block of a property record",
+                    manyLabels.getProperty( "long string" ) );
+            assertArrayEquals( new long[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+                    (long[]) manyLabels.getProperty( "array" ) );
+
+            // the hub is past the dense node threshold, so the next relationship is added through groups
+            hub.createRelationshipTo( manyLabels, withName( "EVEN" ) );
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+
+        tx = database.beginTx();
+        try
+        {
+            Node hub = getNodeWithName( database, "hub" );
+            assertEquals( 61, count( hub.getRelationships() ) );
+            assertEquals( 31, count( hub.getRelationships( withName( "EVEN" ), Direction.OUTGOING ) ) );
+            assertEquals( 63, database.createNode().getId() );
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+
+        // CLEANUP
+        database.shutdown();
+    }
+
     @Test
     public void shouldDedupUniquePropertyIndexKeys() throws Exception
     {
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.storemigration;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -29,6 +30,7 @@ import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.changeVers
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.containsAnyLogicalLogs;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.containsAnyStoreFiles;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.defaultConfig;
+import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.find20FormatStoreDirectory;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.isolatedMigrationDirectoryOf;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.prepareSampleLegacyDatabase;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.truncateFile;
@@ -40,6 +42,7 @@ import java.io.IOException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
@@ -66,6 +69,35 @@ public class StoreUpgraderTestIT
         assertFalse( containsAnyStoreFiles( fileSystem, isolatedMigrationDirectoryOf( dbDirectory ) ) );
     }
 
+    @Test
+    public void shouldUpgradeA20FormatStoreToDenseNodeFormat() throws IOException
+    {
+        // given
+        File originalDirectory = new File( "dir20-original" );
+        fileSystem.copyRecursivelyFromOtherFs( find20FormatStoreDirectory(), new DefaultFileSystemAbstraction(),
+                originalDirectory );
+        File directory20 = new File( "dir20" );
+        fileSystem.copyRecursively( originalDirectory, directory20 );
+        File nodeStore = new File( directory20, StoreFile.NODE_STORE.storeFileName() );
+        long legacyNodeStoreSize = fileSystem.getFileSize( nodeStore );
+
+        // when
+        newUpgrader( alwaysAllowed(), new StoreMigrator( new SilentMigrationProgressMonitor() ),
+                new DatabaseFiles( fileSystem ) ).attemptUpgrade( new File( directory20, NeoStore.DEFAULT_NAME ) );
+
+        // then
+        assertEquals( NeoStore.ALL_STORES_VERSION, NeoStore.versionLongToString(
+                NeoStore.getStoreVersion( fileSystem, new File( directory20, NeoStore.DEFAULT_NAME ) ) ) );
+        assertTrue( fileSystem.fileExists(
+                new File( directory20, StoreFile.RELATIONSHIP_GROUP_STORE.storeFileName() ) ) );
+        assertTrue( fileSystem.getFileSize( nodeStore ) > legacyNodeStoreSize );
+        assertFalse( containsAnyLogicalLogs( fileSystem, directory20 ) );
+
+        File backupDirectory = new File( directory20, "upgrade_backup" );
+        verifyFilesHaveSameContent( fileSystem, originalDirectory, backupDirectory );
+        assertTrue( containsAnyLogicalLogs( fileSystem, backupDirectory ) );
+    }
+
     @Test
     public void shouldLeaveACopyOfOriginalStoreFilesInBackupDirectory() throws IOException
     {
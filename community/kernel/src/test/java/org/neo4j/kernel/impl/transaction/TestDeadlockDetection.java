@@ -129,6 +129,36 @@ public class TestDeadlockDetection
         }
     }
 
+    @Test
+    public void shouldDetectDeadlocksBetweenResourcesInDifferentStripes() throws Exception
+    {
+        ResourceObject r1 = newResourceObject( "R1" );
+        ResourceObject r2 = newResourceObject( "R2" );
+
+        LockManager lm = new LockManagerImpl( new RagManager(), 16 );
+
+        LockWorker t1 = new LockWorker( "T1", lm );
+        LockWorker t2 = new LockWorker( "T2", lm );
+
+        try
+        {
+            t1.getWriteLock( r1, true );
+            t2.getWriteLock( r2, true );
+            t1.getWriteLock( r2, false ); // t1-r2-t2
+            t2.getWriteLock( r1, true );
+            assertTrue( t2.isLastGetLockDeadLock() ); // t2-r1-t1-r2-t2
+            // resolve
+            t2.releaseWriteLock( r2 ); // will give r2 to t1
+            t1.releaseWriteLock( r2 );
+            t1.releaseWriteLock( r1 );
+        }
+        catch ( Exception e )
+        {
+            File file = new LockWorkFailureDump( getClass() ).dumpState( lm, new LockWorker[] { t1, t2 } );
+            throw new RuntimeException( "Failed, forensics information dumped to " + file.getAbsolutePath(), e );
+        }
+    }
+
     public static class StressThread extends Thread
     {
         private static final Object READ = new Object();
@@ -238,6 +268,17 @@ public class TestDeadlockDetection
 
     @Test
     public void testStressMultipleThreads() throws Exception
+    {
+        stressMultipleThreads( new LockManagerImpl( new RagManager() ) );
+    }
+
+    @Test
+    public void testStressMultipleThreadsWithStripedResourceTables() throws Exception
+    {
+        stressMultipleThreads( new LockManagerImpl( new RagManager(), 4 ) );
+    }
+
+    private void stressMultipleThreads( LockManager lm ) throws Exception
     {
         /*
         This test starts a bunch of threads, and randomly takes read or write locks on random resources.
@@ -251,7 +292,6 @@ public class TestDeadlockDetection
         }
         StressThread stressThreads[] = new StressThread[50];
         PlaceboTm tm = new PlaceboTm( null, null );
-        LockManager lm = new LockManagerImpl( new RagManager() );
         tm.setLockManager( lm );
         CountDownLatch startSignal = new CountDownLatch( 1 );
         for ( int i = 0; i < stressThreads.length; i++ )
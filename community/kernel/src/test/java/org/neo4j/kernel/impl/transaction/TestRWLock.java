@@ -49,6 +49,31 @@ public class TestRWLock
         lm = new LockManagerImpl( new RagManager() );
     }
 
+    @Test
+    public void shouldTellWhetherTransactionHoldsLock() throws Exception
+    {
+        Transaction tx = mock( Transaction.class );
+        Transaction otherTx = mock( Transaction.class );
+        ResourceObject read = newResourceObject( "read" );
+        ResourceObject write = newResourceObject( "write" );
+
+        lm.getReadLock( read, tx );
+        lm.getWriteLock( write, tx );
+
+        assertTrue( lm.isLockedBy( read, tx, LockType.READ ) );
+        assertFalse( lm.isLockedBy( read, tx, LockType.WRITE ) );
+        assertTrue( lm.isLockedBy( write, tx, LockType.READ ) );
+        assertTrue( lm.isLockedBy( write, tx, LockType.WRITE ) );
+        assertFalse( lm.isLockedBy( write, otherTx, LockType.READ ) );
+        assertFalse( lm.isLockedBy( newResourceObject( "other" ), tx, LockType.READ ) );
+
+        lm.releaseReadLock( read, tx );
+        lm.releaseWriteLock( write, tx );
+
+        assertFalse( lm.isLockedBy( read, tx, LockType.READ ) );
+        assertFalse( lm.isLockedBy( write, tx, LockType.WRITE ) );
+    }
+
     @Test
     public void testSingleThread() throws Exception
     {
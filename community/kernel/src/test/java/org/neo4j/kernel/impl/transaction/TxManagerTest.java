@@ -20,19 +20,33 @@
 package org.neo4j.kernel.impl.transaction;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.xa.Xid;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.neo4j.kernel.DefaultTxHook;
 import org.neo4j.kernel.KernelEventHandlers;
+import org.neo4j.kernel.api.KernelAPI;
 import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
+import org.neo4j.kernel.impl.core.NoTransactionState;
+import org.neo4j.kernel.impl.core.TransactionState;
+import org.neo4j.kernel.impl.transaction.xaframework.GroupCommit;
+import org.neo4j.kernel.impl.transaction.xaframework.XaResource;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.test.EphemeralFileSystemRule;
 import org.neo4j.test.TargetDirectory;
 
@@ -67,6 +81,118 @@ public class TxManagerTest
 
     }
 
+    @Test
+    public void commitShouldNotReturnBeforeDeferredForceHasCompleted() throws Throwable
+    {
+        // Given
+        File txLogDir = TargetDirectory.forTest( fs.get(), getClass() ).directory( "log", true );
+        TxManager txm = new TxManager( txLogDir, new XaDataSourceManager( StringLogger.DEV_NULL ),
+                new KernelPanicEventGenerator( new KernelEventHandlers() ), StringLogger.DEV_NULL, fs.get(),
+                new TransactionStateFactory( new DevNullLoggingService() )
+                {
+                    @Override
+                    public TransactionState create( Transaction tx )
+                    {
+                        return new NoTransactionState()
+                        {
+                            @Override
+                            public TxHook getTxHook()
+                            {
+                                return new DefaultTxHook();
+                            }
+                        };
+                    }
+                } );
+        txm.setKernel( mock( KernelAPI.class ) );
+        txm.start();
+        txm.doRecovery();
+        SlowForce force = new SlowForce();
+        GroupCommitResource resource = new GroupCommitResource( txm, new GroupCommit( force, 10, 0 ), force );
+        final AtomicBoolean forcedBeforeAfterCompletion = new AtomicBoolean();
+
+        // When
+        txm.begin();
+        txm.getTransaction().enlistResource( resource );
+        txm.getTransaction().registerSynchronization( new Synchronization()
+        {
+            @Override
+            public void beforeCompletion()
+            {
+            }
+
+            @Override
+            public void afterCompletion( int status )
+            {
+                forcedBeforeAfterCompletion.set( force.forced.get() );
+            }
+        } );
+        txm.commit();
+
+        // Then
+        assertFalse( "The force should have been deferred until the commit monitor was released",
+                resource.forcedWhenCommitted );
+        assertTrue( "Commit should have waited for the force", force.forced.get() );
+        assertTrue( "After completion hooks should run after the force", forcedBeforeAfterCompletion.get() );
+        txm.stop();
+    }
+
+    private static class SlowForce implements GroupCommit.Target
+    {
+        private final AtomicBoolean forced = new AtomicBoolean();
+
+        @Override
+        public void force() throws IOException
+        {
+            try
+            {
+                Thread.sleep( 100 );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new IOException( e );
+            }
+            forced.set( true );
+        }
+    }
+
+    private static class GroupCommitResource extends FakeXAResource implements XaResource
+    {
+        private final AbstractTransactionManager txm;
+        private final GroupCommit groupCommit;
+        private final SlowForce force;
+        private boolean forcedWhenCommitted;
+
+        GroupCommitResource( AbstractTransactionManager txm, GroupCommit groupCommit, SlowForce force )
+        {
+            super( "GroupCommitResource" );
+            this.txm = txm;
+            this.groupCommit = groupCommit;
+            this.force = force;
+        }
+
+        @Override
+        public void commit( Xid xid, boolean onePhase )
+        {
+            super.commit( xid, onePhase );
+            try
+            {
+                // Written out, but not forced, like XaResourceManager does with group commit enabled
+                txm.awaitForced( groupCommit, groupCommit.appended() );
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+            forcedWhenCommitted = force.forced.get();
+        }
+
+        @Override
+        public byte[] getBranchId()
+        {
+            return new byte[] {1, 2, 3};
+        }
+    }
+
     @Rule
     public EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GroupCommitTest
+{
+    @Test
+    public void shouldForceOnceForEachCommitWhenAlone() throws Exception
+    {
+        // GIVEN
+        CountingTarget target = new CountingTarget( 0 );
+        GroupCommit groupCommit = new GroupCommit( target, 10, 0 );
+
+        // WHEN
+        for ( int i = 0; i < 5; i++ )
+        {
+            groupCommit.awaitForced( groupCommit.appended() );
+        }
+
+        // THEN
+        assertEquals( 5, target.forces.get() );
+        assertEquals( 5, groupCommit.getForcedCommitCount() );
+        assertEquals( 1, groupCommit.getLargestBatch() );
+    }
+
+    @Test
+    public void shouldNotForceTicketsAlreadyCovered() throws Exception
+    {
+        // GIVEN
+        CountingTarget target = new CountingTarget( 0 );
+        GroupCommit groupCommit = new GroupCommit( target, 10, 0 );
+        long first = groupCommit.appended();
+        long second = groupCommit.appended();
+
+        // WHEN
+        groupCommit.awaitForced( second );
+        groupCommit.awaitForced( first );
+
+        // THEN
+        assertEquals( 1, target.forces.get() );
+        assertEquals( 2, groupCommit.getLargestBatch() );
+    }
+
+    @Test
+    public void shouldShareForcesBetweenConcurrentCommitters() throws Exception
+    {
+        // GIVEN
+        final CountingTarget target = new CountingTarget( 5 );
+        final GroupCommit groupCommit = new GroupCommit( target, 100, 0 );
+        final int threads = 10, commitsPerThread = 20;
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final List<Throwable> failures = new ArrayList<>();
+
+        // WHEN
+        List<Thread> committers = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            Thread committer = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for ( int j = 0; j < commitsPerThread; j++ )
+                        {
+                            groupCommit.awaitForced( groupCommit.appended() );
+                        }
+                    }
+                    catch ( Throwable e )
+                    {
+                        synchronized ( failures )
+                        {
+                            failures.add( e );
+                        }
+                    }
+                }
+            };
+            committer.start();
+            committers.add( committer );
+        }
+        start.countDown();
+        for ( Thread committer : committers )
+        {
+            committer.join();
+        }
+
+        // THEN
+        assertTrue( failures.toString(), failures.isEmpty() );
+        assertEquals( threads * commitsPerThread, groupCommit.getForcedCommitCount() );
+        assertTrue( "Expected fewer forces than commits, but got " + groupCommit,
+                target.forces.get() < threads * commitsPerThread );
+    }
+
+    @Test
+    public void shouldLetAnotherCommitterRetryAFailedForce() throws Exception
+    {
+        // GIVEN
+        final AtomicInteger attempts = new AtomicInteger();
+        GroupCommit groupCommit = new GroupCommit( new GroupCommit.Target()
+        {
+            @Override
+            public void force() throws IOException
+            {
+                if ( attempts.incrementAndGet() == 1 )
+                {
+                    throw new IOException( "Simulated failure" );
+                }
+            }
+        }, 10, 0 );
+        long ticket = groupCommit.appended();
+
+        // WHEN
+        try
+        {
+            groupCommit.awaitForced( ticket );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {   // Good
+        }
+        groupCommit.awaitForced( ticket );
+
+        // THEN
+        assertEquals( 2, attempts.get() );
+        assertEquals( 1, groupCommit.getForceCount() );
+    }
+
+    private static class CountingTarget implements GroupCommit.Target
+    {
+        private final AtomicInteger forces = new AtomicInteger();
+        private final long forceMillis;
+
+        CountingTarget( long forceMillis )
+        {
+            this.forceMillis = forceMillis;
+        }
+
+        @Override
+        public void force() throws IOException
+        {
+            forces.incrementAndGet();
+            try
+            {
+                Thread.sleep( forceMillis );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new IOException( e );
+            }
+        }
+    }
+}
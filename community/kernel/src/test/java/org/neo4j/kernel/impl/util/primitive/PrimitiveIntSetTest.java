@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveIntSetTest
+{
+    @Test
+    public void shouldAddAndRemoveValues() throws Exception
+    {
+        // GIVEN
+        PrimitiveIntSet set = new PrimitiveIntSet();
+
+        // WHEN
+        assertTrue( set.add( 3 ) );
+        assertTrue( set.add( -1 ) );
+        assertFalse( set.add( 3 ) );
+        assertTrue( set.remove( 3 ) );
+
+        // THEN
+        assertEquals( 1, set.size() );
+        assertFalse( set.contains( 3 ) );
+        assertTrue( set.contains( -1 ) );
+    }
+
+    @Test
+    public void shouldBehaveLikeHashSetForRandomOperations() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 4321 );
+        PrimitiveIntSet set = new PrimitiveIntSet();
+        Set<Integer> expected = new HashSet<>();
+
+        // WHEN/THEN
+        for ( int i = 0; i < 100000; i++ )
+        {
+            int value = random.nextInt( 500 ) - 2;
+            if ( random.nextBoolean() )
+            {
+                assertEquals( expected.add( value ), set.add( value ) );
+            }
+            else
+            {
+                assertEquals( expected.remove( value ), set.remove( value ) );
+            }
+            assertEquals( expected.size(), set.size() );
+        }
+        Set<Integer> actual = new HashSet<>();
+        for ( PrimitiveIntIterator iterator = set.iterator(); iterator.hasNext(); )
+        {
+            assertTrue( "Duplicate value", actual.add( iterator.next() ) );
+        }
+        assertEquals( expected, actual );
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveLongListTest
+{
+    @Test
+    public void shouldAddAndGetValuesInOrder() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongList list = new PrimitiveLongList();
+
+        // WHEN
+        for ( long i = 0; i < 100; i++ )
+        {
+            list.add( i * 2 );
+        }
+
+        // THEN
+        assertEquals( 100, list.size() );
+        assertEquals( 0, list.get( 0 ) );
+        assertEquals( 198, list.get( 99 ) );
+        PrimitiveLongIterator iterator = list.iterator();
+        for ( long i = 0; i < 100; i++ )
+        {
+            assertTrue( iterator.hasNext() );
+            assertEquals( i * 2, iterator.next() );
+        }
+        assertFalse( iterator.hasNext() );
+    }
+
+    @Test
+    public void shouldClear() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongList list = new PrimitiveLongList( 2 );
+        list.add( 5 );
+        list.add( 6 );
+        list.add( 7 );
+
+        // WHEN
+        list.clear();
+        list.add( 8 );
+
+        // THEN
+        assertArrayEquals( new long[] {8}, list.toArray() );
+    }
+
+    @Test( expected = IndexOutOfBoundsException.class )
+    public void shouldNotGetBeyondSize() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongList list = new PrimitiveLongList( 10 );
+        list.add( 1 );
+
+        // WHEN
+        list.get( 1 );
+    }
+}
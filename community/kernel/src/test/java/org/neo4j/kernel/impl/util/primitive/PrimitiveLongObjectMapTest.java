@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveLongObjectMapTest
+{
+    @Test
+    public void shouldPutGetAndRemove() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<String> map = new PrimitiveLongObjectMap<>();
+
+        // WHEN
+        assertNull( map.put( 1, "one" ) );
+        assertNull( map.put( -1, "minus one" ) );
+        assertEquals( "one", map.put( 1, "uno" ) );
+
+        // THEN
+        assertEquals( 2, map.size() );
+        assertEquals( "uno", map.get( 1 ) );
+        assertEquals( "minus one", map.get( -1 ) );
+        assertNull( map.get( 2 ) );
+        assertEquals( "minus one", map.remove( -1 ) );
+        assertFalse( map.containsKey( -1 ) );
+        assertEquals( 1, map.size() );
+    }
+
+    @Test
+    public void shouldBehaveLikeHashMapForRandomOperations() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 5678 );
+        PrimitiveLongObjectMap<Long> map = new PrimitiveLongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+
+        // WHEN/THEN
+        for ( int i = 0; i < 100000; i++ )
+        {
+            long key = random.nextInt( 500 ) - 2;
+            if ( random.nextBoolean() )
+            {
+                long value = random.nextLong();
+                assertEquals( expected.put( key, value ), map.put( key, value ) );
+            }
+            else
+            {
+                assertEquals( expected.remove( key ), map.remove( key ) );
+            }
+            assertEquals( expected.size(), map.size() );
+        }
+        for ( Map.Entry<Long, Long> entry : expected.entrySet() )
+        {
+            assertEquals( entry.getValue(), map.get( entry.getKey() ) );
+        }
+        Set<Long> keys = new HashSet<>();
+        for ( PrimitiveLongIterator iterator = map.keyIterator(); iterator.hasNext(); )
+        {
+            assertTrue( "Duplicate key", keys.add( iterator.next() ) );
+        }
+        assertEquals( expected.keySet(), keys );
+        Set<Long> values = new HashSet<>();
+        for ( Long value : map.values() )
+        {
+            values.add( value );
+        }
+        assertEquals( new HashSet<>( expected.values() ), values );
+    }
+
+    @Test
+    public void shouldClear() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongObjectMap<String> map = new PrimitiveLongObjectMap<>();
+        map.put( 10, "ten" );
+        map.put( -1, "minus one" );
+
+        // WHEN
+        map.clear();
+
+        // THEN
+        assertTrue( map.isEmpty() );
+        assertNull( map.get( 10 ) );
+        assertFalse( map.values().iterator().hasNext() );
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveLongQueueTest
+{
+    @Test
+    public void shouldRemoveValuesInInsertionOrder() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongQueue queue = new PrimitiveLongQueue( 2 );
+
+        // WHEN
+        for ( long i = 0; i < 100; i++ )
+        {
+            queue.add( i * 2 );
+        }
+
+        // THEN
+        assertEquals( 100, queue.size() );
+        for ( long i = 0; i < 100; i++ )
+        {
+            assertEquals( i * 2, queue.removeFirst() );
+        }
+        assertTrue( queue.isEmpty() );
+    }
+
+    @Test
+    public void shouldKeepOrderWhenGrowingAfterWrappingAround() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongQueue queue = new PrimitiveLongQueue( 4 );
+        queue.add( 1 );
+        queue.add( 2 );
+        queue.add( 3 );
+        queue.removeFirst();
+        queue.removeFirst();
+        queue.add( 4 );
+        queue.add( 5 );
+        queue.add( 6 );
+
+        // WHEN
+        queue.add( 7 );
+
+        // THEN
+        assertArrayEquals( new long[] {3, 4, 5, 6, 7}, queue.toArray() );
+        PrimitiveLongIterator iterator = queue.iterator();
+        for ( long expected = 3; expected <= 7; expected++ )
+        {
+            assertTrue( iterator.hasNext() );
+            assertEquals( expected, iterator.next() );
+        }
+        assertFalse( iterator.hasNext() );
+    }
+
+    @Test
+    public void shouldClear() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongQueue queue = new PrimitiveLongQueue();
+        queue.add( 5 );
+        queue.add( 6 );
+
+        // WHEN
+        queue.clear();
+        queue.add( 8 );
+
+        // THEN
+        assertArrayEquals( new long[] {8}, queue.toArray() );
+    }
+
+    @Test( expected = NoSuchElementException.class )
+    public void shouldNotRemoveFromEmptyQueue() throws Exception
+    {
+        new PrimitiveLongQueue().removeFirst();
+    }
+}
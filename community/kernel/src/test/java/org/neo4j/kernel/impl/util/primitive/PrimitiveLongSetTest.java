@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.primitive;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveLongSetTest
+{
+    @Test
+    public void shouldAddAndRemoveValues() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+
+        // WHEN
+        assertTrue( set.add( 10 ) );
+        assertTrue( set.add( 20 ) );
+        assertFalse( set.add( 10 ) );
+        assertTrue( set.remove( 20 ) );
+        assertFalse( set.remove( 30 ) );
+
+        // THEN
+        assertEquals( 1, set.size() );
+        assertTrue( set.contains( 10 ) );
+        assertFalse( set.contains( 20 ) );
+    }
+
+    @Test
+    public void shouldHandleTheValueUsedToMarkFreeSlots() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+        set.add( 5 );
+
+        // WHEN
+        assertTrue( set.add( -1 ) );
+
+        // THEN
+        assertTrue( set.contains( -1 ) );
+        assertEquals( 2, set.size() );
+        assertEquals( asSet( 5, -1 ), collect( set.longIterator() ) );
+        assertTrue( set.remove( -1 ) );
+        assertFalse( set.contains( -1 ) );
+        assertEquals( 1, set.size() );
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacity() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+
+        // WHEN
+        for ( long i = 0; i < 1000; i++ )
+        {
+            set.add( i * 31 );
+        }
+
+        // THEN
+        assertEquals( 1000, set.size() );
+        for ( long i = 0; i < 1000; i++ )
+        {
+            assertTrue( set.contains( i * 31 ) );
+            assertFalse( set.contains( i * 31 + 1 ) );
+        }
+    }
+
+    @Test
+    public void shouldBehaveLikeHashSetForRandomOperations() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 1234 );
+        PrimitiveLongSet set = new PrimitiveLongSet();
+        Set<Long> expected = new HashSet<>();
+
+        // WHEN/THEN
+        for ( int i = 0; i < 100000; i++ )
+        {
+            // small value range to get lots of collisions and removals of existing values
+            long value = random.nextInt( 500 ) - 2;
+            if ( random.nextBoolean() )
+            {
+                assertEquals( expected.add( value ), set.add( value ) );
+            }
+            else
+            {
+                assertEquals( expected.remove( value ), set.remove( value ) );
+            }
+            assertEquals( expected.size(), set.size() );
+        }
+        assertEquals( expected, collect( set.longIterator() ) );
+        assertEquals( expected, set );
+    }
+
+    @Test
+    public void shouldActAsSetOfLongs() throws Exception
+    {
+        // GIVEN
+        Set<Long> set = new PrimitiveLongSet();
+
+        // WHEN
+        set.add( 1L );
+        set.add( 2L );
+
+        // THEN
+        assertTrue( set.contains( 1L ) );
+        assertFalse( set.contains( "1" ) );
+        assertEquals( asSet( 1, 2 ), new HashSet<>( set ) );
+        assertTrue( set.remove( 1L ) );
+        assertEquals( asSet( 2 ), set );
+    }
+
+    @Test
+    public void shouldClear() throws Exception
+    {
+        // GIVEN
+        PrimitiveLongSet set = new PrimitiveLongSet();
+        set.add( 1 );
+        set.add( -1 );
+
+        // WHEN
+        set.clear();
+
+        // THEN
+        assertTrue( set.isEmpty() );
+        assertFalse( set.contains( 1 ) );
+        assertFalse( set.longIterator().hasNext() );
+    }
+
+    private static Set<Long> asSet( long... values )
+    {
+        Set<Long> set = new HashSet<>();
+        for ( long value : values )
+        {
+            set.add( value );
+        }
+        return set;
+    }
+
+    private static Set<Long> collect( PrimitiveLongIterator iterator )
+    {
+        Set<Long> set = new HashSet<>();
+        while ( iterator.hasNext() )
+        {
+            assertTrue( "Duplicate value", set.add( iterator.next() ) );
+        }
+        return set;
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.batchinsert;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.helpers.collection.MapUtil.map;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class ParallelBatchImporterTest
+{
+    private static final Label PERSON = DynamicLabel.label( "Person" );
+    private static final Label EMPLOYEE = DynamicLabel.label( "Employee" );
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+
+    @Rule public EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private BatchInserter inserter;
+
+    @Before
+    public void before()
+    {
+        inserter = BatchInserters.inserter( "neo-batch-db", fs.get(), stringMap() );
+    }
+
+    @After
+    public void after()
+    {
+        inserter.shutdown();
+    }
+
+    @Test
+    public void shouldImportNodesWithPropertiesAndLabels() throws Exception
+    {
+        // GIVEN
+        int nodeCount = 1000;
+        List<InputNode> nodes = new ArrayList<>();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            nodes.add( new InputNode( nodeId( i ), propertiesOf( i ), i % 2 == 0 ? new Label[] {PERSON} :
+                    new Label[] {PERSON, EMPLOYEE} ) );
+        }
+
+        // WHEN
+        new ParallelBatchImporter( inserter, 4, 7 ).importNodes( nodes.iterator() );
+
+        // THEN
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            assertProperties( propertiesOf( i ), inserter.getNodeProperties( nodeId( i ) ) );
+            Set<Label> expectedLabels = i % 2 == 0 ? asSet( PERSON ) : asSet( PERSON, EMPLOYEE );
+            assertEquals( names( expectedLabels ), names( inserter.getNodeLabels( nodeId( i ) ) ) );
+        }
+    }
+
+    @Test
+    public void shouldImportRelationshipsBetweenImportedNodes() throws Exception
+    {
+        // GIVEN
+        int nodeCount = 100;
+        List<InputNode> nodes = new ArrayList<>();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            nodes.add( new InputNode( nodeId( i ), map( "id", i ), PERSON ) );
+        }
+        List<InputRelationship> relationships = new ArrayList<>();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            relationships.add( new InputRelationship( nodeId( i ), nodeId( (i + 1) % nodeCount ), KNOWS,
+                    propertiesOf( i ) ) );
+            relationships.add( new InputRelationship( nodeId( i ), nodeId( (i + 7) % nodeCount ), KNOWS, null ) );
+        }
+        ParallelBatchImporter importer = new ParallelBatchImporter( inserter, 3, 5 );
+
+        // WHEN
+        importer.importNodes( nodes.iterator() );
+        importer.importRelationships( relationships.iterator() );
+
+        // THEN
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            Set<Long> otherNodes = new HashSet<>();
+            long node = nodeId( i );
+            for ( BatchRelationship relationship : inserter.getRelationships( node ) )
+            {
+                long other = relationship.getStartNode() == node ? relationship.getEndNode() :
+                        relationship.getStartNode();
+                otherNodes.add( other );
+                if ( relationship.getStartNode() == node && other == nodeId( (i + 1) % nodeCount ) )
+                {
+                    assertProperties( propertiesOf( i ),
+                            inserter.getRelationshipProperties( relationship.getId() ) );
+                }
+            }
+            assertEquals( asSet( nodeId( (i + 1) % nodeCount ), nodeId( (i + 7) % nodeCount ),
+                    nodeId( (i + nodeCount - 1) % nodeCount ), nodeId( (i + nodeCount - 7) % nodeCount ) ),
+                    otherNodes );
+        }
+    }
+
+    @Test
+    public void shouldPropagateFailureFromWritingRecords() throws Exception
+    {
+        // GIVEN
+        inserter.createNode( 5, null );
+        List<InputNode> nodes = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            nodes.add( new InputNode( nodeId( i ), map( "id", i ) ) );
+        }
+
+        // WHEN
+        try
+        {
+            new ParallelBatchImporter( inserter, 2, 2 ).importNodes( nodes.iterator() );
+            fail( "Should have failed to import a node with an id already in use" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // THEN
+            assertTrue( e.getMessage(), e.getMessage().contains( "id=5" ) );
+        }
+    }
+
+    private static long nodeId( int i )
+    {
+        // Node 0 is the reference node
+        return i + 1;
+    }
+
+    private static Map<String, Object> propertiesOf( int i )
+    {
+        StringBuilder longString = new StringBuilder();
+        for ( int j = 0; j < 20; j++ )
+        {
+            longString.append( "a long string that goes into dynamic records " ).append( i );
+        }
+        return map( "id", i, "name", "name" + i, "description", longString.toString(),
+                "scores", new int[] {i, i + 1, i + 2, i * 1000000}, "active", i % 3 == 0 );
+    }
+
+    private static void assertProperties( Map<String, Object> expected, Map<String, Object> actual )
+    {
+        assertEquals( expected.keySet(), actual.keySet() );
+        for ( Map.Entry<String, Object> entry : expected.entrySet() )
+        {
+            Object value = entry.getValue();
+            if ( value instanceof int[] )
+            {
+                assertArrayEquals( (int[]) value, (int[]) actual.get( entry.getKey() ) );
+            }
+            else
+            {
+                assertEquals( value, actual.get( entry.getKey() ) );
+            }
+        }
+    }
+
+    private static Set<String> names( Iterable<Label> labels )
+    {
+        Set<String> names = new HashSet<>();
+        for ( Label label : labels )
+        {
+            names.add( label.name() );
+        }
+        return names;
+    }
+}
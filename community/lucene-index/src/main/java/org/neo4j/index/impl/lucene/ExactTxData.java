@@ -27,8 +27,15 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.search.WildcardQuery;
 import org.neo4j.index.lucene.QueryContext;
 import org.neo4j.index.lucene.ValueContext;
 
@@ -130,11 +137,305 @@ public class ExactTxData extends TxData
             return Collections.<Long>emptyList();
         }
 
+        Collection<Long> ids = queryWithoutSearcher( query );
+        if ( ids != null )
+        {
+            return ids;
+        }
+
         TxData fullTxData = toFullTxData();
         holder.set( fullTxData );
         return fullTxData.query( holder, query, contextOrNull );
     }
 
+    @Override
+    Collection<Long> queryWithoutSearcher( Query query )
+    {
+        if ( index.type != IndexType.EXACT )
+        {   // Values in other index types are analyzed, so they can't be matched against queries as they are
+            return null;
+        }
+        if ( data == null )
+        {
+            return Collections.<Long>emptySet();
+        }
+
+        Set<Object> ids = evaluate( query );
+        if ( ids == null )
+        {
+            return null;
+        }
+        if ( hasOrphans )
+        {
+            addOrphans( ids, null );
+        }
+        return toLongs( ids );
+    }
+
+    /**
+     * Evaluates {@code query} against the values in here, the same way it would be evaluated against
+     * the documents in a {@link FullTxData}, orphans included.
+     *
+     * @return the matching entity ids, or {@code null} if this kind of query can't be evaluated here.
+     */
+    private Set<Object> evaluate( Query query )
+    {
+        if ( query instanceof BooleanQuery )
+        {
+            return evaluate( (BooleanQuery) query );
+        }
+
+        String key = fieldOf( query );
+        if ( key == null || key.equals( LuceneIndex.KEY_DOC_ID ) )
+        {
+            return null;
+        }
+        Set<Object> result = new HashSet<Object>();
+        Map<Object, Set<Object>> keyMap = keyMap( key, false );
+        if ( keyMap != null )
+        {
+            if ( query instanceof TermQuery )
+            {
+                Set<Object> ids = keyMap.get( ((TermQuery) query).getTerm().text() );
+                if ( ids != null )
+                {
+                    result.addAll( ids );
+                }
+            }
+            else
+            {
+                for ( Map.Entry<Object, Set<Object>> entry : keyMap.entrySet() )
+                {
+                    Boolean matches = matches( query, entry.getKey() );
+                    if ( matches == null )
+                    {
+                        return null;
+                    }
+                    if ( matches )
+                    {
+                        result.addAll( entry.getValue() );
+                    }
+                }
+            }
+        }
+        if ( hasOrphans )
+        {
+            addOrphans( result, key );
+        }
+        return result;
+    }
+
+    private Set<Object> evaluate( BooleanQuery query )
+    {
+        if ( query.getMinimumNumberShouldMatch() > 0 )
+        {
+            return null;
+        }
+
+        Set<Object> must = null;
+        Set<Object> should = new HashSet<Object>();
+        Set<Object> mustNot = new HashSet<Object>();
+        for ( BooleanClause clause : query.clauses() )
+        {
+            Set<Object> ids = evaluate( clause.getQuery() );
+            if ( ids == null )
+            {
+                return null;
+            }
+            switch ( clause.getOccur() )
+            {
+            case MUST:
+                if ( must == null )
+                {
+                    must = ids;
+                }
+                else
+                {
+                    must.retainAll( ids );
+                }
+                break;
+            case SHOULD:
+                should.addAll( ids );
+                break;
+            default:
+                mustNot.addAll( ids );
+                break;
+            }
+        }
+        // Just like in lucene, optional clauses only decide what matches if there are no required ones
+        Set<Object> result = must != null ? must : should;
+        result.removeAll( mustNot );
+        return result;
+    }
+
+    private static String fieldOf( Query query )
+    {
+        if ( query instanceof TermQuery )
+        {
+            return ((TermQuery) query).getTerm().field();
+        }
+        else if ( query instanceof PrefixQuery )
+        {
+            return ((PrefixQuery) query).getPrefix().field();
+        }
+        else if ( query instanceof WildcardQuery )
+        {
+            return ((WildcardQuery) query).getTerm().field();
+        }
+        else if ( query instanceof TermRangeQuery )
+        {
+            return ((TermRangeQuery) query).getField();
+        }
+        else if ( query instanceof NumericRangeQuery )
+        {
+            return ((NumericRangeQuery<?>) query).getField();
+        }
+        return null;
+    }
+
+    /**
+     * @return whether {@code value} matches {@code query}, or {@code null} if that can't be decided without
+     * looking at how lucene encodes it.
+     */
+    private static Boolean matches( Query query, Object value )
+    {
+        if ( value == null )
+        {   // Orphans are added separately
+            return false;
+        }
+        if ( query instanceof NumericRangeQuery )
+        {
+            return numericRangeMatches( (NumericRangeQuery<?>) query, value );
+        }
+        if ( value instanceof Number )
+        {   // Numeric values are indexed as encoded terms, which prefix, wildcard and range queries can match
+            return null;
+        }
+
+        String text = value.toString();
+        if ( query instanceof PrefixQuery )
+        {
+            return text.startsWith( ((PrefixQuery) query).getPrefix().text() );
+        }
+        else if ( query instanceof WildcardQuery )
+        {
+            return wildcardMatches( ((WildcardQuery) query).getTerm().text(), text );
+        }
+        else
+        {
+            return termRangeMatches( (TermRangeQuery) query, text );
+        }
+    }
+
+    private static Boolean termRangeMatches( TermRangeQuery query, String text )
+    {
+        if ( query.getCollator() != null )
+        {
+            return null;
+        }
+        String lower = query.getLowerTerm();
+        String upper = query.getUpperTerm();
+        if ( lower != null )
+        {
+            int comparison = text.compareTo( lower );
+            if ( comparison < 0 || (comparison == 0 && !query.includesLower()) )
+            {
+                return false;
+            }
+        }
+        if ( upper != null )
+        {
+            int comparison = text.compareTo( upper );
+            if ( comparison > 0 || (comparison == 0 && !query.includesUpper()) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private static Boolean numericRangeMatches( NumericRangeQuery<?> query, Object value )
+    {
+        if ( !(value instanceof Number) )
+        {
+            return false;
+        }
+        Number min = query.getMin();
+        Number max = query.getMax();
+        Number bound = min != null ? min : max;
+        if ( bound == null || value.getClass() != bound.getClass() )
+        {   // Lucene encodes the different number types differently, so leave mixing of them to lucene
+            return null;
+        }
+        Comparable comparable = (Comparable) value;
+        if ( min != null )
+        {
+            int comparison = comparable.compareTo( min );
+            if ( comparison < 0 || (comparison == 0 && !query.includesMin()) )
+            {
+                return false;
+            }
+        }
+        if ( max != null )
+        {
+            int comparison = comparable.compareTo( max );
+            if ( comparison > 0 || (comparison == 0 && !query.includesMax()) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches the same way as {@link WildcardQuery}, where '*' is any number of characters and '?'
+     * exactly one.
+     */
+    static boolean wildcardMatches( String pattern, String text )
+    {
+        int p = 0;
+        int t = 0;
+        int lastStar = -1;
+        int textAtLastStar = 0;
+        while ( t < text.length() )
+        {
+            if ( p < pattern.length() && (pattern.charAt( p ) == '?' || pattern.charAt( p ) == text.charAt( t )) )
+            {
+                p++;
+                t++;
+            }
+            else if ( p < pattern.length() && pattern.charAt( p ) == '*' )
+            {
+                lastStar = p++;
+                textAtLastStar = t;
+            }
+            else if ( lastStar != -1 )
+            {
+                p = lastStar + 1;
+                t = ++textAtLastStar;
+            }
+            else
+            {
+                return false;
+            }
+        }
+        while ( p < pattern.length() && pattern.charAt( p ) == '*' )
+        {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    private void addOrphans( Set<Object> ids, String key )
+    {
+        Set<Object> orphans = idCollection( key, null, false );
+        if ( orphans != null )
+        {
+            ids.addAll( orphans );
+        }
+    }
+
     @Override
     void remove( TxDataHolder holder, Object entityId, String key, Object value )
     {
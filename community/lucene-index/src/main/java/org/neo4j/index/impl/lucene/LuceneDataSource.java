@@ -26,12 +26,18 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.transaction.TransactionManager;
@@ -73,6 +79,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.index.Index;
 import org.neo4j.graphdb.index.IndexManager;
 import org.neo4j.graphdb.index.RelationshipIndex;
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.helpers.collection.PrefetchingResourceIterator;
 import org.neo4j.kernel.InternalAbstractGraphDatabase;
@@ -114,6 +121,8 @@ public class LuceneDataSource extends LogBackedXaDataSource
     {
         public static final Setting<Integer> lucene_searcher_cache_size = GraphDatabaseSettings
                 .lucene_searcher_cache_size;
+        public static final Setting<Boolean> lucene_searcher_refresh_in_background = GraphDatabaseSettings
+                .lucene_searcher_refresh_in_background;
 
         public static final Setting<Boolean> read_only = GraphDatabaseSettings.read_only;
         public static final Setting<Boolean> allow_store_upgrade = GraphDatabaseSettings.allow_store_upgrade;
@@ -167,6 +176,9 @@ public class LuceneDataSource extends LogBackedXaDataSource
     public static final Analyzer KEYWORD_ANALYZER = new KeywordAnalyzer();
 
     private IndexClockCache indexSearchers;
+    private ExecutorService searcherRefresher;
+    private final Set<IndexIdentifier> pendingSearcherRefreshes =
+            Collections.newSetFromMap( new ConcurrentHashMap<IndexIdentifier, Boolean>() );
     private XaContainer xaContainer;
     private File baseStorePath;
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
@@ -214,6 +226,11 @@ public class LuceneDataSource extends LogBackedXaDataSource
         this.filesystemFacade = config.get( Configuration.ephemeral ) ? LuceneFilesystemFacade.MEMORY :
                 LuceneFilesystemFacade.FS;
         indexSearchers = new IndexClockCache( config.get( Configuration.lucene_searcher_cache_size ) );
+        if ( config.get( Configuration.lucene_searcher_refresh_in_background ) )
+        {
+            searcherRefresher = Executors.newSingleThreadExecutor(
+                    new NamedThreadFactory( "Lucene searcher refresher" ) );
+        }
         caching = new Cache();
         File storeDir = config.get( Configuration.store_dir );
         this.baseStorePath =
@@ -302,6 +319,20 @@ public class LuceneDataSource extends LogBackedXaDataSource
     @Override
     public void stop()
     {
+        if ( searcherRefresher != null )
+        {
+            searcherRefresher.shutdown();
+            try
+            {
+                searcherRefresher.awaitTermination( 10, TimeUnit.SECONDS );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            searcherRefresher = null;
+        }
+
         synchronized ( this )
         {
             super.stop();
@@ -650,9 +681,66 @@ public class LuceneDataSource extends LogBackedXaDataSource
         if ( searcher != null )
         {
             searcher.setStale();
+            ExecutorService refresher = searcherRefresher;
+            if ( refresher != null && pendingSearcherRefreshes.add( identifier ) )
+            {
+                try
+                {
+                    refresher.execute( backgroundSearcherRefresh( identifier ) );
+                }
+                catch ( RejectedExecutionException e )
+                {   // We're shutting down, the searcher stays stale and gets refreshed on the next read, if any
+                    pendingSearcherRefreshes.remove( identifier );
+                }
+            }
         }
     }
 
+    /**
+     * Refreshes a stale searcher so that the reads coming after a commit don't have to. Any number of commits
+     * happening before the refresh gets to run are covered by the same refresh. If the refresh fails the searcher
+     * is left stale, so that the next read tries again.
+     */
+    private Runnable backgroundSearcherRefresh( final IndexIdentifier identifier )
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                pendingSearcherRefreshes.remove( identifier );
+                getReadLock();
+                try
+                {
+                    IndexReference searcher = indexSearchers.get( identifier );
+                    if ( closed || searcher == null )
+                    {
+                        return;
+                    }
+                    synchronized ( searcher )
+                    {
+                        if ( indexSearchers.get( identifier ) != searcher || searcher.isClosed() )
+                        {
+                            return;
+                        }
+                        try
+                        {
+                            refreshSearcherIfNeeded( searcher );
+                        }
+                        catch ( RuntimeException e )
+                        {
+                            searcher.setStale();
+                        }
+                    }
+                }
+                finally
+                {
+                    releaseReadLock();
+                }
+            }
+        };
+    }
+
     void deleteIndex( IndexIdentifier identifier, boolean recovery )
     {
         closeIndex( identifier );
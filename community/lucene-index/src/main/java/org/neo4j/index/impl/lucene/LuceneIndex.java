@@ -277,7 +277,18 @@ public abstract class LuceneIndex<T extends PropertyContainer> implements Index<
             }
             else
             {
-                additionsSearcher = luceneTx.getAdditionsAsSearcher( this, additionalParametersOrNull );
+                // Unless the hits need to be ordered together, additions that can be found without building
+                // a searcher over them are just added to the committed hits, like for direct lookups
+                Collection<Long> addedIds = isUnordered( additionalParametersOrNull ) ?
+                        luceneTx.getAddedIdsWithoutSearcher( this, query ) : null;
+                if ( addedIds != null )
+                {
+                    ids.addAll( addedIds );
+                }
+                else
+                {
+                    additionsSearcher = luceneTx.getAdditionsAsSearcher( this, additionalParametersOrNull );
+                }
             }
             removedIds = keyForDirectLookup != null ?
                     luceneTx.getRemovedIds( this, keyForDirectLookup, valueForDirectLookup ) :
@@ -329,6 +340,12 @@ public abstract class LuceneIndex<T extends PropertyContainer> implements Index<
         return newEntityIterator( idIterator );
     }
 
+    private static boolean isUnordered( QueryContext contextOrNull )
+    {
+        return contextOrNull == null || (contextOrNull.getSorting() == null && contextOrNull.getTop() <= 0 &&
+                !contextOrNull.getTradeCorrectnessForSpeed());
+    }
+
     @Override
     public boolean isWriteable()
     {
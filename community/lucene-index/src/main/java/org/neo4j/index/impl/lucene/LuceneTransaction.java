@@ -533,6 +533,16 @@ class LuceneTransaction extends XaTransaction
         queueCommand( new CreateIndexCommand( entityTypeByte, name, config ) );
     }
 
+    /**
+     * @return the ids added in this transaction that match {@code query}, or {@code null} if they can only
+     * be found through {@link #getAdditionsAsSearcher(LuceneIndex, QueryContext)}.
+     */
+    <T extends PropertyContainer> Collection<Long> getAddedIdsWithoutSearcher( LuceneIndex<T> index, Query query )
+    {
+        TxDataHolder added = addedTxDataOrNull( index );
+        return added != null ? added.queryWithoutSearcher( query ) : Collections.<Long>emptySet();
+    }
+
     <T extends PropertyContainer> IndexSearcher getAdditionsAsSearcher( LuceneIndex<T> index,
             QueryContext context )
     {
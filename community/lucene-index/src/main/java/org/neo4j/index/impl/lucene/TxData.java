@@ -40,6 +40,15 @@ abstract class TxData
 
     abstract Collection<Long> query( TxDataHolder holder, Query query, QueryContext contextOrNull );
 
+    /**
+     * @return the ids matching {@code query} if they can be found without building a searcher
+     * over this data, otherwise {@code null}.
+     */
+    Collection<Long> queryWithoutSearcher( Query query )
+    {
+        return null;
+    }
+
     abstract Collection<Long> get( TxDataHolder holder, String key, Object value );
     
     abstract Collection<Long> getOrphans( String key );
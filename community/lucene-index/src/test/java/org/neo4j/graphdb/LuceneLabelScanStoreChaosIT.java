@@ -24,12 +24,18 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.helpers.Predicate;
+import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.impl.api.scan.NativeLabelScanStoreExtension;
 import org.neo4j.test.DatabaseRule;
 import org.neo4j.test.DatabaseRule.RestartAction;
 import org.neo4j.test.EmbeddedDatabaseRule;
@@ -38,6 +44,8 @@ import org.neo4j.tooling.GlobalGraphOperations;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import static org.neo4j.helpers.collection.Iterables.filter;
+import static org.neo4j.helpers.collection.IteratorUtil.addToCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.kernel.impl.util.FileUtils.deleteRecursively;
 
@@ -196,6 +204,30 @@ public class LuceneLabelScanStoreChaosIT
         Third;
     }
 
-    public final @Rule DatabaseRule dbRule = new EmbeddedDatabaseRule( getClass() );
+    public final @Rule DatabaseRule dbRule = new EmbeddedDatabaseRule( getClass() )
+    {
+        @Override
+        protected void configure( GraphDatabaseFactory databaseFactory )
+        {
+            excludeNativeLabelScanStore( databaseFactory );
+        }
+    };
     private final Random random = new Random();
+
+    /**
+     * The native label scan store would otherwise be selected over the lucene one.
+     */
+    static void excludeNativeLabelScanStore( GraphDatabaseFactory databaseFactory )
+    {
+        List<KernelExtensionFactory<?>> extensions = addToCollection( filter(
+                new Predicate<KernelExtensionFactory<?>>()
+        {
+            @Override
+            public boolean accept( KernelExtensionFactory<?> extension )
+            {
+                return !(extension instanceof NativeLabelScanStoreExtension);
+            }
+        }, databaseFactory.getKernelExtension() ), new ArrayList<KernelExtensionFactory<?>>() );
+        databaseFactory.setKernelExtensions( extensions );
+    }
 }
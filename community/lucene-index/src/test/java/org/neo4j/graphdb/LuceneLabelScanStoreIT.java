@@ -19,9 +19,28 @@
  */
 package org.neo4j.graphdb;
 
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.test.DatabaseRule;
+import org.neo4j.test.ImpermanentDatabaseRule;
+
+import static org.neo4j.graphdb.LuceneLabelScanStoreChaosIT.excludeNativeLabelScanStore;
+
 public class LuceneLabelScanStoreIT extends LabelScanStoreIT
 {
     // Just extending the IT from kernel which pulls in the same tests, but with the important difference
-    // that the LuceneLasbelScanStore is on the class path, and will therefore be selected instead of
-    // an in-memory store.
+    // that the LuceneLabelScanStore is on the class path, and will therefore be selected instead of
+    // an in-memory store, as long as the native store is left out.
+
+    @Override
+    protected DatabaseRule newDatabaseRule()
+    {
+        return new ImpermanentDatabaseRule()
+        {
+            @Override
+            protected void configure( GraphDatabaseFactory databaseFactory )
+            {
+                excludeNativeLabelScanStore( databaseFactory );
+            }
+        };
+    }
 }
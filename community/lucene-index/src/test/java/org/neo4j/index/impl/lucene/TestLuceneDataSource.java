@@ -19,6 +19,7 @@
  */
 package org.neo4j.index.impl.lucene;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
@@ -28,6 +29,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterAccessor;
 import org.junit.After;
@@ -221,6 +224,39 @@ public class TestLuceneDataSource
         assertFalse( IndexWriterAccessor.isClosed( newFooIndexWriter ) );
     }
 
+    @Test
+    public void testRefreshesInvalidatedSearcherInTheBackground() throws Exception
+    {
+        Map<String, String> config = config();
+        config.put( GraphDatabaseSettings.lucene_searcher_refresh_in_background.name(), "true" );
+        Config config1 = new Config( config, GraphDatabaseSettings.class );
+        dataSource = new LuceneDataSource( config1, indexStore, new DefaultFileSystemAbstraction(),
+                new XaFactory( config1, TxIdGenerator.DEFAULT, new PlaceboTm( null, null ), new DefaultLogBufferFactory(),
+                        new DefaultFileSystemAbstraction(), new DevNullLoggingService(), RecoveryVerifier.ALWAYS_VALID,
+                        LogPruneStrategies.NO_PRUNING ), null );
+        dataSource.start();
+        IndexIdentifier identifier = identifier( "foo" );
+        IndexReference oldSearcher = dataSource.getIndexSearcher( identifier );
+        Document document = new Document();
+        document.add( new Field( "key", "value", Field.Store.YES, Field.Index.NOT_ANALYZED ) );
+        oldSearcher.getWriter().addDocument( document );
+        oldSearcher.close();
+
+        dataSource.invalidateIndexSearcher( identifier );
+
+        // No one asks for the searcher in the meantime, so it must be the background refresh closing it
+        long end = System.currentTimeMillis() + 10000;
+        while ( !oldSearcher.isClosed() && System.currentTimeMillis() < end )
+        {
+            Thread.sleep( 10 );
+        }
+        assertTrue( oldSearcher.isClosed() );
+        IndexReference newSearcher = dataSource.getIndexSearcher( identifier );
+        assertNotSame( oldSearcher, newSearcher );
+        assertEquals( 1, newSearcher.getSearcher().getIndexReader().numDocs() );
+        newSearcher.close();
+    }
+
     @Ignore("No longer valid since Lucene 3.5")
     @Test
     public void testInvalidatingSearcherCreatesANewOne() throws InstantiationException, IOException
@@ -319,6 +319,42 @@ public class TestLuceneIndex extends AbstractLuceneIndexTest
         assertThat( index.query( "key", "value" ), contains( node ) );
     }
 
+    @Test
+    public void queriesInExactIndexSeeLatestTxModifications()
+    {
+        Index<Node> index = nodeIndex( LuceneIndexImplementation.EXACT_CONFIG );
+        Node mats = graphDb.createNode();
+        Node mattias = graphDb.createNode();
+        Node tobias = graphDb.createNode();
+        index.add( mats, "name", "Mats" );
+        index.add( mats, "age", numeric( 40 ) );
+        restartTx();
+
+        index.add( mattias, "name", "Mattias" );
+        index.add( mattias, "age", numeric( 30 ) );
+        index.add( tobias, "name", "Tobias" );
+        index.add( tobias, "age", numeric( 35 ) );
+        assertContains( index.query( "name", "Mat*" ), mats, mattias );
+        assertContains( index.query( "name", "?obias" ), tobias );
+        assertContains( index.query( "name", "[Mattias TO Tobias]" ), mattias, tobias );
+        assertContains( index.query( "name", "Mattias OR Tobias" ), mattias, tobias );
+        assertContains( index.query( "name:Mat* AND NOT name:Mats" ), mattias );
+        assertContains( index.query( numericRange( "age", 31, 40 ) ), mats, tobias );
+
+        index.remove( mats, "name", "Mats" );
+        index.remove( tobias, "name", "Tobias" );
+        assertContains( index.query( "name", "Mat*" ), mattias );
+        assertContains( index.query( "name", "*bias" ) );
+
+        index.remove( mattias, "age" );
+        assertContains( index.query( numericRange( "age", 0, 100 ) ), mats, tobias );
+        restartTx();
+
+        assertContains( index.query( "name", "Mat*" ), mattias );
+        assertContains( index.query( "name", "*bias" ) );
+        assertContains( index.query( numericRange( "age", 0, 100 ) ), mats, tobias );
+    }
+
     @Test
     public void makeSureArrayValuesAreSupported()
     {
@@ -29,7 +29,10 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.UriInfo;
 
@@ -39,23 +42,40 @@ import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.ObjectNode;
+import org.codehaus.jackson.node.TextNode;
 import org.neo4j.server.rest.web.InternalJettyServletRequest;
 import org.neo4j.server.rest.web.InternalJettyServletResponse;
 import org.neo4j.server.web.WebServer;
 
+import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
+
 public abstract class BatchOperations
 {
     protected static final String ID_KEY = "id";
     protected static final String METHOD_KEY = "method";
     protected static final String BODY_KEY = "body";
     protected static final String TO_KEY = "to";
+    private static final String FORCE_MODE_HEADER = "Transaction";
     protected static final JsonFactory jsonFactory = new JsonFactory();
     protected final WebServer webServer;
     protected final ObjectMapper mapper;
+    private final DirectBatchOperations directOperations;
 
     public BatchOperations( WebServer webServer )
+    {
+        this( webServer, null );
+    }
+
+    /**
+     * @param directOperations performs the jobs it can directly, rather than dispatching them
+     * to the web server, or {@code null} to dispatch all jobs.
+     */
+    public BatchOperations( WebServer webServer, DirectBatchOperations directOperations )
     {
         this.webServer = webServer;
+        this.directOperations = directOperations;
         mapper = new ObjectMapper();
     }
 
@@ -135,7 +155,8 @@ public abstract class BatchOperations
         {
             if (token == JsonToken.START_OBJECT)
             {
-                String jobMethod="", jobPath="", jobBody="";
+                String jobMethod="", jobPath="";
+                JsonNode jobBody = null;
                 Integer jobId = null;
                 while ((token = jp.nextToken()) != JsonToken.END_OBJECT && token != null )
                 {
@@ -152,8 +173,7 @@ public abstract class BatchOperations
                         jobId = jp.getIntValue();
                     } else if (field.equals(BODY_KEY))
                     {
-                        jobBody = readBody( jp );
-
+                        jobBody = mapper.readTree( jp );
                     }
                 }
                 // Read one job description. Execute it.
@@ -163,9 +183,12 @@ public abstract class BatchOperations
         }
     }
 
-    private String readBody( JsonParser jp ) throws IOException
+    private String writeBody( JsonNode node ) throws IOException
     {
-        JsonNode node = mapper.readTree( jp );
+        if ( node == null )
+        {
+            return "";
+        }
         StringWriter out = new StringWriter();
         JsonGenerator gen = jsonFactory
                 .createJsonGenerator(out);
@@ -175,19 +198,124 @@ public abstract class BatchOperations
         return out.toString();
     }
 
-    protected void performRequest( UriInfo uriInfo, String method, String path, String body, Integer id, HttpHeaders httpHeaders, Map<Integer, String> locations ) throws IOException, ServletException
+    protected void performRequest( UriInfo uriInfo, String method, String path, JsonNode body, Integer id, HttpHeaders httpHeaders, Map<Integer, String> locations ) throws IOException, ServletException
     {
         path = replaceLocationPlaceholders(path, locations);
-        body = replaceLocationPlaceholders(body, locations);
         URI targetUri = calculateTargetUri(uriInfo, path);
 
+        if ( directOperations != null && !httpHeaders.getRequestHeaders().containsKey( FORCE_MODE_HEADER ) )
+        {
+            URI relativeUri = uriInfo.getBaseUri().relativize( targetUri );
+            DirectBatchOperations.Job job = directOperations.canPerform( method, relativeUri ) ?
+                    directOperations.prepare( method, relativeUri, replaceLocationPlaceholders( body, locations ) ) :
+                    null;
+            if ( job != null && performDirectly( method, path, body, id, targetUri, httpHeaders, job ) )
+            {
+                return;
+            }
+        }
+
+        String bodyString = replaceLocationPlaceholders(writeBody( body ), locations);
         InternalJettyServletResponse res = new InternalJettyServletResponse();
-        InternalJettyServletRequest req = new InternalJettyServletRequest( method, targetUri.toString(), body, res );
+        InternalJettyServletRequest req = new InternalJettyServletRequest( method, targetUri.toString(), bodyString, res );
         
         addHeaders( req, httpHeaders );
 
-        invoke( method, path, body, id, targetUri, req, res );
+        invoke( method, path, bodyString, id, targetUri, req, res );
     }
 
+    /**
+     * Performs the given job directly, after passing it through the same filters as a dispatched job,
+     * such as the security rules and the execution limit.
+     *
+     * @return {@code false} if one of the filters rejected the job before it was performed. It should
+     * then be dispatched, which gets it rejected the same way, with the usual response.
+     */
+    private boolean performDirectly( String method, String path, JsonNode body, Integer id, URI targetUri,
+                                     HttpHeaders httpHeaders, final DirectBatchOperations.Job job )
+            throws IOException, ServletException
+    {
+        InternalJettyServletResponse res = new InternalJettyServletResponse();
+        InternalJettyServletRequest req = new InternalJettyServletRequest( method, targetUri.toString(),
+                writeBody( body ), res );
+        addHeaders( req, httpHeaders );
+
+        final boolean[] performed = new boolean[1];
+        final DirectBatchOperations.Result[] result = new DirectBatchOperations.Result[1];
+        webServer.invokeFiltersDirectly( targetUri.getPath(), req, res, new FilterChain()
+        {
+            @Override
+            public void doFilter( ServletRequest request, ServletResponse response ) throws IOException
+            {
+                performed[0] = true;
+                result[0] = job.perform();
+            }
+        } );
+        if ( !performed[0] )
+        {
+            return false;
+        }
+        if ( result[0] == null )
+        {
+            // The job failed and a filter, like the execution limit filter, turned that into a response
+            int status = is2XXStatusCode( res.getStatus() ) ? 500 : res.getStatus();
+            result[0] = new DirectBatchOperations.Result( status, res.getOutputStream().toString(), null );
+        }
+        addResult( method, path, id, result[0] );
+        return true;
+    }
+
+    /**
+     * Replaces location placeholders in the string values of the given JSON tree, in place.
+     */
+    protected JsonNode replaceLocationPlaceholders( JsonNode node, Map<Integer, String> locations )
+    {
+        if ( node == null )
+        {
+            return null;
+        }
+        if ( node.isTextual() )
+        {
+            String text = node.getTextValue();
+            String replaced = replaceLocationPlaceholders( text, locations );
+            return replaced == text ? node : new TextNode( replaced );
+        }
+        if ( node.isObject() )
+        {
+            ObjectNode object = (ObjectNode) node;
+            for ( String field : asCollection( object.getFieldNames() ) )
+            {
+                JsonNode value = object.get( field );
+                JsonNode replaced = replaceLocationPlaceholders( value, locations );
+                if ( replaced != value )
+                {
+                    object.put( field, replaced );
+                }
+            }
+        }
+        else if ( node.isArray() )
+        {
+            ArrayNode array = (ArrayNode) node;
+            for ( int i = 0; i < array.size(); i++ )
+            {
+                JsonNode value = array.get( i );
+                JsonNode replaced = replaceLocationPlaceholders( value, locations );
+                if ( replaced != value )
+                {
+                    array.set( i, replaced );
+                }
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Adds the result of a job that was performed by {@link DirectBatchOperations}, the same way
+     * a dispatched job with that response would have been. A result that is not successful fails
+     * the batch.
+     */
+    protected abstract void addResult( String method, String path, Integer id, DirectBatchOperations.Result result )
+            throws IOException;
+
     protected abstract void invoke( String method, String path, String body, Integer id, URI targetUri, InternalJettyServletRequest req, InternalJettyServletResponse res ) throws IOException, ServletException;
 }
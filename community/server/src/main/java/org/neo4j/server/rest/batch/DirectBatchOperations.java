@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.batch;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.neo4j.kernel.guard.GuardException;
+import org.neo4j.server.rest.domain.EndNodeNotFoundException;
+import org.neo4j.server.rest.domain.StartNodeNotFoundException;
+import org.neo4j.server.rest.repr.BadInputException;
+import org.neo4j.server.rest.repr.OutputFormat;
+import org.neo4j.server.rest.web.DatabaseActions;
+import org.neo4j.server.rest.web.NodeNotFoundException;
+import org.neo4j.server.rest.web.RelationshipNotFoundException;
+
+/**
+ * Performs the most common batch jobs directly against {@link DatabaseActions}, instead of
+ * dispatching them as internal HTTP requests. This saves serializing each job body to a string
+ * only to have it parsed again, as well as the servlet and Jersey overhead per job.
+ *
+ * Only jobs that are known to produce the same response as their REST resource are performed
+ * here. A job is performed in two steps: {@link #prepare(String, URI, JsonNode) preparing} it
+ * reads its body without touching the database, and a job whose body can't be read is left to
+ * the regular dispatch, which then produces the error response just like before.
+ * {@link Job#perform() Performing} a prepared job writes to the database, so it is never
+ * dispatched after that; a failure then gives the same error response as its REST resource
+ * would, which fails the batch.
+ */
+public class DirectBatchOperations
+{
+    private static final Pattern NODES = Pattern.compile( "node" );
+    private static final Pattern NODE_RELATIONSHIPS = Pattern.compile( "node/(\\d+)/relationships" );
+    private static final Pattern NODE_PROPERTIES = Pattern.compile( "node/(\\d+)/properties" );
+    private static final Pattern RELATIONSHIP_PROPERTIES = Pattern.compile( "relationship/(\\d+)/properties" );
+    private static final Pattern NODE_INDEX = Pattern.compile( "index/node/([^/]+)" );
+
+    private final DatabaseActions actions;
+    private final OutputFormat output;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param output the format to render results in, this should be plain JSON since that is what
+     * the dispatched jobs are asked to produce.
+     */
+    public DirectBatchOperations( DatabaseActions actions, OutputFormat output )
+    {
+        this.actions = actions;
+        this.output = output;
+    }
+
+    /**
+     * @param method the HTTP method of the job.
+     * @param path the path of the job, relative to the base URI of the REST API.
+     * @return whether or not a job like this one can be performed directly, given that
+     * {@link #prepare(String, URI, JsonNode)} can read its body.
+     */
+    public boolean canPerform( String method, URI path )
+    {
+        if ( path.isAbsolute() || path.getRawQuery() != null || path.getRawFragment() != null )
+        {
+            return false;
+        }
+        String relative = path.getPath();
+        if ( "POST".equals( method ) )
+        {
+            return NODES.matcher( relative ).matches() || NODE_RELATIONSHIPS.matcher( relative ).matches() ||
+                    NODE_INDEX.matcher( relative ).matches();
+        }
+        if ( "PUT".equals( method ) )
+        {
+            return NODE_PROPERTIES.matcher( relative ).matches() ||
+                    RELATIONSHIP_PROPERTIES.matcher( relative ).matches();
+        }
+        return false;
+    }
+
+    /**
+     * Reads the body of the given job, which {@link #canPerform(String, URI) can be performed}
+     * directly. Nothing is written to the database here.
+     *
+     * @param body the body of the job, with location placeholders already replaced,
+     * or {@code null} if it has none.
+     * @return the job, ready to be performed, or {@code null} if its body can't be read, in which
+     * case it should be dispatched as usual instead.
+     */
+    public Job prepare( String method, URI path, JsonNode body )
+    {
+        try
+        {
+            return job( method, path.getPath(), body );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Job job( String method, String path, JsonNode body ) throws Exception
+    {
+        Matcher matcher;
+        if ( "POST".equals( method ) )
+        {
+            if ( NODES.matcher( path ).matches() )
+            {
+                final Map<String, Object> properties = readMap( body );
+                return new Job()
+                {
+                    @Override
+                    Response response() throws Exception
+                    {
+                        return output.created( actions.createNode( properties ) );
+                    }
+                };
+            }
+            if ( (matcher = NODE_RELATIONSHIPS.matcher( path )).matches() )
+            {
+                Map<String, Object> data = readMap( body );
+                final long startNodeId = Long.parseLong( matcher.group( 1 ) );
+                final long endNodeId = idOf( (String) data.get( "to" ) );
+                final String type = (String) data.get( "type" );
+                final Map<String, Object> properties = (Map<String, Object>) data.get( "data" );
+                return new Job()
+                {
+                    @Override
+                    Response response() throws Exception
+                    {
+                        return output.created( actions.createRelationship( startNodeId, endNodeId, type,
+                                properties ) );
+                    }
+                };
+            }
+            if ( (matcher = NODE_INDEX.matcher( path )).matches() )
+            {
+                Map<String, Object> entry = readMap( body, "key", "value", "uri" );
+                final String indexName = matcher.group( 1 );
+                final String key = String.valueOf( entry.get( "key" ) );
+                final String value = String.valueOf( entry.get( "value" ) );
+                final long nodeId = idOf( entry.get( "uri" ).toString() );
+                return new Job()
+                {
+                    @Override
+                    Response response() throws Exception
+                    {
+                        return output.created( actions.addToNodeIndex( indexName, key, value, nodeId ) );
+                    }
+                };
+            }
+        }
+        else if ( "PUT".equals( method ) )
+        {
+            if ( (matcher = NODE_PROPERTIES.matcher( path )).matches() )
+            {
+                final long nodeId = Long.parseLong( matcher.group( 1 ) );
+                final Map<String, Object> properties = readMap( body );
+                return new Job()
+                {
+                    @Override
+                    Response response() throws Exception
+                    {
+                        actions.setAllNodeProperties( nodeId, properties );
+                        return output.noContent();
+                    }
+                };
+            }
+            if ( (matcher = RELATIONSHIP_PROPERTIES.matcher( path )).matches() )
+            {
+                final long relationshipId = Long.parseLong( matcher.group( 1 ) );
+                final Map<String, Object> properties = readMap( body );
+                return new Job()
+                {
+                    @Override
+                    Response response() throws Exception
+                    {
+                        actions.setAllRelationshipProperties( relationshipId, properties );
+                        return output.noContent();
+                    }
+                };
+            }
+        }
+        throw new IllegalArgumentException( method + " " + path + " can not be performed directly" );
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readMap( JsonNode body, String... requiredKeys ) throws Exception
+    {
+        Map<String, Object> map = body == null ? Collections.<String, Object>emptyMap() :
+                (Map<String, Object>) mapper.readValue( body, Map.class );
+        for ( String key : requiredKeys )
+        {
+            if ( map.get( key ) == null )
+            {
+                throw new IllegalArgumentException( "Missing required key: \"" + key + "\"" );
+            }
+        }
+        return map;
+    }
+
+    private long idOf( String uri )
+    {
+        return Long.parseLong( uri.substring( uri.lastIndexOf( "/" ) + 1 ) );
+    }
+
+    private Result result( Response response ) throws UnsupportedEncodingException
+    {
+        Object location = response.getMetadata().getFirst( HttpHeaders.LOCATION );
+        Object entity = response.getEntity();
+        return new Result( response.getStatus(), entity == null ? null : new String( (byte[]) entity, "UTF-8" ),
+                location == null ? null : location.toString() );
+    }
+
+    /**
+     * A job that has been {@link #prepare(String, URI, JsonNode) prepared} to be performed directly.
+     */
+    public abstract class Job
+    {
+        abstract Response response() throws Exception;
+
+        /**
+         * Performs this job. It may have written to the database even if it fails, so it must
+         * not be dispatched afterwards.
+         *
+         * @return the result of the job, with the same status and body as the REST resource
+         * would have responded with, also when it failed.
+         */
+        public Result perform() throws UnsupportedEncodingException
+        {
+            Response response;
+            try
+            {
+                response = response();
+            }
+            catch ( NodeNotFoundException e )
+            {
+                response = output.notFound( e );
+            }
+            catch ( RelationshipNotFoundException e )
+            {
+                response = output.notFound( e );
+            }
+            catch ( StartNodeNotFoundException e )
+            {
+                response = output.notFound( e );
+            }
+            catch ( EndNodeNotFoundException e )
+            {
+                response = output.badRequest( e );
+            }
+            catch ( BadInputException e )
+            {
+                response = output.badRequest( e );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                response = output.badRequest( e );
+            }
+            catch ( GuardException e )
+            {
+                // Leave it to the execution limit filter, like for dispatched jobs
+                throw e;
+            }
+            catch ( Exception e )
+            {
+                response = output.serverError( e );
+            }
+            return result( response );
+        }
+    }
+
+    public static class Result
+    {
+        private final int status;
+        private final String body;
+        private final String location;
+
+        Result( int status, String body, String location )
+        {
+            this.status = status;
+            this.body = body;
+            this.location = location;
+        }
+
+        public int getStatus()
+        {
+            return status;
+        }
+
+        /**
+         * @return the JSON body of the result, or {@code null} if there is none.
+         */
+        public String getBody()
+        {
+            return body;
+        }
+
+        public String getLocation()
+        {
+            return location;
+        }
+    }
+}
@@ -42,6 +42,11 @@ public class NonStreamingBatchOperations extends BatchOperations
         super( webServer );
     }
 
+    public NonStreamingBatchOperations( WebServer webServer, DirectBatchOperations directOperations )
+    {
+        super( webServer, directOperations );
+    }
+
     public BatchOperationResults performBatchJobs( UriInfo uriInfo, HttpHeaders httpHeaders, InputStream body ) throws IOException, ServletException
     {
         results = new BatchOperationResults();
@@ -64,4 +69,17 @@ public class NonStreamingBatchOperations extends BatchOperations
         }
     }
 
+    @Override
+    protected void addResult( String method, String path, Integer id, DirectBatchOperations.Result result )
+    {
+        if ( is2XXStatusCode( result.getStatus() ) )
+        {
+            results.addOperationResult( path, id, result.getBody(), result.getLocation() );
+        }
+        else
+        {
+            throw new BatchOperationFailedException( result.getStatus(), result.getBody(), null );
+        }
+    }
+
 }
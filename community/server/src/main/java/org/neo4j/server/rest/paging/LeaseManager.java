@@ -20,6 +20,7 @@
 package org.neo4j.server.rest.paging;
 
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.tooling.Clock;
@@ -28,6 +29,12 @@ public class LeaseManager
 {
     private Clock clock;
     private Map<String, Lease> leases = new ConcurrentHashMap<String, Lease>();
+    /*
+     * Every lease, ordered by when it expires unless it gets renewed before then. Leases aren't re-ordered
+     * when they get renewed, instead they are put back in the queue when their old expiry time comes up.
+     * That way looking up a lease only has to look at the leases that are due, not at all of them.
+     */
+    private final PriorityQueue<Expiry> expiries = new PriorityQueue<Expiry>();
 
     public LeaseManager( Clock clock )
     {
@@ -43,13 +50,17 @@ public class LeaseManager
 
         Lease lease = new Lease( leasedTraverser, seconds, clock );
         leases.put( lease.getId(), lease );
+        synchronized ( expiries )
+        {
+            expiries.add( new Expiry( lease ) );
+        }
 
         return lease;
     }
 
     public Lease getLeaseById( String id )
     {
-        pruneOldLeasesByNaivelyIteratingThroughAllOfThem();
+        pruneExpiredLeases();
         Lease lease = leases.get( id );
 
         if ( lease != null )
@@ -60,22 +71,28 @@ public class LeaseManager
         return lease;
     }
 
-    private void pruneOldLeasesByNaivelyIteratingThroughAllOfThem()
+    private void pruneExpiredLeases()
     {
-        for ( String key : leases.keySet() )
+        long now = clock.currentTimeMillis();
+        synchronized ( expiries )
         {
-            try
+            while ( !expiries.isEmpty() && expiries.peek().time < now )
             {
-                Lease lease = leases.get( key );
-                if ( lease.getStartTime() + lease.getPeriod() < clock.currentTimeMillis() )
+                Lease lease = expiries.poll().lease;
+                if ( leases.get( lease.getId() ) != lease )
                 {
-                    remove( key );
+                    // Already removed
+                    continue;
+                }
+                if ( lease.expired() )
+                {
+                    remove( lease.getId() );
+                }
+                else
+                {
+                    // Renewed since it was queued, check it again when the renewed lease is due
+                    expiries.add( new Expiry( lease ) );
                 }
-            }
-            catch ( Exception e )
-            {
-                // do nothing - if something goes wrong, it just means another
-                // thread already nuked the lease
             }
         }
     }
@@ -97,4 +114,22 @@ public class LeaseManager
             leases.remove( key );
         }
     }
+
+    private static class Expiry implements Comparable<Expiry>
+    {
+        private final long time;
+        private final Lease lease;
+
+        Expiry( Lease lease )
+        {
+            this.time = lease.getStartTime() + lease.getPeriod();
+            this.lease = lease;
+        }
+
+        @Override
+        public int compareTo( Expiry other )
+        {
+            return time < other.time ? -1 : (time == other.time ? 0 : 1);
+        }
+    }
 }
@@ -22,6 +22,7 @@ package org.neo4j.server.rest.repr;
 import static org.neo4j.server.rest.repr.ObjectToRepresentationConverter.getMapRepresentation;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -32,12 +33,14 @@ import org.neo4j.cypher.javacompat.ProfilerStatistics;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.Function;
 import org.neo4j.helpers.collection.IterableWrapper;
 import org.neo4j.server.webadmin.rest.representations.JmxAttributeRepresentationDispatcher;
 
 public class CypherResultRepresentation extends MappingRepresentation
 {
+    private final ResourceIterator<Map<String, Object>> rows;
     private final ListRepresentation resultRepresentation;
     private final ListRepresentation columns;
     private final MappingRepresentation statsRepresentation;
@@ -47,6 +50,7 @@ public class CypherResultRepresentation extends MappingRepresentation
     public CypherResultRepresentation( final ExecutionResult result, boolean includeStats, boolean includePlan )
     {
         super( RepresentationType.STRING );
+        rows = result.iterator();
         resultRepresentation = createResultRepresentation( result );
         columns = ListRepresentation.string( result.columns() );
         statsRepresentation = includeStats ? createStatsRepresentation( result.getQueryStatistics() ) : null;
@@ -80,7 +84,16 @@ public class CypherResultRepresentation extends MappingRepresentation
     protected void serialize( MappingSerializer serializer )
     {
         serializer.putList( "columns", columns );
-        serializer.putList( "data", resultRepresentation );
+        try
+        {
+            serializer.putList( "data", resultRepresentation );
+        }
+        finally
+        {
+            // The rows are pulled from the query as they are written, so if writing fails half way through
+            // (e.g. because the client disconnected) the query has to be closed here
+            rows.close();
+        }
 
         if (statsRepresentation != null)
             serializer.putMapping( "stats", statsRepresentation );
@@ -90,7 +103,15 @@ public class CypherResultRepresentation extends MappingRepresentation
 
     private ListRepresentation createResultRepresentation(ExecutionResult executionResult) {
         final List<String> columns = executionResult.columns();
-        final Iterable<Map<String, Object>> inner = new RepresentationExceptionHandlingIterable<Map<String,Object>>(executionResult);
+        final Iterable<Map<String, Object>> inner = new RepresentationExceptionHandlingIterable<Map<String,Object>>(
+                new Iterable<Map<String, Object>>()
+                {
+                    @Override
+                    public Iterator<Map<String, Object>> iterator()
+                    {
+                        return rows;
+                    }
+                } );
         return new ListRepresentation( "data", new IterableWrapper<Representation,Map<String,Object>>(inner) {
 
             @Override
@@ -53,6 +53,14 @@ public class OutputFormat
         this.extensions = extensions;
     }
 
+    /**
+     * @return an output format using the given format, but with the same base URI and extensions as this one.
+     */
+    public OutputFormat withFormat( RepresentationFormat format )
+    {
+        return new OutputFormat( format, baseUri, extensions );
+    }
+
     public void setRepresentationWriteHandler( RepresentationWriteHandler representationWriteHandler ) {
 
         this.representationWriteHandler = representationWriteHandler;
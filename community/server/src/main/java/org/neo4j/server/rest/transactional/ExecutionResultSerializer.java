@@ -32,6 +32,7 @@ import org.codehaus.jackson.JsonGenerator;
 
 import org.neo4j.cypher.javacompat.ExecutionResult;
 import org.neo4j.cypher.javacompat.QueryStatistics;
+import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.repr.util.RFC1123;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
@@ -100,7 +101,16 @@ public class ExecutionResultSerializer
             {
                 Iterable<String> columns = result.columns();
                 writeColumns( columns );
-                writeRows( columns, result.iterator(), configureWriters( resultDataContents ) );
+                ResourceIterator<Map<String, Object>> rows = result.iterator();
+                try
+                {
+                    writeRows( columns, rows, configureWriters( resultDataContents ) );
+                }
+                finally
+                {
+                    // Releases the resources of the query even if the client went away half way through the rows
+                    rows.close();
+                }
                 if ( includeStats )
                 {
                     writeStats( result.getQueryStatistics() );
@@ -248,6 +258,7 @@ public class ExecutionResultSerializer
     }
 
     private State currentState = State.EMPTY;
+    private boolean firstRowFlushed;
 
     private static final JsonFactory JSON_FACTORY = new JsonFactory( new Neo4jJsonCodec() );
     private final JsonGenerator out;
@@ -301,6 +312,13 @@ public class ExecutionResultSerializer
                 {
                     out.writeEndObject();
                 }
+                if ( !firstRowFlushed )
+                {
+                    // Get the response going as soon as there is something to show, after that rows are only
+                    // pushed to the client when the generator buffer fills up
+                    out.flush();
+                    firstRowFlushed = true;
+                }
             }
         }
         finally
@@ -38,10 +38,12 @@ import org.eclipse.jetty.util.log.Log;
 import org.eclipse.jetty.util.log.Logger;
 
 import org.neo4j.server.rest.batch.BatchOperationResults;
+import org.neo4j.server.rest.batch.DirectBatchOperations;
 import org.neo4j.server.rest.batch.NonStreamingBatchOperations;
 import org.neo4j.server.rest.repr.OutputFormat;
 import org.neo4j.server.rest.repr.RepresentationWriteHandler;
 import org.neo4j.server.rest.repr.StreamingFormat;
+import org.neo4j.server.rest.repr.formats.JsonFormat;
 import org.neo4j.server.web.HttpHeaderUtils;
 import org.neo4j.server.web.WebServer;
 
@@ -52,12 +54,15 @@ public class BatchOperationService {
 
     private final OutputFormat output;
     private final WebServer webServer;
+    private final DatabaseActions actions;
     private RepresentationWriteHandler representationWriteHandler = RepresentationWriteHandler.DO_NOTHING;
 
-    public BatchOperationService( @Context WebServer webServer, @Context OutputFormat output )
+    public BatchOperationService( @Context WebServer webServer, @Context OutputFormat output,
+                                  @Context DatabaseActions actions )
     {
         this.output = output;
         this.webServer = webServer;
+        this.actions = actions;
     }
 
     public void setRepresentationWriteHandler( RepresentationWriteHandler representationWriteHandler )
@@ -95,7 +100,7 @@ public class BatchOperationService {
                                 output.write( i );
                             }
                         };
-                        new StreamingBatchOperations( webServer ).readAndExecuteOperations( uriInfo, httpHeaders, body,
+                        new StreamingBatchOperations( webServer, directOperations() ).readAndExecuteOperations( uriInfo, httpHeaders, body,
                                 servletOutputStream );
                         representationWriteHandler.onRepresentationWritten();
                     }
@@ -122,7 +127,7 @@ public class BatchOperationService {
     {
         try
         {
-            NonStreamingBatchOperations batchOperations = new NonStreamingBatchOperations( webServer );
+            NonStreamingBatchOperations batchOperations = new NonStreamingBatchOperations( webServer, directOperations() );
             BatchOperationResults results = batchOperations.performBatchJobs( uriInfo, httpHeaders, body );
 
             Response res = Response.ok().entity(results.toJSON())
@@ -141,6 +146,12 @@ public class BatchOperationService {
         }
     }
 
+    private DirectBatchOperations directOperations()
+    {
+        // Dispatched jobs are always asked for plain JSON, so render the directly performed ones the same way
+        return new DirectBatchOperations( actions, output.withFormat( new JsonFormat() ) );
+    }
+
     private boolean isStreaming( HttpHeaders httpHeaders )
     {
         if ( "true".equalsIgnoreCase( httpHeaders.getRequestHeaders().getFirst( StreamingFormat.STREAM_HEADER ) ) )
@@ -35,6 +35,7 @@ import org.eclipse.jetty.util.log.Log;
 import org.eclipse.jetty.util.log.Logger;
 
 import org.neo4j.server.rest.batch.BatchOperations;
+import org.neo4j.server.rest.batch.DirectBatchOperations;
 import org.neo4j.server.rest.batch.StreamingBatchOperationResults;
 import org.neo4j.server.rest.domain.BatchOperationFailedException;
 import org.neo4j.server.rest.repr.formats.StreamingJsonFormat;
@@ -51,6 +52,11 @@ public class StreamingBatchOperations extends BatchOperations
         super( webServer );
     }
 
+    public StreamingBatchOperations( WebServer webServer, DirectBatchOperations directOperations )
+    {
+        super( webServer, directOperations );
+    }
+
     public void readAndExecuteOperations( UriInfo uriInfo, HttpHeaders httpHeaders, InputStream body, ServletOutputStream output ) throws IOException, ServletException {
         results = new StreamingBatchOperationResults(jsonFactory.createJsonGenerator(output),output);
         Map<Integer, String> locations = results.getLocations();
@@ -86,6 +92,29 @@ public class StreamingBatchOperations extends BatchOperations
         }
     }
 
+    @Override
+    protected void addResult( String method, String path, Integer id, DirectBatchOperations.Result result )
+            throws IOException
+    {
+        results.startOperation( path, id );
+        if ( result.getBody() != null )
+        {
+            ServletOutputStream output = results.getServletOutputStream();
+            output.write( result.getBody().getBytes( "UTF-8" ) );
+        }
+        final int status = result.getStatus();
+        if ( is2XXStatusCode( status ) )
+        {
+            results.addOperationResult( status, id, result.getLocation() );
+        }
+        else
+        {
+            final String message = "Error " + status + " executing batch operation: " + ((id!=null) ? id + ". ":"") + method + " " + path;
+            results.writeError( status, null );
+            throw new BatchOperationFailedException( status, message, null );
+        }
+    }
+
     protected void addHeaders(final InternalJettyServletRequest res,
             final HttpHeaders httpHeaders)
     {
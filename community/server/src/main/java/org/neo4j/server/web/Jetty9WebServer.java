@@ -34,14 +34,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
+import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import ch.qos.logback.access.jetty.RequestLogImpl;
+import org.eclipse.jetty.http.PathMap;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Server;
@@ -90,6 +95,11 @@ public class Jetty9WebServer implements WebServer
 			return filter == this.filter && pathSpec.equals(this.pathSpec);
 		}
 
+		public boolean matchesPath(String pathInContext)
+		{
+			return PathMap.match(pathSpec, pathInContext);
+		}
+
 		public Filter getFilter() {
 			return filter;
 		}
@@ -115,6 +125,7 @@ public class Jetty9WebServer implements WebServer
     private final Map<String,JaxRsServletHolderFactory> jaxRSClasses =
             new HashMap<String, JaxRsServletHolderFactory>();
     private final List<FilterDefinition> filters = new ArrayList<FilterDefinition>();
+    private final List<Filter> executionLimitFilters = new CopyOnWriteArrayList<Filter>();
 
     private int jettyMaxThreads = tenThreadsPerProcessor();
     private boolean httpsEnabled = false;
@@ -310,6 +321,75 @@ public class Jetty9WebServer implements WebServer
         jetty.handle( targetPath, (Request) request, request, response );
     }
 
+    @Override
+    public void invokeFiltersDirectly( String targetPath, HttpServletRequest request, HttpServletResponse response,
+            FilterChain handler ) throws IOException, ServletException
+    {
+        // Set the request up like the context that would have handled it does, since that is what filters look at
+        String contextPath = contextPathOf( targetPath );
+        String pathInContext = targetPath.substring( contextPath.length() );
+        if ( pathInContext.isEmpty() )
+        {
+            pathInContext = "/";
+        }
+        Request baseRequest = (Request) request;
+        baseRequest.setContextPath( contextPath );
+        baseRequest.setServletPath( "" );
+        baseRequest.setPathInfo( pathInContext );
+
+        List<Filter> chain = new ArrayList<Filter>();
+        for ( FilterDefinition filterDef : filters )
+        {
+            if ( filterDef.matchesPath( pathInContext ) )
+            {
+                chain.add( filterDef.getFilter() );
+            }
+        }
+        chain.addAll( executionLimitFilters );
+        new DirectFilterChain( chain.iterator(), handler ).doFilter( request, response );
+    }
+
+    private String contextPathOf( String targetPath )
+    {
+        String contextPath = "";
+        List<String> mountPoints = new ArrayList<String>( jaxRSPackages.keySet() );
+        mountPoints.addAll( jaxRSClasses.keySet() );
+        for ( String mountPoint : mountPoints )
+        {
+            if ( mountPoint.length() > contextPath.length() && !mountPoint.equals( "/" ) &&
+                    (targetPath.equals( mountPoint ) || targetPath.startsWith( mountPoint + "/" )) )
+            {
+                contextPath = mountPoint;
+            }
+        }
+        return contextPath;
+    }
+
+    private static class DirectFilterChain implements FilterChain
+    {
+        private final Iterator<Filter> filters;
+        private final FilterChain handler;
+
+        DirectFilterChain( Iterator<Filter> filters, FilterChain handler )
+        {
+            this.filters = filters;
+            this.handler = handler;
+        }
+
+        @Override
+        public void doFilter( ServletRequest request, ServletResponse response ) throws IOException, ServletException
+        {
+            if ( filters.hasNext() )
+            {
+                filters.next().doFilter( request, response, this );
+            }
+            else
+            {
+                handler.doFilter( request, response );
+            }
+        }
+    }
+
     @Override
     public void setHttpLoggingConfiguration( File logbackConfigFile )
     {
@@ -564,6 +644,8 @@ public class Jetty9WebServer implements WebServer
             @Override
             public void lifeCycleStarted( LifeCycle arg0 )
             {
+                // Jobs of batches that are performed directly go through these as well
+                executionLimitFilters.add( new GuardingRequestFilter( guard, timeout ) );
                 for ( Handler handler : handlers.getHandlers() )
                 {
                     if ( handler instanceof ServletContextHandler )
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.List;
 
 import javax.servlet.Filter;
+import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -71,6 +72,14 @@ public interface WebServer
     void invokeDirectly( String targetUri, HttpServletRequest request, HttpServletResponse response )
         throws IOException, ServletException;
 
+    /**
+     * Passes the request through the same filters as {@link #invokeDirectly} would, but lets the given handler
+     * handle it instead of the servlet mounted at the target path. The handler is not invoked if one of the
+     * filters rejects the request, in which case the response tells why.
+     */
+    void invokeFiltersDirectly( String targetPath, HttpServletRequest request, HttpServletResponse response,
+            FilterChain handler ) throws IOException, ServletException;
+
     /**
      * Please use {@link #addFilter instead}, this will be removed
      * in version 1.10
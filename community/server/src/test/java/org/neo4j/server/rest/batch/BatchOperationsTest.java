@@ -27,6 +27,8 @@ import java.util.Map;
 
 import javax.servlet.ServletException;
 
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Test;
 import org.neo4j.server.rest.web.InternalJettyServletRequest;
 import org.neo4j.server.rest.web.InternalJettyServletResponse;
@@ -39,6 +41,10 @@ public class BatchOperationsTest {
         @Override
         protected void invoke(String method, String path, String body, Integer id, URI targetUri, InternalJettyServletRequest req, InternalJettyServletResponse res) throws IOException, ServletException {
         }
+
+        @Override
+        protected void addResult(String method, String path, Integer id, DirectBatchOperations.Result result) {
+        }
     };
 
     @Test
@@ -51,6 +57,15 @@ public class BatchOperationsTest {
         assertEquals("bar bar foo bar bar", ops.replaceLocationPlaceholders("bar {100} foo {100} bar", map));
     }
 
+    @Test
+    public void testReplaceLocationsInJsonBody() throws Exception {
+        Map<Integer,String> map=new HashMap<Integer, String>();
+        map.put(100,"bar");
+        JsonNode body = new ObjectMapper().readTree("{\"to\":\"{100}\",\"data\":[\"{100} foo\",1,{\"{100}\":\"{101}\"}]}");
+        assertEquals("{\"to\":\"bar\",\"data\":[\"bar foo\",1,{\"{100}\":\"{101}\"}]}",
+                ops.replaceLocationPlaceholders(body, map).toString());
+    }
+
     @Test
     public void testSchemeInInternalJettyServletRequestForHttp() throws UnsupportedEncodingException
     {
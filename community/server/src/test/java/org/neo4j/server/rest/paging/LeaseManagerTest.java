@@ -95,6 +95,27 @@ public class LeaseManagerTest
         assertNull( manager.getLeaseById( leaseA.getId() ) );
     }
 
+    @Test
+    public void shouldKeepARenewedLeaseWhileOthersExpire() throws Exception
+    {
+        FakeClock fakeClock = new FakeClock();
+        LeaseManager manager = new LeaseManager( fakeClock );
+
+        Lease renewed = manager.createLease( SIXTY_SECONDS, mock( PagedTraverser.class ) );
+        Lease expiring = manager.createLease( SIXTY_SECONDS, mock( PagedTraverser.class ) );
+
+        fakeClock.forward( 50, TimeUnit.SECONDS );
+        assertNotNull( manager.getLeaseById( renewed.getId() ) );
+        fakeClock.forward( 50, TimeUnit.SECONDS );
+
+        assertNull( manager.getLeaseById( expiring.getId() ) );
+        assertNotNull( manager.getLeaseById( renewed.getId() ) );
+
+        fakeClock.forward( 2, TimeUnit.MINUTES );
+
+        assertNull( manager.getLeaseById( renewed.getId() ) );
+    }
+
     @Test
     public void shouldRemoveALease()
     {
@@ -40,6 +40,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.server.rest.domain.JsonHelper.jsonToMap;
 
@@ -102,6 +103,25 @@ public class CypherResultRepresentationTest
         assertFalse( "Didn't expect to see a plan here", serialized.containsKey( "plan" ) );
     }
 
+    @Test
+    public void shouldCloseResultIteratorAfterWritingRows() throws Exception
+    {
+        // Given
+        @SuppressWarnings("unchecked")
+        ResourceIterator<Map<String, Object>> iterator = mock( ResourceIterator.class );
+        when( iterator.hasNext() ).thenReturn( true, false );
+        when( iterator.next() ).thenReturn( MapUtil.<String, Object>map( "column", "value" ) );
+        ExecutionResult result = mock( ExecutionResult.class );
+        when( result.iterator() ).thenReturn( iterator );
+        when( result.columns() ).thenReturn( asList( "column" ) );
+
+        // When
+        serialize( new CypherResultRepresentation( result, /*includeStats=*/false, false ) );
+
+        // Then
+        verify( iterator ).close();
+    }
+
     private static ResourceIterator<Map<String, Object>> emptyIterator()
     {
         @SuppressWarnings("unchecked")
@@ -33,12 +33,15 @@ import org.neo4j.server.helpers.CommunityServerBuilder;
 import org.neo4j.server.helpers.FunctionalTestHelper;
 import org.neo4j.server.rest.JaxRsResponse;
 import org.neo4j.server.rest.RESTDocsGenerator;
+import org.neo4j.server.rest.RestRequest;
 import org.neo4j.test.TestData;
 import org.neo4j.test.TestData.Title;
 import org.neo4j.test.server.ExclusiveServerTestBase;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -157,6 +160,31 @@ public class SecurityRulesDocIT extends ExclusiveServerTestBase
                 functionalTestHelper.nodeUri() ).response();
     }
 
+    @Test
+    public void shouldApplySecurityRulesToTheJobsOfABatch() throws Exception
+    {
+        // given
+        server = CommunityServerBuilder.server().withDefaultDatabaseTuning().withSecurityRules(
+                NoAccessToNodeIndexesSecurityRule.class.getCanonicalName() )
+                .usingDatabaseDir( folder.getRoot().getAbsolutePath() )
+                .build();
+        server.start();
+        functionalTestHelper = new FunctionalTestHelper( server );
+        int nodesBefore = functionalTestHelper.getGraphDbHelper().getNumberOfNodes();
+
+        // when
+        JaxRsResponse response = RestRequest.req().post( functionalTestHelper.dataUri() + "batch",
+                "[{\"method\":\"POST\",\"to\":\"/node\",\"id\":0,\"body\":{\"name\":\"alice\"}}," +
+                "{\"method\":\"POST\",\"to\":\"/index/node/people\",\"id\":1," +
+                "\"body\":{\"key\":\"name\",\"value\":\"alice\",\"uri\":\"{0}\"}}]" );
+
+        // then
+        assertEquals( 500, response.getStatus() );
+        assertTrue( NoAccessToNodeIndexesSecurityRule.wasInvoked() );
+        assertFalse( asList( functionalTestHelper.getGraphDbHelper().getNodeIndexes() ).contains( "people" ) );
+        assertEquals( nodesBefore, functionalTestHelper.getGraphDbHelper().getNumberOfNodes() );
+    }
+
     /**
      * In this example, a security rule is registered to deny
      * access to all URIs to the server by listing the rule(s) class(es) in
@@ -33,6 +33,8 @@ import java.util.Set;
 import org.codehaus.jackson.JsonNode;
 import org.junit.Test;
 import org.mockito.internal.stubbing.answers.ThrowsException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.neo4j.cypher.javacompat.ExecutionResult;
 import org.neo4j.graphdb.Node;
@@ -53,6 +55,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.neo4j.helpers.collection.MapUtil.map;
@@ -403,6 +406,64 @@ public class ExecutionResultSerializerTest
                 replaceStackTrace( result, "***" ) );
     }
 
+    @Test
+    public void shouldWriteFirstRowToOutputBeforeResultIsExhausted() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( output, null, StringLogger.DEV_NULL );
+
+        final ByteArrayOutputStream seenByClient = new ByteArrayOutputStream();
+        Map<String, Object> data = map( "column1", "value1" );
+        ExecutionResult executionResult = mock( ExecutionResult.class );
+        when( executionResult.columns() ).thenReturn( new ArrayList<>( data.keySet() ) );
+        @SuppressWarnings("unchecked")
+        ResourceIterator<Map<String, Object>> iterator = mock( ResourceIterator.class );
+        when( iterator.hasNext() ).thenReturn( true, true, false );
+        when( iterator.next() ).thenReturn( data ).thenAnswer( snapshotOf( output, seenByClient, data ) );
+        when( executionResult.iterator() ).thenReturn( iterator );
+
+        // when
+        serializer.statementResult( executionResult, false );
+        serializer.finish();
+
+        // then
+        assertEquals( "{\"results\":[{\"columns\":[\"column1\"],\"data\":[{\"row\":[\"value1\"]}",
+                      seenByClient.toString( "UTF-8" ) );
+    }
+
+    @Test
+    public void shouldCloseResultIteratorIfWritingToOutputFails() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "Client went away" );
+        OutputStream output = mock( OutputStream.class, new ThrowsException( failure ) );
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( output, null, StringLogger.DEV_NULL );
+
+        Map<String, Object> data = map( "column1", "value1" );
+        ExecutionResult executionResult = mock( ExecutionResult.class );
+        when( executionResult.columns() ).thenReturn( new ArrayList<>( data.keySet() ) );
+        @SuppressWarnings("unchecked")
+        ResourceIterator<Map<String, Object>> iterator = mock( ResourceIterator.class );
+        when( iterator.hasNext() ).thenReturn( true );
+        when( iterator.next() ).thenReturn( data );
+        when( executionResult.iterator() ).thenReturn( iterator );
+
+        // when
+        try
+        {
+            serializer.statementResult( executionResult, false );
+            fail( "should have thrown exception" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( failure, e );
+        }
+
+        // then
+        verify( iterator ).close();
+    }
+
     @Test
     public void shouldProduceResultStreamWithGraphEntries() throws Exception
     {
@@ -518,6 +579,21 @@ public class ExecutionResultSerializerTest
         log.assertExactly( error( "Failed to generate JSON output.", failure ) );
     }
 
+    private static Answer<Map<String, Object>> snapshotOf( final ByteArrayOutputStream output,
+                                                          final ByteArrayOutputStream snapshot,
+                                                          final Map<String, Object> row )
+    {
+        return new Answer<Map<String, Object>>()
+        {
+            @Override
+            public Map<String, Object> answer( InvocationOnMock invocation ) throws Throwable
+            {
+                output.writeTo( snapshot );
+                return row;
+            }
+        };
+    }
+
     @SafeVarargs
     private static ExecutionResult mockExecutionResult( Map<String, Object>... rows )
     {
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.server.WrappingNeoServer;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+/**
+ * Ignored load test, measures time to first byte, total time and peak heap usage when a large cypher result is
+ * pulled through the transactional and the (streaming) legacy cypher endpoints. The result is the cross product
+ * of all nodes with themselves, so {@link #NODES} nodes gives {@code NODES * NODES} rows. Run with a small heap,
+ * e.g. -Xmx256m, to see that the heap needed doesn't grow with the size of the result.
+ * TODO: Move this into performance-regression project.
+ */
+@Ignore
+public class LargeResultStreamingPerformanceTest
+{
+    private static final int NODES = 3000;
+    private static final String QUERY = "START a=node(*), b=node(*) RETURN id(a), id(b), a.name, b.name";
+
+    private GraphDatabaseAPI db;
+    private WrappingNeoServer server;
+
+    @Before
+    public void setUp()
+    {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        Transaction tx = db.beginTx();
+        try
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                db.createNode().setProperty( "name", "node-" + i );
+            }
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+        server = new WrappingNeoServer( db );
+        server.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        server.stop();
+        db.shutdown();
+    }
+
+    @Test
+    public void measureTransactionalEndpoint() throws Exception
+    {
+        measure( "transactional", "db/data/transaction/commit",
+                 "{\"statements\":[{\"statement\":\"" + QUERY + "\"}]}", false );
+    }
+
+    @Test
+    public void measureStreamingLegacyEndpoint() throws Exception
+    {
+        measure( "legacy", "db/data/cypher", "{\"query\":\"" + QUERY + "\"}", true );
+    }
+
+    private void measure( String name, String path, String body, boolean streamHeader ) throws IOException
+    {
+        System.gc();
+        resetPeakHeapUsage();
+        long start = System.nanoTime();
+
+        HttpURLConnection connection = (HttpURLConnection) new URL( server.baseUri().toURL(), path ).openConnection();
+        connection.setDoOutput( true );
+        connection.setRequestMethod( "POST" );
+        connection.setRequestProperty( "Content-Type", "application/json" );
+        connection.setRequestProperty( "Accept", "application/json" );
+        if ( streamHeader )
+        {
+            connection.setRequestProperty( "X-Stream", "true" );
+        }
+        try ( OutputStream output = connection.getOutputStream() )
+        {
+            output.write( body.getBytes( "UTF-8" ) );
+        }
+
+        long bytes = 0;
+        long firstByte = -1;
+        byte[] buffer = new byte[8192];
+        try ( InputStream input = connection.getInputStream() )
+        {
+            for ( int read; (read = input.read( buffer )) != -1; )
+            {
+                if ( firstByte == -1 )
+                {
+                    firstByte = System.nanoTime();
+                }
+                bytes += read;
+            }
+        }
+        long end = System.nanoTime();
+
+        System.out.println( String.format( "%s: %d rows, %d MB, first byte after %d ms, done after %d ms, " +
+                "peak heap %d MB", name, (long) NODES * NODES, bytes >> 20, (firstByte - start) / 1000000,
+                (end - start) / 1000000, peakHeapUsage() >> 20 ) );
+    }
+
+    private static void resetPeakHeapUsage()
+    {
+        for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() )
+        {
+            if ( pool.getType() == MemoryType.HEAP )
+            {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeapUsage()
+    {
+        long peak = 0;
+        for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() )
+        {
+            if ( pool.getType() == MemoryType.HEAP )
+            {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -22,6 +22,9 @@ package org.neo4j.backup;
 import static org.neo4j.backup.BackupServer.FRAME_LENGTH;
 import static org.neo4j.backup.BackupServer.PROTOCOL_VERSION;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.neo4j.com.Client;
 import org.neo4j.com.ObjectSerializer;
@@ -29,6 +32,7 @@ import org.neo4j.com.Protocol;
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.RequestType;
 import org.neo4j.com.Response;
+import org.neo4j.com.Serializer;
 import org.neo4j.com.StoreWriter;
 import org.neo4j.com.TargetCaller;
 import org.neo4j.com.ToNetworkStoreWriter;
@@ -56,6 +60,22 @@ class BackupClient extends Client<TheBackupInterface> implements TheBackupInterf
                 Protocol.VOID_DESERIALIZER );
     }
 
+    public Response<Void> incrementalStoreCopy( final StoreId storeId, final BlockChecksums checksums,
+                                                StoreWriter storeWriter )
+    {
+        return sendRequest( BackupRequestType.INCREMENTAL_STORE_COPY, RequestContext.EMPTY, new Serializer()
+        {
+            @Override
+            public void write( ChannelBuffer buffer, ByteBuffer readBuffer ) throws IOException
+            {
+                byte[] storeIdBytes = storeId.serialize();
+                buffer.writeInt( storeIdBytes.length );
+                buffer.writeBytes( storeIdBytes );
+                checksums.writeTo( buffer );
+            }
+        }, new Protocol.FileStreamsDeserializer( storeWriter ) );
+    }
+
     @Override
     protected boolean shouldCheckStoreId( RequestType<TheBackupInterface> type )
     {
@@ -79,6 +99,17 @@ class BackupClient extends Client<TheBackupInterface> implements TheBackupInterf
             {
                 return master.incrementalBackup( context );
             }
+        }, Protocol.VOID_SERIALIZER ),
+        INCREMENTAL_STORE_COPY( new TargetCaller<TheBackupInterface, Void>()
+        {
+            public Response<Void> call( TheBackupInterface master, RequestContext context,
+                    ChannelBuffer input, ChannelBuffer target )
+            {
+                byte[] storeIdBytes = new byte[input.readInt()];
+                input.readBytes( storeIdBytes );
+                return master.incrementalStoreCopy( StoreId.deserialize( storeIdBytes ),
+                        BlockChecksums.readFrom( input ), new ToNetworkStoreWriter( target ) );
+            }
         }, Protocol.VOID_SERIALIZER )
 
         ;
@@ -25,6 +25,8 @@ import org.neo4j.com.ServerUtil;
 import org.neo4j.com.StoreWriter;
 import org.neo4j.helpers.Settings;
 import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.nioneo.store.MismatchingStoreIdException;
+import org.neo4j.kernel.impl.nioneo.store.StoreId;
 
 class BackupImpl implements TheBackupInterface
 {
@@ -46,6 +48,19 @@ class BackupImpl implements TheBackupInterface
     {
         return packResponse( context );
     }
+
+    public Response<Void> incrementalStoreCopy( StoreId storeId, BlockChecksums checksums, StoreWriter writer )
+    {
+        StoreId myStoreId = graphDb.getStoreId();
+        if ( !myStoreId.equals( storeId ) )
+        {
+            throw new MismatchingStoreIdException( myStoreId, storeId );
+        }
+        StoreWriter changedBlocksWriter = new ChangedBlocksStoreWriter( checksums, writer );
+        RequestContext context = ServerUtil.rotateLogsAndStreamStoreFiles( graphDb, false, changedBlocksWriter );
+        changedBlocksWriter.done();
+        return packResponse( context );
+    }
     
     private Response<Void> packResponse( RequestContext context )
     {
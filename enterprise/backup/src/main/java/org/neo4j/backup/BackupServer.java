@@ -35,7 +35,7 @@ import org.neo4j.tooling.RealClock;
 
 class BackupServer extends Server<TheBackupInterface, Object>
 {
-    static final byte PROTOCOL_VERSION = 1;
+    static final byte PROTOCOL_VERSION = 2;
     private final BackupRequestType[] contexts = BackupRequestType.values();
     static int DEFAULT_PORT = DEFAULT_BACKUP_PORT;
     static final int FRAME_LENGTH = Protocol.MEGA * 4;
@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,6 +47,7 @@ import org.neo4j.com.TransactionStream;
 import org.neo4j.com.TxExtractor;
 import org.neo4j.consistency.ConsistencyCheckService;
 import org.neo4j.consistency.checking.full.ConsistencyCheckIncompleteException;
+import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Settings;
@@ -56,10 +58,13 @@ import org.neo4j.kernel.GraphDatabaseAPI;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.configuration.ConfigParam;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.StoreId;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
 import org.neo4j.kernel.impl.transaction.xaframework.LogIoUtils;
+import org.neo4j.kernel.impl.transaction.xaframework.MissingLogDataException;
 import org.neo4j.kernel.impl.transaction.xaframework.NoSuchLogVersionException;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
+import org.neo4j.kernel.impl.util.FileUtils;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.kernel.logging.Logging;
@@ -68,6 +73,9 @@ import static java.util.Collections.emptyMap;
 
 class BackupService
 {
+    private static final String STAGING_SUFFIX = ".incremental";
+    private static final String PREVIOUS_SUFFIX = ".previous";
+
     class BackupOutcome
     {
         private final Map<String, Long> lastCommittedTxs;
@@ -99,115 +107,8 @@ class BackupService
         {
             Response<Void> response = client.fullBackup( decorateWithProgressIndicator(
                     new ToFileStoreWriter( new File( targetDirectory ) ) ) );
-            GraphDatabaseAPI targetDb = startTemporaryDb( targetDirectory,
-                    VerificationLevel.NONE /* run full check instead */ );
-            try
-            {
-                // First, receive all txs pending
-                lastCommittedTxs = unpackResponse( response,
-                        targetDb.getDependencyResolver().resolveDependency( XaDataSourceManager.class ),
-                        ServerUtil.txHandlerForFullCopy() );
-                // Then go over all datasources, try to extract the latest tx
-                Set<String> noTxPresent = new HashSet<String>();
-                for ( XaDataSource ds : targetDb.getXaDataSourceManager().getAllRegisteredDataSources() )
-                {
-                    long lastTx = ds.getLastCommittedTxId();
-                    try
-                    {
-                        // This fails if the tx is not present with NSLVE
-                        ds.getMasterForCommittedTx( lastTx );
-                    }
-                    catch ( NoSuchLogVersionException e )
-                    {
-                        // Note the name of the datasource
-                        noTxPresent.add( ds.getName() );
-                    }
-                    catch ( IOException e )
-                    {
-                        throw new RuntimeException( e );
-                    }
-                }
-                if ( !noTxPresent.isEmpty() )
-                {
-                    /*
-                     * Create a fake slave context, asking for the transactions that
-                     * span the next-to-last up to the latest for each datasource
-                     */
-                    BackupClient recoveryClient = new BackupClient(
-                            sourceHostNameOrIp, sourcePort, targetDb.getDependencyResolver().resolveDependency( Logging.class ), targetDb.getStoreId() );
-                    recoveryClient.start();
-                    Response<Void> recoveryResponse = null;
-                    Map<String, Long> recoveryDiff = new HashMap<String, Long>();
-                    for ( String ds : noTxPresent )
-                    {
-                        recoveryDiff.put( ds, -1L );
-                    }
-                    RequestContext recoveryCtx = addDiffToSlaveContext(
-                            slaveContextOf( targetDb ), recoveryDiff );
-                    try
-                    {
-                        recoveryResponse = recoveryClient.incrementalBackup( recoveryCtx );
-                        // Ok, the response is here, apply it.
-                        TransactionStream txs = recoveryResponse.transactions();
-                        ByteBuffer scratch = ByteBuffer.allocate( 64 );
-                        while ( txs.hasNext() )
-                        {
-                            /*
-                             * For each tx stream in the response, create the latest archived
-                             * logical log file and write out in there the transaction.
-                             *
-                             */
-                            Triplet<String, Long, TxExtractor> tx = txs.next();
-                            scratch.clear();
-                            XaDataSource ds = targetDb.getXaDataSourceManager().getXaDataSource(
-                                    tx.first() );
-                            long logVersion = ds.getCurrentLogVersion() - 1;
-                            FileChannel newLog = new RandomAccessFile(
-                                    ds.getFileName( logVersion ),
-                                    "rw" ).getChannel();
-                            newLog.truncate( 0 );
-                            LogIoUtils.writeLogHeader( scratch, logVersion, -1 );
-                            // scratch buffer is flipped by writeLogHeader
-                            newLog.write( scratch );
-                            ReadableByteChannel received = tx.third().extract();
-                            scratch.flip();
-                            while ( received.read( scratch ) > 0 )
-                            {
-                                scratch.flip();
-                                newLog.write( scratch );
-                                scratch.flip();
-                            }
-                            newLog.force( false );
-                            newLog.close();
-                            received.close();
-                        }
-                    }
-                    catch ( IOException e )
-                    {
-                        throw new RuntimeException( e );
-                    }
-                    finally
-                    {
-                        try
-                        {
-                            recoveryClient.stop();
-                        }
-                        catch ( Throwable throwable )
-                        {
-                            throw new RuntimeException( throwable );
-                        }
-                        if ( recoveryResponse != null )
-                        {
-                            recoveryResponse.close();
-                        }
-                        targetDb.shutdown();
-                    }
-                }
-            }
-            finally
-            {
-                targetDb.shutdown();
-            }
+            lastCommittedTxs = receiveTransactionsAfterStoreCopy( sourceHostNameOrIp, sourcePort,
+                    targetDirectory, response );
             bumpLogFile( targetDirectory, timestamp );
             if ( checkConsistency )
             {
@@ -244,6 +145,129 @@ class BackupService
         return new BackupOutcome( lastCommittedTxs );
     }
 
+    /**
+     * Starts the store that was just copied into the target directory, applies the transactions that came
+     * with the store copy and makes sure that the latest transaction of each data source is present in its
+     * logical log, asking the source for it if it isn't.
+     *
+     * @return the last committed transaction of each data source.
+     */
+    private Map<String, Long> receiveTransactionsAfterStoreCopy( String sourceHostNameOrIp, int sourcePort,
+                                                                 String targetDirectory, Response<Void> response )
+    {
+        Map<String, Long> lastCommittedTxs;
+        GraphDatabaseAPI targetDb = startTemporaryDb( targetDirectory,
+                VerificationLevel.NONE /* run full check instead */ );
+        try
+        {
+            // First, receive all txs pending
+            lastCommittedTxs = unpackResponse( response,
+                    targetDb.getDependencyResolver().resolveDependency( XaDataSourceManager.class ),
+                    ServerUtil.txHandlerForFullCopy() );
+            // Then go over all datasources, try to extract the latest tx
+            Set<String> noTxPresent = new HashSet<String>();
+            for ( XaDataSource ds : targetDb.getXaDataSourceManager().getAllRegisteredDataSources() )
+            {
+                long lastTx = ds.getLastCommittedTxId();
+                try
+                {
+                    // This fails if the tx is not present with NSLVE
+                    ds.getMasterForCommittedTx( lastTx );
+                }
+                catch ( NoSuchLogVersionException e )
+                {
+                    // Note the name of the datasource
+                    noTxPresent.add( ds.getName() );
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+            if ( !noTxPresent.isEmpty() )
+            {
+                /*
+                 * Create a fake slave context, asking for the transactions that
+                 * span the next-to-last up to the latest for each datasource
+                 */
+                BackupClient recoveryClient = new BackupClient(
+                        sourceHostNameOrIp, sourcePort, targetDb.getDependencyResolver().resolveDependency( Logging.class ), targetDb.getStoreId() );
+                recoveryClient.start();
+                Response<Void> recoveryResponse = null;
+                Map<String, Long> recoveryDiff = new HashMap<String, Long>();
+                for ( String ds : noTxPresent )
+                {
+                    recoveryDiff.put( ds, -1L );
+                }
+                RequestContext recoveryCtx = addDiffToSlaveContext(
+                        slaveContextOf( targetDb ), recoveryDiff );
+                try
+                {
+                    recoveryResponse = recoveryClient.incrementalBackup( recoveryCtx );
+                    // Ok, the response is here, apply it.
+                    TransactionStream txs = recoveryResponse.transactions();
+                    ByteBuffer scratch = ByteBuffer.allocate( 64 );
+                    while ( txs.hasNext() )
+                    {
+                        /*
+                         * For each tx stream in the response, create the latest archived
+                         * logical log file and write out in there the transaction.
+                         *
+                         */
+                        Triplet<String, Long, TxExtractor> tx = txs.next();
+                        scratch.clear();
+                        XaDataSource ds = targetDb.getXaDataSourceManager().getXaDataSource(
+                                tx.first() );
+                        long logVersion = ds.getCurrentLogVersion() - 1;
+                        FileChannel newLog = new RandomAccessFile(
+                                ds.getFileName( logVersion ),
+                                "rw" ).getChannel();
+                        newLog.truncate( 0 );
+                        LogIoUtils.writeLogHeader( scratch, logVersion, -1 );
+                        // scratch buffer is flipped by writeLogHeader
+                        newLog.write( scratch );
+                        ReadableByteChannel received = tx.third().extract();
+                        scratch.flip();
+                        while ( received.read( scratch ) > 0 )
+                        {
+                            scratch.flip();
+                            newLog.write( scratch );
+                            scratch.flip();
+                        }
+                        newLog.force( false );
+                        newLog.close();
+                        received.close();
+                    }
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+                finally
+                {
+                    try
+                    {
+                        recoveryClient.stop();
+                    }
+                    catch ( Throwable throwable )
+                    {
+                        throw new RuntimeException( throwable );
+                    }
+                    if ( recoveryResponse != null )
+                    {
+                        recoveryResponse.close();
+                    }
+                    targetDb.shutdown();
+                }
+            }
+        }
+        finally
+        {
+            targetDb.shutdown();
+        }
+        return lastCommittedTxs;
+    }
+
     BackupOutcome doIncrementalBackup( String sourceHostNameOrIp, int sourcePort, String targetDirectory,
                                        boolean verification )
     {
@@ -267,19 +291,182 @@ class BackupService
 
         long backupStartTime = System.currentTimeMillis();
         BackupOutcome outcome = null;
+        StoreId storeId = null;
+        Collection<String> storeFiles = null;
         try
         {
             outcome = doIncrementalBackup( sourceHostNameOrIp, sourcePort, targetDb );
         }
+        catch ( RuntimeException e )
+        {
+            if ( !causedByMissingLogs( e ) )
+            {
+                throw e;
+            }
+            // The source no longer has the logs needed to bring this backup up to date
+            storeId = targetDb.getStoreId();
+            storeFiles = storeFilesOf( targetDb, new File( targetDirectory ) );
+        }
         finally
         {
             targetDb.shutdown();
         }
 
+        if ( outcome == null )
+        {
+            outcome = doChangedBlocksBackup( sourceHostNameOrIp, sourcePort, targetDirectory, storeId, storeFiles );
+        }
         bumpLogFile( targetDirectory, backupStartTime );
         return outcome;
     }
 
+    /**
+     * Brings the backup in the target directory up to date by copying the store of the source, like a
+     * full backup does, but only the blocks of the store files that differ from those of the backup.
+     * This is what an incremental backup falls back to when the source has pruned the logical logs
+     * with the transactions that the backup is missing. The blocks are applied to a copy of the backup
+     * next to it, which replaces the backup only once it's complete, so a failure half way through
+     * leaves the backup as it was.
+     */
+    private BackupOutcome doChangedBlocksBackup( String sourceHostNameOrIp, int sourcePort, String targetDirectory,
+                                                 StoreId storeId, Collection<String> storeFiles )
+    {
+        File storeDir = new File( targetDirectory ).getAbsoluteFile();
+        File stagingDir = new File( storeDir.getParentFile(), storeDir.getName() + STAGING_SUFFIX );
+        BackupClient client = new BackupClient( sourceHostNameOrIp, sourcePort, new DevNullLoggingService(),
+                storeId );
+        client.start();
+        boolean swapped = false;
+        try
+        {
+            // Left behind by a backup that failed before it could swap in its copy
+            FileUtils.deleteRecursively( stagingDir );
+            for ( String storeFile : storeFiles )
+            {
+                FileUtils.copyFile( new File( storeDir, storeFile ), new File( stagingDir, storeFile ) );
+            }
+
+            BlockChecksums checksums = BlockChecksums.of( stagingDir, storeFiles );
+            ChangedBlocksToFileStoreWriter writer = new ChangedBlocksToFileStoreWriter( stagingDir );
+            Response<Void> response = client.incrementalStoreCopy( storeId, checksums,
+                    decorateWithProgressIndicator( writer ) );
+            // Leave only what a full copy would have left
+            deleteFilesNotIn( stagingDir, stagingDir, writer.writtenPaths() );
+            BackupOutcome outcome = new BackupOutcome( receiveTransactionsAfterStoreCopy( sourceHostNameOrIp,
+                    sourcePort, stagingDir.getPath(), response ) );
+            swapIn( stagingDir, storeDir );
+            swapped = true;
+            return outcome;
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            try
+            {
+                client.stop();
+            }
+            catch ( Throwable throwable )
+            {
+                throw new RuntimeException( throwable );
+            }
+            finally
+            {
+                if ( !swapped )
+                {
+                    deleteQuietly( stagingDir );
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces {@code storeDir} with {@code stagingDir}. The old backup is renamed out of the way first and
+     * is only deleted once the new one is in its place.
+     */
+    private static void swapIn( File stagingDir, File storeDir ) throws IOException
+    {
+        File previousDir = new File( storeDir.getParentFile(), storeDir.getName() + PREVIOUS_SUFFIX );
+        FileUtils.deleteRecursively( previousDir );
+        if ( !FileUtils.renameFile( storeDir, previousDir ) )
+        {
+            throw new IOException( "Unable to move " + storeDir + " to " + previousDir );
+        }
+        if ( !FileUtils.renameFile( stagingDir, storeDir ) )
+        {
+            FileUtils.renameFile( previousDir, storeDir );
+            throw new IOException( "Unable to move " + stagingDir + " to " + storeDir );
+        }
+        FileUtils.deleteRecursively( previousDir );
+    }
+
+    private static void deleteQuietly( File directory )
+    {
+        try
+        {
+            FileUtils.deleteRecursively( directory );
+        }
+        catch ( IOException e )
+        {
+            // Will be deleted by the next backup that needs it
+        }
+    }
+
+    private static boolean causedByMissingLogs( Throwable exception )
+    {
+        for ( Throwable cause = exception; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof MissingLogDataException )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Collection<String> storeFilesOf( GraphDatabaseAPI graphDb, File storeDir )
+    {
+        Collection<String> storeFiles = new ArrayList<String>();
+        for ( XaDataSource ds : graphDb.getXaDataSourceManager().getAllRegisteredDataSources() )
+        {
+            try ( ResourceIterator<File> files = ds.listStoreFiles( false ) )
+            {
+                while ( files.hasNext() )
+                {
+                    storeFiles.add( ServerUtil.relativePath( storeDir, files.next() ) );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+        return storeFiles;
+    }
+
+    private static void deleteFilesNotIn( File storeDir, File directory, Set<String> keep ) throws IOException
+    {
+        File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+        for ( File file : files )
+        {
+            if ( file.isDirectory() )
+            {
+                deleteFilesNotIn( storeDir, file, keep );
+            }
+            else if ( !file.getName().startsWith( StringLogger.DEFAULT_NAME ) &&
+                    !keep.contains( ServerUtil.relativePath( storeDir, file ) ) && !file.delete() )
+            {
+                throw new IOException( "Unable to delete " + file );
+            }
+        }
+    }
+
     BackupOutcome doIncrementalBackup( String sourceHostNameOrIp, int sourcePort, GraphDatabaseAPI targetDb )
     {
         return incrementalWithContext( sourceHostNameOrIp, sourcePort, targetDb, slaveContextOf( targetDb ) );
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.backup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.neo4j.com.Protocol;
+
+/**
+ * Checksums of the blocks of each store file in a store, so that a store copy can leave out the blocks
+ * that a backup already has. Blocks are {@link #BLOCK_SIZE} bytes each, except for the last block of
+ * a file, which may be shorter.
+ */
+class BlockChecksums
+{
+    static final int BLOCK_SIZE = 256 * 1024;
+    private static final String DIGEST_ALGORITHM = "MD5";
+
+    private final Map<String, List<byte[]>> checksums;
+
+    BlockChecksums( Map<String, List<byte[]>> checksums )
+    {
+        this.checksums = checksums;
+    }
+
+    /**
+     * @param storeDir the directory containing the store.
+     * @param paths the store files to checksum, relative to {@code storeDir}.
+     */
+    static BlockChecksums of( File storeDir, Iterable<String> paths ) throws IOException
+    {
+        Map<String, List<byte[]>> checksums = new HashMap<String, List<byte[]>>();
+        ByteBuffer block = ByteBuffer.allocateDirect( BLOCK_SIZE );
+        MessageDigest digest = newDigest();
+        for ( String path : paths )
+        {
+            File file = new File( storeDir, path );
+            if ( !file.isFile() )
+            {
+                continue;
+            }
+            List<byte[]> fileChecksums = new ArrayList<byte[]>();
+            try ( FileInputStream stream = new FileInputStream( file ) )
+            {
+                while ( readBlock( stream.getChannel(), block ) > 0 )
+                {
+                    fileChecksums.add( checksum( digest, block ) );
+                }
+            }
+            checksums.put( path, fileChecksums );
+        }
+        return new BlockChecksums( checksums );
+    }
+
+    /**
+     * @return the checksum of the given block of the file at the given path, or {@code null} if there
+     * is no such block.
+     */
+    byte[] checksum( String path, int blockIndex )
+    {
+        List<byte[]> fileChecksums = checksums.get( path );
+        return fileChecksums == null || blockIndex >= fileChecksums.size() ? null : fileChecksums.get( blockIndex );
+    }
+
+    static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( DIGEST_ALGORITHM );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( DIGEST_ALGORITHM + " should always be available", e );
+        }
+    }
+
+    /**
+     * @param block the block, from position zero up to its limit. Its position is left as it was.
+     */
+    static byte[] checksum( MessageDigest digest, ByteBuffer block )
+    {
+        digest.reset();
+        digest.update( block.duplicate() );
+        return digest.digest();
+    }
+
+    /**
+     * Reads the next block from {@code data} into {@code block}, which is flipped and ready to be read from
+     * afterwards.
+     *
+     * @return the number of bytes read, zero if there was nothing left to read.
+     */
+    static int readBlock( ReadableByteChannel data, ByteBuffer block ) throws IOException
+    {
+        block.clear();
+        while ( block.hasRemaining() && data.read( block ) >= 0 )
+        {
+            // Keep reading until the block is full or the data runs out
+        }
+        block.flip();
+        return block.limit();
+    }
+
+    void writeTo( ChannelBuffer buffer )
+    {
+        buffer.writeInt( checksums.size() );
+        for ( Map.Entry<String, List<byte[]>> file : checksums.entrySet() )
+        {
+            Protocol.writeString( buffer, file.getKey() );
+            buffer.writeInt( file.getValue().size() );
+            for ( byte[] checksum : file.getValue() )
+            {
+                buffer.writeByte( checksum.length );
+                buffer.writeBytes( checksum );
+            }
+        }
+    }
+
+    static BlockChecksums readFrom( ChannelBuffer buffer )
+    {
+        int fileCount = buffer.readInt();
+        Map<String, List<byte[]>> checksums = new HashMap<String, List<byte[]>>();
+        for ( int i = 0; i < fileCount; i++ )
+        {
+            String path = Protocol.readString( buffer );
+            int blockCount = buffer.readInt();
+            List<byte[]> fileChecksums = new ArrayList<byte[]>( blockCount );
+            for ( int j = 0; j < blockCount; j++ )
+            {
+                byte[] checksum = new byte[buffer.readUnsignedByte()];
+                buffer.readBytes( checksum );
+                fileChecksums.add( checksum );
+            }
+            checksums.put( path, fileChecksums );
+        }
+        return new BlockChecksums( checksums );
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.backup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.neo4j.com.StoreWriter;
+
+/**
+ * Writes each store file to another {@link StoreWriter} as only the blocks that differ from the
+ * {@link BlockChecksums} of the receiving side. For each file the data written is a sequence of
+ * changed blocks, each one a {@link #BLOCK} byte followed by the offset, the length and the
+ * contents of the block, ending with an {@link #END} byte followed by the length of the whole file.
+ * {@link ChangedBlocksToFileStoreWriter} applies this to the files of the receiving side.
+ */
+class ChangedBlocksStoreWriter implements StoreWriter
+{
+    static final byte END = 0;
+    static final byte BLOCK = 1;
+    static final int BLOCK_HEADER_SIZE = 1 + 8 + 4;
+    static final int END_SIZE = 1 + 8;
+
+    private final BlockChecksums checksums;
+    private final StoreWriter actual;
+
+    ChangedBlocksStoreWriter( BlockChecksums checksums, StoreWriter actual )
+    {
+        this.checksums = checksums;
+        this.actual = actual;
+    }
+
+    @Override
+    public void write( String path, ReadableByteChannel data, ByteBuffer temporaryBuffer, boolean hasData )
+            throws IOException
+    {
+        actual.write( path, new ChangedBlocks( path, hasData ? data : null ), temporaryBuffer, true );
+    }
+
+    @Override
+    public void done()
+    {
+        actual.done();
+    }
+
+    private class ChangedBlocks implements ReadableByteChannel
+    {
+        private final String path;
+        private final ReadableByteChannel data;
+        private final MessageDigest digest = BlockChecksums.newDigest();
+        private final ByteBuffer block = ByteBuffer.allocate( BlockChecksums.BLOCK_SIZE );
+        private final ByteBuffer header = ByteBuffer.allocate( BLOCK_HEADER_SIZE );
+        private int blockIndex;
+        private long fileLength;
+        private boolean ended;
+
+        ChangedBlocks( String path, ReadableByteChannel data )
+        {
+            this.path = path;
+            this.data = data;
+            header.limit( 0 );
+            block.limit( 0 );
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            if ( !header.hasRemaining() && !block.hasRemaining() && !nextChangedBlock() )
+            {
+                return -1;
+            }
+            int read = transfer( header, dst );
+            return read + transfer( block, dst );
+        }
+
+        private int transfer( ByteBuffer from, ByteBuffer to )
+        {
+            int count = Math.min( from.remaining(), to.remaining() );
+            ByteBuffer slice = from.duplicate();
+            slice.limit( slice.position() + count );
+            to.put( slice );
+            from.position( from.position() + count );
+            return count;
+        }
+
+        /**
+         * Reads up to the next block that differs, and sets it up to be transferred.
+         * @return whether or not there is more to transfer.
+         */
+        private boolean nextChangedBlock() throws IOException
+        {
+            if ( ended )
+            {
+                return false;
+            }
+            while ( data != null && BlockChecksums.readBlock( data, block ) > 0 )
+            {
+                long offset = fileLength;
+                fileLength += block.limit();
+                byte[] theirs = checksums.checksum( path, blockIndex++ );
+                if ( theirs == null || !Arrays.equals( theirs, BlockChecksums.checksum( digest, block ) ) )
+                {
+                    header.clear();
+                    header.put( BLOCK ).putLong( offset ).putInt( block.limit() );
+                    header.flip();
+                    return true;
+                }
+            }
+            block.limit( 0 );
+            header.clear();
+            header.put( END ).putLong( fileLength );
+            header.flip();
+            ended = true;
+            return true;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            // The actual data is closed by whoever provided it
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.backup;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.com.StoreWriter;
+
+import static org.neo4j.backup.ChangedBlocksStoreWriter.BLOCK;
+import static org.neo4j.backup.ChangedBlocksStoreWriter.BLOCK_HEADER_SIZE;
+import static org.neo4j.backup.ChangedBlocksStoreWriter.END;
+import static org.neo4j.backup.ChangedBlocksStoreWriter.END_SIZE;
+
+/**
+ * Applies the changed blocks written by a {@link ChangedBlocksStoreWriter} to the store files in a directory,
+ * creating the files that don't exist yet.
+ */
+class ChangedBlocksToFileStoreWriter implements StoreWriter
+{
+    private final File basePath;
+    private final Set<String> writtenPaths = new HashSet<String>();
+
+    ChangedBlocksToFileStoreWriter( File graphDbStoreDir )
+    {
+        this.basePath = graphDbStoreDir;
+    }
+
+    @Override
+    public void write( String path, ReadableByteChannel data, ByteBuffer temporaryBuffer, boolean hasData )
+            throws IOException
+    {
+        File file = new File( basePath, path );
+        file.getParentFile().mkdirs();
+        ByteBuffer header = ByteBuffer.allocate( BLOCK_HEADER_SIZE );
+        ByteBuffer block = ByteBuffer.allocate( BlockChecksums.BLOCK_SIZE );
+        try ( RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" ) )
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            while ( true )
+            {
+                readFully( data, header, 1 );
+                byte type = header.get();
+                if ( type == END )
+                {
+                    readFully( data, header, END_SIZE - 1 );
+                    channel.truncate( header.getLong() );
+                    // Nothing should follow, but make sure the underlying stream is read to the end of this file
+                    header.clear();
+                    while ( data.read( header ) >= 0 )
+                    {
+                        header.clear();
+                    }
+                    break;
+                }
+                if ( type != BLOCK )
+                {
+                    throw new IOException( "Unexpected block type " + type + " in " + path );
+                }
+                readFully( data, header, BLOCK_HEADER_SIZE - 1 );
+                long offset = header.getLong();
+                readFully( data, block, header.getInt() );
+                while ( block.hasRemaining() )
+                {
+                    offset += channel.write( block, offset );
+                }
+            }
+            channel.force( false );
+        }
+        writtenPaths.add( path );
+    }
+
+    private static void readFully( ReadableByteChannel data, ByteBuffer buffer, int length ) throws IOException
+    {
+        buffer.clear();
+        buffer.limit( length );
+        while ( buffer.hasRemaining() )
+        {
+            if ( data.read( buffer ) < 0 )
+            {
+                throw new EOFException( "Expected " + length + " bytes" );
+            }
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void done()
+    {
+        // Do nothing
+    }
+
+    /**
+     * @return the paths, relative to the store directory, of all files that were written.
+     */
+    Set<String> writtenPaths()
+    {
+        return writtenPaths;
+    }
+}
@@ -22,10 +22,19 @@ package org.neo4j.backup;
 import org.neo4j.com.Response;
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.StoreWriter;
+import org.neo4j.kernel.impl.nioneo.store.StoreId;
 
 public interface TheBackupInterface
 {
     Response<Void> fullBackup( StoreWriter writer );
     
     Response<Void> incrementalBackup( RequestContext context );
+
+    /**
+     * Like {@link #fullBackup(StoreWriter)}, but only writes the blocks of the store files that differ from
+     * the given checksums of a previous backup, see {@link ChangedBlocksStoreWriter}.
+     *
+     * @param storeId the id of the store of the previous backup, which must be the same as the one of this store.
+     */
+    Response<Void> incrementalStoreCopy( StoreId storeId, BlockChecksums checksums, StoreWriter writer );
 }
@@ -301,6 +301,39 @@ public class TestBackup
         shutdownServer( server );
     }
 
+    @Test
+    public void incrementalCopiesChangedStoreBlocksWhenLogsArePruned() throws Exception
+    {
+        createInitialDataSet( serverPath );
+        ServerInterface server = startServer( serverPath );
+        OnlineBackup backup = OnlineBackup.from( InetAddress.getLocalHost().getHostAddress() );
+        backup.full( backupPath.getPath() );
+        shutdownServer( server );
+
+        // Prune the logs with the transactions that the backup is missing
+        addMoreData( serverPath );
+        GraphDatabaseAPI db = (GraphDatabaseAPI) startGraphDatabase( serverPath );
+        for ( XaDataSource ds : db.getDependencyResolver().resolveDependency( XaDataSourceManager.class ).getAllRegisteredDataSources() )
+        {
+            ds.rotateLogicalLog();
+            for ( long version = ds.getCurrentLogVersion() - 1; ds.getLogicalLogLength( version ) > 0; version-- )
+            {
+                ds.deleteLogicalLog( version );
+            }
+        }
+        db.shutdown();
+        // The latest transaction of each data source must still be there, just like for a full backup
+        DbRepresentation furtherRepresentation = createInitialDataSet( serverPath );
+
+        server = startServer( serverPath );
+        backup.incremental( backupPath.getPath() );
+        shutdownServer( server );
+        assertEquals( furtherRepresentation, DbRepresentation.of( backupPath ) );
+        // The copy that the blocks were applied to has replaced the backup
+        assertFalse( new File( backupPath.getParentFile(), backupPath.getName() + ".incremental" ).exists() );
+        assertFalse( new File( backupPath.getParentFile(), backupPath.getName() + ".previous" ).exists() );
+    }
+
     private ServerInterface startServer( File path ) throws Exception
     {
         /*
@@ -79,7 +79,7 @@ public class ServerUtil
      *         <code>baseDir</code>
      * @throws IOException As per {@link File#getCanonicalPath()}
      */
-    private static String relativePath( File baseDir, File storeFile )
+    public static String relativePath( File baseDir, File storeFile )
             throws IOException
     {
         String prefix = baseDir.getCanonicalPath();
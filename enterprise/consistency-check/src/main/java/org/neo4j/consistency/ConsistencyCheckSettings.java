@@ -21,9 +21,11 @@ package org.neo4j.consistency;
 
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.FALSE;
+import static org.neo4j.helpers.Settings.INTEGER;
 import static org.neo4j.helpers.Settings.NO_DEFAULT;
 import static org.neo4j.helpers.Settings.PATH;
 import static org.neo4j.helpers.Settings.basePath;
+import static org.neo4j.helpers.Settings.min;
 import static org.neo4j.helpers.Settings.options;
 import static org.neo4j.helpers.Settings.osIsWindows;
 import static org.neo4j.helpers.Settings.setting;
@@ -50,6 +52,15 @@ public class ConsistencyCheckSettings
     public static final Setting<TaskExecutionOrder> consistency_check_execution_order =
             setting( "consistency_check_execution_order", options( TaskExecutionOrder.class ), TaskExecutionOrder.MULTI_PASS.name() );
 
+    @Description("Number of threads checking the stores when using the MULTI_THREADED or PARALLEL execution order.")
+    public static final Setting<Integer> consistency_check_threads = setting( "consistency_check_threads", INTEGER,
+            Integer.toString( Runtime.getRuntime().availableProcessors() ), min( 1 ) );
+
+    @Description("Number of node, relationship and property records that each thread keeps cached when using the " +
+            "PARALLEL execution order. Bounds the memory used for caching referenced records, 0 disables caching.")
+    public static final Setting<Integer> consistency_check_record_cache_size =
+            setting( "consistency_check_record_cache_size", INTEGER, "8192", min( 0 ) );
+
     // On Windows there are problems with memory (un)mapping files, involving
     // relying on GC for unmapping which is error prone. So default back to
     // the a window pool that can switch off memory mapping.
@@ -194,7 +194,7 @@ enum NodeField implements
         {
             nodeNotInUse( report, node );
         }
-        else
+        else if ( !node.isDense() ) // for dense nodes the first relationships are referenced from relationship groups
         {
             if ( Record.NO_PREV_RELATIONSHIP.is( prev( relationship ) ) )
             {
@@ -32,6 +32,7 @@ import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.labels.DynamicNodeLabels;
 import org.neo4j.kernel.impl.nioneo.store.labels.NodeLabels;
@@ -47,7 +48,7 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
 {
     NodeRecordCheck()
     {
-        super( RelationshipField.NEXT_REL, LabelsField.LABELS );
+        super( RelationshipField.NEXT_REL, RelationshipGroupField.NEXT_GROUP, LabelsField.LABELS );
     }
 
     private enum RelationshipField implements RecordField<NodeRecord, ConsistencyReport.NodeConsistencyReport>,
@@ -59,7 +60,8 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
             public void checkConsistency( NodeRecord node, ConsistencyReport.NodeConsistencyReport report,
                                           RecordAccess records )
             {
-                if ( !Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
+                // The next rel of a dense node is its first relationship group, see RelationshipGroupField
+                if ( !node.isDense() && !Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
                 {
                     report.forReference( records.relationship( node.getNextRel() ), this );
                 }
@@ -107,6 +109,10 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
                                      ConsistencyReport.NodeConsistencyReport report,
                                      DiffRecordAccess records )
             {
+                if ( oldRecord.isDense() || newRecord.isDense() )
+                {
+                    return;
+                }
                 if ( !newRecord.inUse() || valueFrom( oldRecord ) != valueFrom( newRecord ) )
                 {
                     if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( oldRecord ) )
@@ -125,6 +131,51 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
         }
     }
 
+    private enum RelationshipGroupField implements RecordField<NodeRecord, ConsistencyReport.NodeConsistencyReport>,
+            ComparativeRecordChecker<NodeRecord, RelationshipGroupRecord, ConsistencyReport.NodeConsistencyReport>
+    {
+        NEXT_GROUP
+        {
+            @Override
+            public void checkConsistency( NodeRecord node, ConsistencyReport.NodeConsistencyReport report,
+                                          RecordAccess records )
+            {
+                if ( node.isDense() && !Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
+                {
+                    report.forReference( records.relationshipGroup( node.getNextRel() ), this );
+                }
+            }
+
+            @Override
+            public void checkReference( NodeRecord node, RelationshipGroupRecord group,
+                                        ConsistencyReport.NodeConsistencyReport report, RecordAccess records )
+            {
+                if ( !group.inUse() )
+                {
+                    report.relationshipGroupNotInUse( group );
+                }
+                else if ( group.getOwningNode() != node.getId() )
+                {
+                    report.relationshipGroupHasOtherOwner( group );
+                }
+            }
+
+            @Override
+            public void checkChange( NodeRecord oldRecord, NodeRecord newRecord,
+                                     ConsistencyReport.NodeConsistencyReport report,
+                                     DiffRecordAccess records )
+            {
+                // nothing to check: changed groups are checked themselves, and point back to their owner
+            }
+
+            @Override
+            public long valueFrom( NodeRecord record )
+            {
+                return record.getNextRel();
+            }
+        }
+    }
+
     private enum LabelsField implements RecordField<NodeRecord, ConsistencyReport.NodeConsistencyReport>,
             ComparativeRecordChecker<NodeRecord, LabelTokenRecord, ConsistencyReport.NodeConsistencyReport>
     {
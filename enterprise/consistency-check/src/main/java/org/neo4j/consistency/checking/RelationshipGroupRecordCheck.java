@@ -0,0 +1,434 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking;
+
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.consistency.store.DiffRecordAccess;
+import org.neo4j.consistency.store.RecordAccess;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
+
+/**
+ * Checks the relationship groups of dense nodes: that a group belongs to a dense node, that the next group in the
+ * chain belongs to the same node and has a greater type, and that the first relationship of each of the outgoing,
+ * incoming and loop chains is a relationship of that kind and type of the owning node, first in its chain.
+ */
+class RelationshipGroupRecordCheck implements
+        RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+{
+    private final RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>[] fields;
+
+    @SuppressWarnings("unchecked")
+    RelationshipGroupRecordCheck()
+    {
+        this.fields = new RecordField[]{
+                RelationshipTypeField.RELATIONSHIP_TYPE, OwnerField.OWNER, NextGroupField.NEXT,
+                RelationshipField.FIRST_OUT, RelationshipField.FIRST_IN, RelationshipField.FIRST_LOOP};
+    }
+
+    @Override
+    public void check( RelationshipGroupRecord record, ConsistencyReport.RelationshipGroupConsistencyReport report,
+                       RecordAccess records )
+    {
+        if ( !record.inUse() )
+        {
+            return;
+        }
+        for ( RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> field : fields )
+        {
+            field.checkConsistency( record, report, records );
+        }
+    }
+
+    @Override
+    public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                             ConsistencyReport.RelationshipGroupConsistencyReport report, DiffRecordAccess records )
+    {
+        check( newRecord, report, records );
+    }
+
+    private enum RelationshipTypeField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipTypeTokenRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        RELATIONSHIP_TYPE;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( record.getType() < 0 )
+            {
+                report.illegalRelationshipType();
+            }
+            else
+            {
+                report.forReference( records.relationshipType( record.getType() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getType();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipTypeTokenRecord referred,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !referred.inUse() )
+            {
+                report.relationshipTypeNotInUse( referred );
+            }
+        }
+    }
+
+    private enum OwnerField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, NodeRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        OWNER;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( record.getOwningNode() < 0 )
+            {
+                report.illegalOwner();
+            }
+            else
+            {
+                report.forReference( records.node( record.getOwningNode() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getOwningNode();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, NodeRecord owner,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !owner.inUse() )
+            {
+                report.ownerNotInUse( owner );
+            }
+            else if ( !owner.isDense() )
+            {
+                report.ownerNotDense( owner );
+            }
+        }
+    }
+
+    private enum NextGroupField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipGroupRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        NEXT;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( !Record.NO_NEXT_RELATIONSHIP.is( record.getNext() ) )
+            {
+                report.forReference( records.relationshipGroup( record.getNext() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getNext();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipGroupRecord next,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !next.inUse() )
+            {
+                report.nextGroupNotInUse( next );
+            }
+            else
+            {
+                if ( next.getOwningNode() != record.getOwningNode() )
+                {
+                    report.nextGroupHasOtherOwner( next );
+                }
+                if ( next.getType() <= record.getType() )
+                {
+                    report.invalidTypeSortOrder( next );
+                }
+            }
+        }
+    }
+
+    private enum RelationshipField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipRecord,
+                    ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        FIRST_OUT
+        {
+            @Override
+            public long valueFrom( RelationshipGroupRecord record )
+            {
+                return record.getFirstOut();
+            }
+
+            @Override
+            boolean isOfOwner( RelationshipRecord relationship, long owner )
+            {
+                return relationship.getFirstNode() == owner && relationship.getSecondNode() != owner;
+            }
+
+            @Override
+            long prev( RelationshipRecord relationship )
+            {
+                return relationship.getFirstPrevRel();
+            }
+
+            @Override
+            void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                           RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipNotInUse( relationship );
+            }
+
+            @Override
+            void ofOtherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                              RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipOfOtherType( relationship );
+            }
+
+            @Override
+            void notOfOwner( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                             RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipNotOfOwner( relationship );
+            }
+
+            @Override
+            void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship )
+            {
+                report.firstOutgoingRelationshipNotFirstInChain( relationship );
+            }
+        },
+        FIRST_IN
+        {
+            @Override
+            public long valueFrom( RelationshipGroupRecord record )
+            {
+                return record.getFirstIn();
+            }
+
+            @Override
+            boolean isOfOwner( RelationshipRecord relationship, long owner )
+            {
+                return relationship.getSecondNode() == owner && relationship.getFirstNode() != owner;
+            }
+
+            @Override
+            long prev( RelationshipRecord relationship )
+            {
+                return relationship.getSecondPrevRel();
+            }
+
+            @Override
+            void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                           RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipNotInUse( relationship );
+            }
+
+            @Override
+            void ofOtherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                              RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipOfOtherType( relationship );
+            }
+
+            @Override
+            void notOfOwner( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                             RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipNotOfOwner( relationship );
+            }
+
+            @Override
+            void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship )
+            {
+                report.firstIncomingRelationshipNotFirstInChain( relationship );
+            }
+        },
+        FIRST_LOOP
+        {
+            @Override
+            public long valueFrom( RelationshipGroupRecord record )
+            {
+                return record.getFirstLoop();
+            }
+
+            @Override
+            boolean isOfOwner( RelationshipRecord relationship, long owner )
+            {
+                return relationship.getFirstNode() == owner && relationship.getSecondNode() == owner;
+            }
+
+            @Override
+            long prev( RelationshipRecord relationship )
+            {
+                return relationship.getFirstPrevRel();
+            }
+
+            @Override
+            void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                           RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipNotInUse( relationship );
+            }
+
+            @Override
+            void ofOtherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                              RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipOfOtherType( relationship );
+            }
+
+            @Override
+            void notOfOwner( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                             RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipNotOfOwner( relationship );
+            }
+
+            @Override
+            void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship )
+            {
+                report.firstLoopRelationshipNotFirstInChain( relationship );
+            }
+        };
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                      RecordAccess records )
+        {
+            if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( record ) ) )
+            {
+                report.forReference( records.relationship( valueFrom( record ) ), this );
+            }
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipRecord relationship,
+                                    ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                    RecordAccess records )
+        {
+            if ( !relationship.inUse() )
+            {
+                notInUse( report, relationship );
+                return;
+            }
+            if ( relationship.getType() != record.getType() )
+            {
+                ofOtherType( report, relationship );
+            }
+            if ( !isOfOwner( relationship, record.getOwningNode() ) )
+            {
+                notOfOwner( report, relationship );
+            }
+            else if ( !Record.NO_PREV_RELATIONSHIP.is( prev( relationship ) ) )
+            {
+                notFirstInChain( report, relationship );
+            }
+        }
+
+        abstract boolean isOfOwner( RelationshipRecord relationship, long owner );
+
+        abstract long prev( RelationshipRecord relationship );
+
+        abstract void notInUse( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                RelationshipRecord relationship );
+
+        abstract void ofOtherType( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                   RelationshipRecord relationship );
+
+        abstract void notOfOwner( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                  RelationshipRecord relationship );
+
+        abstract void notFirstInChain( ConsistencyReport.RelationshipGroupConsistencyReport report,
+                                       RelationshipRecord relationship );
+    }
+}
@@ -30,6 +30,7 @@ import org.neo4j.consistency.report.ConsistencyReporter;
 import org.neo4j.consistency.report.ConsistencySummaryStatistics;
 import org.neo4j.consistency.report.InconsistencyMessageLogger;
 import org.neo4j.consistency.report.InconsistencyReport;
+import org.neo4j.consistency.store.BoundedCacheRecordAccess;
 import org.neo4j.consistency.store.CacheSmallStoresRecordAccess;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.DirectRecordAccess;
@@ -49,20 +50,28 @@ import static org.neo4j.consistency.checking.full.MultiPassStore.ARRAYS;
 import static org.neo4j.consistency.checking.full.MultiPassStore.NODES;
 import static org.neo4j.consistency.checking.full.MultiPassStore.PROPERTIES;
 import static org.neo4j.consistency.checking.full.MultiPassStore.RELATIONSHIPS;
+import static org.neo4j.consistency.checking.full.MultiPassStore.RELATIONSHIP_GROUPS;
 import static org.neo4j.consistency.checking.full.MultiPassStore.STRINGS;
 
 public class FullCheck
 {
+    private static final int RANGES_PER_THREAD = 4;
+    private static final long MIN_RECORDS_PER_RANGE = 100000;
+
     private final boolean checkPropertyOwners;
     private final TaskExecutionOrder order;
     private final ProgressMonitorFactory progressFactory;
     private final Long totalMappedMemory;
+    private final int threads;
+    private final int recordCacheSize;
 
     public FullCheck( Config tuningConfiguration, ProgressMonitorFactory progressFactory )
     {
         this.checkPropertyOwners = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_property_owners );
         this.order = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_execution_order );
         this.totalMappedMemory = tuningConfiguration.get( GraphDatabaseSettings.all_stores_total_mapped_memory_size );
+        this.threads = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_threads );
+        this.recordCacheSize = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_record_cache_size );
         this.progressFactory = progressFactory;
     }
 
@@ -97,22 +106,37 @@ public class FullCheck
         MultiPassStore.Factory processorFactory = new MultiPassStore.Factory(
                 decorator, totalMappedMemory, store, recordAccess, report );
 
-        tasks.add( new StoreProcessorTask<>(
-                store.getNodeStore(), progress, order,
-                processEverything, processorFactory.createAll( PROPERTIES, RELATIONSHIPS ) ) );
-
-        tasks.add( new StoreProcessorTask<>(
-                store.getRelationshipStore(), progress, order,
-                processEverything, processorFactory.createAll( NODES, PROPERTIES, RELATIONSHIPS ) ) );
-        tasks.add( new StoreProcessorTask<>(
-                store.getPropertyStore(), progress, order,
-                processEverything, processorFactory.createAll( PROPERTIES, STRINGS, ARRAYS ) ) );
-        tasks.add( new StoreProcessorTask<>(
-                store.getStringStore(), progress, order,
-                processEverything, processorFactory.createAll( STRINGS ) ) );
-        tasks.add( new StoreProcessorTask<>(
-                store.getArrayStore(), progress, order,
-                processEverything, processorFactory.createAll( ARRAYS ) ) );
+        if ( order == TaskExecutionOrder.PARALLEL )
+        {
+            addRangeTasks( tasks, store.getNodeStore(), progress, decorator, recordAccess, report );
+            addRangeTasks( tasks, store.getRelationshipStore(), progress, decorator, recordAccess, report );
+            addRangeTasks( tasks, store.getRelationshipGroupStore(), progress, decorator, recordAccess, report );
+            addRangeTasks( tasks, store.getPropertyStore(), progress, decorator, recordAccess, report );
+            addRangeTasks( tasks, store.getStringStore(), progress, decorator, recordAccess, report );
+            addRangeTasks( tasks, store.getArrayStore(), progress, decorator, recordAccess, report );
+        }
+        else
+        {
+            tasks.add( new StoreProcessorTask<>(
+                    store.getNodeStore(), progress, order,
+                    processEverything, processorFactory.createAll( PROPERTIES, RELATIONSHIPS, RELATIONSHIP_GROUPS ) ) );
+
+            tasks.add( new StoreProcessorTask<>(
+                    store.getRelationshipStore(), progress, order,
+                    processEverything, processorFactory.createAll( NODES, PROPERTIES, RELATIONSHIPS ) ) );
+            tasks.add( new StoreProcessorTask<>(
+                    store.getRelationshipGroupStore(), progress, order,
+                    processEverything, processorFactory.createAll( NODES, RELATIONSHIPS, RELATIONSHIP_GROUPS ) ) );
+            tasks.add( new StoreProcessorTask<>(
+                    store.getPropertyStore(), progress, order,
+                    processEverything, processorFactory.createAll( PROPERTIES, STRINGS, ARRAYS ) ) );
+            tasks.add( new StoreProcessorTask<>(
+                    store.getStringStore(), progress, order,
+                    processEverything, processorFactory.createAll( STRINGS ) ) );
+            tasks.add( new StoreProcessorTask<>(
+                    store.getArrayStore(), progress, order,
+                    processEverything, processorFactory.createAll( ARRAYS ) ) );
+        }
 
         // The schema store is verified in multiple passes that share state since it fits into memory
         // and we care about the consistency of back references (cf. SemanticCheck)
@@ -156,7 +180,44 @@ public class FullCheck
         tasks.add( new StoreProcessorTask<>( store.getNodeDynamicLabelStore(), progress, order,
                 processEverything, processEverything ) );
 
-        order.execute( tasks, progress.build() );
+        order.execute( tasks, progress.build(), threads );
+    }
+
+    /**
+     * Splits the store into ranges of record ids, a few per thread so that threads finishing early can pick up
+     * more work. Each range is checked with its own processor and record cache, the cache is dropped when the
+     * range is done, so at most one cache per thread is alive at any time.
+     */
+    private <R extends AbstractBaseRecord> void addRangeTasks( List<StoreProcessorTask> tasks, RecordStore<R> store,
+                                                               ProgressMonitorFactory.MultiPartBuilder progress,
+                                                               CheckDecorator decorator,
+                                                               DiffRecordAccess recordAccess,
+                                                               InconsistencyReport report )
+    {
+        long recordCount = store.getHighId() + 1;
+        long recordsPerRange = Math.max( MIN_RECORDS_PER_RANGE, recordCount / (threads * RANGES_PER_THREAD) + 1 );
+        for ( long fromId = 0; fromId < recordCount; fromId += recordsPerRange )
+        {
+            long toId = Math.min( fromId + recordsPerRange, recordCount );
+            if ( recordCacheSize == 0 )
+            {
+                tasks.add( new StoreProcessorTask<>( store, fromId, toId, progress,
+                        new StoreProcessor( decorator, new ConsistencyReporter( recordAccess, report ) ) ) );
+            }
+            else
+            {
+                final BoundedCacheRecordAccess cache = new BoundedCacheRecordAccess( recordAccess, recordCacheSize );
+                tasks.add( new StoreProcessorTask<R>( store, fromId, toId, progress,
+                        new StoreProcessor( decorator, new ConsistencyReporter( cache, report ) ) )
+                {
+                    @Override
+                    protected void afterProcessing( StoreProcessor processor )
+                    {
+                        cache.clear();
+                    }
+                } );
+            }
+        }
     }
 
     static DiffRecordAccess recordAccess( StoreAccess store )
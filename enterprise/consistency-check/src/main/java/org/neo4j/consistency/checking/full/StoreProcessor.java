@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -73,6 +74,14 @@ class StoreProcessor extends AbstractStoreProcessor
         report.forRelationship( rel, checker );
     }
 
+    @Override
+    protected void checkRelationshipGroup( RecordStore<RelationshipGroupRecord> store, RelationshipGroupRecord group,
+                                           RecordCheck<RelationshipGroupRecord,
+                                                   ConsistencyReport.RelationshipGroupConsistencyReport> checker )
+    {
+        report.forRelationshipGroup( group, checker );
+    }
+
     @Override
     protected void checkProperty( RecordStore<PropertyRecord> store, PropertyRecord property,
                                   RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> checker )
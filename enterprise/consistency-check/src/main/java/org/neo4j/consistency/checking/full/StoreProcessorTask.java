@@ -28,7 +28,10 @@ import static java.lang.String.format;
 
 class StoreProcessorTask<R extends AbstractBaseRecord> implements Runnable
 {
+    private static final long WHOLE_STORE = -1;
+
     private final RecordStore<R> store;
+    private final long fromId, toId;
     private final StoreProcessor[] processors;
     private final ProgressListener[] progressListeners;
 
@@ -47,6 +50,8 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements Runnable
                         StoreProcessor... multiPassProcessors )
     {
         this.store = store;
+        this.fromId = 0;
+        this.toId = WHOLE_STORE;
         String storeFileName = store.getStorageFileName().getName();
 
         String sanitizedBuilderPrefix = builderPrefix == null ? "" : builderPrefix;
@@ -70,6 +75,20 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements Runnable
         }
     }
 
+    /**
+     * Creates a task that only processes the records with ids in {@code [fromId, toId)}.
+     */
+    StoreProcessorTask( RecordStore<R> store, long fromId, long toId,
+                        ProgressMonitorFactory.MultiPartBuilder builder, StoreProcessor processor )
+    {
+        this.store = store;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.processors = new StoreProcessor[]{processor};
+        String partName = format( "%s_range_%d-%d", store.getStorageFileName().getName(), fromId, toId );
+        this.progressListeners = new ProgressListener[]{builder.progressForPart( partName, toId - fromId )};
+    }
+
     private String partName( String storeFileName, String builderPrefix )
     {
         return builderPrefix.length() == 0 ? storeFileName : format("%s_run_%s", storeFileName, builderPrefix );
@@ -94,7 +113,14 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements Runnable
             beforeProcessing(processor);
             try
             {
-                processor.applyFiltered( store, progressListeners[i] );
+                if ( toId == WHOLE_STORE )
+                {
+                    processor.applyFiltered( store, progressListeners[i] );
+                }
+                else
+                {
+                    processor.applyFiltered( store, fromId, toId, progressListeners[i] );
+                }
             }
             catch ( Throwable e )
             {
@@ -119,7 +145,10 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements Runnable
 
     public void stopScanning()
     {
-        processors[0].stopScanning();
+        for ( StoreProcessor processor : processors )
+        {
+            processor.stopScanning();
+        }
     }
 
 }
@@ -31,42 +31,16 @@ public enum TaskExecutionOrder
     MULTI_THREADED
     {
         @Override
-        void execute( List<StoreProcessorTask> tasks, Completion completion )
+        void execute( List<StoreProcessorTask> tasks, Completion completion, int threads )
                 throws ConsistencyCheckIncompleteException
         {
-            ExecutorService executor = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
-            for ( StoreProcessorTask task : tasks )
-            {
-                executor.submit( task );
-            }
-
-            try
-            {
-                completion.await( 7, TimeUnit.DAYS );
-            }
-            catch ( Exception e )
-            {
-                tasks.get( 0 ).stopScanning();
-                throw new ConsistencyCheckIncompleteException( e );
-            }
-            finally
-            {
-                executor.shutdown();
-                try
-                {
-                    executor.awaitTermination( 10, TimeUnit.SECONDS );
-                }
-                catch ( InterruptedException e )
-                {
-                    // don't care
-                }
-            }
+            executeConcurrently( tasks, completion, threads );
         }
     },
     SINGLE_THREADED
     {
         @Override
-        void execute( List<StoreProcessorTask> tasks, Completion completion )
+        void execute( List<StoreProcessorTask> tasks, Completion completion, int threads )
                 throws ConsistencyCheckIncompleteException
         {
             try
@@ -86,7 +60,7 @@ public enum TaskExecutionOrder
     MULTI_PASS
     {
         @Override
-        void execute( List<StoreProcessorTask> tasks, Completion completion )
+        void execute( List<StoreProcessorTask> tasks, Completion completion, int threads )
                 throws ConsistencyCheckIncompleteException
         {
             try
@@ -102,8 +76,56 @@ public enum TaskExecutionOrder
                 throw new ConsistencyCheckIncompleteException( e );
             }
         }
+    },
+    /**
+     * Splits the node, relationship, property, string and array stores into ranges of record ids and checks
+     * all ranges concurrently using a fixed number of threads, reading each store only once.
+     */
+    PARALLEL
+    {
+        @Override
+        void execute( List<StoreProcessorTask> tasks, Completion completion, int threads )
+                throws ConsistencyCheckIncompleteException
+        {
+            executeConcurrently( tasks, completion, threads );
+        }
     };
 
-    abstract void execute( List<StoreProcessorTask> tasks, Completion completion )
+    abstract void execute( List<StoreProcessorTask> tasks, Completion completion, int threads )
             throws ConsistencyCheckIncompleteException;
+
+    private static void executeConcurrently( List<StoreProcessorTask> tasks, Completion completion, int threads )
+            throws ConsistencyCheckIncompleteException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        for ( StoreProcessorTask task : tasks )
+        {
+            executor.submit( task );
+        }
+
+        try
+        {
+            completion.await( 7, TimeUnit.DAYS );
+        }
+        catch ( Exception e )
+        {
+            for ( StoreProcessorTask task : tasks )
+            {
+                task.stopScanning();
+            }
+            throw new ConsistencyCheckIncompleteException( e );
+        }
+        finally
+        {
+            executor.shutdown();
+            try
+            {
+                executor.awaitTermination( 10, TimeUnit.SECONDS );
+            }
+            catch ( InterruptedException e )
+            {
+                // don't care
+            }
+        }
+    }
 }
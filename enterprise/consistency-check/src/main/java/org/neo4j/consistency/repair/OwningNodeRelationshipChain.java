@@ -43,7 +43,10 @@ public class OwningNodeRelationshipChain
         {
             long nodeId = field.get( relationship );
             NodeRecord nodeRecord = nodeStore.forceGetRecord( nodeId );
-            records.addAll( relationshipChainExplorer.followChainFromNode( nodeId, nodeRecord.getNextRel() ) );
+            if ( !nodeRecord.isDense() ) // the relationships of dense nodes are chained from relationship groups
+            {
+                records.addAll( relationshipChainExplorer.followChainFromNode( nodeId, nodeRecord.getNextRel() ) );
+            }
         }
         return records;
     }
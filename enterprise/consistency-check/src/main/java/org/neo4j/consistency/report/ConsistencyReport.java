@@ -38,6 +38,7 @@ import org.neo4j.kernel.impl.nioneo.store.PrimitiveRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
@@ -77,6 +78,12 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         void forRelationshipChange( RelationshipRecord oldRelationship, RelationshipRecord newRelationship,
                                     RecordCheck<RelationshipRecord, RelationshipConsistencyReport> checker );
 
+        void forRelationshipGroup( RelationshipGroupRecord group,
+                                   RecordCheck<RelationshipGroupRecord, RelationshipGroupConsistencyReport> checker );
+
+        void forRelationshipGroupChange( RelationshipGroupRecord oldGroup, RelationshipGroupRecord newGroup,
+                                         RecordCheck<RelationshipGroupRecord, RelationshipGroupConsistencyReport> checker );
+
         void forProperty( PropertyRecord property,
                           RecordCheck<PropertyRecord, PropertyConsistencyReport> checker );
 
@@ -214,6 +221,14 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         @Documented
         void relationshipNotFirstInTargetChain( RelationshipRecord relationship );
 
+        /** The referenced relationship group record of this dense node is not in use. */
+        @Documented
+        void relationshipGroupNotInUse( RelationshipGroupRecord group );
+
+        /** The referenced relationship group record of this dense node is owned by another node. */
+        @Documented
+        void relationshipGroupHasOtherOwner( RelationshipGroupRecord group );
+
         /** The first relationship record reference has changed, but the previous first relationship record has not been updates. */
         @Documented
         @IncrementalOnly
@@ -348,6 +363,90 @@ public interface ConsistencyReport<RECORD extends AbstractBaseRecord, REPORT ext
         void targetNodeNotUpdated();
     }
 
+    interface RelationshipGroupConsistencyReport
+            extends ConsistencyReport<RelationshipGroupRecord, RelationshipGroupConsistencyReport>
+    {
+        /** The relationship type field has an illegal value. */
+        @Documented
+        void illegalRelationshipType();
+
+        /** The relationship type record is not in use. */
+        @Documented
+        void relationshipTypeNotInUse( RelationshipTypeTokenRecord relationshipType );
+
+        /** The owner field has an illegal value. */
+        @Documented
+        void illegalOwner();
+
+        /** The owning node is not in use. */
+        @Documented
+        void ownerNotInUse( NodeRecord owner );
+
+        /** The owning node is not a dense node, only dense nodes have relationship groups. */
+        @Documented
+        void ownerNotDense( NodeRecord owner );
+
+        /** The next relationship group is not in use. */
+        @Documented
+        void nextGroupNotInUse( RelationshipGroupRecord next );
+
+        /** The next relationship group is owned by another node. */
+        @Documented
+        void nextGroupHasOtherOwner( RelationshipGroupRecord next );
+
+        /** The type of the next relationship group is not greater than the type of this group. */
+        @Documented
+        void invalidTypeSortOrder( RelationshipGroupRecord next );
+
+        /** The first outgoing relationship is not in use. */
+        @Documented
+        void firstOutgoingRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first incoming relationship is not in use. */
+        @Documented
+        void firstIncomingRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first loop relationship is not in use. */
+        @Documented
+        void firstLoopRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first outgoing relationship is of another type than this group. */
+        @Documented
+        void firstOutgoingRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first incoming relationship is of another type than this group. */
+        @Documented
+        void firstIncomingRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first loop relationship is of another type than this group. */
+        @Documented
+        void firstLoopRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first outgoing relationship does not start at the owning node, or is a loop. */
+        @Documented
+        void firstOutgoingRelationshipNotOfOwner( RelationshipRecord relationship );
+
+        /** The first incoming relationship does not end at the owning node, or is a loop. */
+        @Documented
+        void firstIncomingRelationshipNotOfOwner( RelationshipRecord relationship );
+
+        /** The first loop relationship does not both start and end at the owning node. */
+        @Documented
+        void firstLoopRelationshipNotOfOwner( RelationshipRecord relationship );
+
+        /** The first outgoing relationship is not the first in the relationship chain of the owning node. */
+        @Documented
+        void firstOutgoingRelationshipNotFirstInChain( RelationshipRecord relationship );
+
+        /** The first incoming relationship is not the first in the relationship chain of the owning node. */
+        @Documented
+        void firstIncomingRelationshipNotFirstInChain( RelationshipRecord relationship );
+
+        /** The first loop relationship is not the first in the relationship chain of the owning node. */
+        @Documented
+        void firstLoopRelationshipNotFirstInChain( RelationshipRecord relationship );
+    }
+
     interface PropertyConsistencyReport extends ConsistencyReport<PropertyRecord, PropertyConsistencyReport>
     {
         /** The property key as an invalid value. */
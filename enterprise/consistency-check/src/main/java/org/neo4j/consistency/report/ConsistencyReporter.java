@@ -38,6 +38,7 @@ import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -73,6 +74,8 @@ public class ConsistencyReporter implements ConsistencyReport.Reporter
             ProxyFactory.create( ConsistencyReport.NodeConsistencyReport.class );
     private static final ProxyFactory<ConsistencyReport.RelationshipConsistencyReport> RELATIONSHIP_REPORT =
             ProxyFactory.create( ConsistencyReport.RelationshipConsistencyReport.class );
+    private static final ProxyFactory<ConsistencyReport.RelationshipGroupConsistencyReport> RELATIONSHIP_GROUP_REPORT =
+            ProxyFactory.create( ConsistencyReport.RelationshipGroupConsistencyReport.class );
     private static final ProxyFactory<ConsistencyReport.PropertyConsistencyReport> PROPERTY_REPORT =
             ProxyFactory.create( ConsistencyReport.PropertyConsistencyReport.class );
     private static final ProxyFactory<ConsistencyReport.RelationshipTypeConsistencyReport> RELATIONSHIP_TYPE_REPORT =
@@ -144,6 +147,7 @@ public class ConsistencyReporter implements ConsistencyReport.Reporter
     {
         final InconsistencyReport report;
         final RecordType type;
+        // guarded by this, since references may be checked by other threads than the one that checked the record
         private short errors = 0, warnings = 0, references = 1/*this*/;
 
         private ReportInvocationHandler( InconsistencyReport report, RecordType type )
@@ -215,18 +219,33 @@ public class ConsistencyReporter implements ConsistencyReport.Reporter
                 }
                 if ( method.getAnnotation( ConsistencyReport.Warning.class ) == null )
                 {
-                    errors++;
+                    countError();
                     logError( message, args );
                 }
                 else
                 {
-                    warnings++;
+                    countWarning();
                     logWarning( message, args );
                 }
             }
             return null;
         }
 
+        private synchronized void countError()
+        {
+            errors++;
+        }
+
+        private synchronized void countWarning()
+        {
+            warnings++;
+        }
+
+        private synchronized void countReference()
+        {
+            references++;
+        }
+
         protected abstract void logError( String message, Object[] args );
 
         protected abstract void logWarning( String message, Object[] args );
@@ -242,7 +261,7 @@ public class ConsistencyReporter implements ConsistencyReport.Reporter
         void forReference( ConsistencyReport report, RecordReference<REFERENCED> reference,
                            ComparativeRecordChecker<?, REFERENCED, ?> checker )
         {
-            references++;
+            countReference();
             reference.dispatch( new PendingReferenceCheck<REFERENCED>( report, checker ) );
         }
 
@@ -392,6 +411,22 @@ public class ConsistencyReporter implements ConsistencyReport.Reporter
         dispatchChange( RecordType.RELATIONSHIP, RELATIONSHIP_REPORT, oldRelationship, newRelationship, checker );
     }
 
+    @Override
+    public void forRelationshipGroup( RelationshipGroupRecord group,
+                                      RecordCheck<RelationshipGroupRecord,
+                                              ConsistencyReport.RelationshipGroupConsistencyReport> checker )
+    {
+        dispatch( RecordType.RELATIONSHIP_GROUP, RELATIONSHIP_GROUP_REPORT, group, checker );
+    }
+
+    @Override
+    public void forRelationshipGroupChange( RelationshipGroupRecord oldGroup, RelationshipGroupRecord newGroup,
+                                            RecordCheck<RelationshipGroupRecord,
+                                                    ConsistencyReport.RelationshipGroupConsistencyReport> checker )
+    {
+        dispatchChange( RecordType.RELATIONSHIP_GROUP, RELATIONSHIP_GROUP_REPORT, oldGroup, newGroup, checker );
+    }
+
     @Override
     public void forProperty( PropertyRecord property,
                              RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> checker )
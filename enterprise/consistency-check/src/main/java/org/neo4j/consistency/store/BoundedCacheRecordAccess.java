@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.store;
+
+import org.neo4j.kernel.impl.nioneo.store.AbstractBaseRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+
+/**
+ * Keeps the node, relationship and property records most recently read through it in fixed size tables indexed
+ * by record id, so that records referenced from many of the records being checked, like the nodes at either end
+ * of the relationships in a range, are not read from the store over and over again. A record replaces whatever
+ * record was in its slot, so each table never holds more than {@code cacheSize} records regardless of the size of
+ * the store.
+ * <p>
+ * Not thread safe, each thread checking a part of the store should have its own instance, and {@link #clear()}
+ * it when done so that the cached records can be collected.
+ */
+public class BoundedCacheRecordAccess extends DelegatingRecordAccess
+{
+    private final int cacheSize;
+    private NodeRecord[] nodes;
+    private RelationshipRecord[] relationships;
+    private PropertyRecord[] properties;
+
+    public BoundedCacheRecordAccess( DiffRecordAccess delegate, int cacheSize )
+    {
+        super( delegate );
+        if ( cacheSize < 1 )
+        {
+            throw new IllegalArgumentException( "Cache size must be at least 1, was " + cacheSize );
+        }
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public RecordReference<NodeRecord> node( long id )
+    {
+        if ( nodes == null )
+        {
+            nodes = new NodeRecord[cacheSize];
+        }
+        NodeRecord record = cached( nodes, id );
+        return record != null ? new DirectRecordReference<>( record, this ) : cache( nodes, id, super.node( id ) );
+    }
+
+    @Override
+    public RecordReference<RelationshipRecord> relationship( long id )
+    {
+        if ( relationships == null )
+        {
+            relationships = new RelationshipRecord[cacheSize];
+        }
+        RelationshipRecord record = cached( relationships, id );
+        return record != null ? new DirectRecordReference<>( record, this )
+                              : cache( relationships, id, super.relationship( id ) );
+    }
+
+    @Override
+    public RecordReference<PropertyRecord> property( long id )
+    {
+        if ( properties == null )
+        {
+            properties = new PropertyRecord[cacheSize];
+        }
+        PropertyRecord record = cached( properties, id );
+        return record != null ? new DirectRecordReference<>( record, this )
+                              : cache( properties, id, super.property( id ) );
+    }
+
+    /**
+     * Drops all cached records.
+     */
+    public void clear()
+    {
+        nodes = null;
+        relationships = null;
+        properties = null;
+    }
+
+    private static <RECORD extends AbstractBaseRecord> RECORD cached( RECORD[] cache, long id )
+    {
+        RECORD record = cache[slot( cache, id )];
+        return record != null && record.getLongId() == id ? record : null;
+    }
+
+    private <RECORD extends AbstractBaseRecord> RecordReference<RECORD> cache( RECORD[] cache, long id,
+                                                                              RecordReference<RECORD> reference )
+    {
+        if ( !(reference instanceof DirectRecordReference<?>) )
+        {
+            return reference;
+        }
+        RECORD record = ((DirectRecordReference<RECORD>) reference).record();
+        cache[slot( cache, id )] = record;
+        return new DirectRecordReference<>( record, this );
+    }
+
+    private static int slot( Object[] cache, long id )
+    {
+        return (int) ((id & Long.MAX_VALUE) % cache.length);
+    }
+}
@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -72,7 +73,29 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         if ( record.inUse() )
         {
             markProperty( record.getNextProp(), record.getId(), -1 );
-            markRelationship( record.getNextRel() );
+            if ( record.isDense() )
+            {
+                markRelationshipGroup( record.getNextRel() );
+            }
+            else
+            {
+                markRelationship( record.getNextRel() );
+            }
+        }
+    }
+
+    @Override
+    public void visitRelationshipGroup( RelationshipGroupRecord record )
+    {
+        getRelationshipGroupStore().forceUpdateRecord( record );
+        record = getRelationshipGroupStore().forceGetRaw( record );
+        if ( record.inUse() )
+        {
+            getNodeStore().markDirty( record.getOwningNode() );
+            markRelationshipGroup( record.getNext() );
+            markRelationship( record.getFirstOut() );
+            markRelationship( record.getFirstIn() );
+            markRelationship( record.getFirstLoop() );
         }
     }
 
@@ -98,6 +121,11 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         if ( !Record.NO_NEXT_RELATIONSHIP.is( rel ) ) getRelationshipStore().markDirty( rel );
     }
 
+    private void markRelationshipGroup( long group )
+    {
+        if ( !Record.NO_NEXT_RELATIONSHIP.is( group ) ) getRelationshipGroupStore().markDirty( group );
+    }
+
     private void markProperty( long prop, long nodeId, long relId )
     {
         if ( !Record.NO_NEXT_PROPERTY.is( prop ) )
@@ -219,6 +247,12 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         return (DiffRecordStore<RelationshipRecord>) super.getRelationshipStore();
     }
 
+    @Override
+    public DiffRecordStore<RelationshipGroupRecord> getRelationshipGroupStore()
+    {
+        return (DiffRecordStore<RelationshipGroupRecord>) super.getRelationshipGroupStore();
+    }
+
     @Override
     public DiffRecordStore<PropertyRecord> getPropertyStore()
     {
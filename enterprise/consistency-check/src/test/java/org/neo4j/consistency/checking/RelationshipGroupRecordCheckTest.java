@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking;
+
+import org.junit.Test;
+
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
+
+import static org.mockito.Mockito.verify;
+
+public class RelationshipGroupRecordCheckTest extends
+        RecordCheckTestBase<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport, RelationshipGroupRecordCheck>
+{
+    public RelationshipGroupRecordCheckTest()
+    {
+        super( new RelationshipGroupRecordCheck(), ConsistencyReport.RelationshipGroupConsistencyReport.class );
+    }
+
+    @Test
+    public void shouldNotReportAnythingForGroupNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = notInUse( new RelationshipGroupRecord( 1, 0 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldNotReportAnythingForGroupWithConsistentReferences() throws Exception
+    {
+        // given
+        add( inUse( new RelationshipTypeTokenRecord( 0 ) ) );
+        add( inUse( new RelationshipTypeTokenRecord( 1 ) ) );
+        add( dense( inUse( new NodeRecord( 1, 1, NONE ) ) ) );
+        add( inUse( new NodeRecord( 2, NONE, NONE ) ) );
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 1, 0, 2, 10, 11, 12, 1 ) );
+        add( inUse( new RelationshipGroupRecord( 2, 1, NONE, NONE, NONE, NONE, 1 ) ) );
+        add( inUse( new RelationshipRecord( 10, 1, 2, 0 ) ) );
+        add( inUse( new RelationshipRecord( 11, 2, 1, 0 ) ) );
+        add( inUse( new RelationshipRecord( 12, 1, 1, 0 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportIllegalRelationshipType() throws Exception
+    {
+        // given
+        add( dense( inUse( new NodeRecord( 1, 1, NONE ) ) ) );
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 1, NONE, NONE, NONE, NONE, NONE, 1 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).illegalRelationshipType();
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportOwnerNotDense() throws Exception
+    {
+        // given
+        add( inUse( new RelationshipTypeTokenRecord( 0 ) ) );
+        NodeRecord owner = add( inUse( new NodeRecord( 1, NONE, NONE ) ) );
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 1, 0, NONE, NONE, NONE, NONE, 1 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).ownerNotDense( owner );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportNextGroupOfOtherOwnerAndWrongSortOrder() throws Exception
+    {
+        // given
+        add( inUse( new RelationshipTypeTokenRecord( 1 ) ) );
+        add( dense( inUse( new NodeRecord( 1, 1, NONE ) ) ) );
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 1, 1, 2, NONE, NONE, NONE, 1 ) );
+        RelationshipGroupRecord next = add( inUse( new RelationshipGroupRecord( 2, 0, NONE, NONE, NONE, NONE, 3 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).nextGroupHasOtherOwner( next );
+        verify( report ).invalidTypeSortOrder( next );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    @Test
+    public void shouldReportFirstRelationshipsNotBelongingToGroup() throws Exception
+    {
+        // given
+        add( inUse( new RelationshipTypeTokenRecord( 0 ) ) );
+        add( dense( inUse( new NodeRecord( 1, 1, NONE ) ) ) );
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( 1, 0, NONE, 10, 11, 12, 1 ) );
+        RelationshipRecord out = add( inUse( new RelationshipRecord( 10, 1, 2, 5 ) ) );
+        RelationshipRecord in = add( inUse( new RelationshipRecord( 11, 1, 2, 0 ) ) );
+        RelationshipRecord loop = add( inUse( new RelationshipRecord( 12, 1, 1, 0 ) ) );
+        loop.setFirstPrevRel( 13 );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).firstOutgoingRelationshipOfOtherType( out );
+        verify( report ).firstIncomingRelationshipNotOfOwner( in );
+        verify( report ).firstLoopRelationshipNotFirstInChain( loop );
+        verifyOnlyReferenceDispatch( report );
+    }
+
+    private static NodeRecord dense( NodeRecord node )
+    {
+        node.setDense( true );
+        return node;
+    }
+}
@@ -55,6 +55,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -138,6 +139,40 @@ public class ExecutionOrderIntegrationTest
         }
     }
 
+    @Test
+    public void shouldRunSameChecksInParallelAsInSingleThreadedPass() throws Exception
+    {
+        // given
+        StoreAccess store = fixture.storeAccess();
+        DiffRecordAccess access = FullCheck.recordAccess( store );
+
+        FullCheck singlePass = new FullCheck( config( TaskExecutionOrder.SINGLE_THREADED ),
+                ProgressMonitorFactory.NONE );
+        FullCheck parallel = new FullCheck( config( TaskExecutionOrder.PARALLEL ),
+                ProgressMonitorFactory.NONE );
+
+        ConsistencySummaryStatistics parallelSummary = new ConsistencySummaryStatistics();
+        ConsistencySummaryStatistics singlePassSummary = new ConsistencySummaryStatistics();
+        InconsistencyLogger logger = mock( InconsistencyLogger.class );
+        InvocationLog singlePassChecks = new InvocationLog();
+        InvocationLog parallelChecks = new InvocationLog();
+
+        // when
+        singlePass.execute( store, new LogDecorator( singlePassChecks ), access,
+                new InconsistencyReport( logger, singlePassSummary ) );
+        parallel.execute( store, new LogDecorator( parallelChecks ), access,
+                new InconsistencyReport( logger, parallelSummary ) );
+
+        // then
+        verifyZeroInteractions( logger );
+        assertEquals( "Expected no inconsistencies in single pass.",
+                0, singlePassSummary.getTotalInconsistencyCount() );
+        assertEquals( "Expected no inconsistencies in parallel.",
+                0, parallelSummary.getTotalInconsistencyCount() );
+
+        assertSameChecks( singlePassChecks.data, parallelChecks.data );
+    }
+
     static Config config( TaskExecutionOrder executionOrder )
     {
         return new Config( stringMap(
@@ -151,7 +186,7 @@ public class ExecutionOrderIntegrationTest
         private final Map<String, Integer> duplicates = new HashMap<>();
 
         @SuppressWarnings("ThrowableResultOfMethodCallIgnored")
-        void log( PendingReferenceCheck check, InvocationOnMock invocation )
+        synchronized void log( PendingReferenceCheck check, InvocationOnMock invocation )
         {
             Method method = invocation.getMethod();
             if ( Object.class == method.getDeclaringClass() && "finalize".equals( method.getName() ) )
@@ -448,6 +483,12 @@ public class ExecutionOrderIntegrationTest
             return logging( access.relationship( id ) );
         }
 
+        @Override
+        public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+        {
+            return logging( access.relationshipGroup( id ) );
+        }
+
         @Override
         public RecordReference<PropertyRecord> property( long id )
         {
@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
 
@@ -49,6 +50,7 @@ import static org.neo4j.consistency.store.RecordReference.SkippingReference.skip
 @Suite.SuiteClasses({
         MultiPassStoreTest.Nodes.class,
         MultiPassStoreTest.Relationships.class,
+        MultiPassStoreTest.RelationshipGroups.class,
         MultiPassStoreTest.Properties.class,
         MultiPassStoreTest.Strings.class,
         MultiPassStoreTest.Arrays.class
@@ -158,6 +160,7 @@ public abstract class MultiPassStoreTest
         protected void otherRecords( DiffRecordAccess filter, long id )
         {
             filter.relationship( id );
+            filter.relationshipGroup( id );
             filter.property( id );
             filter.string( id );
             filter.array( id );
@@ -182,6 +185,32 @@ public abstract class MultiPassStoreTest
         protected void otherRecords( DiffRecordAccess filter, long id )
         {
             filter.node( id );
+            filter.relationshipGroup( id );
+            filter.property( id );
+            filter.string( id );
+            filter.array( id );
+        }
+    }
+
+    @RunWith(JUnit4.class)
+    public static class RelationshipGroups extends MultiPassStoreTest
+    {
+        @Override
+        protected MultiPassStore multiPassStore()
+        {
+            return MultiPassStore.RELATIONSHIP_GROUPS;
+        }
+
+        @Override
+        protected RecordReference<RelationshipGroupRecord> record( DiffRecordAccess filter, long id )
+        {
+            return filter.relationshipGroup( id );
+        }
+
+        protected void otherRecords( DiffRecordAccess filter, long id )
+        {
+            filter.node( id );
+            filter.relationship( id );
             filter.property( id );
             filter.string( id );
             filter.array( id );
@@ -207,6 +236,7 @@ public abstract class MultiPassStoreTest
         {
             filter.node( id );
             filter.relationship( id );
+            filter.relationshipGroup( id );
             filter.string( id );
             filter.array( id );
         }
@@ -231,6 +261,7 @@ public abstract class MultiPassStoreTest
         {
             filter.node( id );
             filter.relationship( id );
+            filter.relationshipGroup( id );
             filter.property( id );
             filter.array( id );
         }
@@ -255,6 +286,7 @@ public abstract class MultiPassStoreTest
         {
             filter.node( id );
             filter.relationship( id );
+            filter.relationshipGroup( id );
             filter.property( id );
             filter.string( id );
         }
@@ -21,8 +21,10 @@ package org.neo4j.consistency.checking.full;
 
 import static org.junit.Assert.assertNotSame;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -113,4 +115,24 @@ public class StoreProcessorTaskTest
 
         assertNotSame(listener1.getValue(), listener2.getValue());
     }
+
+    @Test
+    public void rangeTaskShouldOnlyProcessItsRangeOfTheStore() throws Exception
+    {
+        // given
+        StoreProcessor processor = mock( StoreProcessor.class );
+
+        NodeStore store = mock( NodeStore.class );
+        when( store.getStorageFileName() ).thenReturn( new File("node-store") );
+
+        StoreProcessorTask<NodeRecord> task = new StoreProcessorTask<NodeRecord>(
+                store, 100, 200, ProgressMonitorFactory.NONE.multipleParts( "check" ), processor );
+
+        // when
+        task.run();
+
+        // then
+        verify( processor ).applyFiltered( same( store ), eq( 100L ), eq( 200L ), any( ProgressListener.class ) );
+        verify( processor, never() ).applyFiltered( same( store ), any( ProgressListener.class ) );
+    }
 }
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.store;
+
+import org.junit.Test;
+
+import org.neo4j.consistency.report.PendingReferenceCheck;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class BoundedCacheRecordAccessTest
+{
+    @Test
+    public void shouldOnlyReadRecordsFromDelegateOnceWhileCached() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        NodeRecord node = new NodeRecord( 42, -1, -1 );
+        RelationshipRecord relationship = new RelationshipRecord( 7 );
+        PropertyRecord property = new PropertyRecord( 3 );
+        when( delegate.node( 42 ) ).thenReturn( new DirectRecordReference<>( node, delegate ) );
+        when( delegate.relationship( 7 ) ).thenReturn( new DirectRecordReference<>( relationship, delegate ) );
+        when( delegate.property( 3 ) ).thenReturn( new DirectRecordReference<>( property, delegate ) );
+        BoundedCacheRecordAccess recordAccess = new BoundedCacheRecordAccess( delegate, 16 );
+
+        // when
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertSame( node, ((DirectRecordReference<NodeRecord>) recordAccess.node( 42 )).record() );
+            assertSame( relationship,
+                    ((DirectRecordReference<RelationshipRecord>) recordAccess.relationship( 7 )).record() );
+            assertSame( property, ((DirectRecordReference<PropertyRecord>) recordAccess.property( 3 )).record() );
+        }
+
+        // then
+        verify( delegate ).node( 42 );
+        verify( delegate ).relationship( 7 );
+        verify( delegate ).property( 3 );
+    }
+
+    @Test
+    public void shouldEvictRecordsThatCollideInTheCache() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        NodeRecord node1 = new NodeRecord( 1, -1, -1 );
+        NodeRecord node5 = new NodeRecord( 5, -1, -1 );
+        when( delegate.node( 1 ) ).thenReturn( new DirectRecordReference<>( node1, delegate ) );
+        when( delegate.node( 5 ) ).thenReturn( new DirectRecordReference<>( node5, delegate ) );
+        BoundedCacheRecordAccess recordAccess = new BoundedCacheRecordAccess( delegate, 4 );
+
+        // when
+        assertSame( node1, ((DirectRecordReference<NodeRecord>) recordAccess.node( 1 )).record() );
+        assertSame( node5, ((DirectRecordReference<NodeRecord>) recordAccess.node( 5 )).record() );
+        assertSame( node1, ((DirectRecordReference<NodeRecord>) recordAccess.node( 1 )).record() );
+
+        // then
+        verify( delegate, times( 2 ) ).node( 1 );
+        verify( delegate ).node( 5 );
+    }
+
+    @Test
+    public void shouldReadRecordsFromDelegateAgainAfterBeingCleared() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        NodeRecord node = new NodeRecord( 42, -1, -1 );
+        when( delegate.node( 42 ) ).thenReturn( new DirectRecordReference<>( node, delegate ) );
+        BoundedCacheRecordAccess recordAccess = new BoundedCacheRecordAccess( delegate, 16 );
+        recordAccess.node( 42 );
+
+        // when
+        recordAccess.clear();
+        recordAccess.node( 42 );
+
+        // then
+        verify( delegate, times( 2 ) ).node( 42 );
+    }
+
+    @Test
+    public void shouldResolveReferencesFromCachedRecordsThroughTheCache() throws Exception
+    {
+        // given
+        DiffRecordAccess delegate = mock( DiffRecordAccess.class );
+        when( delegate.node( 42 ) ).thenReturn(
+                new DirectRecordReference<>( new NodeRecord( 42, -1, -1 ), delegate ) );
+        BoundedCacheRecordAccess recordAccess = new BoundedCacheRecordAccess( delegate, 16 );
+
+        // when
+        RecordReference<NodeRecord> reference = recordAccess.node( 42 );
+
+        // then
+        PendingReferenceCheck<NodeRecord> check = mock( PendingReferenceCheck.class );
+        reference.dispatch( check );
+        verify( check ).checkReference( ((DirectRecordReference<NodeRecord>) reference).record(), recordAccess );
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.neo4j.perftest.enterprise.ccheck;
 
+import static java.util.Arrays.asList;
 import static org.neo4j.perftest.enterprise.util.Configuration.SYSTEM_PROPERTIES;
 import static org.neo4j.perftest.enterprise.util.Configuration.settingsOf;
 import static org.neo4j.perftest.enterprise.util.DirectlyCorrelatedParameter.param;
@@ -26,10 +27,12 @@ import static org.neo4j.perftest.enterprise.util.DirectlyCorrelatedParameter.pas
 import static org.neo4j.perftest.enterprise.util.Setting.booleanSetting;
 import static org.neo4j.perftest.enterprise.util.Setting.enumSetting;
 import static org.neo4j.perftest.enterprise.util.Setting.integerSetting;
+import static org.neo4j.perftest.enterprise.util.Setting.listSetting;
 import static org.neo4j.perftest.enterprise.util.Setting.stringSetting;
 import static org.neo4j.perftest.enterprise.windowpool.MemoryMappingConfiguration.addLegacyMemoryMappingConfiguration;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 
 import org.neo4j.consistency.ConsistencyCheckSettings;
@@ -60,6 +63,8 @@ public class ConsistencyPerformanceCheck
             enumSetting( "window_pool_implementation", WindowPoolImplementation.SCAN_RESISTANT );
     static final Setting<TaskExecutionOrder> execution_order =
             enumSetting( "execution_order", TaskExecutionOrder.SINGLE_THREADED );
+    static final Setting<List<Long>> thread_counts = listSetting( integerSetting( "thread_counts", 1 ),
+            asList( (long) Runtime.getRuntime().availableProcessors() ) );
     static final Setting<Boolean> wait_before_check = booleanSetting( "wait_before_check", false );
     static final Setting<String> all_stores_total_mapped_memory_size =
             stringSetting( "all_stores_total_mapped_memory_size", "2G" );
@@ -81,6 +86,9 @@ public class ConsistencyPerformanceCheck
      * -node_count 10000000
      * -relationships FOO:2,BAR:1
      * -node_properties INTEGER:2,STRING:1,BYTE_ARRAY:1
+     *
+     * Add for example "-execution_order PARALLEL -thread_counts 1,2,4,8" to compare the throughput of
+     * checking with different numbers of threads.
      */
     public static void main( String... args ) throws Exception
     {
@@ -114,14 +122,41 @@ public class ConsistencyPerformanceCheck
             System.in.read();
         }
 
-        Config tuningConfiguration = buildTuningConfiguration( configuration );
-        StoreAccess storeAccess = createStoreAccess( configuration.get( DataGenerator.store_dir ),
-                tuningConfiguration );
-
-        JsonReportWriter reportWriter = new JsonReportWriter( configuration, tuningConfiguration );
-        TimingProgress progressMonitor = new TimingProgress( new TimeLogger( reportWriter ), progress );
+        List<Long> threadCounts = configuration.get( thread_counts );
+        for ( long threads : threadCounts )
+        {
+            Config tuningConfiguration = buildTuningConfiguration( configuration, (int) threads );
+            StoreAccess storeAccess = createStoreAccess( configuration.get( DataGenerator.store_dir ),
+                    tuningConfiguration );
+
+            JsonReportWriter reportWriter = new JsonReportWriter( configuration, tuningConfiguration,
+                    reportFile( configuration, threadCounts.size() > 1 ? threads : null ) );
+            TimingProgress progressMonitor = new TimingProgress(
+                    new ThroughputLogger( (int) threads, new TimeLogger( reportWriter ) ), progress );
+
+            try
+            {
+                configuration.get( checker_version ).run( progressMonitor, storeAccess, tuningConfiguration );
+            }
+            finally
+            {
+                storeAccess.getRawNeoStore().close();
+            }
+        }
+    }
 
-        configuration.get( checker_version ).run( progressMonitor, storeAccess, tuningConfiguration );
+    private static File reportFile( Configuration configuration, Long threads )
+    {
+        String reportFile = configuration.get( report_file );
+        if ( threads == null )
+        {
+            return new File( reportFile );
+        }
+        int extension = reportFile.lastIndexOf( '.' );
+        return extension > reportFile.lastIndexOf( File.separatorChar )
+                ? new File( reportFile.substring( 0, extension ) + "_" + threads + "_threads" +
+                            reportFile.substring( extension ) )
+                : new File( reportFile + "_" + threads + "_threads" );
     }
 
     private static StoreAccess createStoreAccess( String storeDir, Config tuningConfiguration )
@@ -139,7 +174,7 @@ public class ConsistencyPerformanceCheck
         return new StoreAccess( neoStore );
     }
 
-    private static Config buildTuningConfiguration( Configuration configuration )
+    private static Config buildTuningConfiguration( Configuration configuration, int threads )
     {
         Map<String, String> passedOnConfiguration = passOn( configuration,
                 param( GraphDatabaseSettings.store_dir, DataGenerator.store_dir ),
@@ -152,6 +187,9 @@ public class ConsistencyPerformanceCheck
                 param( GraphDatabaseSettings.log_mapped_memory_stats_filename, log_mapped_memory_stats_filename ),
                 param( GraphDatabaseSettings.log_mapped_memory_stats_interval, log_mapped_memory_stats_interval ) );
 
+        passedOnConfiguration.put( ConsistencyCheckSettings.consistency_check_threads.name(),
+                Integer.toString( threads ) );
+
         addLegacyMemoryMappingConfiguration( passedOnConfiguration,
                 configuration.get( all_stores_total_mapped_memory_size ) );
 
@@ -44,11 +44,11 @@ class JsonReportWriter implements TimingProgress.Visitor
     private final Configuration configuration;
     private final Config tuningConfiguration;
 
-    JsonReportWriter( Configuration configuration, Config tuningConfiguration )
+    JsonReportWriter( Configuration configuration, Config tuningConfiguration, File target )
     {
         this.configuration = configuration;
         this.tuningConfiguration = tuningConfiguration;
-        target = new File( configuration.get( ConsistencyPerformanceCheck.report_file ) );
+        this.target = target;
     }
 
     @Override
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.perftest.enterprise.ccheck;
+
+import java.io.IOException;
+
+import static org.neo4j.perftest.enterprise.ccheck.TimeLogger.nanosToMillis;
+
+/**
+ * Reports the overall throughput of a consistency check run with a given number of threads, so that runs with
+ * different numbers of threads can be compared.
+ */
+class ThroughputLogger implements TimingProgress.Visitor
+{
+    private final int threads;
+    private final TimingProgress.Visitor next;
+
+    ThroughputLogger( int threads, TimingProgress.Visitor next )
+    {
+        this.threads = threads;
+        this.next = next;
+    }
+
+    @Override
+    public void beginTimingProgress( long totalElementCount, long totalTimeNanos ) throws IOException
+    {
+        double recordsPerSecond = (totalElementCount * 1000.0) / nanosToMillis( totalTimeNanos );
+        System.out.printf( "%d threads: %.0f records/s, %.0f records/s per thread%n",
+                threads, recordsPerSecond, recordsPerSecond / threads );
+        next.beginTimingProgress( totalElementCount, totalTimeNanos );
+    }
+
+    @Override
+    public void phaseTimingProgress( String phase, long elementCount, long timeNanos ) throws IOException
+    {
+        next.phaseTimingProgress( phase, elementCount, timeNanos );
+    }
+
+    @Override
+    public void endTimingProgress() throws IOException
+    {
+        next.endTimingProgress();
+    }
+}
@@ -20,8 +20,8 @@
 package org.neo4j.perftest.enterprise.ccheck;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.helpers.progress.Indicator;
 import org.neo4j.helpers.progress.ProgressMonitorFactory;
@@ -102,14 +102,14 @@ public class TimingProgress extends ProgressMonitorFactory
         {
             super( TimingProgress.this.actual, process );
             total = new Timer( null );
-            timers = new HashMap<String, Timer>();
+            timers = new ConcurrentHashMap<String, Timer>();
         }
 
         ProgressIndicator( String process, int resolution )
         {
             super( TimingProgress.this.actual, process, resolution );
             total = new Timer( null );
-            timers = new HashMap<String, Timer>();
+            timers = new ConcurrentHashMap<String, Timer>();
         }
 
         @Override
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.perftest.enterprise.id;
+
+import static java.util.Arrays.asList;
+import static org.neo4j.perftest.enterprise.util.Configuration.SYSTEM_PROPERTIES;
+import static org.neo4j.perftest.enterprise.util.Configuration.settingsOf;
+import static org.neo4j.perftest.enterprise.util.Setting.integerSetting;
+import static org.neo4j.perftest.enterprise.util.Setting.listSetting;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.IdGenerator;
+import org.neo4j.kernel.impl.nioneo.store.IdGeneratorImpl;
+import org.neo4j.perftest.enterprise.util.Configuration;
+import org.neo4j.perftest.enterprise.util.Parameters;
+import org.neo4j.perftest.enterprise.util.Setting;
+
+/**
+ * Measures id generator throughput when many threads concurrently allocate ids, as writing transactions
+ * do when creating records, for different numbers of threads. Setting {@code free_every} makes each thread
+ * free every n:th id it gets, with aggressive reuse, so that defragged ids are handed out as well.
+ */
+public class IdGeneratorContention
+{
+    static final Setting<List<Long>> thread_counts = listSetting( integerSetting( "thread_counts", 1 ),
+            asList( 1L, 2L, 4L, 8L, 16L, 32L, 64L ) );
+    static final Setting<Long> free_every = integerSetting( "free_every", 0 );
+    static final Setting<Long> grab_size = integerSetting( "grab_size", 1024 );
+    static final Setting<Long> warmup_seconds = integerSetting( "warmup_seconds", 2 );
+    static final Setting<Long> duration_seconds = integerSetting( "duration_seconds", 5 );
+
+    /**
+     * Sample execution:
+     * java -cp ... org.neo4j.perftest.enterprise.id.IdGeneratorContention
+     * -thread_counts 1,8,32,64
+     * -free_every 10
+     */
+    public static void main( String... args ) throws Exception
+    {
+        run( Parameters.configuration( SYSTEM_PROPERTIES, settingsOf( IdGeneratorContention.class ) )
+                .convert( args ) );
+    }
+
+    private static void run( Configuration configuration ) throws Exception
+    {
+        FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        File file = File.createTempFile( "contention", ".id" );
+        System.out.println( String.format( "%8s %16s", "threads", "ids/s" ) );
+        for ( long threadCount : configuration.get( thread_counts ) )
+        {
+            fs.deleteFile( file );
+            IdGeneratorImpl.createGenerator( fs, file );
+            long freeEvery = configuration.get( free_every );
+            IdGenerator idGenerator = new IdGeneratorImpl( fs, file, configuration.get( grab_size ).intValue(),
+                    Long.MAX_VALUE, freeEvery > 0, 0 );
+            try
+            {
+                long ids = measure( idGenerator, (int) threadCount, configuration );
+                System.out.println( String.format( "%8d %16.0f", threadCount,
+                        ids / (double) configuration.get( duration_seconds ) ) );
+            }
+            finally
+            {
+                idGenerator.close();
+            }
+        }
+        fs.deleteFile( file );
+    }
+
+    private static long measure( IdGenerator idGenerator, int threadCount, Configuration configuration )
+            throws InterruptedException
+    {
+        CountDownLatch start = new CountDownLatch( 1 );
+        Worker[] workers = new Worker[threadCount];
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            workers[i] = new Worker( idGenerator, configuration.get( free_every ), start );
+            workers[i].start();
+        }
+        start.countDown();
+        Thread.sleep( configuration.get( warmup_seconds ) * 1000 );
+        long before = sum( workers );
+        Thread.sleep( configuration.get( duration_seconds ) * 1000 );
+        long after = sum( workers );
+        for ( Worker worker : workers )
+        {
+            worker.halt();
+        }
+        for ( Worker worker : workers )
+        {
+            worker.join();
+        }
+        return after - before;
+    }
+
+    private static long sum( Worker[] workers )
+    {
+        long sum = 0;
+        for ( Worker worker : workers )
+        {
+            sum += worker.ids.get();
+        }
+        return sum;
+    }
+
+    private static class Worker extends Thread
+    {
+        private final IdGenerator idGenerator;
+        private final long freeEvery;
+        private final CountDownLatch start;
+        private final AtomicLong ids = new AtomicLong();
+        private volatile boolean halted;
+
+        Worker( IdGenerator idGenerator, long freeEvery, CountDownLatch start )
+        {
+            this.idGenerator = idGenerator;
+            this.freeEvery = freeEvery > 0 ? freeEvery : Long.MAX_VALUE;
+            this.start = start;
+        }
+
+        void halt()
+        {
+            halted = true;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                start.await();
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            while ( !halted )
+            {
+                long id = idGenerator.nextId();
+                if ( ids.incrementAndGet() % freeEvery == 0 )
+                {
+                    idGenerator.freeId( id );
+                }
+            }
+        }
+    }
+}
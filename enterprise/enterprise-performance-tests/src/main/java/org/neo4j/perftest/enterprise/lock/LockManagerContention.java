@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.perftest.enterprise.lock;
+
+import static java.util.Arrays.asList;
+import static org.neo4j.perftest.enterprise.util.Configuration.SYSTEM_PROPERTIES;
+import static org.neo4j.perftest.enterprise.util.Configuration.settingsOf;
+import static org.neo4j.perftest.enterprise.util.Setting.integerSetting;
+import static org.neo4j.perftest.enterprise.util.Setting.listSetting;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.xa.XAResource;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.transaction.LockManager;
+import org.neo4j.kernel.impl.transaction.LockManagerImpl;
+import org.neo4j.kernel.impl.transaction.RagManager;
+import org.neo4j.perftest.enterprise.util.Configuration;
+import org.neo4j.perftest.enterprise.util.Parameters;
+import org.neo4j.perftest.enterprise.util.Setting;
+
+/**
+ * Measures lock manager throughput when many threads concurrently run "transactions" that each grab a number
+ * of write locks on random resources and then release them, for different numbers of threads and lock manager
+ * stripes. Resources are locked in id order so that the measurement isn't disturbed by deadlocks.
+ */
+public class LockManagerContention
+{
+    static final Setting<List<Long>> thread_counts = listSetting( integerSetting( "thread_counts", 1 ),
+            asList( 1L, 2L, 4L, 8L, 16L, 32L, 64L ) );
+    static final Setting<List<Long>> stripes = listSetting( integerSetting( "stripes", 1 ), asList( 1L, 64L ) );
+    static final Setting<Long> resource_count = integerSetting( "resource_count", 100000 );
+    static final Setting<Long> locks_per_transaction = integerSetting( "locks_per_transaction", 10 );
+    static final Setting<Long> warmup_seconds = integerSetting( "warmup_seconds", 2 );
+    static final Setting<Long> duration_seconds = integerSetting( "duration_seconds", 5 );
+
+    /**
+     * Sample execution:
+     * java -cp ... org.neo4j.perftest.enterprise.lock.LockManagerContention
+     * -thread_counts 1,8,32,64
+     * -stripes 1,16,256
+     * -resource_count 1000
+     */
+    public static void main( String... args ) throws Exception
+    {
+        run( Parameters.configuration( SYSTEM_PROPERTIES, settingsOf( LockManagerContention.class ) )
+                .convert( args ) );
+    }
+
+    private static void run( Configuration configuration ) throws Exception
+    {
+        System.out.println( String.format( "%8s %8s %16s %16s", "stripes", "threads", "tx/s", "locks/s" ) );
+        for ( long stripeCount : configuration.get( stripes ) )
+        {
+            for ( long threadCount : configuration.get( thread_counts ) )
+            {
+                LockManager lockManager = new LockManagerImpl( new RagManager(), (int) stripeCount );
+                long transactions = measure( lockManager, (int) threadCount, configuration );
+                double seconds = configuration.get( duration_seconds );
+                System.out.println( String.format( "%8d %8d %16.0f %16.0f", stripeCount, threadCount,
+                        transactions / seconds,
+                        transactions * configuration.get( locks_per_transaction ) / seconds ) );
+            }
+        }
+    }
+
+    private static long measure( LockManager lockManager, int threadCount, Configuration configuration )
+            throws InterruptedException
+    {
+        int resourceCount = configuration.get( resource_count ).intValue();
+        int locksPerTransaction = configuration.get( locks_per_transaction ).intValue();
+        Long[] resources = new Long[resourceCount];
+        for ( int i = 0; i < resourceCount; i++ )
+        {
+            resources[i] = (long) i;
+        }
+
+        CountDownLatch start = new CountDownLatch( 1 );
+        Worker[] workers = new Worker[threadCount];
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            workers[i] = new Worker( lockManager, resources, locksPerTransaction, start );
+            workers[i].start();
+        }
+        start.countDown();
+        Thread.sleep( configuration.get( warmup_seconds ) * 1000 );
+        long before = sum( workers );
+        Thread.sleep( configuration.get( duration_seconds ) * 1000 );
+        long after = sum( workers );
+        for ( Worker worker : workers )
+        {
+            worker.halt();
+        }
+        for ( Worker worker : workers )
+        {
+            worker.join();
+        }
+        return after - before;
+    }
+
+    private static long sum( Worker[] workers )
+    {
+        long sum = 0;
+        for ( Worker worker : workers )
+        {
+            sum += worker.transactions.get();
+        }
+        return sum;
+    }
+
+    private static class Worker extends Thread
+    {
+        private final LockManager lockManager;
+        private final Long[] resources;
+        private final int[] lockedIndexes;
+        private final CountDownLatch start;
+        private final Transaction tx = new LockingTransaction();
+        private final Random random = new Random();
+        private final AtomicLong transactions = new AtomicLong();
+        private volatile boolean halted;
+
+        Worker( LockManager lockManager, Long[] resources, int locksPerTransaction, CountDownLatch start )
+        {
+            this.lockManager = lockManager;
+            this.resources = resources;
+            this.lockedIndexes = new int[locksPerTransaction];
+            this.start = start;
+        }
+
+        void halt()
+        {
+            halted = true;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                start.await();
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            while ( !halted )
+            {
+                for ( int i = 0; i < lockedIndexes.length; i++ )
+                {
+                    lockedIndexes[i] = random.nextInt( resources.length );
+                }
+                Arrays.sort( lockedIndexes );
+                int locked = 0;
+                try
+                {
+                    for ( ; locked < lockedIndexes.length; locked++ )
+                    {
+                        lockManager.getWriteLock( resources[lockedIndexes[locked]], tx );
+                    }
+                    transactions.incrementAndGet();
+                }
+                catch ( DeadlockDetectedException e )
+                {
+                    // Can't happen since we lock in order, but if it did we just release and try again
+                }
+                finally
+                {
+                    for ( int i = 0; i < locked; i++ )
+                    {
+                        lockManager.releaseWriteLock( resources[lockedIndexes[i]], tx );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The lock manager only uses transactions for identity, so none of this is ever called.
+     */
+    private static class LockingTransaction implements Transaction
+    {
+        @Override
+        public void commit()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean delistResource( XAResource xaRes, int flag )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean enlistResource( XAResource xaRes )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getStatus()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void registerSynchronization( Synchronization synch )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rollback()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setRollbackOnly()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.perftest.enterprise.txstate;
+
+import static org.neo4j.perftest.enterprise.util.Configuration.SYSTEM_PROPERTIES;
+import static org.neo4j.perftest.enterprise.util.Configuration.settingsOf;
+import static org.neo4j.perftest.enterprise.util.Setting.integerSetting;
+import static org.neo4j.perftest.enterprise.util.Setting.stringSetting;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.kernel.impl.api.LongDiffSets;
+import org.neo4j.kernel.impl.util.FileUtils;
+import org.neo4j.perftest.enterprise.util.Configuration;
+import org.neo4j.perftest.enterprise.util.Parameters;
+import org.neo4j.perftest.enterprise.util.Setting;
+
+/**
+ * Measures the number of bytes allocated per write transaction, as reported by the JVM for the thread running
+ * the transactions. Each transaction creates a number of nodes with labels and a property, connects them with
+ * relationships and then removes a label from, and deletes a relationship of, some of them, which exercises the
+ * transaction state and diff sets. For reference it also measures the allocation of tracking the same number of
+ * ids in boxed and primitive diff sets in isolation.
+ */
+public class TransactionStateAllocation
+{
+    static final Setting<String> store_dir = stringSetting( "store_dir", "target/txstate-allocation" );
+    static final Setting<Long> transactions = integerSetting( "transactions", 10000 );
+    static final Setting<Long> warmup_transactions = integerSetting( "warmup_transactions", 10000 );
+    static final Setting<Long> nodes_per_transaction = integerSetting( "nodes_per_transaction", 10 );
+    static final Setting<Long> labels_per_node = integerSetting( "labels_per_node", 2 );
+
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+
+    /**
+     * Sample execution:
+     * java -cp ... org.neo4j.perftest.enterprise.txstate.TransactionStateAllocation
+     * -transactions 50000
+     * -nodes_per_transaction 100
+     */
+    public static void main( String... args ) throws Exception
+    {
+        run( Parameters.configuration( SYSTEM_PROPERTIES, settingsOf( TransactionStateAllocation.class ) )
+                .convert( args ) );
+    }
+
+    private static void run( Configuration configuration ) throws Exception
+    {
+        int nodesPerTx = configuration.get( nodes_per_transaction ).intValue();
+        Label[] labels = new Label[configuration.get( labels_per_node ).intValue()];
+        for ( int i = 0; i < labels.length; i++ )
+        {
+            labels[i] = DynamicLabel.label( "Label" + i );
+        }
+
+        File storeDir = new File( configuration.get( store_dir ) );
+        FileUtils.deleteRecursively( storeDir );
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase( storeDir.getAbsolutePath() );
+        try
+        {
+            runTransactions( db, configuration.get( warmup_transactions ), nodesPerTx, labels );
+            long transactionCount = configuration.get( transactions );
+            long before = allocatedBytes();
+            runTransactions( db, transactionCount, nodesPerTx, labels );
+            long allocated = allocatedBytes() - before;
+            System.out.println( String.format( "%d transactions of %d nodes: %d bytes/tx, %d bytes/node",
+                    transactionCount, nodesPerTx, allocated / transactionCount,
+                    allocated / (transactionCount * nodesPerTx) ) );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+
+        measureDiffSets( nodesPerTx );
+    }
+
+    private static void runTransactions( GraphDatabaseService db, long count, int nodesPerTx, Label[] labels )
+    {
+        Node[] nodes = new Node[nodesPerTx];
+        for ( long tx = 0; tx < count; tx++ )
+        {
+            Transaction transaction = db.beginTx();
+            try
+            {
+                for ( int i = 0; i < nodesPerTx; i++ )
+                {
+                    nodes[i] = db.createNode( labels );
+                    nodes[i].setProperty( "id", tx * nodesPerTx + i );
+                    if ( i > 0 )
+                    {
+                        nodes[i - 1].createRelationshipTo( nodes[i], KNOWS );
+                    }
+                }
+                for ( int i = 0; i < nodesPerTx; i += 2 )
+                {
+                    nodes[i].removeLabel( labels[0] );
+                }
+                if ( nodesPerTx > 1 )
+                {
+                    nodes[0].getSingleRelationship( KNOWS, Direction.OUTGOING ).delete();
+                }
+                transaction.success();
+            }
+            finally
+            {
+                transaction.finish();
+            }
+        }
+    }
+
+    private static void measureDiffSets( int ids )
+    {
+        int rounds = 100000;
+        Set<Object> keepAlive = new HashSet<>();
+        long before = allocatedBytes();
+        for ( int round = 0; round < rounds; round++ )
+        {
+            DiffSets<Long> diffSets = new DiffSets<>();
+            for ( long id = 0; id < ids; id++ )
+            {
+                diffSets.add( id * 1000 );
+            }
+            keepAlive.add( diffSets );
+            keepAlive.clear();
+        }
+        long boxed = allocatedBytes() - before;
+
+        before = allocatedBytes();
+        for ( int round = 0; round < rounds; round++ )
+        {
+            LongDiffSets diffSets = new LongDiffSets();
+            for ( long id = 0; id < ids; id++ )
+            {
+                diffSets.add( id * 1000 );
+            }
+            keepAlive.add( diffSets );
+            keepAlive.clear();
+        }
+        long primitive = allocatedBytes() - before;
+
+        System.out.println( String.format( "diff sets of %d ids: boxed %d bytes, primitive %d bytes",
+                ids, boxed / rounds, primitive / rounds ) );
+    }
+
+    private static long allocatedBytes()
+    {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes( Thread.currentThread().getId() );
+    }
+}
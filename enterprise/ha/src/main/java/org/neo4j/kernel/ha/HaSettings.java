@@ -104,6 +104,11 @@ public class HaSettings
     public static final Setting<TxPushStrategy> tx_push_strategy = setting( "ha.tx_push_strategy", options(
             TxPushStrategy.class ), "fixed" );
 
+    @Description("Whether or not the master should also push a committed transaction to the slaves not covered " +
+            "by tx_push_factor. Those slaves are pushed to in the background, without holding up the commit, " +
+            "so that they see new transactions without waiting for their next pull.")
+    public static final Setting<Boolean> tx_push_async = setting( "ha.tx_push_async", BOOLEAN, Settings.FALSE );
+
     public static final Setting<Long> gcr_node_cache_size = node_cache_size;
     public static final Setting<Long> gcr_relationship_cache_size = relationship_cache_size;
     public static final Setting<Float> gcr_node_cache_array_fraction = node_cache_array_fraction;
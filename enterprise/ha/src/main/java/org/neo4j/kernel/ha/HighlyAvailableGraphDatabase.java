@@ -70,6 +70,7 @@ import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.kernel.ha.com.master.Slaves;
 import org.neo4j.kernel.ha.id.HaIdGeneratorFactory;
 import org.neo4j.kernel.ha.lock.LockManagerModeSwitcher;
+import org.neo4j.kernel.ha.lock.SlaveLockStatistics;
 import org.neo4j.kernel.ha.management.ClusterDatabaseInfoProvider;
 import org.neo4j.kernel.ha.management.HighlyAvailableKernelData;
 import org.neo4j.kernel.ha.switchover.Switchover;
@@ -111,6 +112,7 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
     private final InstanceAccessGuard accessGuard;
     private HighAvailabilityMemberStateMachine memberStateMachine;
     private UpdatePuller updatePuller;
+    private SlaveLockStatistics slaveLockStatistics;
     private LastUpdateTime lastUpdateTime;
     private HighAvailabilityMemberContext memberContext;
     private ClusterClient clusterClient;
@@ -459,8 +461,10 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
         LockManager lockManager =
                 (LockManager) Proxy.newProxyInstance( LockManager.class.getClassLoader(),
                         new Class[]{LockManager.class}, lockManagerDelegate );
+        slaveLockStatistics = new SlaveLockStatistics();
         new LockManagerModeSwitcher( memberStateMachine, lockManagerDelegate, txManager, txHook,
-                (HaXaDataSourceManager) xaDataSourceManager, master, requestContextFactory, accessGuard, config );
+                (HaXaDataSourceManager) xaDataSourceManager, master, requestContextFactory, accessGuard, config,
+                slaveLockStatistics );
         return lockManager;
     }
 
@@ -629,6 +633,10 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
                     {
                         result = type.cast( updatePuller );
                     }
+                    else if ( SlaveLockStatistics.class.isAssignableFrom( type ) )
+                    {
+                        result = type.cast( slaveLockStatistics );
+                    }
                     else if ( Slaves.class.isAssignableFrom( type ) )
                     {
                         result = type.cast( slaves );
@@ -21,6 +21,7 @@ package org.neo4j.kernel.ha.lock;
 
 import java.net.URI;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.ha.DelegateInvocationHandler;
 import org.neo4j.kernel.ha.HaSettings;
@@ -45,13 +46,14 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<LockManager>
     private final RequestContextFactory requestContextFactory;
     private final InstanceAccessGuard switchBlock;
     private final Config config;
+    private final SlaveLockStatistics slaveLockStatistics;
 
     public LockManagerModeSwitcher( HighAvailabilityMemberStateMachine stateMachine,
                                     DelegateInvocationHandler<LockManager> delegate,
                                     AbstractTransactionManager txManager,
                                     TxHook txHook, HaXaDataSourceManager xaDsm, Master master,
                                     RequestContextFactory requestContextFactory, InstanceAccessGuard switchBlock,
-                                    Config config )
+                                    Config config, SlaveLockStatistics slaveLockStatistics )
     {
         super( stateMachine, delegate );
         this.txManager = txManager;
@@ -61,12 +63,13 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<LockManager>
         this.requestContextFactory = requestContextFactory;
         this.switchBlock = switchBlock;
         this.config = config;
+        this.slaveLockStatistics = slaveLockStatistics;
     }
 
     @Override
     protected LockManager getMasterImpl()
     {
-        return new LockManagerImpl( new RagManager() );
+        return new LockManagerImpl( new RagManager(), config.get( GraphDatabaseSettings.lock_manager_stripes ) );
     }
 
     @Override
@@ -82,6 +85,6 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<LockManager>
         };
 
         return new SlaveLockManager(txManager, txHook, switchBlock, slaveConfig, new RagManager(),
-                requestContextFactory, master, xaDsm );
+                requestContextFactory, master, xaDsm, slaveLockStatistics );
     }
 }
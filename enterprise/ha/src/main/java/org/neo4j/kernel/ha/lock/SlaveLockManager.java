@@ -38,6 +38,7 @@ import org.neo4j.kernel.impl.transaction.IllegalResourceException;
 import org.neo4j.kernel.impl.transaction.LockManager;
 import org.neo4j.kernel.impl.transaction.LockManagerImpl;
 import org.neo4j.kernel.impl.transaction.LockNotFoundException;
+import org.neo4j.kernel.impl.transaction.LockType;
 import org.neo4j.kernel.impl.transaction.RagManager;
 import org.neo4j.kernel.impl.transaction.TxHook;
 import org.neo4j.kernel.info.LockInfo;
@@ -53,6 +54,7 @@ public class SlaveLockManager implements LockManager
     private final LockManagerImpl local;
     private final Master master;
     private final HaXaDataSourceManager xaDsm;
+    private final SlaveLockStatistics statistics;
 
     public static interface Configuration
     {
@@ -62,7 +64,7 @@ public class SlaveLockManager implements LockManager
     public SlaveLockManager( AbstractTransactionManager txManager, TxHook txHook,
                              InstanceAccessGuard switchBlock, Configuration config,
                              RagManager ragManager, RequestContextFactory requestContextFactory, Master master,
-                             HaXaDataSourceManager xaDsm )
+                             HaXaDataSourceManager xaDsm, SlaveLockStatistics statistics )
     {
         this.txManager = txManager;
         this.txHook = txHook;
@@ -72,6 +74,7 @@ public class SlaveLockManager implements LockManager
         this.xaDsm = xaDsm;
         this.local = new LockManagerImpl( ragManager );
         this.master = master;
+        this.statistics = statistics;
     }
 
     @Override
@@ -83,7 +86,8 @@ public class SlaveLockManager implements LockManager
     @Override
     public void getReadLock( Object resource, Transaction tx ) throws DeadlockDetectedException, IllegalResourceException
     {
-        if ( getReadLockOnMaster( resource ) )
+        // The master keeps the locks it has given out for the whole transaction, so there's no need to ask again
+        if ( local.isLockedBy( resource, tx, LockType.READ ) || getReadLockOnMaster( resource ) )
         {
             local.getReadLock( resource, tx );
         }
@@ -122,6 +126,7 @@ public class SlaveLockManager implements LockManager
 
     private boolean receiveLockResponse( Response<LockResult> response )
     {
+        statistics.roundTrip();
         LockResult result = xaDsm.applyTransactions( response );
         switch ( result.getStatus() )
         {
@@ -141,7 +146,7 @@ public class SlaveLockManager implements LockManager
     @Override
     public void getWriteLock( Object resource, Transaction tx ) throws DeadlockDetectedException, IllegalResourceException
     {
-        if ( getWriteLockOnMaster( resource ) )
+        if ( local.isLockedBy( resource, tx, LockType.WRITE ) || getWriteLockOnMaster( resource ) )
         {
             local.getWriteLock( resource, tx );
         }
@@ -243,6 +248,7 @@ public class SlaveLockManager implements LockManager
             }
 
             txHook.initializeTransaction( eventIdentifier );
+            statistics.transactionStarted();
         }
     }
 }
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.lock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the lock requests a slave makes to the master, and the transactions making them, to tell how many
+ * round trips to the master a transaction needs for its locks. Kept across switches between master and slave.
+ */
+public class SlaveLockStatistics
+{
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    void transactionStarted()
+    {
+        transactions.incrementAndGet();
+    }
+
+    void roundTrip()
+    {
+        roundTrips.incrementAndGet();
+    }
+
+    /**
+     * @return the number of transactions that have asked the master for locks.
+     */
+    public long getTransactions()
+    {
+        return transactions.get();
+    }
+
+    /**
+     * @return the number of lock requests made to the master.
+     */
+    public long getRoundTrips()
+    {
+        return roundTrips.get();
+    }
+
+    /**
+     * @return the average number of lock requests made to the master by the transactions that made any.
+     */
+    public double getRoundTripsPerTransaction()
+    {
+        long transactions = getTransactions();
+        return transactions == 0 ? 0 : (double) getRoundTrips() / transactions;
+    }
+}
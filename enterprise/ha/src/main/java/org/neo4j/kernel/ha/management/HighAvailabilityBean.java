@@ -28,6 +28,7 @@ import org.neo4j.jmx.impl.ManagementData;
 import org.neo4j.jmx.impl.Neo4jMBean;
 import org.neo4j.kernel.ha.HighlyAvailableGraphDatabase;
 import org.neo4j.kernel.ha.UpdatePuller;
+import org.neo4j.kernel.ha.lock.SlaveLockStatistics;
 import org.neo4j.management.ClusterMemberInfo;
 import org.neo4j.management.HighAvailability;
 
@@ -124,6 +125,23 @@ public final class HighAvailabilityBean extends ManagementBeanProvider
             return kernelData.getMemberInfo().getLastCommittedTxId();
         }
 
+        @Override
+        public long getLockRequestsToMaster()
+        {
+            return slaveLockStatistics().getRoundTrips();
+        }
+
+        @Override
+        public double getLockRequestsToMasterPerTransaction()
+        {
+            return slaveLockStatistics().getRoundTripsPerTransaction();
+        }
+
+        private SlaveLockStatistics slaveLockStatistics()
+        {
+            return kernelData.graphDatabase().getDependencyResolver().resolveDependency( SlaveLockStatistics.class );
+        }
+
         @Override
         public String update()
         {
@@ -21,11 +21,13 @@ package org.neo4j.kernel.ha.transaction;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -62,6 +64,8 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
     {
         int getTxPushFactor();
 
+        boolean isTxPushAsync();
+
         int getServerId();
 
         SlavePriority getReplicationStrategy();
@@ -77,6 +81,12 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                 return config.get( HaSettings.tx_push_factor );
             }
 
+            @Override
+            public boolean isTxPushAsync()
+            {
+                return config.get( HaSettings.tx_push_async );
+            }
+
             @Override
             public int getServerId()
             {
@@ -111,6 +121,12 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                 return config.get( HaSettings.tx_push_factor );
             }
 
+            @Override
+            public boolean isTxPushAsync()
+            {
+                return config.get( HaSettings.tx_push_async );
+            }
+
             @Override
             public int getServerId()
             {
@@ -126,6 +142,7 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
     }
 
     private int desiredReplicationFactor;
+    private boolean pushAsync;
     private SlavePriority replicationStrategy;
     private ExecutorService slaveCommitters;
     private final StringLogger log;
@@ -149,6 +166,7 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
     {
         this.slaveCommitters = Executors.newCachedThreadPool( new NamedThreadFactory( "slave-committer" ) );
         desiredReplicationFactor = config.getTxPushFactor();
+        pushAsync = config.isTxPushAsync();
         replicationStrategy = config.getReplicationStrategy();
     }
 
@@ -183,10 +201,20 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
             replicationFactor--;
         }
 
-        if ( replicationFactor == 0 )
+        Set<Integer> pushedTo = Collections.synchronizedSet( new HashSet<Integer>() );
+        if ( replicationFactor > 0 )
+        {
+            pushSynchronously( dataSource, txId, externalAuthorServerId, replicationFactor, pushedTo );
+        }
+        if ( pushAsync )
         {
-            return;
+            pushAsynchronously( dataSource, txId, externalAuthorServerId, pushedTo );
         }
+    }
+
+    private void pushSynchronously( XaDataSource dataSource, long txId, Integer externalAuthorServerId,
+                                    int replicationFactor, Set<Integer> pushedTo )
+    {
         Collection<Future<Void>> committers = new HashSet<Future<Void>>();
         try
         {
@@ -200,7 +228,7 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
             for ( int i = 0; i < replicationFactor && slaveList.hasNext(); i++ )
             {
                 committers.add( slaveCommitters.submit( slaveCommitter( dataSource, slaveList.next(),
-                        txId, notifier ) ) );
+                        txId, notifier, pushedTo ) ) );
             }
 
             // Wait for them and perhaps spawn new ones for failing committers until we're done
@@ -227,7 +255,7 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                     // This committer failed, spawn another one
                     {
                         toAdd.add( slaveCommitters.submit( slaveCommitter( dataSource, slaveList.next(),
-                                txId, notifier ) ) );
+                                txId, notifier, pushedTo ) ) );
                     }
                     toRemove.add( committer );
                 }
@@ -273,6 +301,32 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
         }
     }
 
+    /**
+     * Queues a pull of {@code txId} at every slave that isn't the author of the transaction and that
+     * hasn't already been pushed to, without waiting for any of them. A slave pulls everything it's
+     * missing each time, so no new pull is queued for a slave that already has one waiting in its queue.
+     */
+    private void pushAsynchronously( XaDataSource dataSource, long txId, Integer externalAuthorServerId,
+                                     Set<Integer> pushedTo )
+    {
+        try
+        {
+            Iterator<Slave> slaveList = filter( slaves.getSlaves().iterator(), externalAuthorServerId );
+            while ( slaveList.hasNext() )
+            {
+                Slave slave = slaveList.next();
+                if ( !pushedTo.contains( slave.getServerId() ) )
+                {
+                    queueAsynchronousPull( dataSource, slave, txId );
+                }
+            }
+        }
+        catch ( Throwable t )
+        {
+            log.logMessage( "Unknown error pushing master transaction to slaves", t );
+        }
+    }
+
     private Iterator<Slave> filter( Iterator<Slave> slaves, final Integer externalAuthorServerId )
     {
         return externalAuthorServerId == null ? slaves : new FilteringIterator<Slave>( slaves, new Predicate<Slave>()
@@ -347,7 +401,8 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
     }
 
     private Callable<Void> slaveCommitter( final XaDataSource dataSource,
-                                           final Slave slave, final long txId, final CompletionNotifier notifier )
+                                           final Slave slave, final long txId, final CompletionNotifier notifier,
+                                           final Set<Integer> pushedTo )
     {
         return new Callable<Void>()
         {
@@ -357,6 +412,7 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                 try
                 {
                     commitAtSlave( dataSource, slave, txId );
+                    pushedTo.add( slave.getServerId() );
                     return null;
                 }
                 finally
@@ -368,12 +424,57 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
     }
 
     private Map<Integer, BlockingQueue<PullUpdateFuture>> pullUpdateQueues = new HashMap<Integer, BlockingQueue<PullUpdateFuture>>(  );
+    // Asynchronous pulls still waiting in their slave's queue, guarded by pullUpdateQueues
+    private Map<Integer, PullUpdateFuture> pendingAsynchronousPulls = new HashMap<Integer, PullUpdateFuture>();
     private List<ExecutorService> pullUpdateWorkers = new ArrayList<ExecutorService>(  );
 
     private void commitAtSlave( final XaDataSource dataSource, Slave slave, final long txId )
     {
         PullUpdateFuture pullRequest = new PullUpdateFuture(slave, txId);
+        if ( !queuePull( dataSource, slave, pullRequest ) )
+        {
+            throw new ComException( "Too many pending pulls for " + slave + ", couldn't push transaction " + txId );
+        }
+
+        // Wait for pull request to finish
+        try
+        {
+            pullRequest.get();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            if (e.getCause() instanceof RuntimeException)
+                throw ((RuntimeException)e.getCause());
+            else
+                throw new RuntimeException( e.getCause() );
+        }
+    }
+
+    private void queueAsynchronousPull( XaDataSource dataSource, Slave slave, long txId )
+    {
+        synchronized ( pullUpdateQueues )
+        {
+            if ( pendingAsynchronousPulls.containsKey( slave.getServerId() ) )
+            {
+                return;
+            }
+            PullUpdateFuture pullRequest = new PullUpdateFuture( slave, txId );
+            if ( queuePull( dataSource, slave, pullRequest ) )
+            {
+                pendingAsynchronousPulls.put( slave.getServerId(), pullRequest );
+            }
+        }
+    }
 
+    /**
+     * @return {@code false} if the queue of the slave is full and the pull wasn't queued.
+     */
+    private boolean queuePull( final XaDataSource dataSource, Slave slave, PullUpdateFuture pullRequest )
+    {
         synchronized ( pullUpdateQueues )
         {
             BlockingQueue<PullUpdateFuture> queue = pullUpdateQueues.get( slave.getServerId() );
@@ -406,11 +507,17 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                                 {
                                     currentPulls.add( pullRequest );
                                 }
+                                asynchronousPullsTaken( currentPulls );
 
                                 try
                                 {
                                     PullUpdateFuture pullUpdateFuture = currentPulls.get( 0 );
-                                    Response<Void> response = pullUpdateFuture.getSlave().pullUpdates( dataSource.getName(), pullUpdateFuture.getTxId() );
+                                    long txId = pullUpdateFuture.getTxId();
+                                    for ( PullUpdateFuture currentPull : currentPulls )
+                                    {
+                                        txId = Math.max( txId, currentPull.getTxId() );
+                                    }
+                                    Response<Void> response = pullUpdateFuture.getSlave().pullUpdates( dataSource.getName(), txId );
                                     response.close();
 
                                     // Notify the futures
@@ -437,24 +544,26 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                 } );
             }
 
-            queue.offer( pullRequest );
+            return queue.offer( pullRequest );
         }
+    }
 
-        // Wait for pull request to finish
-        try
-        {
-            pullRequest.get();
-        }
-        catch ( InterruptedException e )
-        {
-            throw new RuntimeException( e );
-        }
-        catch ( ExecutionException e )
+    /**
+     * Called by a pull worker once it has taken pulls off its queue. Transactions committed after this
+     * aren't necessarily covered by those pulls, so asynchronous pushes for them must queue a new one.
+     */
+    private void asynchronousPullsTaken( List<PullUpdateFuture> pulls )
+    {
+        synchronized ( pullUpdateQueues )
         {
-            if (e.getCause() instanceof RuntimeException)
-                throw ((RuntimeException)e.getCause());
-            else
-                throw new RuntimeException( e.getCause() );
+            for ( PullUpdateFuture pull : pulls )
+            {
+                Integer serverId = pull.getSlave().getServerId();
+                if ( pendingAsynchronousPulls.get( serverId ) == pull )
+                {
+                    pendingAsynchronousPulls.remove( serverId );
+                }
+            }
         }
     }
 
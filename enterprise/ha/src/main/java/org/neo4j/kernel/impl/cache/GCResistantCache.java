@@ -48,6 +48,7 @@ public class GCResistantCache<E extends EntityWithSizeObject> implements Cache<E
     private long totalPuts = 0;
     private long collisions = 0;
     private long purgeCount = 0;
+    private long evictions = 0;
 
     private final StringLogger logger;
     
@@ -142,6 +143,7 @@ public class GCResistantCache<E extends EntityWithSizeObject> implements Cache<E
                 if ( oldObj != null )
                 {
                     collisions++;
+                    evictions++;
                 }
                 totalPuts++;
                 if ( size > closeToMaxSize )
@@ -260,14 +262,14 @@ public class GCResistantCache<E extends EntityWithSizeObject> implements Cache<E
                 if ( ( pos - index ) >= 0 )
                 {
                     int minusPos = pos - index;
-                    remove( minusPos );
+                    evict( minusPos );
                     if ( currentSize.get() <= purgeStopSize )
                         return;
                 }
                 if ( ( pos + index ) < cache.length() )
                 {
                     int plusPos = pos + index;
-                    remove( plusPos );
+                    evict( plusPos );
                     if ( currentSize.get() <= purgeStopSize )
                         return;
                 }
@@ -275,7 +277,7 @@ public class GCResistantCache<E extends EntityWithSizeObject> implements Cache<E
             }
             while ( ( pos - index ) >= 0 || ( pos + index ) < cache.length() );
             // current object larger than max size, clear it
-            remove( pos ); 
+            evict( pos );
         }
         finally
         {
@@ -300,6 +302,14 @@ public class GCResistantCache<E extends EntityWithSizeObject> implements Cache<E
         }
     }
 
+    private void evict( int pos )
+    {
+        if ( remove( pos ) != null )
+        {
+            evictions++;
+        }
+    }
+
     private void printAccurateStatistics()
     {
         int elementCount = 0;
@@ -426,6 +436,12 @@ public class GCResistantCache<E extends EntityWithSizeObject> implements Cache<E
         return missCount;
     }
 
+    @Override
+    public long evictionCount()
+    {
+        return evictions;
+    }
+
     @Override
     public void updateSize( E obj, int newSize )
     {
@@ -23,9 +23,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
 
@@ -52,6 +53,7 @@ import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.LogMarker;
 import org.neo4j.test.TargetDirectory;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -179,6 +181,41 @@ public class TestMasterCommittingAtSlave
         assertFailureLogs();
     }
 
+    @Test
+    public void pushAsynchronouslyToSlavesNotPushedToDuringCommit() throws Exception
+    {
+        MasterTxIdGenerator generator = newGenerator( 4, 2, true, givenOrder() );
+        generator.committed( dataSource, 0, 2, 3 );
+        Iterator<Slave> slaveIt = slaves.iterator();
+        assertCalls( (FakeSlave) slaveIt.next(), 2 );
+        awaitCalls( (FakeSlave) slaveIt.next(), 2 );
+        awaitCalls( (FakeSlave) slaveIt.next(), 2 );
+        assertCalls( (FakeSlave) slaveIt.next() );
+        assertNoFailureLogs();
+    }
+
+    @Test
+    public void coalesceAsynchronousPushesWaitingForTheSameSlave() throws Exception
+    {
+        MasterTxIdGenerator generator = newGenerator( 1, 0, true, givenOrder() );
+        FakeSlave slave = (FakeSlave) slaves.iterator().next();
+        slave.block();
+        generator.committed( dataSource, 0, 2, null );
+        awaitCalls( slave, 2 );
+
+        // More pushes than the pull queue of the slave can hold, while it's busy pulling tx 2
+        for ( long txId = 3; txId < 300; txId++ )
+        {
+            generator.committed( dataSource, 0, txId, null );
+        }
+        slave.unblock();
+        awaitCalls( slave, 3 );
+
+        generator.committed( dataSource, 0, 300, null );
+        awaitCalls( slave, 300 );
+        assertNoFailureLogs();
+    }
+
     @Test
     public void testFixedPriorityStrategy()
     {
@@ -216,15 +253,32 @@ public class TestMasterCommittingAtSlave
         assertFalse( slave.moreTxs() );
     }
 
+    private void awaitCalls( FakeSlave slave, long... txs ) throws InterruptedException
+    {
+        long end = System.currentTimeMillis() + SECONDS.toMillis( 10 );
+        while ( slave.calledTxCount() < txs.length && System.currentTimeMillis() < end )
+        {
+            Thread.sleep( 10 );
+        }
+        assertCalls( slave, txs );
+    }
+
     private MasterTxIdGenerator newGenerator( int slaveCount, int replication, SlavePriority slavePriority,
                                               boolean... failingSlaves ) throws Exception
+    {
+        return newGenerator( slaveCount, replication, false, slavePriority, failingSlaves );
+    }
+
+    private MasterTxIdGenerator newGenerator( int slaveCount, int replication, boolean pushAsync,
+                                              SlavePriority slavePriority, boolean... failingSlaves ) throws Exception
     {
         slaves = instantiateSlaves( slaveCount, failingSlaves );
         dataSource = new FakeDataSource();
 
         log = new FakeStringLogger();
         Config config = new Config( MapUtil.stringMap(
-                HaSettings.tx_push_factor.name(), "" + replication ) );
+                HaSettings.tx_push_factor.name(), "" + replication,
+                HaSettings.tx_push_async.name(), "" + pushAsync ) );
         MasterTxIdGenerator result = new MasterTxIdGenerator( MasterTxIdGenerator.from( config, slavePriority ),
                 log, new Slaves()
         {
@@ -307,9 +361,10 @@ public class TestMasterCommittingAtSlave
 
     private static class FakeSlave implements Slave
     {
-        private volatile Queue<Long> calledWithTxId = new LinkedList<Long>();
+        private final Queue<Long> calledWithTxId = new ConcurrentLinkedQueue<Long>();
         private final boolean failing;
         private final int serverId;
+        private volatile CountDownLatch blocker;
 
         FakeSlave( boolean failing, int serverId )
         {
@@ -326,14 +381,42 @@ public class TestMasterCommittingAtSlave
             }
 
             calledWithTxId.add( txId );
+            CountDownLatch blocker = this.blocker;
+            if ( blocker != null )
+            {
+                try
+                {
+                    blocker.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new ComException( e );
+                }
+            }
             return new Response<Void>( null, new StoreId(), TransactionStream.EMPTY, ResourceReleaser.NO_OP );
         }
 
+        void block()
+        {
+            blocker = new CountDownLatch( 1 );
+        }
+
+        void unblock()
+        {
+            blocker.countDown();
+            blocker = null;
+        }
+
         Long popCalledTx()
         {
             return calledWithTxId.poll();
         }
 
+        int calledTxCount()
+        {
+            return calledWithTxId.size();
+        }
+
         boolean moreTxs()
         {
             return !calledWithTxId.isEmpty();